@@ -0,0 +1,88 @@
+package com.mes.production.config;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+
+/**
+ * SQL statement counting per HTTP request and per service method (app.query-count.*).
+ *
+ * The DataSource is wrapped so every statement is counted on its thread, @Service beans get an
+ * interceptor that attributes statements to the method that ran them, and a filter records each
+ * request. See {@link QueryCounter}.
+ *
+ * Off unless app.query-count.enabled is set; the test and demo profiles turn it on.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.query-count", name = "enabled", havingValue = "true")
+public class QueryCountConfig {
+
+    @Bean
+    static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof QueryCountingDataSource)) {
+                    return new QueryCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor serviceQueryCountAdvisor() {
+        return new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(Service.class, true),
+                new ServiceQueryCountInterceptor());
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueryCountFilter> queryCountFilter(
+            @Value("${app.query-count.expose-headers:false}") boolean exposeHeaders,
+            @Value("${app.query-count.warn-threshold:50}") long warnThreshold) {
+        FilterRegistrationBean<QueryCountFilter> registration =
+                new FilterRegistrationBean<>(new QueryCountFilter(exposeHeaders, warnThreshold));
+        // Outermost, so statements of the security filters (user lookup) are counted too
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /**
+     * Attributes the statements run during a service call to that method, while a recording is active.
+     */
+    static final class ServiceQueryCountInterceptor implements MethodInterceptor {
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            if (!QueryCounter.isRecording()) {
+                return invocation.proceed();
+            }
+            long before = QueryCounter.count();
+            try {
+                return invocation.proceed();
+            } finally {
+                Class<?> targetClass = invocation.getThis() != null
+                        ? AopUtils.getTargetClass(invocation.getThis())
+                        : invocation.getMethod().getDeclaringClass();
+                QueryCounter.recordMethod(targetClass.getSimpleName() + "." + invocation.getMethod().getName(),
+                        QueryCounter.count() - before);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.mes.production.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.NonNull;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Counts the SQL statements each HTTP request runs.
+ *
+ * Requests above the warn threshold are logged with the service methods that ran the most
+ * statements. With exposeHeaders the count is also returned as X-Query-Count and Server-Timing
+ * headers, as of the moment the response is committed (statements run while a body is still
+ * streaming are only in the log).
+ */
+@Slf4j
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    private final boolean exposeHeaders;
+    private final long warnThreshold;
+
+    public QueryCountFilter(boolean exposeHeaders, long warnThreshold) {
+        this.exposeHeaders = exposeHeaders;
+        this.warnThreshold = warnThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        long started = System.nanoTime();
+        QueryCounter.Recording recording = QueryCounter.start();
+        HttpServletResponse target = exposeHeaders ? new HeaderWriter(response, recording, started) : response;
+        try {
+            filterChain.doFilter(request, target);
+        } finally {
+            if (target instanceof HeaderWriter writer && !response.isCommitted()) {
+                writer.writeHeaders();
+            }
+            recording.stop();
+            long statements = recording.statements();
+            long millis = (System.nanoTime() - started) / 1_000_000;
+            if (statements > warnThreshold) {
+                log.warn("{} {} ran {} SQL statements in {} ms; by service method: {}",
+                        request.getMethod(), request.getRequestURI(), statements, millis, recording.topMethods(5));
+            } else if (log.isTraceEnabled()) {
+                log.trace("{} {} ran {} SQL statements in {} ms",
+                        request.getMethod(), request.getRequestURI(), statements, millis);
+            }
+        }
+    }
+
+    /**
+     * Adds the query count headers just before the response is committed.
+     */
+    private static final class HeaderWriter extends OnCommittedResponseWrapper {
+        private final QueryCounter.Recording recording;
+        private final long started;
+        private boolean written;
+
+        private HeaderWriter(HttpServletResponse response, QueryCounter.Recording recording, long started) {
+            super(response);
+            this.recording = recording;
+            this.started = started;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            writeHeaders();
+        }
+
+        private void writeHeaders() {
+            if (written) {
+                return;
+            }
+            written = true;
+            long statements = recording.statements();
+            double millis = (System.nanoTime() - started) / 1_000_000.0;
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+            response.setHeader(QUERY_COUNT_HEADER, String.valueOf(statements));
+            response.addHeader(SERVER_TIMING_HEADER,
+                    String.format(Locale.ROOT, "db;desc=\"%d queries\", app;dur=%.1f", statements, millis));
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.mes.production.config;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-thread count of the SQL statements sent to the database.
+ *
+ * Every statement prepared or executed through the application DataSource increments the
+ * counter of the calling thread (see {@link QueryCountingDataSource}), whether it comes from
+ * Hibernate or a JdbcTemplate. A {@link Recording} captures the statements run between its
+ * start and stop, broken down by the service methods that ran them; the request filter and
+ * the query budget tests both record this way.
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<long[]> STATEMENTS = ThreadLocal.withInitial(() -> new long[1]);
+    private static final ThreadLocal<Recording> RECORDING = new ThreadLocal<>();
+
+    private QueryCounter() {
+    }
+
+    /**
+     * Statements run on this thread so far (only differences between two reads are meaningful).
+     */
+    public static long count() {
+        return STATEMENTS.get()[0];
+    }
+
+    static void increment() {
+        STATEMENTS.get()[0]++;
+    }
+
+    /**
+     * Start recording on this thread; recordings nest, the outer one resumes on stop.
+     */
+    public static Recording start() {
+        Recording recording = new Recording(RECORDING.get(), count());
+        RECORDING.set(recording);
+        return recording;
+    }
+
+    static boolean isRecording() {
+        return RECORDING.get() != null;
+    }
+
+    /**
+     * Attribute statements to a service method in the active recordings.
+     */
+    static void recordMethod(String method, long statements) {
+        for (Recording recording = RECORDING.get(); recording != null; recording = recording.outer) {
+            recording.methods.computeIfAbsent(method, m -> new MethodCount()).add(statements);
+        }
+    }
+
+    /**
+     * Calls of a service method and the statements they ran, including nested service calls.
+     */
+    public static final class MethodCount {
+        private long calls;
+        private long statements;
+
+        private void add(long statements) {
+            this.calls++;
+            this.statements += statements;
+        }
+
+        public long calls() {
+            return calls;
+        }
+
+        public long statements() {
+            return statements;
+        }
+
+        @Override
+        public String toString() {
+            return statements + " in " + calls + (calls == 1 ? " call" : " calls");
+        }
+    }
+
+    /**
+     * Statements run on one thread between start and stop.
+     */
+    public static final class Recording implements AutoCloseable {
+        private final Recording outer;
+        private final long startCount;
+        private final Map<String, MethodCount> methods = new LinkedHashMap<>();
+        private long stopCount = -1;
+
+        private Recording(Recording outer, long startCount) {
+            this.outer = outer;
+            this.startCount = startCount;
+        }
+
+        /**
+         * Statements so far, or in total once stopped.
+         */
+        public long statements() {
+            return (stopCount >= 0 ? stopCount : count()) - startCount;
+        }
+
+        public Map<String, MethodCount> methods() {
+            return methods;
+        }
+
+        /**
+         * The service methods that ran the most statements, e.g. "BomService.getBomNode=12 in 1 call".
+         */
+        public List<String> topMethods(int limit) {
+            return methods.entrySet().stream()
+                    .filter(e -> e.getValue().statements() > 0)
+                    .sorted(Map.Entry.<String, MethodCount>comparingByValue(
+                            Comparator.comparingLong(MethodCount::statements)).reversed())
+                    .limit(limit)
+                    .map(e -> e.getKey() + "=" + e.getValue())
+                    .toList();
+        }
+
+        public void stop() {
+            if (stopCount < 0) {
+                stopCount = count();
+                if (RECORDING.get() == this) {
+                    RECORDING.set(outer);
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            stop();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.mes.production.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * DataSource that counts statements into {@link QueryCounter}: one per prepared or callable
+ * statement (a JDBC batch is one), and one per execute on a plain Statement.
+ */
+final class QueryCountingDataSource extends DelegatingDataSource {
+
+    QueryCountingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return counting(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return counting(super.getConnection(username, password));
+    }
+
+    private static Connection counting(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(QueryCountingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    private static Object invoke(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        // Proxies are compared by identity, so resource maps keyed by them keep working
+        if (method.getName().equals("equals") && method.getParameterCount() == 1) {
+            return proxy == args[0];
+        }
+        if (method.getName().equals("hashCode") && method.getParameterCount() == 0) {
+            return System.identityHashCode(proxy);
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private record ConnectionHandler(Connection target) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "prepareStatement", "prepareCall" -> QueryCounter.increment();
+                case "createStatement" -> {
+                    Statement statement = (Statement) QueryCountingDataSource.invoke(proxy, target, method, args);
+                    return Proxy.newProxyInstance(QueryCountingDataSource.class.getClassLoader(),
+                            new Class<?>[]{Statement.class}, new StatementHandler(statement));
+                }
+                default -> {
+                }
+            }
+            return QueryCountingDataSource.invoke(proxy, target, method, args);
+        }
+    }
+
+    private record StatementHandler(Statement target) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().startsWith("execute")) {
+                QueryCounter.increment();
+            }
+            return QueryCountingDataSource.invoke(proxy, target, method, args);
+        }
+    }
+}
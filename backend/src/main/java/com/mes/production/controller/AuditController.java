@@ -1,9 +1,11 @@
 package com.mes.production.controller;
 
 import com.mes.production.dto.AuditDTO.*;
+import com.mes.production.dto.PageRequestDTO;
 import com.mes.production.dto.PagedResponseDTO;
 import com.mes.production.entity.AuditTrail;
 import com.mes.production.service.AuditService;
+import com.mes.production.service.KeysetPaginator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -62,6 +64,7 @@ public class AuditController {
     /**
      * Get paginated audit entries with optional filters
      * GET /api/audit/paged?page=0&size=20&entityType=ORDER&action=CREATE&search=admin
+     * Pass cursor (empty for the first page, then nextCursor) for keyset paging and total=EXACT|ESTIMATE|NONE.
      */
     @GetMapping("/paged")
     public ResponseEntity<PagedResponseDTO<AuditEntryResponse>> getPagedAudit(
@@ -69,10 +72,25 @@ public class AuditController {
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(required = false) String entityType,
             @RequestParam(required = false) String action,
-            @RequestParam(required = false) String search) {
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String total) {
         log.debug("Getting paged audit entries (page: {}, size: {}, entityType: {}, action: {}, search: {})",
                 page, size, entityType, action, search);
 
+        if (cursor != null) {
+            PageRequestDTO pageRequest = PageRequestDTO.builder()
+                    .cursor(cursor)
+                    .size(size)
+                    .total(total)
+                    .search(search)
+                    .build();
+            KeysetPaginator.KeysetPage<AuditTrail> keysetPage =
+                    auditService.getPagedAuditByCursor(pageRequest, entityType, action);
+            return ResponseEntity.ok(PagedResponseDTO.fromKeyset(AuditEntryResponse.fromEntities(keysetPage.content()),
+                    pageRequest, keysetPage.sortBy(), keysetPage.nextCursor(), keysetPage.total(), keysetPage.totalMode()));
+        }
+
         Page<AuditTrail> auditPage = auditService.getPagedAudit(
                 page, size, entityType, action, search);
 
@@ -5,6 +5,8 @@ import com.mes.production.dto.PagedResponseDTO;
 import com.mes.production.dto.PageRequestDTO;
 import com.mes.production.service.BatchNumberService;
 import com.mes.production.service.BatchService;
+import com.mes.production.service.BatchTraceService;
+import com.mes.production.service.GenealogyIndexService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,6 +25,8 @@ public class BatchController {
 
     private final BatchService batchService;
     private final BatchNumberService batchNumberService;
+    private final BatchTraceService batchTraceService;
+    private final GenealogyIndexService genealogyIndexService;
 
     /**
      * Get all batches (legacy - non-paginated)
@@ -60,6 +64,7 @@ public class BatchController {
 
     /**
      * Get batches with pagination, sorting, and filtering.
+     * Pass cursor (empty for the first page, then nextCursor) for keyset paging and total=EXACT|ESTIMATE|NONE.
      */
     @GetMapping("/paged")
     public ResponseEntity<PagedResponseDTO<BatchDTO>> getBatchesPaged(
@@ -68,7 +73,9 @@ public class BatchController {
             @RequestParam(required = false) String sortBy,
             @RequestParam(defaultValue = "DESC") String sortDirection,
             @RequestParam(required = false) String search,
-            @RequestParam(required = false) String status) {
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String total) {
 
         log.info("GET /api/batches/paged - page={}, size={}, status={}, search={}",
                 page, size, status, search);
@@ -80,6 +87,8 @@ public class BatchController {
                 .sortDirection(sortDirection)
                 .search(search)
                 .status(status)
+                .cursor(cursor)
+                .total(total)
                 .build();
 
         PagedResponseDTO<BatchDTO> result = batchService.getBatchesPaged(pageRequest);
@@ -106,6 +115,77 @@ public class BatchController {
         return ResponseEntity.ok(genealogy);
     }
 
+    /**
+     * Full-depth forward trace: every batch made from this one, as a flat node/edge graph.
+     * Used for recall impact (supplier lot to finished goods).
+     */
+    @GetMapping("/{batchId}/trace/forward")
+    public ResponseEntity<BatchDTO.TraceGraph> traceForward(
+            @PathVariable Long batchId,
+            @RequestParam(required = false) Integer maxDepth,
+            @RequestParam(required = false) List<String> relationTypes) {
+        log.info("GET /api/batches/{}/trace/forward - maxDepth={}, relationTypes={}", batchId, maxDepth, relationTypes);
+        return ResponseEntity.ok(batchTraceService.traceForward(batchId, maxDepth, relationTypes));
+    }
+
+    /**
+     * Full-depth backward trace: every batch that went into this one, as a flat node/edge graph.
+     */
+    @GetMapping("/{batchId}/trace/backward")
+    public ResponseEntity<BatchDTO.TraceGraph> traceBackward(
+            @PathVariable Long batchId,
+            @RequestParam(required = false) Integer maxDepth,
+            @RequestParam(required = false) List<String> relationTypes) {
+        log.info("GET /api/batches/{}/trace/backward - maxDepth={}, relationTypes={}", batchId, maxDepth, relationTypes);
+        return ResponseEntity.ok(batchTraceService.traceBackward(batchId, maxDepth, relationTypes));
+    }
+
+    /**
+     * Recall impact: every batch made from any of the given batches, answered from the in-memory index
+     */
+    @PostMapping("/genealogy-index/descendants")
+    public ResponseEntity<BatchDTO.GenealogyIndexResult> findDescendants(
+            @Valid @RequestBody BatchDTO.GenealogyIndexRequest request) {
+        log.info("POST /api/batches/genealogy-index/descendants - {} batches", request.getBatchIds().size());
+        return ResponseEntity.ok(genealogyIndexService.query(GenealogyIndexService.DESCENDANTS, request));
+    }
+
+    /**
+     * Every batch that went into any of the given batches, answered from the in-memory index
+     */
+    @PostMapping("/genealogy-index/ancestors")
+    public ResponseEntity<BatchDTO.GenealogyIndexResult> findAncestors(
+            @Valid @RequestBody BatchDTO.GenealogyIndexRequest request) {
+        log.info("POST /api/batches/genealogy-index/ancestors - {} batches", request.getBatchIds().size());
+        return ResponseEntity.ok(genealogyIndexService.query(GenealogyIndexService.ANCESTORS, request));
+    }
+
+    /**
+     * Batches that are an ancestor of all the given batches (e.g. the shared supplier lot)
+     */
+    @PostMapping("/genealogy-index/common-ancestors")
+    public ResponseEntity<BatchDTO.GenealogyIndexResult> findCommonAncestors(
+            @Valid @RequestBody BatchDTO.GenealogyIndexRequest request) {
+        log.info("POST /api/batches/genealogy-index/common-ancestors - {} batches", request.getBatchIds().size());
+        return ResponseEntity.ok(genealogyIndexService.query(GenealogyIndexService.COMMON_ANCESTORS, request));
+    }
+
+    @GetMapping("/genealogy-index/stats")
+    public ResponseEntity<BatchDTO.GenealogyIndexStats> getGenealogyIndexStats() {
+        log.info("GET /api/batches/genealogy-index/stats");
+        return ResponseEntity.ok(genealogyIndexService.getStats());
+    }
+
+    /**
+     * Reload the genealogy index from batch_relations in the background
+     */
+    @PostMapping("/genealogy-index/rebuild")
+    public ResponseEntity<BatchDTO.GenealogyIndexStats> rebuildGenealogyIndex() {
+        log.info("POST /api/batches/genealogy-index/rebuild");
+        genealogyIndexService.requestRebuild();
+        return ResponseEntity.accepted().body(genealogyIndexService.getStats());
+    }
+
     /**
      * Create a new batch - BLOCKED.
      *
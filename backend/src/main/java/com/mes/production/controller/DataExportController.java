@@ -0,0 +1,59 @@
+package com.mes.production.controller;
+
+import com.mes.production.service.DataExportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+/**
+ * Bulk CSV/NDJSON exports of batches, inventory, inventory movements, production confirmations
+ * and the audit trail, streamed in one pass instead of paging through the list endpoints.
+ */
+@RestController
+@RequestMapping("/api/export")
+@RequiredArgsConstructor
+@Slf4j
+public class DataExportController {
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType APPLICATION_GZIP = MediaType.parseMediaType("application/gzip");
+
+    private final DataExportService dataExportService;
+
+    /**
+     * Export a dataset: batches, inventory, inventory-movements, confirmations or audit.
+     * Dates are inclusive; status filters on state for inventory and on action for audit.
+     */
+    @GetMapping("/{dataset}")
+    public ResponseEntity<StreamingResponseBody> export(
+            @PathVariable String dataset,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        log.info("GET /api/export/{} - format={}, from={}, to={}, status={}, gzip={}", dataset, format, from, to, status, gzip);
+
+        // Validate before streaming starts; once the body is committed errors can no longer change the status code
+        dataExportService.getColumns(dataset);
+        String normalizedFormat = dataExportService.normalizeFormat(format);
+
+        String filename = dataset + "-export." + normalizedFormat + (gzip ? ".gz" : "");
+        MediaType contentType = gzip ? APPLICATION_GZIP
+                : DataExportService.FORMAT_NDJSON.equals(normalizedFormat) ? APPLICATION_NDJSON : TEXT_CSV;
+
+        StreamingResponseBody body = out -> dataExportService.export(dataset, normalizedFormat, from, to, status, gzip, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
+                .contentType(contentType)
+                .body(body);
+    }
+}
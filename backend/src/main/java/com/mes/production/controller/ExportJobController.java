@@ -0,0 +1,76 @@
+package com.mes.production.controller;
+
+import com.mes.production.dto.ExportJobDTO;
+import com.mes.production.service.ExportJobService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Background report generation: submit a report, poll the job, download the file when complete.
+ */
+@RestController
+@RequestMapping("/api/export-jobs")
+@RequiredArgsConstructor
+@Slf4j
+public class ExportJobController {
+
+    private final ExportJobService exportJobService;
+
+    /**
+     * Queue a report (PDF_ORDERS, PDF_INVENTORY, EXCEL_ORDERS, EXCEL_INVENTORY or DATA_EXPORT).
+     * An identical report already in progress is shared rather than generated again.
+     */
+    @PostMapping
+    public ResponseEntity<ExportJobDTO.Job> submit(
+            @Valid @RequestBody ExportJobDTO.Request request,
+            Authentication authentication) {
+        log.info("POST /api/export-jobs - reportType={}, dataset={}", request.getReportType(), request.getDataset());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(exportJobService.submit(request, username(authentication)));
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ExportJobDTO.Job>> getJobs(Authentication authentication) {
+        return ResponseEntity.ok(exportJobService.getJobs(username(authentication)));
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<ExportJobDTO.QueueStats> getQueueStats() {
+        return ResponseEntity.ok(exportJobService.getQueueStats());
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ExportJobDTO.Job> getJob(@PathVariable String jobId, Authentication authentication) {
+        return ResponseEntity.ok(exportJobService.getJob(jobId, username(authentication)));
+    }
+
+    @GetMapping("/{jobId}/download")
+    public ResponseEntity<Resource> download(@PathVariable String jobId, Authentication authentication) {
+        log.info("GET /api/export-jobs/{}/download", jobId);
+        ExportJobService.ExportFile file = exportJobService.getFile(jobId, username(authentication));
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + file.fileName())
+                .contentType(MediaType.parseMediaType(file.contentType()))
+                .body(new FileSystemResource(file.path()));
+    }
+
+    @DeleteMapping("/{jobId}")
+    public ResponseEntity<ExportJobDTO.Job> cancel(@PathVariable String jobId, Authentication authentication) {
+        log.info("DELETE /api/export-jobs/{}", jobId);
+        return ResponseEntity.ok(exportJobService.cancel(jobId, username(authentication)));
+    }
+
+    private String username(Authentication authentication) {
+        return authentication != null ? authentication.getName() : "system";
+    }
+}
@@ -35,6 +35,7 @@ public class InventoryController {
 
     /**
      * Get inventory with pagination, sorting, and filtering.
+     * Pass cursor (empty for the first page, then nextCursor) for keyset paging and total=EXACT|ESTIMATE|NONE.
      */
     @GetMapping("/paged")
     public ResponseEntity<PagedResponseDTO<InventoryDTO>> getInventoryPaged(
@@ -44,7 +45,9 @@ public class InventoryController {
             @RequestParam(defaultValue = "DESC") String sortDirection,
             @RequestParam(required = false) String search,
             @RequestParam(required = false) String status,
-            @RequestParam(required = false) String type) {
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String total) {
 
         log.info("GET /api/inventory/paged - page={}, size={}, state={}, type={}, search={}",
                 page, size, status, type, search);
@@ -57,6 +60,8 @@ public class InventoryController {
                 .search(search)
                 .status(status)
                 .type(type)
+                .cursor(cursor)
+                .total(total)
                 .build();
 
         PagedResponseDTO<InventoryDTO> result = inventoryService.getInventoryPaged(pageRequest);
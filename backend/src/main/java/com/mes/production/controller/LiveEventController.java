@@ -0,0 +1,43 @@
+package com.mes.production.controller;
+
+import com.mes.production.dto.LiveEventDTO;
+import com.mes.production.service.LiveEventService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/live")
+@RequiredArgsConstructor
+@Slf4j
+public class LiveEventController {
+
+    private final LiveEventService liveEventService;
+
+    /**
+     * Server-Sent Events stream of confirmations, operation status changes, holds and batch approvals.
+     * Reconnecting clients resume with the Last-Event-ID header or the since parameter.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            @RequestParam(required = false) List<String> topics,
+            @RequestParam(required = false) String operationType,
+            @RequestParam(required = false) String since,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        log.info("GET /api/live/stream - topics={}, operationType={}", topics, operationType);
+        return liveEventService.subscribe(topics, operationType, lastEventId != null ? lastEventId : since);
+    }
+
+    /**
+     * Open streams and retained history
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<LiveEventDTO.StreamStats> getStats() {
+        return ResponseEntity.ok(liveEventService.getStats());
+    }
+}
@@ -53,6 +53,8 @@ public class OrderController {
      * @param sortDirection Sort direction: ASC or DESC (default: DESC)
      * @param search Search term for order number or customer name
      * @param status Filter by status
+     * @param cursor Keyset cursor: empty for the first page, then the previous page's nextCursor
+     * @param total Total count mode: EXACT, ESTIMATE or NONE (default: EXACT, NONE with a cursor)
      */
     @GetMapping("/paged")
     public ResponseEntity<PagedResponseDTO<OrderDTO>> getOrdersPaged(
@@ -61,7 +63,9 @@ public class OrderController {
             @RequestParam(required = false) String sortBy,
             @RequestParam(defaultValue = "DESC") String sortDirection,
             @RequestParam(required = false) String search,
-            @RequestParam(required = false) String status) {
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String total) {
 
         log.info("GET /api/orders/paged - page={}, size={}, sortBy={}, search={}, status={}",
                 page, size, sortBy, search, status);
@@ -73,6 +77,8 @@ public class OrderController {
                 .sortDirection(sortDirection)
                 .search(search)
                 .status(status)
+                .cursor(cursor)
+                .total(total)
                 .build();
 
         PagedResponseDTO<OrderDTO> result = orderService.getOrdersPaged(pageRequest);
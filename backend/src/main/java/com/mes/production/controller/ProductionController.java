@@ -1,6 +1,7 @@
 package com.mes.production.controller;
 
 import com.mes.production.dto.ProductionConfirmationDTO;
+import com.mes.production.service.BulkProductionService;
 import com.mes.production.service.ProductionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -15,6 +16,7 @@ import org.springframework.web.bind.annotation.*;
 public class ProductionController {
 
     private final ProductionService productionService;
+    private final BulkProductionService bulkProductionService;
 
     /**
      * Confirm production for an operation
@@ -28,6 +30,17 @@ public class ProductionController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Confirm production for many operations in one call.
+     * Each item is confirmed in its own transaction; the response carries a result per item.
+     */
+    @PostMapping("/confirm/bulk")
+    public ResponseEntity<ProductionConfirmationDTO.BulkResponse> confirmProductionBulk(
+            @RequestBody java.util.List<ProductionConfirmationDTO.Request> requests) {
+        log.info("POST /api/production/confirm/bulk with {} items", requests.size());
+        return ResponseEntity.ok(bulkProductionService.confirmAll(requests));
+    }
+
     /**
      * Get operation details for production confirmation
      */
@@ -108,4 +108,24 @@ public class ReportAnalyticsController {
         log.info("GET /api/reports/analytics/executive/dashboard");
         return ResponseEntity.ok(reportAnalyticsService.getExecutiveDashboard());
     }
+
+    /**
+     * Get the state of the hourly production rollup the production reports read from.
+     */
+    @GetMapping("/rollup/status")
+    public ResponseEntity<ReportAnalyticsDTO.RollupStatus> getRollupStatus() {
+        log.info("GET /api/reports/analytics/rollup/status");
+        return ResponseEntity.ok(reportAnalyticsService.getRollupStatus());
+    }
+
+    /**
+     * Recompute the hourly production rollup for a date range in the background.
+     */
+    @PostMapping("/rollup/rebuild")
+    public ResponseEntity<ReportAnalyticsDTO.RollupStatus> rebuildRollup(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        log.info("POST /api/reports/analytics/rollup/rebuild?startDate={}&endDate={}", startDate, endDate);
+        return ResponseEntity.accepted().body(reportAnalyticsService.rebuildRollup(startDate, endDate));
+    }
 }
@@ -4,15 +4,23 @@ import com.mes.production.service.ChartService;
 import com.mes.production.service.ExcelExportService;
 import com.mes.production.service.ImageProcessingService;
 import com.mes.production.service.PdfReportService;
+import com.mes.production.service.ThumbnailBatchService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * REST controller for reports, exports, charts, and image processing.
@@ -28,6 +36,7 @@ public class ReportController {
     private final ExcelExportService excelExportService;
     private final ChartService chartService;
     private final ImageProcessingService imageProcessingService;
+    private final ThumbnailBatchService thumbnailBatchService;
 
     // ─── PDF Reports ───
 
@@ -54,23 +63,26 @@ public class ReportController {
     // ─── Excel Exports ───
 
     @GetMapping("/excel/orders")
-    public ResponseEntity<byte[]> exportOrdersExcel() {
+    public ResponseEntity<StreamingResponseBody> exportOrdersExcel() {
         log.info("GET /api/reports/excel/orders");
-        byte[] excel = excelExportService.exportOrders();
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=orders-export.xlsx")
-                .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                .body(excel);
+        return excelResponse("orders-export.xlsx", excelExportService::writeOrders);
     }
 
     @GetMapping("/excel/inventory")
-    public ResponseEntity<byte[]> exportInventoryExcel() {
+    public ResponseEntity<StreamingResponseBody> exportInventoryExcel() {
         log.info("GET /api/reports/excel/inventory");
-        byte[] excel = excelExportService.exportInventory();
+        return excelResponse("inventory-export.xlsx", excelExportService::writeInventory);
+    }
+
+    /**
+     * Excel is written straight to the response while rows are read, never buffered whole.
+     */
+    private ResponseEntity<StreamingResponseBody> excelResponse(String filename, Consumer<OutputStream> writer) {
+        StreamingResponseBody body = writer::accept;
         return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=inventory-export.xlsx")
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
                 .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                .body(excel);
+                .body(body);
     }
 
     // ─── Charts ───
@@ -78,95 +90,123 @@ public class ReportController {
     @GetMapping("/charts/order-status")
     public ResponseEntity<byte[]> orderStatusChart(
             @RequestParam(defaultValue = "600") int width,
-            @RequestParam(defaultValue = "400") int height) {
-        log.info("GET /api/reports/charts/order-status ({}x{})", width, height);
-        byte[] chart = chartService.generateOrderStatusChart(width, height);
-        return ResponseEntity.ok()
-                .contentType(MediaType.IMAGE_PNG)
-                .body(chart);
+            @RequestParam(defaultValue = "400") int height,
+            @RequestParam(defaultValue = "png") String format,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.info("GET /api/reports/charts/order-status ({}x{} {})", width, height, format);
+        return chartResponse(ChartService.ORDER_STATUS, width, height, format, ifNoneMatch);
     }
 
     @GetMapping("/charts/inventory-type")
     public ResponseEntity<byte[]> inventoryTypeChart(
             @RequestParam(defaultValue = "600") int width,
-            @RequestParam(defaultValue = "400") int height) {
-        log.info("GET /api/reports/charts/inventory-type ({}x{})", width, height);
-        byte[] chart = chartService.generateInventoryTypeChart(width, height);
-        return ResponseEntity.ok()
-                .contentType(MediaType.IMAGE_PNG)
-                .body(chart);
+            @RequestParam(defaultValue = "400") int height,
+            @RequestParam(defaultValue = "png") String format,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.info("GET /api/reports/charts/inventory-type ({}x{} {})", width, height, format);
+        return chartResponse(ChartService.INVENTORY_TYPE, width, height, format, ifNoneMatch);
     }
 
     @GetMapping("/charts/inventory-state")
     public ResponseEntity<byte[]> inventoryStateChart(
             @RequestParam(defaultValue = "600") int width,
-            @RequestParam(defaultValue = "400") int height) {
-        log.info("GET /api/reports/charts/inventory-state ({}x{})", width, height);
-        byte[] chart = chartService.generateInventoryStateChart(width, height);
+            @RequestParam(defaultValue = "400") int height,
+            @RequestParam(defaultValue = "png") String format,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.info("GET /api/reports/charts/inventory-state ({}x{} {})", width, height, format);
+        return chartResponse(ChartService.INVENTORY_STATE, width, height, format, ifNoneMatch);
+    }
+
+    /**
+     * Charts carry an ETag derived from their data; browsers revalidate and get 304 while it is unchanged.
+     */
+    private ResponseEntity<byte[]> chartResponse(String chartType, int width, int height, String format, String ifNoneMatch) {
+        String normalizedFormat = format.toLowerCase();
+        String etag = chartService.getChartETag(chartType, width, height, normalizedFormat);
+        if (ifNoneMatch != null && ifNoneMatch.contains(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .build();
+        }
+        ChartService.RenderedChart chart = chartService.getChart(chartType, width, height, normalizedFormat);
         return ResponseEntity.ok()
-                .contentType(MediaType.IMAGE_PNG)
-                .body(chart);
+                .eTag(chart.etag())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .contentType(MediaType.parseMediaType(chart.contentType()))
+                .body(chart.content());
     }
 
     // ─── Image Processing ───
 
+    // Errors go to GlobalExceptionHandler: invalid or oversized images are a 400 with a message,
+    // saturated image processing (ImageProcessingService.BusyException) a 503 with Retry-After.
+
     @PostMapping("/image/grayscale")
-    public ResponseEntity<byte[]> convertToGrayscale(@RequestParam("file") MultipartFile file) {
-        try {
-            log.info("POST /api/reports/image/grayscale - file: {}", file.getOriginalFilename());
-            byte[] result = imageProcessingService.convertToGrayscale(file.getBytes());
-            return ResponseEntity.ok()
-                    .contentType(MediaType.IMAGE_PNG)
-                    .body(result);
-        } catch (Exception e) {
-            log.error("Error processing image", e);
-            return ResponseEntity.badRequest().build();
-        }
+    public ResponseEntity<byte[]> convertToGrayscale(@RequestParam("file") MultipartFile file) throws IOException {
+        log.info("POST /api/reports/image/grayscale - file: {}", file.getOriginalFilename());
+        byte[] result = imageProcessingService.convertToGrayscale(file.getInputStream());
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_PNG)
+                .body(result);
     }
 
     @PostMapping("/image/resize")
     public ResponseEntity<byte[]> resizeImage(
             @RequestParam("file") MultipartFile file,
             @RequestParam int width,
-            @RequestParam int height) {
-        try {
-            log.info("POST /api/reports/image/resize - {}x{}", width, height);
-            byte[] result = imageProcessingService.resizeImage(file.getBytes(), width, height);
-            return ResponseEntity.ok()
-                    .contentType(MediaType.IMAGE_PNG)
-                    .body(result);
-        } catch (Exception e) {
-            log.error("Error resizing image", e);
-            return ResponseEntity.badRequest().build();
-        }
+            @RequestParam int height) throws IOException {
+        log.info("POST /api/reports/image/resize - {}x{}", width, height);
+        byte[] result = imageProcessingService.resizeImage(file.getInputStream(), width, height);
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_PNG)
+                .body(result);
     }
 
     @PostMapping("/image/thumbnail")
     public ResponseEntity<byte[]> generateThumbnail(
             @RequestParam("file") MultipartFile file,
+            @RequestParam(defaultValue = "150") int maxDimension) throws IOException {
+        log.info("POST /api/reports/image/thumbnail - max: {}", maxDimension);
+        byte[] result = imageProcessingService.generateThumbnail(file.getInputStream(), maxDimension);
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_PNG)
+                .body(result);
+    }
+
+    /**
+     * Thumbnails for many images in one request, as a ZIP streamed while they are generated;
+     * metadata.json (dimensions, per-image errors) is the last entry.
+     */
+    @PostMapping("/image/thumbnails")
+    public ResponseEntity<StreamingResponseBody> generateThumbnails(
+            @RequestParam("files") List<MultipartFile> files,
             @RequestParam(defaultValue = "150") int maxDimension) {
-        try {
-            log.info("POST /api/reports/image/thumbnail - max: {}", maxDimension);
-            byte[] result = imageProcessingService.generateThumbnail(file.getBytes(), maxDimension);
-            return ResponseEntity.ok()
-                    .contentType(MediaType.IMAGE_PNG)
-                    .body(result);
-        } catch (Exception e) {
-            log.error("Error generating thumbnail", e);
-            return ResponseEntity.badRequest().build();
-        }
+        log.info("POST /api/reports/image/thumbnails - {} files, max: {}", files.size(), maxDimension);
+        List<ThumbnailBatchService.ImageUpload> uploads = files.stream()
+                .map(file -> new ThumbnailBatchService.ImageUpload(file.getOriginalFilename(), file.getSize(), file))
+                .toList();
+        thumbnailBatchService.validate(uploads, maxDimension);
+
+        StreamingResponseBody body = out -> thumbnailBatchService.writeThumbnails(uploads, maxDimension, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=thumbnails.zip")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(body);
     }
 
     @PostMapping("/image/metadata")
     public ResponseEntity<?> getImageMetadata(@RequestParam("file") MultipartFile file) {
         try {
             log.info("POST /api/reports/image/metadata - file: {}", file.getOriginalFilename());
-            ImageProcessingService.ImageMetadata metadata = imageProcessingService.getImageMetadata(file.getBytes());
+            ImageProcessingService.ImageMetadata metadata = imageProcessingService.getImageMetadata(
+                    file.getInputStream(), file.getSize());
             return ResponseEntity.ok(Map.of(
                     "width", metadata.width(),
                     "height", metadata.height(),
                     "colorType", metadata.colorType(),
-                    "sizeBytes", metadata.sizeBytes()
+                    "sizeBytes", metadata.sizeBytes(),
+                    "backend", metadata.backend()
             ));
         } catch (Exception e) {
             log.error("Error reading image metadata", e);
@@ -184,7 +224,7 @@ public class ReportController {
                         "pdf", new String[]{"orders", "inventory"},
                         "excel", new String[]{"orders", "inventory"},
                         "charts", new String[]{"order-status", "inventory-type", "inventory-state"},
-                        "imageProcessing", new String[]{"grayscale", "resize", "thumbnail", "metadata"}
+                        "imageProcessing", new String[]{"grayscale", "resize", "thumbnail", "thumbnails", "metadata"}
                 ),
                 "libraries", Map.of(
                         "pdf", "OpenPDF 2.0.3",
@@ -96,6 +96,97 @@ public class BatchDTO {
         private LocalDateTime productionDate;
     }
 
+    /**
+     * Multi-level genealogy trace as a flat graph.
+     * Direction FORWARD follows children (where did this batch go), BACKWARD follows parents
+     * (what went into this batch).
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TraceGraph {
+        private Long rootBatchId;
+        private String direction;
+        private Integer maxDepth;
+        private List<String> relationTypes;
+        private List<TraceNode> nodes;
+        private List<TraceEdge> edges;
+        private boolean truncated; // Row limit reached before the trace completed
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TraceNode {
+        private Long batchId;
+        private String batchNumber;
+        private String materialId;
+        private String materialName;
+        private BigDecimal quantity;
+        private String unit;
+        private String status;
+        private Integer depth; // Shortest distance from the root batch
+        // Upper bound of root material carried to/from this batch: smallest quantity_consumed
+        // along a path, largest over all paths. Null for the root.
+        private BigDecimal tracedQuantity;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TraceEdge {
+        private Long relationId;
+        private Long parentBatchId;
+        private Long childBatchId;
+        private Long operationId;
+        private String relationType;
+        private BigDecimal quantityConsumed;
+        private Integer depth;
+    }
+
+    /**
+     * Query against the in-memory genealogy index
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class GenealogyIndexRequest {
+        @NotNull(message = "Batch IDs are required")
+        @Size(min = 1, message = "At least one batch ID is required")
+        private List<Long> batchIds;
+        private Integer maxDepth; // Optional, unlimited when not set (ignored for common ancestors)
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class GenealogyIndexResult {
+        private String query; // DESCENDANTS, ANCESTORS, COMMON_ANCESTORS
+        private List<Long> sourceBatchIds;
+        private long[] batchIds;
+        private int count;
+        private long elapsedMicros;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class GenealogyIndexStats {
+        private boolean enabled;
+        private boolean ready;
+        private int batchCount;
+        private int relationCount;
+        private int pendingChanges; // Changes applied on top of the last snapshot
+        private long lastRebuildMillis;
+        private LocalDateTime lastRebuiltAt;
+    }
+
     // Split request - split one batch into multiple
     @Data
     @Builder
@@ -1,6 +1,7 @@
 package com.mes.production.dto;
 
 import com.mes.production.entity.BatchNumberConfig;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
@@ -36,6 +37,10 @@ public class BatchNumberConfigDTO {
     private Boolean includeDate;
     private Integer sequenceLength;
     private String sequenceReset;
+
+    @Min(value = 1, message = "Sequence block size must be at least 1")
+    private Integer sequenceBlockSize;
+
     private Integer priority;
     private String status;
 
@@ -60,6 +65,7 @@ public class BatchNumberConfigDTO {
                 .includeDate(entity.getIncludeDate())
                 .sequenceLength(entity.getSequenceLength())
                 .sequenceReset(entity.getSequenceReset())
+                .sequenceBlockSize(entity.getSequenceBlockSize())
                 .priority(entity.getPriority())
                 .status(entity.getStatus())
                 .createdOn(entity.getCreatedOn())
@@ -83,6 +89,7 @@ public class BatchNumberConfigDTO {
                 .includeDate(this.includeDate)
                 .sequenceLength(this.sequenceLength)
                 .sequenceReset(this.sequenceReset)
+                .sequenceBlockSize(this.sequenceBlockSize)
                 .priority(this.priority)
                 .status(this.status)
                 .build();
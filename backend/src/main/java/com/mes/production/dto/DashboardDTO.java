@@ -12,7 +12,7 @@ import java.util.List;
 public class DashboardDTO {
 
     @Data
-    @Builder
+    @Builder(toBuilder = true)
     @NoArgsConstructor
     @AllArgsConstructor
     public static class Summary {
@@ -27,6 +27,9 @@ public class DashboardDTO {
         private Long batchesPendingApproval;
         private List<RecentActivity> recentActivity;
         private List<AuditActivity> auditActivity;
+        // Shared snapshot: when it was computed and its age when served
+        private LocalDateTime generatedAt;
+        private Long snapshotAgeMs;
     }
 
     @Data
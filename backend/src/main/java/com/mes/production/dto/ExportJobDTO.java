@@ -0,0 +1,61 @@
+package com.mes.production.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public class ExportJobDTO {
+
+    // Report to generate; dataset, format and filters only apply to DATA_EXPORT
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Request {
+        @NotBlank(message = "Report type is required")
+        private String reportType;
+        private String dataset;
+        private String format;
+        private LocalDate fromDate;
+        private LocalDate toDate;
+        private String status;
+        private boolean gzip;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Job {
+        private String jobId;
+        private String reportType;
+        private String dataset;
+        private String status;
+        private String requestedBy;
+        private boolean deduplicated; // Attached to an identical job already queued or running
+        private long bytesWritten;
+        private String fileName;
+        private String errorMessage;
+        private LocalDateTime createdAt;
+        private LocalDateTime startedAt;
+        private LocalDateTime completedAt;
+        private LocalDateTime expiresAt;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class QueueStats {
+        private int queued;
+        private int running;
+        private int retained;
+        private int workers;
+        private int queueCapacity;
+    }
+}
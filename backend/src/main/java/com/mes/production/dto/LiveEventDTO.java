@@ -0,0 +1,53 @@
+package com.mes.production.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class LiveEventDTO {
+
+    // One change pushed on the live stream; its SSE id, "epoch-sequence", is the resync token
+    @Data
+    @Builder(toBuilder = true)
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Event {
+        private long sequence;
+        private String topic;
+        private String type;
+        private String entityType;
+        private Long entityId;
+        private String previousStatus;
+        private String status;
+        private String operationType;
+        private Long operationId;
+        private BigDecimal quantity;
+        private String changedBy;
+        private LocalDateTime timestamp;
+    }
+
+    // Sent first on every connection, and again whenever the client missed events
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Sync {
+        private long sequence;
+        private boolean resyncRequired; // Reload current state, then apply events after sequence
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StreamStats {
+        private int subscribers;
+        private long lastSequence;
+        private int retainedEvents;
+        private long droppedBuffers;
+    }
+}
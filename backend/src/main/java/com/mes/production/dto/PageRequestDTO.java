@@ -18,6 +18,10 @@ import org.springframework.data.domain.Sort;
 @AllArgsConstructor
 public class PageRequestDTO {
 
+    public static final String TOTAL_EXACT = "EXACT";
+    public static final String TOTAL_ESTIMATE = "ESTIMATE";
+    public static final String TOTAL_NONE = "NONE";
+
     /**
      * Page number (0-indexed). Default: 0
      */
@@ -66,6 +70,21 @@ public class PageRequestDTO {
      */
     private String dateTo;
 
+    /**
+     * Opaque keyset cursor from a previous page's nextCursor. Any non-null value (an empty
+     * string for the first page) switches to keyset paging: the page is found by seeking past
+     * the cursor's sort key and id, so deep pages cost the same as the first and rows inserted
+     * meanwhile do not shift or repeat entries. page is ignored in this mode.
+     */
+    private String cursor;
+
+    /**
+     * How totalElements is computed: EXACT (COUNT query), ESTIMATE (planner statistics, exact
+     * count where unavailable) or NONE (skipped, -1). Default: EXACT for offset paging, NONE
+     * for keyset paging.
+     */
+    private String total;
+
     /**
      * Validate and normalize the page request values.
      */
@@ -76,6 +95,20 @@ public class PageRequestDTO {
         if (sortDirection == null || (!sortDirection.equalsIgnoreCase("ASC") && !sortDirection.equalsIgnoreCase("DESC"))) {
             sortDirection = "ASC";
         }
+        if (total == null || total.isBlank()) {
+            total = isKeyset() ? TOTAL_NONE : TOTAL_EXACT;
+        }
+        total = total.toUpperCase();
+        if (!TOTAL_EXACT.equals(total) && !TOTAL_ESTIMATE.equals(total) && !TOTAL_NONE.equals(total)) {
+            total = isKeyset() ? TOTAL_NONE : TOTAL_EXACT;
+        }
+    }
+
+    /**
+     * Whether this request uses keyset (cursor) paging.
+     */
+    public boolean isKeyset() {
+        return cursor != null;
     }
 
     /**
@@ -79,6 +79,16 @@ public class PagedResponseDTO<T> {
      */
     private String filterValue;
 
+    /**
+     * Keyset paging: cursor for the next page, null on the last page
+     */
+    private String nextCursor;
+
+    /**
+     * How totalElements was computed: EXACT, ESTIMATE or NONE (totalElements and totalPages are -1)
+     */
+    private String totalMode;
+
     /**
      * Create a PagedResponse from a Spring Data Page object.
      */
@@ -118,6 +128,31 @@ public class PagedResponseDTO<T> {
         return response;
     }
 
+    /**
+     * Create a keyset-paged response. total is null when it was not computed.
+     */
+    public static <T> PagedResponseDTO<T> fromKeyset(List<T> content, PageRequestDTO request,
+                                                      String sortBy, String nextCursor,
+                                                      Long total, String totalMode) {
+        boolean first = request.getCursor() == null || request.getCursor().isEmpty();
+        return PagedResponseDTO.<T>builder()
+                .content(content)
+                .page(0)
+                .size(request.getSize())
+                .totalElements(total != null ? total : -1)
+                .totalPages(total != null ? (int) Math.ceil((double) total / request.getSize()) : -1)
+                .first(first)
+                .last(nextCursor == null)
+                .hasNext(nextCursor != null)
+                .hasPrevious(!first)
+                .sortBy(sortBy)
+                .sortDirection(request.getSortDirection())
+                .filterValue(request.getSearch())
+                .nextCursor(nextCursor)
+                .totalMode(total != null ? totalMode : PageRequestDTO.TOTAL_NONE)
+                .build();
+    }
+
     /**
      * Create a non-paged response (all items, single page).
      */
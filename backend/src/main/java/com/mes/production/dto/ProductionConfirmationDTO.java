@@ -260,4 +260,29 @@ public class ProductionConfirmationDTO {
         private Long nextOperationId;
         private String nextOperationNewStatus;
     }
+
+    // Bulk confirmation: result for one item of the submitted array
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BulkItemResult {
+        private Integer index;
+        private Long operationId;
+        private Boolean success;
+        private Response confirmation;
+        private String error;
+    }
+
+    // Bulk confirmation response DTO
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BulkResponse {
+        private Integer total;
+        private Integer succeeded;
+        private Integer failed;
+        private List<BulkItemResult> results;
+    }
 }
@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -196,6 +197,22 @@ public class ReportAnalyticsDTO {
         private Long count;
     }
 
+    // ========== Production Rollup ==========
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RollupStatus {
+        private boolean enabled;
+        private boolean ready;
+        private boolean rebuilding;
+        private Long rowCount;
+        private LocalDateTime lastRebuiltAt;
+        private LocalDate lastRebuildFrom;
+        private LocalDate lastRebuildTo;
+    }
+
     // ========== Executive Dashboard ==========
 
     @Data
@@ -0,0 +1,46 @@
+package com.mes.production.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+public class ThumbnailBatchDTO {
+
+    // One uploaded image; entry is the thumbnail's name in the ZIP, null when it failed
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private int index;
+        private String fileName;
+        private String entry;
+        private Integer width;
+        private Integer height;
+        private Integer colorType;
+        private long sizeBytes;
+        private String backend;
+        private long thumbnailBytes;
+        private long millis;
+        private String error;
+    }
+
+    // Written last to the ZIP as metadata.json; items are in upload order
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Summary {
+        private int files;
+        private int succeeded;
+        private int failed;
+        private boolean timedOut;
+        private int maxDimension;
+        private int parallelism;
+        private long elapsedMs;
+        private List<Item> items;
+    }
+}
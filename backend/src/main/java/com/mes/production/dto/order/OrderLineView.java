@@ -0,0 +1,11 @@
+package com.mes.production.dto.order;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Order line columns read by projection for order list and read endpoints.
+ */
+public record OrderLineView(Long orderLineId, Long orderId, String productSku, String productName,
+                            BigDecimal quantity, String unit, LocalDate deliveryDate, String status) {
+}
@@ -0,0 +1,9 @@
+package com.mes.production.dto.order;
+
+/**
+ * Operation columns (with its process name) read by projection for order list and read endpoints.
+ */
+public record OrderOperationView(Long operationId, Long orderLineId, String operationName, String operationCode,
+                                 String operationType, Integer sequenceNumber, String status,
+                                 Long processId, String processName) {
+}
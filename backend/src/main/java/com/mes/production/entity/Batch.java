@@ -36,7 +36,8 @@ public class Batch {
     public static final String CREATED_VIA_RECEIPT = "RECEIPT";
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "batches_seq")
+    @SequenceGenerator(name = "batches_seq", sequenceName = "batches_seq", allocationSize = 50)
     @Column(name = "batch_id")
     private Long batchId;
 
@@ -103,7 +104,7 @@ public class Batch {
     @Column(name = "confirmation_id")
     private Long confirmationId;
 
-    @Column(name = "created_on")
+    @Column(name = "created_on", nullable = false)
     private LocalDateTime createdOn;
 
     @Column(name = "created_by")
@@ -57,6 +57,9 @@ public class BatchNumberConfig {
     @Column(name = "sequence_reset", length = 20)
     private String sequenceReset;
 
+    @Column(name = "sequence_block_size", nullable = false)
+    private Integer sequenceBlockSize;
+
     @Column
     private Integer priority;
 
@@ -90,6 +93,9 @@ public class BatchNumberConfig {
         if (sequenceLength == null) {
             sequenceLength = 3;
         }
+        if (sequenceBlockSize == null) {
+            sequenceBlockSize = 1;
+        }
         if (priority == null) {
             priority = 100;
         }
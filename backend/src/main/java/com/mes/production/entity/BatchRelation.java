@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class BatchRelation {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "batch_relations_seq")
+    @SequenceGenerator(name = "batch_relations_seq", sequenceName = "batch_relations_seq", allocationSize = 50)
     @Column(name = "relation_id")
     private Long relationId;
 
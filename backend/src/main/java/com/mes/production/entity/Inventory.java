@@ -27,7 +27,8 @@ public class Inventory {
     public static final String STATE_ON_HOLD = "ON_HOLD";
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_seq")
+    @SequenceGenerator(name = "inventory_seq", sequenceName = "inventory_seq", allocationSize = 50)
     @Column(name = "inventory_id")
     private Long inventoryId;
 
@@ -101,7 +102,7 @@ public class Inventory {
     @Column(name = "reserved_qty", precision = 15, scale = 4)
     private BigDecimal reservedQty;
 
-    @Column(name = "created_on")
+    @Column(name = "created_on", nullable = false)
     private LocalDateTime createdOn;
 
     @Column(name = "created_by")
@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class InventoryMovement {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_movement_seq")
+    @SequenceGenerator(name = "inventory_movement_seq", sequenceName = "inventory_movement_seq", allocationSize = 50)
     @Column(name = "movement_id")
     private Long movementId;
 
@@ -17,7 +17,8 @@ import java.time.LocalDateTime;
 public class OperationEquipmentUsage {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "operation_equipment_usage_seq")
+    @SequenceGenerator(name = "operation_equipment_usage_seq", sequenceName = "operation_equipment_usage_seq", allocationSize = 50)
     @Column(name = "usage_id")
     private Long usageId;
 
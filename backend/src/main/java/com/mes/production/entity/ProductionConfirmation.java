@@ -30,7 +30,8 @@ public class ProductionConfirmation {
     public static final String STATUS_REVERSED = "REVERSED";
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "production_confirmation_seq")
+    @SequenceGenerator(name = "production_confirmation_seq", sequenceName = "production_confirmation_seq", allocationSize = 50)
     @Column(name = "confirmation_id")
     private Long confirmationId;
 
@@ -4,6 +4,7 @@ import com.mes.production.entity.AuditTrail;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -12,7 +13,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface AuditTrailRepository extends JpaRepository<AuditTrail, Long> {
+public interface AuditTrailRepository extends JpaRepository<AuditTrail, Long>, JpaSpecificationExecutor<AuditTrail> {
 
     /**
      * Find audit entries by entity type and id
@@ -68,19 +69,4 @@ public interface AuditTrailRepository extends JpaRepository<AuditTrail, Long> {
      * Find all audit entries with pagination
      */
     Page<AuditTrail> findAllByOrderByTimestampDesc(Pageable pageable);
-
-    /**
-     * Find audit entries by filters with pagination
-     */
-    @Query("SELECT a FROM AuditTrail a WHERE " +
-           "(:entityType IS NULL OR a.entityType = :entityType) AND " +
-           "(:action IS NULL OR a.action = :action) AND " +
-           "(:search IS NULL OR LOWER(a.changedBy) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "LOWER(a.newValue) LIKE LOWER(CONCAT('%', :search, '%'))) " +
-           "ORDER BY a.timestamp DESC")
-    Page<AuditTrail> findByFilters(
-            @Param("entityType") String entityType,
-            @Param("action") String action,
-            @Param("search") String search,
-            Pageable pageable);
 }
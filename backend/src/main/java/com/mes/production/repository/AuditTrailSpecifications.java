@@ -0,0 +1,41 @@
+package com.mes.production.repository;
+
+import com.mes.production.entity.AuditTrail;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.mes.production.repository.SpecificationSupport.*;
+
+/**
+ * Criteria filters for audit trail list queries; only the active filters become predicates.
+ */
+public final class AuditTrailSpecifications {
+
+    private AuditTrailSpecifications() {
+    }
+
+    /**
+     * Entries for the given entity type and action whose user or new value contains search.
+     */
+    public static Specification<AuditTrail> withFilters(String entityType, String action, String search) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (isSet(entityType)) {
+                predicates.add(cb.equal(root.get("entityType"), entityType));
+            }
+            if (isSet(action)) {
+                predicates.add(cb.equal(root.get("action"), action));
+            }
+            if (isSet(search)) {
+                String pattern = containsPattern(search);
+                predicates.add(cb.or(
+                        containsIgnoreCase(cb, root.get("changedBy"), pattern),
+                        containsIgnoreCase(cb, root.get("newValue"), pattern)));
+            }
+            return and(cb, predicates);
+        };
+    }
+}
@@ -40,13 +40,7 @@ public interface BatchRepository extends JpaRepository<Batch, Long>, JpaSpecific
 
     List<Batch> findByConfirmationId(Long confirmationId);
 
-    // Search with pagination
-    @Query("SELECT b FROM Batch b WHERE " +
-           "(:status IS NULL OR b.status = :status) AND " +
-           "(:materialId IS NULL OR b.materialId = :materialId) AND " +
-           "(:search IS NULL OR LOWER(b.batchNumber) LIKE :search OR LOWER(b.materialName) LIKE :search)")
-    Page<Batch> findByFilters(@Param("status") String status,
-                               @Param("materialId") String materialId,
-                               @Param("search") String search,
-                               Pageable pageable);
+    // Ids for the inventory search; pattern from SpecificationSupport.containsPattern, served by the trigram index
+    @Query("SELECT b.batchId FROM Batch b WHERE lower(b.batchNumber) LIKE :pattern ESCAPE '\\' ORDER BY b.batchId")
+    List<Long> findIdsByBatchNumberLike(@Param("pattern") String pattern, Pageable pageable);
 }
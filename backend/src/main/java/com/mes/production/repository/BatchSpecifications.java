@@ -0,0 +1,38 @@
+package com.mes.production.repository;
+
+import com.mes.production.entity.Batch;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.mes.production.repository.SpecificationSupport.*;
+
+/**
+ * Criteria filters for batch list queries; only the active filters become predicates.
+ */
+public final class BatchSpecifications {
+
+    private BatchSpecifications() {
+    }
+
+    /**
+     * Batches with the given status whose batch number or material name contains search.
+     */
+    public static Specification<Batch> withFilters(String status, String search) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (isSet(status)) {
+                predicates.add(cb.equal(root.get("status"), status));
+            }
+            if (isSet(search)) {
+                String pattern = containsPattern(search);
+                predicates.add(cb.or(
+                        containsIgnoreCase(cb, root.get("batchNumber"), pattern),
+                        containsIgnoreCase(cb, root.get("materialName"), pattern)));
+            }
+            return and(cb, predicates);
+        };
+    }
+}
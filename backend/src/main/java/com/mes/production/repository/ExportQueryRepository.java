@@ -0,0 +1,124 @@
+package com.mes.production.repository;
+
+import com.mes.production.entity.AuditTrail;
+import com.mes.production.entity.Batch;
+import com.mes.production.entity.Inventory;
+import com.mes.production.entity.InventoryMovement;
+import com.mes.production.entity.ProductionConfirmation;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Row streams for the CSV/NDJSON exports: scalar columns only, so nothing accumulates in the
+ * persistence context, read with a JDBC fetch size of 500.
+ *
+ * The filters are built with Criteria so only the ones given end up in the SQL. A catch-all
+ * (:x IS NULL OR col = :x) would leave PostgreSQL one generic plan for every combination.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ExportQueryRepository {
+
+    static final int FETCH_SIZE = 500;
+
+    private final EntityManager entityManager;
+
+    public Stream<Object[]> streamBatches(LocalDateTime from, LocalDateTime to, String status) {
+        return stream(Batch.class, "batchId", "status", "createdOn", from, to, status, b -> List.of(
+                b.get("batchId"), b.get("batchNumber"), b.get("materialId"), b.get("materialName"),
+                b.get("quantity"), b.get("unit"), b.get("status"), b.get("createdVia"),
+                b.get("generatedAtOperationId"), b.get("supplierBatchNumber"), b.get("expiryDate"),
+                b.get("approvedBy"), b.get("approvedOn"), b.get("createdOn"), b.get("createdBy")));
+    }
+
+    /**
+     * Status filters on state
+     */
+    public Stream<Object[]> streamInventory(LocalDateTime from, LocalDateTime to, String status) {
+        return stream(Inventory.class, "inventoryId", "state", "createdOn", from, to, status, i -> {
+            Join<Inventory, Batch> batch = i.join("batch", JoinType.LEFT);
+            return List.of(i.get("inventoryId"), i.get("materialId"), i.get("materialName"),
+                    i.get("inventoryType"), i.get("state"), i.get("quantity"), i.get("unit"), i.get("location"),
+                    batch.get("batchNumber"), i.get("reservedForOrderId"), i.get("createdOn"), i.get("updatedOn"));
+        });
+    }
+
+    /**
+     * Filtered on movement timestamp
+     */
+    public Stream<Object[]> streamInventoryMovements(LocalDateTime from, LocalDateTime to, String status) {
+        return stream(InventoryMovement.class, "movementId", "status", "timestamp", from, to, status, m -> {
+            Join<InventoryMovement, Inventory> inventory = m.join("inventory", JoinType.LEFT);
+            Join<Inventory, Batch> batch = inventory.join("batch", JoinType.LEFT);
+            Join<?, ?> operation = m.join("operation", JoinType.LEFT);
+            return List.of(m.get("movementId"), m.get("movementType"), m.get("status"), m.get("quantity"),
+                    m.get("timestamp"), inventory.get("inventoryId"), inventory.get("materialId"),
+                    batch.get("batchNumber"), operation.get("operationId"), m.get("reason"), m.get("createdBy"));
+        });
+    }
+
+    public Stream<Object[]> streamConfirmations(LocalDateTime from, LocalDateTime to, String status) {
+        return stream(ProductionConfirmation.class, "confirmationId", "status", "createdOn", from, to, status, pc -> {
+            Join<?, ?> operation = pc.join("operation", JoinType.LEFT);
+            return List.of(pc.get("confirmationId"), operation.get("operationId"), operation.get("operationName"),
+                    operation.get("operationType"), pc.get("producedQty"), pc.get("scrapQty"), pc.get("startTime"),
+                    pc.get("endTime"), pc.get("delayMinutes"), pc.get("delayReason"), pc.get("status"),
+                    pc.get("createdOn"), pc.get("createdBy"));
+        });
+    }
+
+    /**
+     * Status filters on action
+     */
+    public Stream<Object[]> streamAudit(LocalDateTime from, LocalDateTime to, String status) {
+        return stream(AuditTrail.class, "auditId", "action", "timestamp", from, to, status, a -> List.of(
+                a.get("auditId"), a.get("entityType"), a.get("entityId"), a.get("fieldName"), a.get("oldValue"),
+                a.get("newValue"), a.get("action"), a.get("changedBy"), a.get("timestamp")));
+    }
+
+    /**
+     * SELECT columns FROM entity WHERE [status = ?] [AND time >= ?] [AND time < ?] ORDER BY id
+     */
+    private <T> Stream<Object[]> stream(Class<T> entityClass, String idAttribute, String statusAttribute,
+                                        String timeAttribute, LocalDateTime from, LocalDateTime to, String status,
+                                        Function<Root<T>, List<Selection<?>>> columns) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<T> root = query.from(entityClass);
+        query.multiselect(columns.apply(root));
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (status != null) {
+            predicates.add(cb.equal(root.get(statusAttribute), status));
+        }
+        Path<LocalDateTime> time = root.get(timeAttribute);
+        if (from != null) {
+            predicates.add(cb.greaterThanOrEqualTo(time, from));
+        }
+        if (to != null) {
+            predicates.add(cb.lessThan(time, to));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+        query.orderBy(cb.asc(root.get(idAttribute)));
+
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .getResultStream();
+    }
+}
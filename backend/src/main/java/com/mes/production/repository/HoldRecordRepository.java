@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,8 +27,23 @@ public interface HoldRecordRepository extends JpaRepository<HoldRecord, Long> {
     @Query("SELECT h FROM HoldRecord h WHERE h.status = 'ACTIVE' ORDER BY h.appliedOn DESC")
     List<HoldRecord> findActiveHoldsOrderByAppliedOnDesc();
 
+    // Report aggregates
+    @Query("SELECT h.entityType, h.status, COUNT(h) FROM HoldRecord h GROUP BY h.entityType, h.status")
+    List<Object[]> countByEntityTypeAndStatus();
+
+    @Query("SELECT h.reason, COUNT(h) FROM HoldRecord h " +
+           "WHERE h.reason IS NOT NULL AND TRIM(h.reason) <> '' " +
+           "GROUP BY h.reason ORDER BY COUNT(h) DESC")
+    List<Object[]> countByReason(Pageable pageable);
+
     boolean existsByEntityTypeAndEntityIdAndStatus(String entityType, Long entityId, String status);
 
+    // Bulk hold check: which of the given entities currently have an ACTIVE hold
+    @Query("SELECT DISTINCT h.entityId FROM HoldRecord h " +
+           "WHERE h.status = 'ACTIVE' AND h.entityType = :entityType AND h.entityId IN :entityIds")
+    List<Long> findActiveHoldEntityIds(@Param("entityType") String entityType,
+                                       @Param("entityIds") Collection<Long> entityIds);
+
     // Paginated version
     Page<HoldRecord> findByStatus(String status, Pageable pageable);
 
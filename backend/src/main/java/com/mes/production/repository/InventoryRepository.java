@@ -3,27 +3,53 @@ package com.mes.production.repository;
 import com.mes.production.entity.Inventory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface InventoryRepository extends JpaRepository<Inventory, Long>, JpaSpecificationExecutor<Inventory> {
 
+    // List reads fetch the batch with each row; InventoryDTO carries its batch number
+    @Override
+    @EntityGraph(attributePaths = "batch")
+    List<Inventory> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "batch")
+    Page<Inventory> findAll(Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = "batch")
+    Page<Inventory> findAll(Specification<Inventory> spec, Pageable pageable);
+
+    @EntityGraph(attributePaths = "batch")
     List<Inventory> findByState(String state);
 
     // Paginated version
     Page<Inventory> findByState(String state, Pageable pageable);
 
+    @EntityGraph(attributePaths = "batch")
     List<Inventory> findByInventoryType(String inventoryType);
 
     // Paginated version
     Page<Inventory> findByInventoryType(String inventoryType, Pageable pageable);
 
+    // Report aggregates: {group, item count, total quantity}
+    @Query("SELECT i.inventoryType, COUNT(i), COALESCE(SUM(i.quantity), 0) FROM Inventory i GROUP BY i.inventoryType")
+    List<Object[]> sumQuantityByType();
+
+    @Query("SELECT i.state, COUNT(i), COALESCE(SUM(i.quantity), 0) FROM Inventory i GROUP BY i.state")
+    List<Object[]> sumQuantityByState();
+
+    @EntityGraph(attributePaths = "batch")
     @Query("SELECT i FROM Inventory i WHERE i.state = 'AVAILABLE' AND i.materialId = :materialId")
     List<Inventory> findAvailableByMaterialId(@Param("materialId") String materialId);
 
@@ -40,18 +66,21 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long>, Jpa
 
     List<Inventory> findByBatch_BatchId(Long batchId);
 
+    // Bulk load for set-based consumption (one round trip regardless of line count)
+    @Query("SELECT i FROM Inventory i " +
+           "LEFT JOIN FETCH i.batch " +
+           "WHERE i.inventoryId IN :inventoryIds")
+    List<Inventory> findAllByIdWithBatch(@Param("inventoryIds") Collection<Long> inventoryIds);
+
+    // Keyset page for streaming exports; batch fetched in the same query so rows can be written detached
+    @Query("SELECT i FROM Inventory i " +
+           "LEFT JOIN FETCH i.batch " +
+           "WHERE i.inventoryId > :afterId " +
+           "ORDER BY i.inventoryId")
+    List<Inventory> findExportPage(@Param("afterId") Long afterId, Pageable pageable);
+
+    @EntityGraph(attributePaths = "batch")
     List<Inventory> findByReservedForOrderId(Long orderId);
 
     List<Inventory> findByReservedForOperationId(Long operationId);
-
-    // Search with pagination
-    @Query("SELECT i FROM Inventory i " +
-           "LEFT JOIN i.batch b " +
-           "WHERE (:state IS NULL OR i.state = :state) AND " +
-           "(:type IS NULL OR i.inventoryType = :type) AND " +
-           "(:search IS NULL OR LOWER(i.materialId) LIKE :search OR LOWER(i.materialName) LIKE :search OR LOWER(b.batchNumber) LIKE :search)")
-    Page<Inventory> findByFilters(@Param("state") String state,
-                                   @Param("type") String type,
-                                   @Param("search") String search,
-                                   Pageable pageable);
 }
@@ -0,0 +1,77 @@
+package com.mes.production.repository;
+
+import com.mes.production.entity.Batch;
+import com.mes.production.entity.Inventory;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.mes.production.repository.SpecificationSupport.*;
+
+/**
+ * Criteria filters for inventory list queries; only the active filters become predicates.
+ */
+public final class InventorySpecifications {
+
+    /** Batch ids listed in the search predicate at most; broader terms use a subquery */
+    static final int MAX_LISTED_BATCH_IDS = 500;
+
+    private InventorySpecifications() {
+    }
+
+    /**
+     * Ids of the batches whose batch number contains search, for {@link #withFilters}: an empty
+     * list when search is not set, null when more than MAX_LISTED_BATCH_IDS batches match.
+     */
+    public static List<Long> batchIdsMatching(BatchRepository batchRepository, String search) {
+        if (!isSet(search)) {
+            return List.of();
+        }
+        List<Long> ids = batchRepository.findIdsByBatchNumberLike(containsPattern(search),
+                PageRequest.of(0, MAX_LISTED_BATCH_IDS + 1));
+        return ids.size() > MAX_LISTED_BATCH_IDS ? null : ids;
+    }
+
+    /**
+     * Inventory in the given state and of the given type whose material id, material name or
+     * batch number contains search. Batch numbers are matched through matchingBatchIds (from
+     * {@link #batchIdsMatching}) so every branch of the OR is a plain predicate on inventory,
+     * which PostgreSQL combines as a BitmapOr over the trigram indexes and idx_inventory_batch.
+     * An IN (subquery) branch would force a sequential scan, so it is only used when too many
+     * batches match to list (null), where the search is broad anyway.
+     */
+    public static Specification<Inventory> withFilters(String state, String type, String search,
+                                                       List<Long> matchingBatchIds) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (isSet(state)) {
+                predicates.add(cb.equal(root.get("state"), state));
+            }
+            if (isSet(type)) {
+                predicates.add(cb.equal(root.get("inventoryType"), type));
+            }
+            if (isSet(search)) {
+                String pattern = containsPattern(search);
+                List<Predicate> matches = new ArrayList<>(List.of(
+                        containsIgnoreCase(cb, root.get("materialId"), pattern),
+                        containsIgnoreCase(cb, root.get("materialName"), pattern)));
+                if (matchingBatchIds == null) {
+                    Subquery<Long> matchingBatches = query.subquery(Long.class);
+                    Root<Batch> batch = matchingBatches.from(Batch.class);
+                    matchingBatches.select(batch.get("batchId"))
+                            .where(containsIgnoreCase(cb, batch.get("batchNumber"), pattern));
+                    matches.add(root.get("batch").get("batchId").in(matchingBatches));
+                } else if (!matchingBatchIds.isEmpty()) {
+                    matches.add(root.get("batch").get("batchId").in(matchingBatchIds));
+                }
+                predicates.add(cb.or(matches.toArray(new Predicate[0])));
+            }
+            return and(cb, predicates);
+        };
+    }
+}
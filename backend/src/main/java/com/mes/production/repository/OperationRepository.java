@@ -1,13 +1,16 @@
 package com.mes.production.repository;
 
+import com.mes.production.dto.order.OrderOperationView;
 import com.mes.production.entity.Operation;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +25,13 @@ import java.util.Optional;
 @Repository
 public interface OperationRepository extends JpaRepository<Operation, Long> {
 
+    /**
+     * Page of operations with process, line item and order fetched (the paged list shows all three)
+     */
+    @Override
+    @EntityGraph(attributePaths = {"process", "orderLineItem", "orderLineItem.order"})
+    Page<Operation> findAll(Pageable pageable);
+
     /**
      * Find operations by status
      */
@@ -37,6 +47,17 @@ public interface OperationRepository extends JpaRepository<Operation, Long> {
            "WHERE op.status = 'READY'")
     List<Operation> findReadyOperationsWithDetails();
 
+    /**
+     * Operations (with process name) of many order lines in one query, for building order DTOs
+     */
+    @Query("SELECT new com.mes.production.dto.order.OrderOperationView(op.operationId, op.orderLineItem.orderLineId, " +
+           "op.operationName, op.operationCode, op.operationType, op.sequenceNumber, op.status, " +
+           "p.processId, p.processName) " +
+           "FROM Operation op LEFT JOIN op.process p " +
+           "WHERE op.orderLineItem.orderLineId IN :orderLineIds " +
+           "ORDER BY op.sequenceNumber, op.operationId")
+    List<OrderOperationView> findOrderViewsByOrderLineIds(@Param("orderLineIds") Collection<Long> orderLineIds);
+
     /**
      * Find operations by process ID ordered by sequence
      */
@@ -95,6 +116,7 @@ public interface OperationRepository extends JpaRepository<Operation, Long> {
      * TASK-P1: Paginated operations with filters
      * Supports filtering by status, operation type, and search term
      */
+    @EntityGraph(attributePaths = {"process", "orderLineItem", "orderLineItem.order"})
     @Query("SELECT op FROM Operation op " +
            "LEFT JOIN op.process p " +
            "LEFT JOIN op.orderLineItem oli " +
@@ -1,9 +1,23 @@
 package com.mes.production.repository;
 
+import com.mes.production.dto.order.OrderLineView;
 import com.mes.production.entity.OrderLineItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface OrderLineItemRepository extends JpaRepository<OrderLineItem, Long> {
+
+    /**
+     * Line items of many orders in one query, for building order DTOs
+     */
+    @Query("SELECT new com.mes.production.dto.order.OrderLineView(li.orderLineId, li.order.orderId, " +
+           "li.productSku, li.productName, li.quantity, li.unit, li.deliveryDate, li.status) " +
+           "FROM OrderLineItem li WHERE li.order.orderId IN :orderIds ORDER BY li.orderLineId")
+    List<OrderLineView> findViewsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
 }
@@ -38,29 +38,22 @@ public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecific
     @Query("SELECT o FROM Order o WHERE o.status IN ('CREATED', 'IN_PROGRESS')")
     Page<Order> findActiveOrders(Pageable pageable);
 
-    // Search with pagination
-    @Query("SELECT o FROM Order o WHERE " +
-           "LOWER(o.orderNumber) LIKE :search OR " +
-           "LOWER(o.customerName) LIKE :search")
-    Page<Order> searchOrders(@Param("search") String search, Pageable pageable);
-
-    // Filter by status with search and pagination
-    @Query("SELECT o FROM Order o WHERE " +
-           "(:status IS NULL OR o.status = :status) AND " +
-           "(:search IS NULL OR LOWER(o.orderNumber) LIKE :search OR LOWER(o.customerName) LIKE :search)")
-    Page<Order> findByFilters(@Param("status") String status,
-                               @Param("search") String search,
-                               Pageable pageable);
-
     @Query("SELECT COUNT(o) FROM Order o WHERE o.status IN :statuses")
     Long countByStatusIn(@Param("statuses") List<String> statuses);
 
     Long countByStatus(String status);
 
+    // Chart aggregate: {status, order count}
+    @Query("SELECT o.status, COUNT(o) FROM Order o GROUP BY o.status")
+    List<Object[]> countGroupedByStatus();
+
     boolean existsByOrderNumber(String orderNumber);
 
     java.util.Optional<Order> findByOrderNumber(String orderNumber);
 
     @Query("SELECT COALESCE(MAX(CAST(SUBSTRING(o.orderNumber, 5) AS integer)), 0) FROM Order o WHERE o.orderNumber LIKE 'ORD-%'")
     Integer findMaxOrderNumberSequence();
+
+    // Keyset page for streaming exports: the next rows after the last id written
+    List<Order> findByOrderIdGreaterThanOrderByOrderIdAsc(Long afterId, Pageable pageable);
 }
@@ -43,6 +43,32 @@ public interface ProductionConfirmationRepository extends JpaRepository<Producti
 
     List<ProductionConfirmation> findByStatus(String status);
 
+    // Report aggregates: one row per group, so memory does not grow with confirmation history.
+    // Cycle minutes are truncated per confirmation, like Duration.toMinutes(). The range is
+    // half-open, createdOn in [startDate, endDate), matching production_hourly_rollup.
+
+    @Query("SELECT op.operationType, COUNT(pc), " +
+           "COALESCE(SUM(pc.producedQty), 0), COALESCE(SUM(pc.scrapQty), 0), " +
+           "SUM(FLOOR(((pc.endTime - pc.startTime) by second) / 60)), " +
+           "MIN(FLOOR(((pc.endTime - pc.startTime) by second) / 60)), " +
+           "MAX(FLOOR(((pc.endTime - pc.startTime) by second) / 60)) " +
+           "FROM ProductionConfirmation pc " +
+           "JOIN pc.operation op " +
+           "WHERE pc.createdOn >= :startDate AND pc.createdOn < :endDate " +
+           "GROUP BY op.operationType")
+    List<Object[]> aggregateByOperationType(@Param("startDate") LocalDateTime startDate,
+                                            @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT oli.productSku, MAX(oli.productName), " +
+           "COALESCE(SUM(pc.scrapQty), 0), COALESCE(SUM(pc.producedQty), 0) " +
+           "FROM ProductionConfirmation pc " +
+           "JOIN pc.operation op " +
+           "LEFT JOIN op.orderLineItem oli " +
+           "WHERE pc.createdOn >= :startDate AND pc.createdOn < :endDate " +
+           "GROUP BY oli.productSku")
+    List<Object[]> aggregateScrapByProduct(@Param("startDate") LocalDateTime startDate,
+                                           @Param("endDate") LocalDateTime endDate);
+
     @Query("SELECT pc FROM ProductionConfirmation pc " +
            "LEFT JOIN FETCH pc.operation op " +
            "WHERE pc.status = :status " +
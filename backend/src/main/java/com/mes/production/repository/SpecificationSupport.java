@@ -0,0 +1,57 @@
+package com.mes.production.repository;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+
+import java.util.List;
+
+/**
+ * Shared pieces of the list filter Specifications.
+ *
+ * Search is emitted as lower(column) LIKE '%term%', which the pg_trgm GIN indexes on
+ * lower(column) (patch 056) serve on PostgreSQL.
+ */
+final class SpecificationSupport {
+
+    static final char LIKE_ESCAPE = '\\';
+
+    private SpecificationSupport() {
+    }
+
+    /**
+     * Whether a filter value is set; blank values mean no filter.
+     */
+    static boolean isSet(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    /**
+     * Contains pattern for a search term, lowercased, with LIKE wildcards in the term escaped.
+     */
+    static String containsPattern(String term) {
+        String lower = term.trim().toLowerCase();
+        StringBuilder pattern = new StringBuilder(lower.length() + 2).append('%');
+        for (char c : lower.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                pattern.append(LIKE_ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+
+    /**
+     * lower(column) LIKE pattern, for a pattern from {@link #containsPattern}.
+     */
+    static Predicate containsIgnoreCase(CriteriaBuilder cb, Expression<String> column, String pattern) {
+        return cb.like(cb.lower(column), pattern, LIKE_ESCAPE);
+    }
+
+    /**
+     * Conjunction of the predicates, or null (no WHERE clause) when there are none.
+     */
+    static Predicate and(CriteriaBuilder cb, List<Predicate> predicates) {
+        return predicates.isEmpty() ? null : cb.and(predicates.toArray(new Predicate[0]));
+    }
+}
@@ -0,0 +1,183 @@
+package com.mes.production.security;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Principals for bearer-token requests, so a valid token does not cost a user lookup on every
+ * request. Entries are keyed by subject and token id, live for a short TTL (never past the
+ * token's expiry) and are dropped when UserService changes the user's status or password.
+ *
+ * In stateless mode (app.jwt.stateless-principal) the principal is built from the signed roles
+ * claim with no lookup at all; status and password changes then only take effect when the
+ * token expires. Tokens issued without the claim still go through the cache.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JwtPrincipalCache {
+
+    private final UserDetailsService userDetailsService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.jwt.principal-cache.ttl-ms:60000}")
+    private long ttlMs = 60000;
+
+    @Value("${app.jwt.principal-cache.max-entries:1000}")
+    private int maxEntries = 1000;
+
+    @Value("${app.jwt.stateless-principal:false}")
+    private boolean stateless;
+
+    private record Key(String subject, String tokenId) {
+    }
+
+    private record Cached(UserDetails principal, long expiresAtMillis) {
+    }
+
+    // Access-ordered with the least recently used entry evicted beyond maxEntries; guarded by itself
+    private final LinkedHashMap<Key, Cached> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Cached> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    // Bumped on every invalidation; a lookup that raced with one is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private Counter hits;
+    private Counter misses;
+    private Counter statelessBuilds;
+
+    @PostConstruct
+    void init() {
+        hits = Counter.builder("mes.auth.principal.cache")
+                .tag("result", "hit")
+                .description("Bearer-token principals served from the cache")
+                .register(meterRegistry);
+        misses = Counter.builder("mes.auth.principal.cache")
+                .tag("result", "miss")
+                .description("Bearer-token principals loaded from the database")
+                .register(meterRegistry);
+        statelessBuilds = Counter.builder("mes.auth.principal.cache")
+                .tag("result", "stateless")
+                .description("Bearer-token principals built from token claims")
+                .register(meterRegistry);
+        Gauge.builder("mes.auth.principal.cache.size", this, JwtPrincipalCache::size)
+                .description("Cached bearer-token principals")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Principal for a token whose signature and expiry have already been verified.
+     */
+    public UserDetails getPrincipal(Claims claims) {
+        if (stateless) {
+            UserDetails principal = fromClaims(claims);
+            if (principal != null) {
+                statelessBuilds.increment();
+                return principal;
+            }
+        }
+
+        Key key = new Key(claims.getSubject(), tokenId(claims));
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Cached cached = entries.get(key);
+            if (cached != null && cached.expiresAtMillis() > now) {
+                hits.increment();
+                return cached.principal();
+            }
+        }
+
+        misses.increment();
+        long generationBefore = generation.get();
+        UserDetails principal = userDetailsService.loadUserByUsername(claims.getSubject());
+        long expiresAt = now + ttlMs;
+        if (claims.getExpiration() != null) {
+            expiresAt = Math.min(expiresAt, claims.getExpiration().getTime());
+        }
+        synchronized (entries) {
+            if (generation.get() == generationBefore) {
+                entries.put(key, new Cached(principal, expiresAt));
+            }
+        }
+        return principal;
+    }
+
+    /**
+     * Drop the cached principals of a user, now and again once the current transaction commits
+     * (so a request reading the old row in between cannot re-cache it).
+     */
+    public void invalidate(String subject) {
+        evict(subject);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(subject);
+                }
+            });
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void evict(String subject) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.keySet().removeIf(key -> key.subject().equals(subject));
+        }
+        log.debug("Evicted cached principals for {}", subject);
+    }
+
+    private String tokenId(Claims claims) {
+        if (claims.getId() != null) {
+            return claims.getId();
+        }
+        // Tokens issued before token ids were added
+        return claims.getIssuedAt() != null ? String.valueOf(claims.getIssuedAt().getTime()) : "";
+    }
+
+    private UserDetails fromClaims(Claims claims) {
+        if (!(claims.get(JwtService.ROLES_CLAIM) instanceof Collection<?> roles)) {
+            return null;
+        }
+        List<GrantedAuthority> authorities = roles.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role.toString()))
+                .toList();
+        return new User(claims.getSubject(), "", authorities);
+    }
+}
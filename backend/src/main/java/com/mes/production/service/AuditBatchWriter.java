@@ -0,0 +1,333 @@
+package com.mes.production.service;
+
+import com.mes.production.entity.AuditTrail;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Buffers audit entries and writes them to audit_trail with JDBC batch inserts.
+ *
+ * Inside a read-write transaction, entries are held per transaction and batch-inserted on its
+ * connection just before it commits, so they become durable together with the business change
+ * and a rolled-back operation leaves no audit rows. Each batch runs under a savepoint: an entry
+ * the database rejects is rolled back on its own and counted as failed, and the business change
+ * still commits (as with the former REQUIRES_NEW writes).
+ *
+ * Entries logged outside a transaction (or inside a read-only one) have no commit to join and go
+ * to an in-memory queue, drained by a background writer on size or time and once more on
+ * shutdown. A batch that cannot be written is kept for the next drain.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AuditBatchWriter {
+
+    static final String INSERT_SQL = "INSERT INTO audit_trail " +
+            "(entity_type, entity_id, field_name, old_value, new_value, action, changed_by, timestamp) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.audit.batch-size:100}")
+    private int batchSize = 100;
+
+    @Value("${app.audit.queue-capacity:10000}")
+    private int queueCapacity = 10000;
+
+    private BlockingDeque<AuditTrail> queue;
+    private volatile List<AuditTrail> retryBatch = List.of(); // replaced under flushLock
+    private ExecutorService flushExecutor;
+    private final AtomicBoolean flushPending = new AtomicBoolean();
+    private final Object flushLock = new Object();
+
+    private Timer flushTimer;
+    private Counter writtenCounter;
+    private Counter discardedCounter;
+    private Counter failedCounter;
+
+    @PostConstruct
+    void init() {
+        queue = new LinkedBlockingDeque<>(queueCapacity);
+        flushExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "audit-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("mes.audit.queue.depth", this, AuditBatchWriter::getQueueDepth)
+                .description("Audit entries waiting for the background writer")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("mes.audit.flush")
+                .description("Time to write one batch of audit entries")
+                .register(meterRegistry);
+        writtenCounter = Counter.builder("mes.audit.entries.written").register(meterRegistry);
+        discardedCounter = Counter.builder("mes.audit.entries.discarded")
+                .description("Audit entries dropped because their transaction rolled back")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("mes.audit.entries.failed").register(meterRegistry);
+    }
+
+    /**
+     * Accept an audit entry for writing
+     */
+    public void submit(AuditTrail entry) {
+        if (entry.getEntityType() == null || entry.getEntityId() == null
+                || entry.getAction() == null || entry.getChangedBy() == null) {
+            log.error("Skipping incomplete audit entry: {} {} #{}",
+                    entry.getAction(), entry.getEntityType(), entry.getEntityId());
+            failedCounter.increment();
+            return;
+        }
+
+        TransactionBuffer buffer = currentTransactionBuffer();
+        if (buffer != null) {
+            buffer.add(entry);
+            return;
+        }
+
+        if (!queue.offer(entry)) {
+            // Queue full: write on the caller's thread rather than drop the entry
+            log.warn("Audit queue full ({} entries), writing synchronously", queue.size());
+            if (!writeQueuedBatch(List.of(entry))) {
+                synchronized (flushLock) {
+                    List<AuditTrail> retry = new ArrayList<>(retryBatch);
+                    retry.add(entry);
+                    retryBatch = retry;
+                }
+            }
+            return;
+        }
+        if (queue.size() >= batchSize) {
+            requestFlush();
+        }
+    }
+
+    /**
+     * Periodic drain of the background queue
+     */
+    @Scheduled(fixedDelayString = "${app.audit.flush-interval-ms:500}")
+    public void flushQueued() {
+        synchronized (flushLock) {
+            flushPending.set(false);
+            if (!retryBatch.isEmpty()) {
+                if (!writeQueuedBatch(retryBatch)) {
+                    return;
+                }
+                retryBatch = List.of();
+            }
+            List<AuditTrail> batch = new ArrayList<>(batchSize);
+            while (queue.drainTo(batch, batchSize) > 0) {
+                if (!writeQueuedBatch(batch)) {
+                    retryBatch = batch;
+                    return;
+                }
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+    }
+
+    /**
+     * Number of entries waiting for the background writer, including a batch kept for retry
+     */
+    public int getQueueDepth() {
+        return queue.size() + retryBatch.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flushExecutor.shutdown();
+        try {
+            flushExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQueued();
+        if (getQueueDepth() > 0) {
+            log.error("{} audit entries could not be written before shutdown", getQueueDepth());
+        }
+    }
+
+    private void requestFlush() {
+        if (flushPending.compareAndSet(false, true)) {
+            try {
+                flushExecutor.execute(this::flushQueued);
+            } catch (RejectedExecutionException e) {
+                // Shutting down: the final drain in shutdown() picks these up
+                flushPending.set(false);
+            }
+        }
+    }
+
+    /**
+     * Write a batch from the background queue. A constraint violation falls back to row-by-row
+     * so one bad entry does not block the rest; any other failure returns false and the caller
+     * keeps the batch for the next attempt.
+     */
+    private boolean writeQueuedBatch(List<AuditTrail> batch) {
+        try {
+            insert(batch);
+            writtenCounter.increment(batch.size());
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            log.error("Audit batch rejected, retrying {} entries individually: {}", batch.size(), e.getMessage());
+            for (AuditTrail entry : batch) {
+                try {
+                    insert(List.of(entry));
+                    writtenCounter.increment();
+                } catch (RuntimeException rowError) {
+                    failedCounter.increment();
+                    log.error("Failed to write audit entry {} {} #{}: {}", entry.getAction(),
+                            entry.getEntityType(), entry.getEntityId(), rowError.getMessage());
+                }
+            }
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Audit batch write failed, will retry {} entries: {}", batch.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Write a committing transaction's entries on its connection in batches, each under a
+     * savepoint. A rejected batch is rolled back to its savepoint and retried row by row; rows
+     * the database still rejects are skipped. Returns the number of entries written.
+     */
+    private int writeInTransaction(List<AuditTrail> entries) {
+        Integer written = jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            int count = 0;
+            for (int from = 0; from < entries.size(); from += batchSize) {
+                List<AuditTrail> batch = entries.subList(from, Math.min(from + batchSize, entries.size()));
+                if (insertUnderSavepoint(connection, batch)) {
+                    count += batch.size();
+                    continue;
+                }
+                for (AuditTrail entry : batch) {
+                    if (insertUnderSavepoint(connection, List.of(entry))) {
+                        count++;
+                    } else {
+                        failedCounter.increment();
+                        log.error("Failed to write audit entry {} {} #{}", entry.getAction(),
+                                entry.getEntityType(), entry.getEntityId());
+                    }
+                }
+            }
+            return count;
+        });
+        return written != null ? written : 0;
+    }
+
+    private boolean insertUnderSavepoint(Connection connection, List<AuditTrail> entries) throws SQLException {
+        Savepoint savepoint = connection.setSavepoint();
+        try {
+            insert(entries);
+            connection.releaseSavepoint(savepoint);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            connection.rollback(savepoint);
+            log.error("Audit insert of {} entries rejected: {}", entries.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    private void insert(List<AuditTrail> entries) {
+        long start = System.nanoTime();
+        jdbcTemplate.batchUpdate(INSERT_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setString(1, entry.getEntityType());
+            ps.setLong(2, entry.getEntityId());
+            ps.setString(3, entry.getFieldName());
+            ps.setString(4, entry.getOldValue());
+            ps.setString(5, entry.getNewValue());
+            ps.setString(6, entry.getAction());
+            ps.setString(7, entry.getChangedBy());
+            ps.setTimestamp(8, Timestamp.valueOf(entry.getTimestamp()));
+        });
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Find (or register) this writer's buffer for the current read-write transaction.
+     * Looked up among the current synchronizations so a REQUIRES_NEW transaction gets its own.
+     */
+    private TransactionBuffer currentTransactionBuffer() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return null;
+        }
+        for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+            if (sync instanceof TransactionBuffer buffer && buffer.owner() == this) {
+                return buffer;
+            }
+        }
+        TransactionBuffer buffer = new TransactionBuffer();
+        TransactionSynchronizationManager.registerSynchronization(buffer);
+        return buffer;
+    }
+
+    /**
+     * Entries logged within one transaction, written on its connection just before it commits
+     */
+    private class TransactionBuffer implements TransactionSynchronization {
+
+        private final List<AuditTrail> entries = new ArrayList<>();
+        private int written;
+
+        AuditBatchWriter owner() {
+            return AuditBatchWriter.this;
+        }
+
+        void add(AuditTrail entry) {
+            entries.add(entry);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (!entries.isEmpty()) {
+                written = writeInTransaction(entries);
+            }
+        }
+
+        @Override
+        public void afterCommit() {
+            writtenCounter.increment(written);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status != STATUS_COMMITTED && !entries.isEmpty()) {
+                discardedCounter.increment(entries.size());
+                log.debug("Discarded {} audit entries from rolled-back transaction", entries.size());
+            }
+            entries.clear();
+        }
+    }
+}
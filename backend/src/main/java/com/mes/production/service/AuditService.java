@@ -1,34 +1,48 @@
 package com.mes.production.service;
 
+import com.mes.production.dto.PageRequestDTO;
 import com.mes.production.entity.AuditTrail;
 import com.mes.production.repository.AuditTrailRepository;
+import com.mes.production.repository.AuditTrailSpecifications;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
-
+import java.util.Set;
+
+/**
+ * Audit trail logging and queries.
+ *
+ * Log methods hand entries to AuditBatchWriter instead of saving each one in its own
+ * transaction: entries logged inside a business transaction are written in JDBC batches on its
+ * connection just before it commits, and vanish with it if it rolls back.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AuditService {
 
+    // The audit trail is always newest first
+    static final KeysetPaginator.Keyset<AuditTrail> KEYSET = new KeysetPaginator.Keyset<>(
+            AuditTrail.class, "audit_trail", "auditId", "timestamp", Set.of("timestamp"));
+
     private final AuditTrailRepository auditTrailRepository;
+    private final AuditBatchWriter auditBatchWriter;
+    private final KeysetPaginator keysetPaginator;
 
     /**
      * Log a create action
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void logCreate(String entityType, Long entityId, String newValue) {
         createAuditEntry(entityType, entityId, null, null, newValue, AuditTrail.ACTION_CREATE);
     }
@@ -36,7 +50,6 @@ public class AuditService {
     /**
      * Log an update action with field details
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void logUpdate(String entityType, Long entityId, String fieldName, String oldValue, String newValue) {
         createAuditEntry(entityType, entityId, fieldName, oldValue, newValue, AuditTrail.ACTION_UPDATE);
     }
@@ -44,7 +57,6 @@ public class AuditService {
     /**
      * Log a status change
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void logStatusChange(String entityType, Long entityId, String oldStatus, String newStatus) {
         createAuditEntry(entityType, entityId, "status", oldStatus, newStatus, AuditTrail.ACTION_STATUS_CHANGE);
     }
@@ -52,7 +64,6 @@ public class AuditService {
     /**
      * Log inventory consumption
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void logConsume(String entityType, Long entityId, String details) {
         createAuditEntry(entityType, entityId, null, null, details, AuditTrail.ACTION_CONSUME);
     }
@@ -60,7 +71,6 @@ public class AuditService {
     /**
      * Log inventory/batch production
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void logProduce(String entityType, Long entityId, String details) {
         createAuditEntry(entityType, entityId, null, null, details, AuditTrail.ACTION_PRODUCE);
     }
@@ -68,7 +78,6 @@ public class AuditService {
     /**
      * Log a hold action
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void logHold(String entityType, Long entityId, String reason) {
         createAuditEntry(entityType, entityId, "status", "ACTIVE", "ON_HOLD", AuditTrail.ACTION_HOLD);
     }
@@ -76,7 +85,6 @@ public class AuditService {
     /**
      * Log a release action
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void logRelease(String entityType, Long entityId, String details) {
         createAuditEntry(entityType, entityId, "status", "ON_HOLD", "ACTIVE", AuditTrail.ACTION_RELEASE);
     }
@@ -84,7 +92,6 @@ public class AuditService {
     /**
      * Log a delete action (soft delete)
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void logDelete(String entityType, Long entityId, String entityName) {
         createAuditEntry(entityType, entityId, "status", "ACTIVE", "DELETED", AuditTrail.ACTION_DELETE);
     }
@@ -99,7 +106,6 @@ public class AuditService {
      * @param configName The config rule used (operation/material/default)
      * @param generationMethod How the batch was created (PRODUCTION/SPLIT/MERGE/RECEIPT/MANUAL)
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void logBatchNumberGenerated(Long batchId, String batchNumber, Long operationId,
                                         String configName, String generationMethod) {
         String details = String.format("batchNumber=%s, operationId=%s, config=%s, method=%s",
@@ -114,7 +120,6 @@ public class AuditService {
     /**
      * Generic audit entry creation
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void createAuditEntry(String entityType, Long entityId, String fieldName,
                                   String oldValue, String newValue, String action) {
         try {
@@ -129,8 +134,8 @@ public class AuditService {
                     .timestamp(LocalDateTime.now())
                     .build();
 
-            auditTrailRepository.save(auditEntry);
-            log.debug("Audit entry created: {} {} on {} #{}", action, fieldName, entityType, entityId);
+            auditBatchWriter.submit(auditEntry);
+            log.debug("Audit entry queued: {} {} on {} #{}", action, fieldName, entityType, entityId);
         } catch (Exception e) {
             log.error("Failed to create audit entry for {} #{}: {}", entityType, entityId, e.getMessage());
         }
@@ -198,7 +203,25 @@ public class AuditService {
         }
 
         // Apply filters
-        return auditTrailRepository.findByFilters(entityType, action, search, pageable);
+        return auditTrailRepository.findAll(AuditTrailSpecifications.withFilters(entityType, action, search),
+                PageRequest.of(page, Math.min(size, 100), Sort.by(Sort.Direction.DESC, "timestamp")));
+    }
+
+    /**
+     * Get audit entries after a keyset cursor (an empty cursor for the first page), newest first.
+     * The request's cursor, size, total mode and search are used; the sort is fixed.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPaginator.KeysetPage<AuditTrail> getPagedAuditByCursor(PageRequestDTO pageRequest,
+                                                                         String entityType, String action) {
+        pageRequest.setSortBy("timestamp");
+        pageRequest.setSortDirection("DESC");
+        pageRequest.normalize();
+        String search = pageRequest.getSearch();
+        boolean filtered = entityType != null || action != null || search != null;
+        return keysetPaginator.fetch(KEYSET,
+                filtered ? AuditTrailSpecifications.withFilters(entityType, action, search) : null,
+                pageRequest);
     }
 
     private String getCurrentUser() {
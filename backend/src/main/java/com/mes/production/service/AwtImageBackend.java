@@ -0,0 +1,37 @@
+package com.mes.production.service;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Java2D image backend; always available.
+ */
+public class AwtImageBackend implements ImageBackend {
+
+    public static final String NAME = "awt";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public BufferedImage resize(BufferedImage source, int width, int height) {
+        int type = source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage resized = new BufferedImage(width, height, type);
+        Graphics2D g = resized.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(source, 0, 0, width, height, null);
+        g.dispose();
+        return resized;
+    }
+
+    @Override
+    public BufferedImage grayscale(BufferedImage source) {
+        BufferedImage grayscale = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = grayscale.createGraphics();
+        g.drawImage(source, 0, 0, null);
+        g.dispose();
+        return grayscale;
+    }
+}
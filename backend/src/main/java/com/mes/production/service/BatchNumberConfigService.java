@@ -28,6 +28,7 @@ public class BatchNumberConfigService {
 
     private final BatchNumberConfigRepository repository;
     private final AuditTrailRepository auditTrailRepository;
+    private final BatchNumberService batchNumberService;
 
     public List<BatchNumberConfigDTO> getAllConfigs() {
         return repository.findAll().stream()
@@ -91,6 +92,7 @@ public class BatchNumberConfigService {
         BatchNumberConfig saved = repository.save(config);
 
         auditAction(saved.getConfigId(), AuditTrail.ACTION_CREATE, null, saved.getConfigName(), currentUser);
+        batchNumberService.invalidateConfigCache();
 
         log.info("Created batch number config: {} by {}", saved.getConfigName(), currentUser);
         return BatchNumberConfigDTO.fromEntity(saved);
@@ -122,6 +124,7 @@ public class BatchNumberConfigService {
         if (dto.getIncludeDate() != null) existing.setIncludeDate(dto.getIncludeDate());
         if (dto.getSequenceLength() != null) existing.setSequenceLength(dto.getSequenceLength());
         if (dto.getSequenceReset() != null) existing.setSequenceReset(dto.getSequenceReset());
+        if (dto.getSequenceBlockSize() != null) existing.setSequenceBlockSize(dto.getSequenceBlockSize());
         if (dto.getPriority() != null) existing.setPriority(dto.getPriority());
         if (dto.getStatus() != null) existing.setStatus(dto.getStatus());
         existing.setUpdatedBy(currentUser);
@@ -131,6 +134,7 @@ public class BatchNumberConfigService {
         String newValues = String.format("name=%s, prefix=%s, seq=%s",
                 saved.getConfigName(), saved.getPrefix(), saved.getSequenceReset());
         auditAction(saved.getConfigId(), AuditTrail.ACTION_UPDATE, oldValues, newValues, currentUser);
+        batchNumberService.invalidateConfigCache();
 
         log.info("Updated batch number config: {} by {}", saved.getConfigName(), currentUser);
         return BatchNumberConfigDTO.fromEntity(saved);
@@ -149,6 +153,7 @@ public class BatchNumberConfigService {
 
         auditAction(config.getConfigId(), AuditTrail.ACTION_DELETE,
                 BatchNumberConfig.STATUS_ACTIVE, BatchNumberConfig.STATUS_INACTIVE, currentUser);
+        batchNumberService.invalidateConfigCache();
 
         log.info("Deleted (deactivated) batch number config: {} by {}", config.getConfigName(), currentUser);
     }
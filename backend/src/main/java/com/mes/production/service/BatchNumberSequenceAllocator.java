@@ -0,0 +1,250 @@
+package com.mes.production.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Segmented sequence allocation for batch numbers whose config allows gaps
+ * (batch_number_config.sequence_block_size > 1).
+ *
+ * Each node reserves a block of values from batch_number_sequence in a short transaction
+ * of its own, then hands them out from an in-memory counter without touching the database.
+ * Blocks are disjoint committed ranges, so numbers stay unique across nodes. Values left in
+ * a block when the node restarts are skipped - that is the gap the config opts into.
+ *
+ * Several keys of one config can be live at once (RM receipts carry the received date, so a
+ * back-dated receipt uses an older DAILY key), so up to MAX_KEYS_PER_CONFIG segments are kept
+ * per config. Beyond that the least recently used one is evicted, and its unused values are
+ * handed back if no other node has reserved from the key since.
+ *
+ * Reservations run on a small connection pool of their own: the caller usually holds a pool
+ * connection in its transaction already, and waiting for a second one from the same pool can
+ * stall once every connection belongs to a caller blocked here.
+ */
+@Component
+@Slf4j
+public class BatchNumberSequenceAllocator {
+
+    private static final int MAX_RESERVE_ATTEMPTS = 3;
+
+    static final int MAX_KEYS_PER_CONFIG = 8;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final HikariDataSource reservationDataSource;
+
+    private final Map<String, Segment> segments = new ConcurrentHashMap<>();
+    private final Map<String, Object> refillLocks = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BatchNumberSequenceAllocator(DataSourceProperties dataSourceProperties,
+                                        @Value("${app.batch-number.reservation-pool-size:2}") int reservationPoolSize) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("batch-sequence");
+        dataSource.setMaximumPoolSize(reservationPoolSize);
+        dataSource.setMinimumIdle(0);
+        this.reservationDataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionManager = new DataSourceTransactionManager(dataSource);
+    }
+
+    /**
+     * Reserve through the given template and transaction manager instead of a pool of its own
+     */
+    BatchNumberSequenceAllocator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionManager = transactionManager;
+        this.reservationDataSource = null;
+    }
+
+    @PreDestroy
+    void close() {
+        if (reservationDataSource != null) {
+            reservationDataSource.close();
+        }
+    }
+
+    /**
+     * A reserved range of sequence values [next, end] owned by this node
+     */
+    static final class Segment {
+        private final Long configId;
+        private final String sequenceKey;
+        private final AtomicLong next;
+        private final long end;
+        private volatile long lastUsed = System.nanoTime();
+
+        Segment(Long configId, String sequenceKey, long start, long end) {
+            this.configId = configId;
+            this.sequenceKey = sequenceKey;
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+
+        /**
+         * Take count consecutive values, or -1 if the segment cannot supply them
+         */
+        long take(int count) {
+            lastUsed = System.nanoTime();
+            long first = next.getAndAdd(count);
+            return first + count - 1 <= end ? first : -1;
+        }
+
+        /**
+         * Stop handing out values; returns the first value never handed out (end + 1 if none)
+         */
+        long close() {
+            return Math.min(next.getAndSet(end + 1), end + 1);
+        }
+
+        long peek() {
+            return next.get();
+        }
+
+        boolean hasRemaining() {
+            return next.get() <= end;
+        }
+    }
+
+    /**
+     * Allocate count consecutive sequence values and return the first one.
+     *
+     * @param configId    Batch number config the sequence belongs to
+     * @param sequenceKey Sequence key, which already encodes the reset period
+     * @param blockSize   Values to reserve from the database per refill
+     * @param count       Values needed by the caller
+     */
+    public long allocate(Long configId, String sequenceKey, int blockSize, int count) {
+        String key = configId + "|" + sequenceKey;
+        while (true) {
+            Segment segment = segments.get(key);
+            if (segment != null) {
+                long first = segment.take(count);
+                if (first > 0) {
+                    return first;
+                }
+            }
+            synchronized (refillLocks.computeIfAbsent(key, k -> new Object())) {
+                // Only the first thread to see the exhausted segment refills it
+                if (segments.get(key) == segment) {
+                    segments.put(key, reserve(configId, sequenceKey, Math.max(blockSize, count)));
+                    evictLeastRecentlyUsed(configId, key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Next value this node would hand out for the key, if it holds a live segment
+     */
+    public OptionalLong peek(Long configId, String sequenceKey) {
+        Segment segment = segments.get(configId + "|" + sequenceKey);
+        return segment != null && segment.hasRemaining() ? OptionalLong.of(segment.peek()) : OptionalLong.empty();
+    }
+
+    /**
+     * Drop all cached segments, e.g. after sequences were reset in the database
+     */
+    public void clear() {
+        segments.clear();
+    }
+
+    /**
+     * Reserve a block in a transaction of the reservation pool, so the row lock is held only for
+     * the update and a rollback of the caller's transaction cannot hand the block out twice.
+     */
+    private Segment reserve(Long configId, String sequenceKey, int size) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Long end = tx.execute(status -> reserveInTransaction(configId, sequenceKey, size));
+                log.debug("Reserved batch sequence block {}..{} for {}", end - size + 1, end, sequenceKey);
+                return new Segment(configId, sequenceKey, end - size + 1, end);
+            } catch (DuplicateKeyException e) {
+                // Another node created the row first; the next attempt updates it
+                if (attempt >= MAX_RESERVE_ATTEMPTS) {
+                    throw new RuntimeException("Could not reserve batch number sequence block for " + sequenceKey, e);
+                }
+            }
+        }
+    }
+
+    private Long reserveInTransaction(Long configId, String sequenceKey, int size) {
+        int updated = jdbcTemplate.update("""
+                UPDATE batch_number_sequence
+                SET current_value = current_value + ?, updated_on = CURRENT_TIMESTAMP
+                WHERE config_id = ? AND sequence_key = ?
+                """, size, configId, sequenceKey);
+        if (updated == 0) {
+            jdbcTemplate.update("""
+                    INSERT INTO batch_number_sequence (config_id, sequence_key, current_value, last_reset_on, updated_on)
+                    VALUES (?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+                    """, configId, sequenceKey, size);
+            return (long) size;
+        }
+        Long end = jdbcTemplate.queryForObject("""
+                SELECT current_value FROM batch_number_sequence
+                WHERE config_id = ? AND sequence_key = ?
+                """, Long.class, configId, sequenceKey);
+        return end;
+    }
+
+    /**
+     * Keep at most MAX_KEYS_PER_CONFIG segments for the config, dropping the least recently used
+     */
+    private void evictLeastRecentlyUsed(Long configId, String currentKey) {
+        List<Map.Entry<String, Segment>> others = segments.entrySet().stream()
+                .filter(e -> e.getValue().configId.equals(configId) && !e.getKey().equals(currentKey))
+                .sorted(Comparator.comparingLong(e -> e.getValue().lastUsed))
+                .toList();
+        for (int i = 0; i < others.size() - (MAX_KEYS_PER_CONFIG - 1); i++) {
+            Map.Entry<String, Segment> evicted = others.get(i);
+            if (segments.remove(evicted.getKey(), evicted.getValue())) {
+                release(evicted.getValue());
+            }
+        }
+    }
+
+    /**
+     * Hand the unused tail of an evicted segment back if the sequence still ends where the
+     * segment does; if another node reserved after it, the tail stays a gap.
+     */
+    private void release(Segment segment) {
+        long firstUnused = segment.close();
+        if (firstUnused > segment.end) {
+            return;
+        }
+        try {
+            Integer returned = new TransactionTemplate(transactionManager).execute(status -> jdbcTemplate.update("""
+                    UPDATE batch_number_sequence
+                    SET current_value = ?, updated_on = CURRENT_TIMESTAMP
+                    WHERE config_id = ? AND sequence_key = ? AND current_value = ?
+                    """, firstUnused - 1, segment.configId, segment.sequenceKey, segment.end));
+            if (returned != null && returned > 0) {
+                log.debug("Returned batch sequence values {}..{} for {}", firstUnused, segment.end, segment.sequenceKey);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not return unused batch sequence values for {}: {}", segment.sequenceKey, e.getMessage());
+        }
+    }
+}
@@ -2,15 +2,23 @@ package com.mes.production.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Service for configurable batch number generation.
@@ -27,13 +35,36 @@ import java.util.Map;
  * - include_date: Whether to include date in batch number
  * - sequence_length: Zero-padded sequence number length
  * - sequence_reset: When to reset sequence (DAILY, MONTHLY, YEARLY, NEVER)
+ * - sequence_block_size: 1 (default) allocates gap-free inside the caller's transaction;
+ *   larger values let each node reserve blocks through BatchNumberSequenceAllocator,
+ *   trading possible gaps for no row lock per number
+ *
+ * Matching configs are compiled once into a FormatPlan and cached per lookup key, so
+ * generation only touches the database for the sequence. The cache is cleared when configs
+ * change through BatchNumberConfigService, and expires after app.batch-number.config-cache-ttl-ms
+ * so changes made on another node are picked up.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class BatchNumberService {
 
+    private static final DateTimeFormatter YEAR_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final DateTimeFormatter BASIC_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter MERGE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSS");
+
     private final JdbcTemplate jdbcTemplate;
+    private final BatchNumberSequenceAllocator sequenceAllocator;
+
+    /** Compiled plan per lookup key (operation type, material, product SKU); empty = fallback pattern */
+    private final Map<String, Optional<FormatPlan>> planByLookupKey = new ConcurrentHashMap<>();
+    /** One compiled plan per config row, shared by every lookup key it matches */
+    private final Map<Long, FormatPlan> planByConfigId = new ConcurrentHashMap<>();
+    private final AtomicLong cacheGeneration = new AtomicLong();
+    private volatile long cacheStartedAt = System.currentTimeMillis();
+
+    @Value("${app.batch-number.config-cache-ttl-ms:60000}")
+    private long configCacheTtlMs = 60000;
 
     /**
      * Configuration record from batch_number_config table
@@ -49,6 +80,7 @@ public class BatchNumberService {
         private boolean includeDate;
         private int sequenceLength;
         private String sequenceReset;
+        private int sequenceBlockSize = 1;
 
         public Long getConfigId() { return configId; }
         public void setConfigId(Long configId) { this.configId = configId; }
@@ -70,6 +102,53 @@ public class BatchNumberService {
         public void setSequenceLength(int sequenceLength) { this.sequenceLength = sequenceLength; }
         public String getSequenceReset() { return sequenceReset; }
         public void setSequenceReset(String sequenceReset) { this.sequenceReset = sequenceReset; }
+        public int getSequenceBlockSize() { return sequenceBlockSize; }
+        public void setSequenceBlockSize(int sequenceBlockSize) { this.sequenceBlockSize = sequenceBlockSize; }
+    }
+
+    /**
+     * Immutable, compiled form of a batch_number_config row. The date formatter and
+     * sequence padding are resolved once rather than for every generated number.
+     */
+    public record FormatPlan(Long configId, String configName, String prefix, boolean includeOperationCode,
+                             int operationCodeLength, String separator, DateTimeFormatter dateFormatter,
+                             int sequenceLength, String sequenceReset, int sequenceBlockSize) {
+
+        static FormatPlan compile(BatchNumberConfig config) {
+            DateTimeFormatter formatter = config.isIncludeDate()
+                    ? DateTimeFormatter.ofPattern(config.getDateFormat() != null ? config.getDateFormat() : "yyyyMMdd")
+                    : null;
+            return new FormatPlan(config.getConfigId(), config.getConfigName(), config.getPrefix(),
+                    config.isIncludeOperationCode(), config.getOperationCodeLength(), config.getSeparator(),
+                    formatter, config.getSequenceLength(), config.getSequenceReset(), config.getSequenceBlockSize());
+        }
+
+        boolean includeDate() {
+            return dateFormatter != null;
+        }
+
+        /**
+         * Leading part of the operation type, upper-cased
+         */
+        String operationCode(String operationType) {
+            int codeLength = Math.min(operationCodeLength, operationType.length());
+            return operationType.substring(0, codeLength).toUpperCase();
+        }
+
+        /**
+         * Zero-pad to the configured width, same output as String.format("%0Nd")
+         */
+        String padSequence(long value) {
+            String digits = Long.toString(value);
+            if (digits.length() >= sequenceLength) {
+                return digits;
+            }
+            StringBuilder padded = new StringBuilder(sequenceLength);
+            for (int i = digits.length(); i < sequenceLength; i++) {
+                padded.append('0');
+            }
+            return padded.append(digits).toString();
+        }
     }
 
     /**
@@ -84,7 +163,7 @@ public class BatchNumberService {
         log.info("Generating batch number for operationType={}, productSku={}", operationType, productSku);
 
         // Find matching configuration
-        BatchNumberConfig config = findMatchingConfig(operationType, productSku);
+        FormatPlan config = findMatchingConfig(operationType, productSku);
         if (config == null) {
             log.warn("No batch number configuration found, using fallback pattern");
             return generateFallbackBatchNumber(operationType);
@@ -93,6 +172,32 @@ public class BatchNumberService {
         return generateFromConfig(config, operationType);
     }
 
+    /**
+     * Generate several batch numbers for one production confirmation, taking all
+     * sequence values in a single allocation.
+     *
+     * @param operationType The operation type (e.g., FURNACE, ROLLING)
+     * @param productSku    The product SKU (optional)
+     * @param count         How many batch numbers are needed
+     * @return Generated batch numbers in sequence order
+     */
+    @Transactional
+    public List<String> generateBatchNumbers(String operationType, String productSku, int count) {
+        log.info("Generating {} batch numbers for operationType={}, productSku={}", count, operationType, productSku);
+
+        FormatPlan config = findMatchingConfig(operationType, productSku);
+        if (config == null) {
+            log.warn("No batch number configuration found, using fallback pattern");
+            List<String> numbers = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                numbers.add(generateFallbackBatchNumber(operationType));
+            }
+            return numbers;
+        }
+
+        return generateFromConfig(config, operationType, count);
+    }
+
     /**
      * Generate a batch number for split operations.
      *
@@ -105,16 +210,47 @@ public class BatchNumberService {
         log.info("Generating split batch number for source={}, splitIndex={}", sourceBatchNumber, splitIndex);
 
         // Find split configuration
-        BatchNumberConfig config = findMatchingConfig("SPLIT", null);
+        FormatPlan config = findMatchingConfig("SPLIT", null);
         if (config != null) {
             String baseNumber = generateFromConfig(config, "SPLIT");
-            return baseNumber + config.getSeparator() + String.format("%02d", splitIndex);
+            return baseNumber + config.separator() + String.format("%02d", splitIndex);
         }
 
         // Fallback: append suffix to source batch
         return sourceBatchNumber + "-S" + String.format("%02d", splitIndex);
     }
 
+    /**
+     * Generate batch numbers for several portions of one split, taking all
+     * sequence values in a single allocation.
+     *
+     * @param sourceBatchNumber The source batch number being split
+     * @param splitIndexes      The split index of each portion that needs a number
+     * @return Generated batch numbers, in the same order as splitIndexes
+     */
+    @Transactional
+    public List<String> generateSplitBatchNumbers(String sourceBatchNumber, List<Integer> splitIndexes) {
+        if (splitIndexes.isEmpty()) {
+            return List.of();
+        }
+        log.info("Generating {} split batch numbers for source={}", splitIndexes.size(), sourceBatchNumber);
+
+        List<String> numbers = new ArrayList<>(splitIndexes.size());
+        FormatPlan config = findMatchingConfig("SPLIT", null);
+        if (config != null) {
+            List<String> baseNumbers = generateFromConfig(config, "SPLIT", splitIndexes.size());
+            for (int i = 0; i < splitIndexes.size(); i++) {
+                numbers.add(baseNumbers.get(i) + config.separator() + String.format("%02d", splitIndexes.get(i)));
+            }
+            return numbers;
+        }
+
+        for (Integer splitIndex : splitIndexes) {
+            numbers.add(sourceBatchNumber + "-S" + String.format("%02d", splitIndex));
+        }
+        return numbers;
+    }
+
     /**
      * Generate a batch number for merge operations.
      *
@@ -125,13 +261,13 @@ public class BatchNumberService {
         log.info("Generating merge batch number");
 
         // Find merge configuration
-        BatchNumberConfig config = findMatchingConfig("MERGE", null);
+        FormatPlan config = findMatchingConfig("MERGE", null);
         if (config != null) {
             return generateFromConfig(config, "MERGE");
         }
 
         // Fallback - use milliseconds for uniqueness
-        return "MRG-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSS"));
+        return "MRG-" + LocalDateTime.now().format(MERGE_TIMESTAMP);
     }
 
     /**
@@ -151,7 +287,7 @@ public class BatchNumberService {
 
         // Check for RM-specific configuration with material-level matching
         // Per MES spec Section 6: precedence is operation > material > default
-        BatchNumberConfig config = findMatchingConfig("RM_RECEIPT", materialId, null);
+        FormatPlan config = findMatchingConfig("RM_RECEIPT", materialId, null);
         if (config != null) {
             return generateRmFromConfig(config, materialId, receivedDate, supplierBatchNumber);
         }
@@ -163,21 +299,21 @@ public class BatchNumberService {
     /**
      * Generate RM batch number from configuration.
      */
-    private String generateRmFromConfig(BatchNumberConfig config, String materialId,
+    private String generateRmFromConfig(FormatPlan config, String materialId,
                                          LocalDate receivedDate, String supplierBatchNumber) {
         StringBuilder batchNumber = new StringBuilder();
-        String separator = config.getSeparator();
+        String separator = config.separator();
 
         // 1. Add prefix (typically "RM")
-        batchNumber.append(config.getPrefix());
+        batchNumber.append(config.prefix());
 
         // 2. Add material code if configured
-        if (config.isIncludeOperationCode() && materialId != null) {
+        if (config.includeOperationCode() && materialId != null) {
             batchNumber.append(separator);
             String matCode = materialId.toUpperCase();
             // Use full material code or truncate based on config
-            if (config.getOperationCodeLength() > 0 && matCode.length() > config.getOperationCodeLength()) {
-                matCode = matCode.substring(0, config.getOperationCodeLength());
+            if (config.operationCodeLength() > 0 && matCode.length() > config.operationCodeLength()) {
+                matCode = matCode.substring(0, config.operationCodeLength());
             }
             batchNumber.append(matCode);
         }
@@ -196,8 +332,8 @@ public class BatchNumberService {
 
         // 4. Add date if configured
         String dateStr = "";
-        if (config.isIncludeDate()) {
-            dateStr = receivedDate.format(DateTimeFormatter.ofPattern(config.getDateFormat()));
+        if (config.includeDate()) {
+            dateStr = config.dateFormatter().format(receivedDate);
             batchNumber.append(separator);
             batchNumber.append(dateStr);
         }
@@ -205,11 +341,10 @@ public class BatchNumberService {
         // 5. Add sequence number
         batchNumber.append(separator);
         int nextSeq = getNextSequence(config, dateStr);
-        String seqFormat = "%0" + config.getSequenceLength() + "d";
-        batchNumber.append(String.format(seqFormat, nextSeq));
+        batchNumber.append(config.padSequence(nextSeq));
 
         String result = batchNumber.toString();
-        log.info("Generated RM batch number: {} using config: {}", result, config.getConfigName());
+        log.info("Generated RM batch number: {} using config: {}", result, config.configName());
         return result;
     }
 
@@ -218,7 +353,7 @@ public class BatchNumberService {
      * Format: RM-{MATERIALCODE}-{YYYYMMDD}-{SEQ}
      */
     private String generateFallbackRmBatchNumber(String materialId, LocalDate receivedDate) {
-        String dateStr = receivedDate.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
+        String dateStr = receivedDate.format(BASIC_DATE);
         String matCode = materialId != null ? materialId.toUpperCase() : "UNKNOWN";
         String prefix = "RM-" + matCode + "-" + dateStr + "-";
 
@@ -247,7 +382,7 @@ public class BatchNumberService {
      * 2. Match on operation_type only (product_sku is NULL)
      * 3. Default configuration (operation_type is NULL)
      */
-    private BatchNumberConfig findMatchingConfig(String operationType, String productSku) {
+    private FormatPlan findMatchingConfig(String operationType, String productSku) {
         return findMatchingConfig(operationType, null, productSku);
     }
 
@@ -263,13 +398,36 @@ public class BatchNumberService {
      * @param operationType The operation type (FURNACE, ROLLING, RM_RECEIPT, SPLIT, MERGE, etc.)
      * @param materialId    The material ID for material-level configuration (used for RM)
      * @param productSku    The product SKU for product-level configuration
-     * @return Matching configuration or null if none found
+     * @return Compiled matching configuration or null if none found
      */
-    private BatchNumberConfig findMatchingConfig(String operationType, String materialId, String productSku) {
+    private FormatPlan findMatchingConfig(String operationType, String materialId, String productSku) {
+        expireConfigCacheIfStale();
+        String lookupKey = operationType + "|" + materialId + "|" + productSku;
+        Optional<FormatPlan> cached = planByLookupKey.get(lookupKey);
+        if (cached != null) {
+            return cached.orElse(null);
+        }
+
+        long generation = cacheGeneration.get();
+        BatchNumberConfig config = loadMatchingConfig(operationType, materialId, productSku);
+        Optional<FormatPlan> plan = Optional.ofNullable(config)
+                .map(c -> planByConfigId.computeIfAbsent(c.getConfigId(), id -> FormatPlan.compile(c)));
+        // Don't cache a lookup that raced with an invalidation
+        if (generation == cacheGeneration.get()) {
+            planByLookupKey.put(lookupKey, plan);
+        }
+        return plan.orElse(null);
+    }
+
+    /**
+     * Run the precedence query for one lookup key.
+     */
+    private BatchNumberConfig loadMatchingConfig(String operationType, String materialId, String productSku) {
         // SQL includes material_id for material-level configuration per MES spec
         String sql = """
             SELECT config_id, config_name, prefix, include_operation_code, operation_code_length,
-                   separator, date_format, include_date, sequence_length, sequence_reset
+                   separator, date_format, include_date, sequence_length, sequence_reset,
+                   sequence_block_size
             FROM batch_number_config
             WHERE status = 'ACTIVE'
               AND (operation_type = ? OR operation_type IS NULL)
@@ -296,6 +454,8 @@ public class BatchNumberService {
         config.setIncludeDate((Boolean) row.get("include_date"));
         config.setSequenceLength((Integer) row.get("sequence_length"));
         config.setSequenceReset((String) row.get("sequence_reset"));
+        Number blockSize = (Number) row.get("sequence_block_size");
+        config.setSequenceBlockSize(blockSize != null ? Math.max(blockSize.intValue(), 1) : 1);
 
         log.debug("Found batch number config: {}", config.getConfigName());
         return config;
@@ -304,46 +464,74 @@ public class BatchNumberService {
     /**
      * Generate batch number from configuration.
      */
-    private String generateFromConfig(BatchNumberConfig config, String operationType) {
+    private String generateFromConfig(FormatPlan config, String operationType) {
+        return generateFromConfig(config, operationType, 1).get(0);
+    }
+
+    /**
+     * Generate count batch numbers from configuration with one sequence allocation.
+     */
+    private List<String> generateFromConfig(FormatPlan config, String operationType, int count) {
+        String dateStr = config.includeDate() ? config.dateFormatter().format(LocalDate.now()) : "";
+        String head = buildHead(config, operationType, dateStr);
+        int firstSeq = getNextSequence(config, dateStr, count);
+
+        List<String> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            results.add(head + config.padSequence(firstSeq + i));
+        }
+        log.info("Generated batch number(s): {} using config: {}", results, config.configName());
+        return results;
+    }
+
+    /**
+     * Everything before the sequence: prefix, operation code and date, each followed by the separator.
+     */
+    private String buildHead(FormatPlan config, String operationType, String dateStr) {
         StringBuilder batchNumber = new StringBuilder();
-        String separator = config.getSeparator();
+        String separator = config.separator();
 
         // 1. Add prefix
-        batchNumber.append(config.getPrefix());
+        batchNumber.append(config.prefix());
 
         // 2. Add operation code if configured
-        if (config.isIncludeOperationCode() && operationType != null) {
+        if (config.includeOperationCode() && operationType != null) {
             batchNumber.append(separator);
-            int codeLength = Math.min(config.getOperationCodeLength(), operationType.length());
-            batchNumber.append(operationType.substring(0, codeLength).toUpperCase());
+            batchNumber.append(config.operationCode(operationType));
         }
 
         // 3. Add date if configured
-        String dateStr = "";
-        if (config.isIncludeDate()) {
-            dateStr = LocalDate.now().format(DateTimeFormatter.ofPattern(config.getDateFormat()));
+        if (config.includeDate()) {
             batchNumber.append(separator);
             batchNumber.append(dateStr);
         }
 
-        // 4. Add sequence number
+        // 4. Separator before the sequence number
         batchNumber.append(separator);
-        int nextSeq = getNextSequence(config, dateStr);
-        String seqFormat = "%0" + config.getSequenceLength() + "d";
-        batchNumber.append(String.format(seqFormat, nextSeq));
-
-        String result = batchNumber.toString();
-        log.info("Generated batch number: {} using config: {}", result, config.getConfigName());
-        return result;
+        return batchNumber.toString();
     }
 
     /**
      * Get the next sequence number for the given configuration and date.
      */
-    private int getNextSequence(BatchNumberConfig config, String dateStr) {
+    private int getNextSequence(FormatPlan config, String dateStr) {
+        return getNextSequence(config, dateStr, 1);
+    }
+
+    /**
+     * Reserve count consecutive sequence numbers and return the first.
+     * Gap-free configs lock the sequence row for the rest of the caller's transaction;
+     * configs with a block size above 1 are served from this node's reserved block.
+     */
+    private int getNextSequence(FormatPlan config, String dateStr, int count) {
         // Build sequence key based on reset policy
         String sequenceKey = buildSequenceKey(config, dateStr);
 
+        if (config.sequenceBlockSize() > 1) {
+            return (int) sequenceAllocator.allocate(config.configId(), sequenceKey,
+                    config.sequenceBlockSize(), count);
+        }
+
         // Try to get existing sequence
         String selectSql = """
             SELECT sequence_id, current_value, last_reset_on
@@ -352,41 +540,41 @@ public class BatchNumberService {
             FOR UPDATE
             """;
 
-        List<Map<String, Object>> existing = jdbcTemplate.queryForList(selectSql, config.getConfigId(), sequenceKey);
+        List<Map<String, Object>> existing = jdbcTemplate.queryForList(selectSql, config.configId(), sequenceKey);
 
         if (existing.isEmpty()) {
             // Create new sequence starting at 1
             String insertSql = """
                 INSERT INTO batch_number_sequence (config_id, sequence_key, current_value, last_reset_on, updated_on)
-                VALUES (?, ?, 1, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+                VALUES (?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
                 """;
-            jdbcTemplate.update(insertSql, config.getConfigId(), sequenceKey);
+            jdbcTemplate.update(insertSql, config.configId(), sequenceKey, count);
             return 1;
         } else {
-            // Increment existing sequence
+            // Increment existing sequence by the number of values taken
             int currentValue = ((Number) existing.get(0).get("current_value")).intValue();
-            int nextValue = currentValue + 1;
+            int nextValue = currentValue + count;
 
             String updateSql = """
                 UPDATE batch_number_sequence
                 SET current_value = ?, updated_on = CURRENT_TIMESTAMP
                 WHERE config_id = ? AND sequence_key = ?
                 """;
-            jdbcTemplate.update(updateSql, nextValue, config.getConfigId(), sequenceKey);
-            return nextValue;
+            jdbcTemplate.update(updateSql, nextValue, config.configId(), sequenceKey);
+            return currentValue + 1;
         }
     }
 
     /**
      * Build the sequence key based on reset policy.
      */
-    private String buildSequenceKey(BatchNumberConfig config, String dateStr) {
-        return switch (config.getSequenceReset()) {
-            case "NEVER" -> config.getPrefix();
-            case "YEARLY" -> config.getPrefix() + "-" + LocalDate.now().getYear();
-            case "MONTHLY" -> config.getPrefix() + "-" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMM"));
-            case "DAILY" -> config.getPrefix() + "-" + dateStr;
-            default -> config.getPrefix() + "-" + dateStr;
+    private String buildSequenceKey(FormatPlan config, String dateStr) {
+        return switch (config.sequenceReset()) {
+            case "NEVER" -> config.prefix();
+            case "YEARLY" -> config.prefix() + "-" + LocalDate.now().getYear();
+            case "MONTHLY" -> config.prefix() + "-" + LocalDate.now().format(YEAR_MONTH);
+            case "DAILY" -> config.prefix() + "-" + dateStr;
+            default -> config.prefix() + "-" + dateStr;
         };
     }
 
@@ -398,11 +586,42 @@ public class BatchNumberService {
         if (operationType != null && operationType.length() >= 2) {
             prefix = "BATCH-" + operationType.substring(0, 2).toUpperCase();
         }
-        String dateStr = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
+        String dateStr = LocalDate.now().format(BASIC_DATE);
         String timestamp = String.valueOf(System.currentTimeMillis() % 10000);
         return prefix + "-" + dateStr + "-" + timestamp;
     }
 
+    /**
+     * Drop compiled configs so the next generation re-reads batch_number_config.
+     * Inside a transaction the cache is cleared again after commit, so a lookup racing
+     * with the config change cannot keep the old version.
+     */
+    public void invalidateConfigCache() {
+        clearConfigCache();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clearConfigCache();
+                }
+            });
+        }
+    }
+
+    private void clearConfigCache() {
+        cacheGeneration.incrementAndGet();
+        planByLookupKey.clear();
+        planByConfigId.clear();
+        cacheStartedAt = System.currentTimeMillis();
+        log.debug("Batch number config cache cleared");
+    }
+
+    private void expireConfigCacheIfStale() {
+        if (configCacheTtlMs > 0 && System.currentTimeMillis() - cacheStartedAt > configCacheTtlMs) {
+            clearConfigCache();
+        }
+    }
+
     /**
      * Get all active batch number configurations.
      */
@@ -432,7 +651,7 @@ public class BatchNumberService {
         log.info("Previewing batch number for operationType={}, productSku={}", operationType, productSku);
 
         // Find matching configuration
-        BatchNumberConfig config = findMatchingConfig(operationType, productSku);
+        FormatPlan config = findMatchingConfig(operationType, productSku);
         if (config == null) {
             log.warn("No batch number configuration found, using fallback pattern for preview");
             return previewFallbackBatchNumber(operationType);
@@ -444,52 +663,37 @@ public class BatchNumberService {
     /**
      * Preview batch number from configuration (without incrementing sequence).
      */
-    private String previewFromConfig(BatchNumberConfig config, String operationType) {
-        StringBuilder batchNumber = new StringBuilder();
-        String separator = config.getSeparator();
-
-        // 1. Add prefix
-        batchNumber.append(config.getPrefix());
+    private String previewFromConfig(FormatPlan config, String operationType) {
+        String dateStr = config.includeDate() ? config.dateFormatter().format(LocalDate.now()) : "";
 
-        // 2. Add operation code if configured
-        if (config.isIncludeOperationCode() && operationType != null) {
-            batchNumber.append(separator);
-            int codeLength = Math.min(config.getOperationCodeLength(), operationType.length());
-            batchNumber.append(operationType.substring(0, codeLength).toUpperCase());
-        }
-
-        // 3. Add date if configured
-        String dateStr = "";
-        if (config.isIncludeDate()) {
-            dateStr = LocalDate.now().format(DateTimeFormatter.ofPattern(config.getDateFormat()));
-            batchNumber.append(separator);
-            batchNumber.append(dateStr);
-        }
-
-        // 4. Add preview sequence number (peek without increment)
-        batchNumber.append(separator);
+        // Preview sequence number (peek without increment)
         int nextSeq = peekNextSequence(config, dateStr);
-        String seqFormat = "%0" + config.getSequenceLength() + "d";
-        batchNumber.append(String.format(seqFormat, nextSeq));
+        String result = buildHead(config, operationType, dateStr) + config.padSequence(nextSeq);
 
-        String result = batchNumber.toString();
-        log.debug("Preview batch number: {} using config: {}", result, config.getConfigName());
+        log.debug("Preview batch number: {} using config: {}", result, config.configName());
         return result;
     }
 
     /**
      * Peek at the next sequence number WITHOUT incrementing.
      */
-    private int peekNextSequence(BatchNumberConfig config, String dateStr) {
+    private int peekNextSequence(FormatPlan config, String dateStr) {
         String sequenceKey = buildSequenceKey(config, dateStr);
 
+        if (config.sequenceBlockSize() > 1) {
+            OptionalLong local = sequenceAllocator.peek(config.configId(), sequenceKey);
+            if (local.isPresent()) {
+                return (int) local.getAsLong();
+            }
+        }
+
         String selectSql = """
             SELECT current_value
             FROM batch_number_sequence
             WHERE config_id = ? AND sequence_key = ?
             """;
 
-        List<Map<String, Object>> existing = jdbcTemplate.queryForList(selectSql, config.getConfigId(), sequenceKey);
+        List<Map<String, Object>> existing = jdbcTemplate.queryForList(selectSql, config.configId(), sequenceKey);
 
         if (existing.isEmpty()) {
             // No sequence yet, next would be 1
@@ -509,7 +713,7 @@ public class BatchNumberService {
         if (operationType != null && operationType.length() >= 2) {
             prefix = "BATCH-" + operationType.substring(0, 2).toUpperCase();
         }
-        String dateStr = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
+        String dateStr = LocalDate.now().format(BASIC_DATE);
         // Use a placeholder for the timestamp portion since it would vary
         return prefix + "-" + dateStr + "-XXXX";
     }
@@ -11,18 +11,21 @@ import com.mes.production.entity.RoutingStep;
 import com.mes.production.repository.BatchQuantityAdjustmentRepository;
 import com.mes.production.repository.BatchRelationRepository;
 import com.mes.production.repository.BatchRepository;
+import com.mes.production.repository.BatchSpecifications;
 import com.mes.production.repository.OperationRepository;
 import com.mes.production.repository.RoutingStepRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,6 +34,9 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class BatchService {
 
+    static final KeysetPaginator.Keyset<Batch> KEYSET = new KeysetPaginator.Keyset<>(
+            Batch.class, "batches", "batchId", "createdOn", Set.of("createdOn", "batchNumber"));
+
     private final BatchRepository batchRepository;
     private final BatchRelationRepository batchRelationRepository;
     private final BatchQuantityAdjustmentRepository adjustmentRepository;
@@ -38,6 +44,10 @@ public class BatchService {
     private final RoutingStepRepository routingStepRepository;
     private final AuditService auditService;
     private final BatchNumberService batchNumberService;
+    private final GenealogyIndexService genealogyIndexService;
+    private final DashboardService dashboardService;
+    private final LiveEventService liveEventService;
+    private final KeysetPaginator keysetPaginator;
 
     /**
      * Get all batches
@@ -58,19 +68,22 @@ public class BatchService {
                 pageRequest.getPage(), pageRequest.getSize(),
                 pageRequest.getStatus(), pageRequest.getSearch());
 
-        Pageable pageable = pageRequest.toPageable("createdOn");
+        Specification<Batch> filter = pageRequest.hasFilters()
+                ? BatchSpecifications.withFilters(pageRequest.getStatus(), pageRequest.getSearch())
+                : null;
 
-        Page<Batch> page;
-        if (pageRequest.hasFilters()) {
-            page = batchRepository.findByFilters(
-                    pageRequest.getStatus(),
-                    null, // materialId filter
-                    pageRequest.getSearchPattern(),
-                    pageable);
-        } else {
-            page = batchRepository.findAll(pageable);
+        if (pageRequest.isKeyset()) {
+            KeysetPaginator.KeysetPage<Batch> page = keysetPaginator.fetch(KEYSET, filter, pageRequest);
+            return PagedResponseDTO.fromKeyset(page.content().stream().map(this::convertToDTO).toList(),
+                    pageRequest, page.sortBy(), page.nextCursor(), page.total(), page.totalMode());
         }
 
+        Pageable pageable = pageRequest.toPageable("createdOn");
+
+        Page<Batch> page = filter != null
+                ? batchRepository.findAll(filter, pageable)
+                : batchRepository.findAll(pageable);
+
         Page<BatchDTO> dtoPage = page.map(this::convertToDTO);
 
         return PagedResponseDTO.fromPage(dtoPage,
@@ -129,11 +142,6 @@ public class BatchService {
         // Get production info
         BatchDTO.ProductionInfo productionInfo = null;
         if (batch.getGeneratedAtOperationId() != null) {
-            operationRepository.findByIdWithDetails(batch.getGeneratedAtOperationId())
-                    .ifPresent(op -> {
-                        // Note: productionInfo needs to be set differently due to lambda scope
-                    });
-
             Operation op = operationRepository.findByIdWithDetails(batch.getGeneratedAtOperationId())
                     .orElse(null);
             if (op != null) {
@@ -303,17 +311,26 @@ public class BatchService {
         }
 
         java.util.List<BatchDTO> newBatches = new java.util.ArrayList<>();
+
+        // Generate numbers for all portions without a suffix in one sequence allocation (GAP-005)
+        java.util.List<Integer> generatedIndexes = new java.util.ArrayList<>();
+        for (int i = 0; i < request.getPortions().size(); i++) {
+            if (!hasBatchNumberSuffix(request.getPortions().get(i))) {
+                generatedIndexes.add(i + 1);
+            }
+        }
+        java.util.Iterator<String> generatedNumbers = batchNumberService
+                .generateSplitBatchNumbers(sourceBatch.getBatchNumber(), generatedIndexes).iterator();
+
         int splitIndex = 1;
 
         for (BatchDTO.SplitPortion portion : request.getPortions()) {
-            // Generate new batch number using configurable service (GAP-005)
             String newBatchNumber;
-            if (portion.getBatchNumberSuffix() != null && !portion.getBatchNumberSuffix().isEmpty()) {
+            if (hasBatchNumberSuffix(portion)) {
                 // Use provided suffix
                 newBatchNumber = sourceBatch.getBatchNumber() + "-" + portion.getBatchNumberSuffix();
             } else {
-                // Use configurable batch number service
-                newBatchNumber = batchNumberService.generateSplitBatchNumber(sourceBatch.getBatchNumber(), splitIndex);
+                newBatchNumber = generatedNumbers.next();
             }
 
             // Create new batch (inherit generatedAtOperationId from parent per MES Batch Number Spec)
@@ -351,6 +368,7 @@ public class BatchService {
                     .build();
 
             batchRelationRepository.save(relation);
+            genealogyIndexService.relationsCreated(List.of(relation));
 
             newBatches.add(convertToDTO(newBatch));
             splitIndex++;
@@ -377,6 +395,10 @@ public class BatchService {
                 .build();
     }
 
+    private boolean hasBatchNumberSuffix(BatchDTO.SplitPortion portion) {
+        return portion.getBatchNumberSuffix() != null && !portion.getBatchNumberSuffix().isEmpty();
+    }
+
     /**
      * Merge multiple batches into a single batch
      */
@@ -473,6 +495,7 @@ public class BatchService {
                     .build();
 
             batchRelationRepository.save(relation);
+            genealogyIndexService.relationsCreated(List.of(relation));
 
             // Mark source batch as MERGED
             sourceBatch.setStatus("MERGED");
@@ -527,6 +550,8 @@ public class BatchService {
 
         log.info("Batch {} approved by {}", batchId, currentUser);
         auditService.logStatusChange("BATCH", batchId, oldStatus, Batch.STATUS_AVAILABLE);
+        dashboardService.markSummaryDirty();
+        liveEventService.batchStatusChanged(batch, LiveEventService.BATCH_APPROVED, oldStatus);
 
         return BatchDTO.StatusUpdateResponse.builder()
                 .batchId(batchId)
@@ -566,6 +591,8 @@ public class BatchService {
 
         log.info("Batch {} rejected by {}", batchId, currentUser);
         auditService.logStatusChange("BATCH", batchId, oldStatus, Batch.STATUS_BLOCKED);
+        dashboardService.markSummaryDirty();
+        liveEventService.batchStatusChanged(batch, LiveEventService.BATCH_REJECTED, oldStatus);
 
         return BatchDTO.StatusUpdateResponse.builder()
                 .batchId(batchId)
@@ -602,6 +629,7 @@ public class BatchService {
 
         log.info("Batch {} sent for quality check by {}", batchId, currentUser);
         auditService.logStatusChange("BATCH", batchId, oldStatus, Batch.STATUS_QUALITY_PENDING);
+        dashboardService.markSummaryDirty();
 
         return BatchDTO.StatusUpdateResponse.builder()
                 .batchId(batchId)
@@ -714,6 +742,7 @@ public class BatchService {
             batch.setStatus(request.getStatus());
             if (!oldStatus.equals(request.getStatus())) {
                 auditService.logStatusChange("BATCH", batchId, oldStatus, request.getStatus());
+                dashboardService.markSummaryDirty();
             }
         }
 
@@ -869,6 +898,7 @@ public class BatchService {
 
         log.info("Batch {} deleted (scrapped) by {}", batchId, currentUser);
         auditService.logStatusChange("BATCH", batchId, oldStatus, Batch.STATUS_SCRAPPED);
+        dashboardService.markSummaryDirty();
 
         return BatchDTO.StatusUpdateResponse.builder()
                 .batchId(batchId)
@@ -1029,6 +1059,7 @@ public class BatchService {
         relation.setStatus("DELETED");
         // Note: BatchRelation uses createdBy field, not updatedBy
         batchRelationRepository.save(relation);
+        genealogyIndexService.relationsRemoved(List.of(relation));
 
         auditService.logDelete("BATCH_RELATION", relationId,
                 String.format("Batch relation soft-deleted by %s. Reason: %s", currentUser, reason));
@@ -57,6 +57,18 @@ public class BatchSizeService {
         Optional<BatchSizeConfig> configOpt = findApplicableConfig(
                 operationType, materialId, productSku, equipmentType);
 
+        return calculateBatchSizes(totalQuantity, configOpt);
+    }
+
+    /**
+     * Calculate how to split a production quantity into batches using an
+     * already-resolved config (empty means no config applies).
+     *
+     * @param totalQuantity Total quantity to produce
+     * @param configOpt Applicable batch size config, if any
+     * @return BatchSizeResult with calculated batch sizes
+     */
+    public BatchSizeResult calculateBatchSizes(BigDecimal totalQuantity, Optional<BatchSizeConfig> configOpt) {
         if (configOpt.isEmpty()) {
             // No config found - return single batch
             log.info("No batch size config found, using single batch");
@@ -0,0 +1,256 @@
+package com.mes.production.service;
+
+import com.mes.production.dto.BatchDTO;
+import com.mes.production.entity.Batch;
+import com.mes.production.repository.BatchRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Full-depth batch genealogy traces for recall investigations.
+ *
+ * One recursive query over batch_relations walks the whole tree in the requested direction,
+ * so a multi-level trace is a single round trip instead of one request per level. Only ACTIVE
+ * relations are followed (reversed consumptions are ignored). The recursion yields each relation
+ * once per depth rather than once per path, so MERGE/SPLIT diamonds and cycles in bad data cost
+ * at most relations x depth rows, and the row cap stops it early.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class BatchTraceService {
+
+    public static final String FORWARD = "FORWARD";
+    public static final String BACKWARD = "BACKWARD";
+
+    static final int DEFAULT_MAX_DEPTH = 10;
+    static final int MAX_DEPTH_LIMIT = 50;
+    static final int MAX_TRACE_ROWS = 10000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BatchRepository batchRepository;
+
+    /**
+     * Trace everything made from this batch (children, grandchildren, ...).
+     */
+    public BatchDTO.TraceGraph traceForward(Long batchId, Integer maxDepth, List<String> relationTypes) {
+        return trace(batchId, FORWARD, maxDepth, relationTypes);
+    }
+
+    /**
+     * Trace everything this batch was made from (parents, grandparents, ...).
+     */
+    public BatchDTO.TraceGraph traceBackward(Long batchId, Integer maxDepth, List<String> relationTypes) {
+        return trace(batchId, BACKWARD, maxDepth, relationTypes);
+    }
+
+    private BatchDTO.TraceGraph trace(Long batchId, String direction, Integer maxDepth, List<String> relationTypes) {
+        Batch root = batchRepository.findById(batchId)
+                .orElseThrow(() -> new RuntimeException("Batch not found: " + batchId));
+
+        int depthLimit = maxDepth != null ? maxDepth : DEFAULT_MAX_DEPTH;
+        if (depthLimit < 1 || depthLimit > MAX_DEPTH_LIMIT) {
+            throw new RuntimeException("Max depth must be between 1 and " + MAX_DEPTH_LIMIT);
+        }
+        List<String> types = relationTypes != null
+                ? relationTypes.stream().filter(t -> t != null && !t.isBlank()).map(String::toUpperCase).toList()
+                : List.of();
+
+        boolean forward = FORWARD.equals(direction);
+        String sql = buildTraceSql(forward, types.size());
+
+        // Parameters: anchor (root, types), recursive (depth, root, types), row limit
+        List<Object> params = new ArrayList<>();
+        params.add(batchId);
+        params.addAll(types);
+        params.add(depthLimit);
+        params.add(batchId);
+        params.addAll(types);
+        params.add(MAX_TRACE_ROWS + 1);
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(sql, params.toArray());
+        boolean truncated = rows.size() > MAX_TRACE_ROWS;
+        if (truncated) {
+            rows = rows.subList(0, MAX_TRACE_ROWS);
+            log.warn("{} trace from batch {} truncated at {} rows", direction, batchId, MAX_TRACE_ROWS);
+        }
+
+        Map<Long, BatchDTO.TraceNode> nodes = new LinkedHashMap<>();
+        nodes.put(root.getBatchId(), BatchDTO.TraceNode.builder()
+                .batchId(root.getBatchId())
+                .batchNumber(root.getBatchNumber())
+                .materialId(root.getMaterialId())
+                .materialName(root.getMaterialName())
+                .quantity(root.getQuantity())
+                .unit(root.getUnit())
+                .status(root.getStatus())
+                .depth(0)
+                .build());
+        Map<Long, BatchDTO.TraceEdge> edges = new LinkedHashMap<>();
+
+        // One row per relation and depth; collapse to distinct nodes and edges at their smallest depth
+        for (Map<String, Object> row : rows) {
+            int depth = ((Number) row.get("depth")).intValue();
+
+            Long relationId = ((Number) row.get("relation_id")).longValue();
+            BatchDTO.TraceEdge edge = edges.get(relationId);
+            if (edge == null) {
+                edges.put(relationId, BatchDTO.TraceEdge.builder()
+                        .relationId(relationId)
+                        .parentBatchId(((Number) row.get("parent_batch_id")).longValue())
+                        .childBatchId(((Number) row.get("child_batch_id")).longValue())
+                        .operationId(row.get("operation_id") != null ? ((Number) row.get("operation_id")).longValue() : null)
+                        .relationType((String) row.get("relation_type"))
+                        .quantityConsumed((BigDecimal) row.get("quantity_consumed"))
+                        .depth(depth)
+                        .build());
+            } else if (depth < edge.getDepth()) {
+                edge.setDepth(depth);
+            }
+
+            Long nodeId = ((Number) row.get("batch_id")).longValue();
+            BatchDTO.TraceNode node = nodes.get(nodeId);
+            if (node == null) {
+                nodes.put(nodeId, BatchDTO.TraceNode.builder()
+                        .batchId(nodeId)
+                        .batchNumber((String) row.get("batch_number"))
+                        .materialId((String) row.get("material_id"))
+                        .materialName((String) row.get("material_name"))
+                        .quantity((BigDecimal) row.get("quantity"))
+                        .unit((String) row.get("unit"))
+                        .status((String) row.get("status"))
+                        .depth(depth)
+                        .build());
+            } else if (node.getDepth() > 0) {
+                node.setDepth(Math.min(node.getDepth(), depth));
+            }
+        }
+
+        tracedQuantities(batchId, edges.values(), forward, depthLimit).forEach((nodeId, tracedQty) -> {
+            BatchDTO.TraceNode node = nodes.get(nodeId);
+            if (node != null) {
+                node.setTracedQuantity(tracedQty);
+            }
+        });
+
+        List<BatchDTO.TraceNode> nodeList = new ArrayList<>(nodes.values());
+        nodeList.sort(Comparator.comparing(BatchDTO.TraceNode::getDepth).thenComparing(BatchDTO.TraceNode::getBatchId));
+        List<BatchDTO.TraceEdge> edgeList = new ArrayList<>(edges.values());
+        edgeList.sort(Comparator.comparing(BatchDTO.TraceEdge::getDepth).thenComparing(BatchDTO.TraceEdge::getRelationId));
+
+        log.info("{} trace from batch {}: {} batches, {} relations, depth limit {}",
+                direction, batchId, nodeList.size(), edgeList.size(), depthLimit);
+
+        return BatchDTO.TraceGraph.builder()
+                .rootBatchId(batchId)
+                .direction(direction)
+                .maxDepth(depthLimit)
+                .relationTypes(types)
+                .nodes(nodeList)
+                .edges(edgeList)
+                .truncated(truncated)
+                .build();
+    }
+
+    /**
+     * Largest quantity that can have been carried from the root to each batch within the depth
+     * limit: over all paths, the best path's smallest quantity_consumed. Worked level by level
+     * over the fetched relations, carrying a batch forward only when a level improves its value.
+     */
+    static Map<Long, BigDecimal> tracedQuantities(Long rootId, Collection<BatchDTO.TraceEdge> edges,
+                                                  boolean forward, int depthLimit) {
+        Map<Long, List<BatchDTO.TraceEdge>> edgesByNear = new HashMap<>();
+        for (BatchDTO.TraceEdge edge : edges) {
+            Long near = forward ? edge.getParentBatchId() : edge.getChildBatchId();
+            edgesByNear.computeIfAbsent(near, id -> new ArrayList<>()).add(edge);
+        }
+
+        Map<Long, BigDecimal> best = new HashMap<>();
+        // null = no quantity limit yet (the root)
+        Map<Long, BigDecimal> frontier = new HashMap<>();
+        frontier.put(rootId, null);
+        for (int depth = 1; depth <= depthLimit && !frontier.isEmpty(); depth++) {
+            Map<Long, BigDecimal> reached = new HashMap<>();
+            for (Map.Entry<Long, BigDecimal> entry : frontier.entrySet()) {
+                for (BatchDTO.TraceEdge edge : edgesByNear.getOrDefault(entry.getKey(), List.of())) {
+                    Long far = forward ? edge.getChildBatchId() : edge.getParentBatchId();
+                    BigDecimal qty = smaller(entry.getValue(), edge.getQuantityConsumed());
+                    if (!far.equals(rootId) && (!reached.containsKey(far) || larger(qty, reached.get(far)))) {
+                        reached.put(far, qty);
+                    }
+                }
+            }
+            frontier = new HashMap<>();
+            for (Map.Entry<Long, BigDecimal> entry : reached.entrySet()) {
+                if (!best.containsKey(entry.getKey()) || larger(entry.getValue(), best.get(entry.getKey()))) {
+                    best.put(entry.getKey(), entry.getValue());
+                    frontier.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        return best;
+    }
+
+    private static BigDecimal smaller(BigDecimal a, BigDecimal b) {
+        if (a == null || b == null) {
+            return a == null ? b : a;
+        }
+        return a.min(b);
+    }
+
+    private static boolean larger(BigDecimal candidate, BigDecimal current) {
+        return candidate != null && (current == null || candidate.compareTo(current) > 0);
+    }
+
+    /**
+     * Recursive CTE walking batch_relations from the root. "near" is the side already reached,
+     * "far" the side being discovered: parent/child going forward, child/parent going backward.
+     *
+     * UNION (not UNION ALL) drops a relation reached again at the same depth over another path,
+     * so each level only expands distinct relations; relations leading back to the root are not
+     * followed. The row limit is applied directly on the CTE without ordering, so PostgreSQL
+     * stops the recursion once enough rows are produced (levels come out breadth first).
+     */
+    static String buildTraceSql(boolean forward, int relationTypeCount) {
+        String near = forward ? "parent_batch_id" : "child_batch_id";
+        String far = forward ? "child_batch_id" : "parent_batch_id";
+        String typeFilter = relationTypeCount == 0 ? ""
+                : " AND r.relation_type IN (" + String.join(", ", Collections.nCopies(relationTypeCount, "?")) + ")";
+
+        return """
+            WITH RECURSIVE trace (relation_id, parent_batch_id, child_batch_id, operation_id, relation_type,
+                                  quantity_consumed, depth) AS (
+                SELECT r.relation_id, r.parent_batch_id, r.child_batch_id, r.operation_id, r.relation_type,
+                       r.quantity_consumed, 1
+                FROM batch_relations r
+                WHERE r.%1$s = ? AND r.status = 'ACTIVE'%3$s
+                UNION
+                SELECT r.relation_id, r.parent_batch_id, r.child_batch_id, r.operation_id, r.relation_type,
+                       r.quantity_consumed, t.depth + 1
+                FROM trace t
+                JOIN batch_relations r ON r.%1$s = t.%2$s
+                WHERE t.depth < ? AND r.%2$s <> ? AND r.status = 'ACTIVE'%3$s
+            )
+            SELECT t.relation_id, t.parent_batch_id, t.child_batch_id, t.operation_id, t.relation_type,
+                   t.quantity_consumed, t.depth,
+                   b.batch_id, b.batch_number, b.material_id, b.material_name, b.quantity, b.unit, b.status
+            FROM (SELECT * FROM trace LIMIT ?) t
+            JOIN batches b ON b.batch_id = t.%2$s
+            ORDER BY t.depth
+            """.formatted(near, far, typeFilter);
+    }
+}
@@ -66,9 +66,23 @@ public class BomValidationService {
      */
     @Transactional(readOnly = true)
     public BomDTO.BomValidationResult validateConsumption(BomDTO.BomValidationRequest request) {
-        log.info("Validating BOM consumption for product: {}", request.getProductSku());
+        return validateConsumption(request, getActiveBom(request.getProductSku()));
+    }
+
+    /**
+     * Get active BOM lines for a product, ordered by level
+     */
+    @Transactional(readOnly = true)
+    public List<BillOfMaterial> getActiveBom(String productSku) {
+        return bomRepository.findActiveByProductSkuOrderByLevel(productSku);
+    }
 
-        List<BillOfMaterial> bomList = bomRepository.findActiveByProductSkuOrderByLevel(request.getProductSku());
+    /**
+     * Validate material consumption against already-loaded BOM lines
+     */
+    public BomDTO.BomValidationResult validateConsumption(BomDTO.BomValidationRequest request,
+                                                          List<BillOfMaterial> bomList) {
+        log.info("Validating BOM consumption for product: {}", request.getProductSku());
 
         if (bomList.isEmpty()) {
             return BomDTO.BomValidationResult.builder()
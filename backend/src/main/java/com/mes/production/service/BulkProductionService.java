@@ -0,0 +1,141 @@
+package com.mes.production.service;
+
+import com.mes.production.dto.ProductionConfirmationDTO;
+import com.mes.production.repository.EquipmentRepository;
+import com.mes.production.repository.OperatorRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk production confirmation for terminals that queue confirmations offline
+ * and flush them together.
+ *
+ * Each item runs through ProductionService.confirmProduction in its own transaction,
+ * so one bad item does not roll back the others. Equipment, operators, BOM lines and
+ * batch size configs are shared across items through a single ProductionLookups.
+ *
+ * Deliberately not @Transactional: the per-item transactions must commit independently.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkProductionService {
+
+    public static final int MAX_BULK_SIZE = 500;
+
+    private final ProductionService productionService;
+    private final EquipmentRepository equipmentRepository;
+    private final OperatorRepository operatorRepository;
+    private final Validator validator;
+
+    /**
+     * Confirm production for many operations, returning a result per item in request order
+     */
+    public ProductionConfirmationDTO.BulkResponse confirmAll(List<ProductionConfirmationDTO.Request> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new RuntimeException("At least one confirmation is required");
+        }
+        if (requests.size() > MAX_BULK_SIZE) {
+            throw new RuntimeException("Bulk confirmation is limited to " + MAX_BULK_SIZE + " items, got " + requests.size());
+        }
+
+        log.info("Processing bulk production confirmation: {} items", requests.size());
+        long start = System.currentTimeMillis();
+
+        ProductionLookups lookups = preloadLookups(requests);
+        List<ProductionConfirmationDTO.BulkItemResult> results = new ArrayList<>(requests.size());
+        int succeeded = 0;
+
+        for (int i = 0; i < requests.size(); i++) {
+            ProductionConfirmationDTO.Request request = requests.get(i);
+            Long operationId = request != null ? request.getOperationId() : null;
+
+            String violations = validate(request);
+            if (violations != null) {
+                results.add(failure(i, operationId, violations));
+                continue;
+            }
+
+            try {
+                ProductionConfirmationDTO.Response response = productionService.confirmProduction(request, lookups);
+                results.add(ProductionConfirmationDTO.BulkItemResult.builder()
+                        .index(i)
+                        .operationId(operationId)
+                        .success(true)
+                        .confirmation(response)
+                        .build());
+                succeeded++;
+            } catch (RuntimeException e) {
+                log.warn("Bulk confirmation item {} (operation {}) failed: {}", i, operationId, e.getMessage());
+                results.add(failure(i, operationId, e.getMessage()));
+            }
+        }
+
+        log.info("Bulk production confirmation finished: {}/{} succeeded in {} ms",
+                succeeded, requests.size(), System.currentTimeMillis() - start);
+
+        return ProductionConfirmationDTO.BulkResponse.builder()
+                .total(requests.size())
+                .succeeded(succeeded)
+                .failed(requests.size() - succeeded)
+                .results(results)
+                .build();
+    }
+
+    /**
+     * Load equipment and operators for all items up front: one query each for the whole batch
+     */
+    private ProductionLookups preloadLookups(List<ProductionConfirmationDTO.Request> requests) {
+        Set<Long> equipmentIds = new LinkedHashSet<>();
+        Set<Long> operatorIds = new LinkedHashSet<>();
+        for (ProductionConfirmationDTO.Request request : requests) {
+            if (request == null) continue;
+            if (request.getEquipmentIds() != null) equipmentIds.addAll(request.getEquipmentIds());
+            if (request.getOperatorIds() != null) operatorIds.addAll(request.getOperatorIds());
+        }
+
+        ProductionLookups lookups = new ProductionLookups();
+        if (!equipmentIds.isEmpty()) {
+            lookups.putEquipment(equipmentRepository.findAllById(equipmentIds));
+        }
+        if (!operatorIds.isEmpty()) {
+            lookups.putOperators(operatorRepository.findAllById(operatorIds));
+        }
+        return lookups;
+    }
+
+    /**
+     * Apply the same bean validation the single-confirmation endpoint gets from @Valid
+     */
+    private String validate(ProductionConfirmationDTO.Request request) {
+        if (request == null) {
+            return "Confirmation request is empty";
+        }
+        Set<ConstraintViolation<ProductionConfirmationDTO.Request>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private ProductionConfirmationDTO.BulkItemResult failure(int index, Long operationId, String error) {
+        return ProductionConfirmationDTO.BulkItemResult.builder()
+                .index(index)
+                .operationId(operationId)
+                .success(false)
+                .error(error)
+                .build();
+    }
+}
@@ -1,7 +1,5 @@
 package com.mes.production.service;
 
-import com.mes.production.entity.Inventory;
-import com.mes.production.entity.Order;
 import com.mes.production.repository.InventoryRepository;
 import com.mes.production.repository.OrderRepository;
 import lombok.RequiredArgsConstructor;
@@ -15,121 +13,231 @@ import org.jfree.chart.plot.PlotOrientation;
 import org.jfree.chart.renderer.category.BarRenderer;
 import org.jfree.data.category.DefaultCategoryDataset;
 import org.jfree.data.general.DefaultPieDataset;
+import org.jfree.svg.SVGGraphics2D;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.awt.*;
+import java.awt.geom.Rectangle2D;
 import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
 
 /**
  * Service for generating chart images using JFreeChart.
+ *
+ * Rendered charts are cached by chart type, size, format and data version. The data version is
+ * a checksum of the grouped counts behind the chart, read with one GROUP BY query and reused for
+ * a short while, so repeated requests for an unchanged chart neither re-query rows nor re-render;
+ * it also serves as the ETag. The cache is LRU, bounded by total bytes.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ChartService {
 
+    public static final String ORDER_STATUS = "order-status";
+    public static final String INVENTORY_TYPE = "inventory-type";
+    public static final String INVENTORY_STATE = "inventory-state";
+
+    public static final String FORMAT_PNG = "png";
+    public static final String FORMAT_SVG = "svg";
+
+    static final int MIN_DIMENSION = 50;
+    static final int MAX_DIMENSION = 4000;
+
     private final OrderRepository orderRepository;
     private final InventoryRepository inventoryRepository;
 
-    /**
-     * Generate order status distribution pie chart.
-     */
-    public byte[] generateOrderStatusChart(int width, int height) {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            List<Order> orders = orderRepository.findAll();
+    @Value("${app.reports.charts.cache-max-bytes:8388608}")
+    private long cacheMaxBytes = 8 * 1024 * 1024;
 
-            Map<String, Long> statusCounts = orders.stream()
-                    .collect(Collectors.groupingBy(
-                            o -> o.getStatus() != null ? o.getStatus() : "UNKNOWN",
-                            Collectors.counting()));
+    @Value("${app.reports.charts.data-ttl-ms:1000}")
+    private long dataTtlMs = 1000;
 
-            DefaultPieDataset<String> dataset = new DefaultPieDataset<>();
-            statusCounts.forEach(dataset::setValue);
+    // Access-ordered, so iteration starts at the least recently used chart; guarded by itself
+    private final LinkedHashMap<String, RenderedChart> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
 
-            JFreeChart chart = ChartFactory.createPieChart(
-                    "Order Status Distribution",
-                    dataset,
-                    true, true, false);
+    private final Map<String, ChartData> dataByType = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<RenderedChart>> rendering = new ConcurrentHashMap<>();
 
-            stylePieChart(chart);
+    /**
+     * A rendered chart with its content type and ETag.
+     */
+    public record RenderedChart(byte[] content, String contentType, String etag) {
+    }
 
-            ChartUtils.writeChartAsPNG(baos, chart, width, height);
-            log.info("Generated order status chart ({}x{})", width, height);
-            return baos.toByteArray();
-        } catch (Exception e) {
-            log.error("Error generating order status chart", e);
-            throw new RuntimeException("Failed to generate chart", e);
-        }
+    private record ChartData(Map<String, Long> counts, String version, long loadedAtMillis) {
+    }
+
+    /**
+     * Generate order status distribution pie chart.
+     */
+    public byte[] generateOrderStatusChart(int width, int height) {
+        return getChart(ORDER_STATUS, width, height, FORMAT_PNG).content();
     }
 
     /**
      * Generate inventory by type bar chart.
      */
     public byte[] generateInventoryTypeChart(int width, int height) {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            List<Inventory> items = inventoryRepository.findAll();
-
-            Map<String, Long> typeCounts = items.stream()
-                    .collect(Collectors.groupingBy(
-                            i -> i.getInventoryType() != null ? i.getInventoryType() : "UNKNOWN",
-                            Collectors.counting()));
-
-            DefaultCategoryDataset dataset = new DefaultCategoryDataset();
-            typeCounts.forEach((type, count) -> dataset.addValue(count, "Count", type));
-
-            JFreeChart chart = ChartFactory.createBarChart(
-                    "Inventory by Type",
-                    "Type",
-                    "Count",
-                    dataset,
-                    PlotOrientation.VERTICAL,
-                    false, true, false);
-
-            styleBarChart(chart);
-
-            ChartUtils.writeChartAsPNG(baos, chart, width, height);
-            log.info("Generated inventory type chart ({}x{})", width, height);
-            return baos.toByteArray();
-        } catch (Exception e) {
-            log.error("Error generating inventory type chart", e);
-            throw new RuntimeException("Failed to generate chart", e);
-        }
+        return getChart(INVENTORY_TYPE, width, height, FORMAT_PNG).content();
     }
 
     /**
      * Generate inventory state distribution pie chart.
      */
     public byte[] generateInventoryStateChart(int width, int height) {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            List<Inventory> items = inventoryRepository.findAll();
+        return getChart(INVENTORY_STATE, width, height, FORMAT_PNG).content();
+    }
 
-            Map<String, Long> stateCounts = items.stream()
-                    .collect(Collectors.groupingBy(
-                            i -> i.getState() != null ? i.getState() : "UNKNOWN",
-                            Collectors.counting()));
+    /**
+     * ETag of the chart as it would be rendered now, without rendering it.
+     */
+    public String getChartETag(String chartType, int width, int height, String format) {
+        validate(chartType, width, height, format);
+        return etag(chartType, width, height, format, loadData(chartType).version());
+    }
 
-            DefaultPieDataset<String> dataset = new DefaultPieDataset<>();
-            stateCounts.forEach(dataset::setValue);
+    /**
+     * Rendered chart (PNG or SVG), from the cache when the data has not changed.
+     */
+    public RenderedChart getChart(String chartType, int width, int height, String format) {
+        validate(chartType, width, height, format);
+        ChartData data = loadData(chartType);
+        String key = etag(chartType, width, height, format, data.version());
 
-            JFreeChart chart = ChartFactory.createPieChart(
-                    "Inventory State Distribution",
-                    dataset,
-                    true, true, false);
+        RenderedChart cached = cacheGet(key);
+        if (cached != null) {
+            return cached;
+        }
 
-            stylePieChart(chart);
+        // Concurrent requests for the same chart wait for one render
+        CompletableFuture<RenderedChart> mine = new CompletableFuture<>();
+        CompletableFuture<RenderedChart> inProgress = rendering.putIfAbsent(key, mine);
+        if (inProgress != null) {
+            try {
+                return inProgress.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+            }
+        }
+        try {
+            RenderedChart chart = render(chartType, width, height, format, data, key);
+            cachePut(key, chart);
+            mine.complete(chart);
+            return chart;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            rendering.remove(key, mine);
+        }
+    }
+
+    private void validate(String chartType, int width, int height, String format) {
+        if (!ORDER_STATUS.equals(chartType) && !INVENTORY_TYPE.equals(chartType) && !INVENTORY_STATE.equals(chartType)) {
+            throw new RuntimeException("Unknown chart type: " + chartType);
+        }
+        if (!FORMAT_PNG.equals(format) && !FORMAT_SVG.equals(format)) {
+            throw new RuntimeException("Unsupported chart format: " + format + ". Expected png or svg");
+        }
+        if (width < MIN_DIMENSION || width > MAX_DIMENSION || height < MIN_DIMENSION || height > MAX_DIMENSION) {
+            throw new RuntimeException("Chart dimensions must be between " + MIN_DIMENSION + " and " + MAX_DIMENSION);
+        }
+    }
+
+    private String etag(String chartType, int width, int height, String format, String version) {
+        return "\"" + chartType + "-" + width + "x" + height + "-" + format + "-" + version + "\"";
+    }
+
+    // ========== Data ==========
+
+    private ChartData loadData(String chartType) {
+        ChartData data = dataByType.get(chartType);
+        if (data != null && System.currentTimeMillis() - data.loadedAtMillis() < dataTtlMs) {
+            return data;
+        }
+        List<Object[]> rows = switch (chartType) {
+            case ORDER_STATUS -> orderRepository.countGroupedByStatus();
+            case INVENTORY_TYPE -> inventoryRepository.sumQuantityByType();
+            default -> inventoryRepository.sumQuantityByState();
+        };
+        // Sorted, so the checksum and slice order do not depend on row order
+        Map<String, Long> counts = new TreeMap<>();
+        for (Object[] row : rows) {
+            String group = row[0] != null ? row[0].toString() : "UNKNOWN";
+            counts.merge(group, ((Number) row[1]).longValue(), Long::sum);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(counts.toString().getBytes(StandardCharsets.UTF_8));
+        data = new ChartData(counts, Long.toHexString(crc.getValue()), System.currentTimeMillis());
+        dataByType.put(chartType, data);
+        return data;
+    }
+
+    // ========== Rendering ==========
 
-            ChartUtils.writeChartAsPNG(baos, chart, width, height);
-            log.info("Generated inventory state chart ({}x{})", width, height);
-            return baos.toByteArray();
+    private RenderedChart render(String chartType, int width, int height, String format, ChartData data, String etag) {
+        try {
+            JFreeChart chart = switch (chartType) {
+                case ORDER_STATUS -> pieChart("Order Status Distribution", data.counts());
+                case INVENTORY_TYPE -> barChart("Inventory by Type", "Type", data.counts());
+                default -> pieChart("Inventory State Distribution", data.counts());
+            };
+
+            byte[] content;
+            String contentType;
+            if (FORMAT_SVG.equals(format)) {
+                SVGGraphics2D g2 = new SVGGraphics2D(width, height);
+                chart.draw(g2, new Rectangle2D.Double(0, 0, width, height));
+                content = g2.getSVGDocument().getBytes(StandardCharsets.UTF_8);
+                contentType = "image/svg+xml";
+            } else {
+                try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+                    ChartUtils.writeChartAsPNG(baos, chart, width, height);
+                    content = baos.toByteArray();
+                }
+                contentType = "image/png";
+            }
+            log.info("Generated {} chart ({}x{} {})", chartType, width, height, format);
+            return new RenderedChart(content, contentType, etag);
         } catch (Exception e) {
-            log.error("Error generating inventory state chart", e);
+            log.error("Error generating {} chart", chartType, e);
             throw new RuntimeException("Failed to generate chart", e);
         }
     }
 
+    private JFreeChart pieChart(String title, Map<String, Long> counts) {
+        DefaultPieDataset<String> dataset = new DefaultPieDataset<>();
+        counts.forEach(dataset::setValue);
+
+        JFreeChart chart = ChartFactory.createPieChart(title, dataset, true, true, false);
+        stylePieChart(chart);
+        return chart;
+    }
+
+    private JFreeChart barChart(String title, String categoryLabel, Map<String, Long> counts) {
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        counts.forEach((category, count) -> dataset.addValue(count, "Count", category));
+
+        JFreeChart chart = ChartFactory.createBarChart(
+                title,
+                categoryLabel,
+                "Count",
+                dataset,
+                PlotOrientation.VERTICAL,
+                false, true, false);
+        styleBarChart(chart);
+        return chart;
+    }
+
     private void stylePieChart(JFreeChart chart) {
         chart.setBackgroundPaint(Color.WHITE);
         PiePlot<?> plot = (PiePlot<?>) chart.getPlot();
@@ -146,4 +254,27 @@ public class ChartService {
         BarRenderer renderer = (BarRenderer) plot.getRenderer();
         renderer.setSeriesPaint(0, new Color(52, 152, 219));
     }
+
+    // ========== Cache ==========
+
+    private RenderedChart cacheGet(String key) {
+        synchronized (cache) {
+            return cache.get(key);
+        }
+    }
+
+    private void cachePut(String key, RenderedChart chart) {
+        synchronized (cache) {
+            RenderedChart previous = cache.put(key, chart);
+            if (previous != null) {
+                cachedBytes -= previous.content().length;
+            }
+            cachedBytes += chart.content().length;
+            Iterator<RenderedChart> eldest = cache.values().iterator();
+            while (cachedBytes > cacheMaxBytes && eldest.hasNext()) {
+                cachedBytes -= eldest.next().content().length;
+                eldest.remove();
+            }
+        }
+    }
 }
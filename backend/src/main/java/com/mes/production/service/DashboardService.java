@@ -8,15 +8,30 @@ import com.mes.production.entity.ProductionConfirmation;
 import com.mes.production.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
+/**
+ * Dashboard metrics.
+ *
+ * The summary is computed once into a shared snapshot that every poller is served from.
+ * Confirmation, hold, order and batch changes mark it dirty and the scheduler recomputes it
+ * at most once per refresh interval. A snapshot older than the max age (changes made on
+ * another node, or nobody polling for a while) or from a previous day is recomputed on read.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -29,10 +44,93 @@ public class DashboardService {
     private final ProductionConfirmationRepository confirmationRepository;
     private final BatchRepository batchRepository;
     private final AuditService auditService;
+    private final PlatformTransactionManager transactionManager;
 
-    @Transactional(readOnly = true)
+    @Value("${app.dashboard.snapshot-max-age-ms:60000}")
+    private long snapshotMaxAgeMs = 60000;
+
+    private volatile Snapshot snapshot;
+    private volatile long lastReadAt;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final Object refreshLock = new Object();
+
+    /** A computed summary and when it was computed */
+    private record Snapshot(DashboardDTO.Summary summary, LocalDateTime generatedAt, long computedAtMillis) {
+
+        long ageMillis() {
+            return System.currentTimeMillis() - computedAtMillis;
+        }
+    }
+
+    /**
+     * Get the shared dashboard summary snapshot, with its age
+     */
     public DashboardDTO.Summary getDashboardSummary() {
-        log.info("Getting dashboard summary");
+        lastReadAt = System.currentTimeMillis();
+        Snapshot current = snapshot;
+        if (isExpired(current)) {
+            current = refresh(true);
+        }
+        return current.summary().toBuilder()
+                .generatedAt(current.generatedAt())
+                .snapshotAgeMs(current.ageMillis())
+                .build();
+    }
+
+    /**
+     * Flag the snapshot for recomputation. Inside a transaction it is flagged again after
+     * commit, so a refresh running before the commit cannot leave the old numbers in place.
+     */
+    public void markSummaryDirty() {
+        dirty.set(true);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dirty.set(true);
+                }
+            });
+        }
+    }
+
+    /**
+     * Recompute a dirty snapshot while someone is still polling it
+     */
+    @Scheduled(fixedDelayString = "${app.dashboard.refresh-interval-ms:5000}")
+    public void refreshIfDirty() {
+        if (snapshot == null || !dirty.get()
+                || System.currentTimeMillis() - lastReadAt > snapshotMaxAgeMs) {
+            return;
+        }
+        refresh(false);
+    }
+
+    private boolean isExpired(Snapshot current) {
+        return current == null
+                || current.ageMillis() > snapshotMaxAgeMs
+                || !current.generatedAt().toLocalDate().equals(LocalDate.now());
+    }
+
+    private Snapshot refresh(boolean onlyIfExpired) {
+        synchronized (refreshLock) {
+            // Readers queued behind a refresh take its result instead of recomputing
+            if (onlyIfExpired && !isExpired(snapshot)) {
+                return snapshot;
+            }
+            dirty.set(false);
+            long started = System.currentTimeMillis();
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            transactionTemplate.setReadOnly(true);
+            DashboardDTO.Summary summary = transactionTemplate.execute(status -> computeSummary());
+            Snapshot computed = new Snapshot(summary, LocalDateTime.now(), System.currentTimeMillis());
+            snapshot = computed;
+            log.debug("Dashboard summary recomputed in {} ms", computed.computedAtMillis() - started);
+            return computed;
+        }
+    }
+
+    private DashboardDTO.Summary computeSummary() {
+        log.info("Computing dashboard summary");
 
         // Get counts
         Long totalOrders = orderRepository.count();
@@ -0,0 +1,244 @@
+package com.mes.production.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mes.production.repository.ExportQueryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Raw data exports as CSV or NDJSON for BI tools.
+ *
+ * Each export is one forward-only query streamed with a JDBC fetch size and written row by row
+ * to the caller's output stream, so memory stays constant however many rows match.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DataExportService {
+
+    public static final String BATCHES = "batches";
+    public static final String INVENTORY = "inventory";
+    public static final String INVENTORY_MOVEMENTS = "inventory-movements";
+    public static final String CONFIRMATIONS = "confirmations";
+    public static final String AUDIT = "audit";
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    /** Column names per dataset, in the order the stream queries select them */
+    private static final Map<String, List<String>> COLUMNS = Map.of(
+            BATCHES, List.of("batchId", "batchNumber", "materialId", "materialName", "quantity", "unit", "status",
+                    "createdVia", "generatedAtOperationId", "supplierBatchNumber", "expiryDate", "approvedBy",
+                    "approvedOn", "createdOn", "createdBy"),
+            INVENTORY, List.of("inventoryId", "materialId", "materialName", "inventoryType", "state", "quantity",
+                    "unit", "location", "batchNumber", "reservedForOrderId", "createdOn", "updatedOn"),
+            INVENTORY_MOVEMENTS, List.of("movementId", "movementType", "status", "quantity", "timestamp",
+                    "inventoryId", "materialId", "batchNumber", "operationId", "reason", "createdBy"),
+            CONFIRMATIONS, List.of("confirmationId", "operationId", "operationName", "operationType", "producedQty",
+                    "scrapQty", "startTime", "endTime", "delayMinutes", "delayReason", "status", "createdOn", "createdBy"),
+            AUDIT, List.of("auditId", "entityType", "entityId", "fieldName", "oldValue", "newValue", "action",
+                    "changedBy", "timestamp")
+    );
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final ExportQueryRepository exportQueryRepository;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Columns of a dataset in export order.
+     */
+    public List<String> getColumns(String dataset) {
+        List<String> columns = COLUMNS.get(dataset);
+        if (columns == null) {
+            throw new RuntimeException("Unknown export dataset: " + dataset + ". Expected one of " + COLUMNS.keySet());
+        }
+        return columns;
+    }
+
+    /**
+     * Lower-cased format name; throws for anything other than csv or ndjson.
+     */
+    public String normalizeFormat(String format) {
+        String normalized = format == null ? FORMAT_CSV : format.toLowerCase();
+        if (!FORMAT_CSV.equals(normalized) && !FORMAT_NDJSON.equals(normalized)) {
+            throw new RuntimeException("Unsupported export format: " + format + ". Expected csv or ndjson");
+        }
+        return normalized;
+    }
+
+    /**
+     * Stream a dataset to the given output.
+     *
+     * @param from   first day included (by creation date, or movement/audit timestamp), null for no lower bound
+     * @param to     last day included, null for no upper bound
+     * @param status status to match (state for inventory, action for audit), null for all
+     * @return number of rows written
+     */
+    public long export(String dataset, String format, LocalDate from, LocalDate to, String status,
+                       boolean gzip, OutputStream out) throws IOException {
+        List<String> columns = getColumns(dataset);
+        String normalizedFormat = normalizeFormat(format);
+        LocalDateTime fromTime = from != null ? from.atStartOfDay() : null;
+        LocalDateTime toTime = to != null ? to.plusDays(1).atStartOfDay() : null;
+        long startedAt = System.currentTimeMillis();
+
+        GZIPOutputStream gzipStream = gzip ? new GZIPOutputStream(out, WRITE_BUFFER_SIZE) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(gzipStream != null ? gzipStream : out,
+                StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        RowWriter rowWriter = FORMAT_NDJSON.equals(normalizedFormat)
+                ? new NdjsonRowWriter(writer, columns)
+                : new CsvRowWriter(writer, columns);
+
+        // Streamed results need the connection (and, on PostgreSQL, a transaction for the fetch size) until the last row
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        Long count = tx.execute(txStatus -> {
+            try (Stream<Object[]> rows = openStream(dataset, fromTime, toTime, blankToNull(status))) {
+                rowWriter.writeHeader();
+                long written = 0;
+                Iterator<Object[]> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    rowWriter.writeRow(iterator.next());
+                    written++;
+                }
+                rowWriter.finish();
+                return written;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        writer.flush();
+        if (gzipStream != null) {
+            gzipStream.finish();
+        }
+        out.flush();
+
+        log.info("Exported {} {} rows as {}{} in {}ms", count, dataset, normalizedFormat, gzip ? " (gzip)" : "",
+                System.currentTimeMillis() - startedAt);
+        return count != null ? count : 0L;
+    }
+
+    private Stream<Object[]> openStream(String dataset, LocalDateTime from, LocalDateTime to, String status) {
+        return switch (dataset) {
+            case BATCHES -> exportQueryRepository.streamBatches(from, to, status);
+            case INVENTORY -> exportQueryRepository.streamInventory(from, to, status);
+            case INVENTORY_MOVEMENTS -> exportQueryRepository.streamInventoryMovements(from, to, status);
+            case CONFIRMATIONS -> exportQueryRepository.streamConfirmations(from, to, status);
+            case AUDIT -> exportQueryRepository.streamAudit(from, to, status);
+            default -> throw new RuntimeException("Unknown export dataset: " + dataset);
+        };
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private interface RowWriter {
+        void writeHeader() throws IOException;
+
+        void writeRow(Object[] row) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    /**
+     * RFC 4180 CSV with a header row.
+     */
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+        private final List<String> columns;
+
+        CsvRowWriter(Writer writer, List<String> columns) {
+            this.writer = writer;
+            this.columns = columns;
+        }
+
+        @Override
+        public void writeHeader() throws IOException {
+            writeLine(columns.toArray());
+        }
+
+        @Override
+        public void writeRow(Object[] row) throws IOException {
+            writeLine(row);
+        }
+
+        @Override
+        public void finish() {
+        }
+
+        private void writeLine(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(escape(values[i]));
+            }
+            writer.write("\r\n");
+        }
+
+        private static String escape(Object value) {
+            if (value == null) {
+                return "";
+            }
+            String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                return '"' + text.replace("\"", "\"\"") + '"';
+            }
+            return text;
+        }
+    }
+
+    /**
+     * One JSON object per line, keyed by column name.
+     */
+    private final class NdjsonRowWriter implements RowWriter {
+        private final List<String> columns;
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(Writer writer, List<String> columns) throws IOException {
+            this.columns = columns;
+            this.generator = objectMapper.getFactory().createGenerator(writer)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void writeHeader() {
+        }
+
+        @Override
+        public void writeRow(Object[] row) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < row.length; i++) {
+                generator.writeFieldName(columns.get(i));
+                generator.writeObject(row[i]);
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+}
@@ -4,135 +4,170 @@ import com.mes.production.entity.Inventory;
 import com.mes.production.entity.Order;
 import com.mes.production.repository.InventoryRepository;
 import com.mes.production.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 /**
  * Service for generating Excel exports using Apache POI.
+ *
+ * Exports are streamed: rows are read in keyset pages, written through a windowed SXSSF
+ * workbook (older rows spill to a temp file) and the file goes straight to the caller's
+ * output stream, so memory stays flat regardless of table size.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ExcelExportService {
 
+    /** Rows sampled for column widths; autoSizeColumn cannot see rows already flushed to disk */
+    static final int WIDTH_SAMPLE_ROWS = 500;
+    static final int MAX_COLUMN_CHARS = 60;
+
     private final OrderRepository orderRepository;
     private final InventoryRepository inventoryRepository;
+    private final EntityManager entityManager;
+
+    @Value("${app.reports.excel.page-size:1000}")
+    private int pageSize = 1000;
+
+    @Value("${app.reports.excel.row-window:100}")
+    private int rowWindow = 100;
 
     /**
-     * Export orders to Excel (.xlsx).
+     * Write orders as Excel (.xlsx) to the given stream.
+     * @return number of orders written
      */
-    public byte[] exportOrders() {
-        try (Workbook workbook = new XSSFWorkbook();
-             ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+    public int writeOrders(OutputStream out) {
+        String[] columns = {"ID", "Order Number", "Customer", "Status", "Order Date", "Created On"};
+        int count = writeSheet(out, "Orders", "Orders Export", columns,
+                (afterId, page) -> orderRepository.findByOrderIdGreaterThanOrderByOrderIdAsc(afterId, page),
+                Order::getOrderId,
+                order -> new Object[]{
+                        order.getOrderId(),
+                        order.getOrderNumber(),
+                        order.getCustomerName(),
+                        order.getStatus(),
+                        order.getOrderDate(),
+                        order.getCreatedOn()
+                });
+        log.info("Exported {} orders to Excel", count);
+        return count;
+    }
 
-            Sheet sheet = workbook.createSheet("Orders");
+    /**
+     * Write inventory as Excel (.xlsx) to the given stream.
+     * @return number of inventory items written
+     */
+    public int writeInventory(OutputStream out) {
+        String[] columns = {"ID", "Material ID", "Material Name", "Type", "Quantity", "Unit", "State", "Location", "Batch Number"};
+        int count = writeSheet(out, "Inventory", "Inventory Export", columns,
+                inventoryRepository::findExportPage,
+                Inventory::getInventoryId,
+                inv -> new Object[]{
+                        inv.getInventoryId(),
+                        inv.getMaterialId(),
+                        inv.getMaterialName(),
+                        inv.getInventoryType(),
+                        inv.getQuantity(),
+                        inv.getUnit(),
+                        inv.getState(),
+                        inv.getLocation(),
+                        inv.getBatch() != null ? inv.getBatch().getBatchNumber() : null
+                });
+        log.info("Exported {} inventory items to Excel", count);
+        return count;
+    }
 
-            // Header style
+    private <T> int writeSheet(OutputStream out, String sheetName, String reportName, String[] columns,
+                               BiFunction<Long, Pageable, List<T>> pageLoader,
+                               Function<T, Long> idOf,
+                               Function<T, Object[]> rowValues) {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(rowWindow);
+        workbook.setCompressTempFiles(true);
+        try {
+            Sheet sheet = workbook.createSheet(sheetName);
             CellStyle headerStyle = createHeaderStyle(workbook);
-            CellStyle dateStyle = createDateStyle(workbook);
+            int[] widths = new int[columns.length];
 
-            // Header row
             Row header = sheet.createRow(0);
-            String[] columns = {"ID", "Order Number", "Customer", "Status", "Order Date", "Created On"};
             for (int i = 0; i < columns.length; i++) {
                 Cell cell = header.createCell(i);
                 cell.setCellValue(columns[i]);
                 cell.setCellStyle(headerStyle);
+                widths[i] = columns[i].length();
             }
 
-            // Data rows
-            List<Order> orders = orderRepository.findAll();
             int rowNum = 1;
-            for (Order order : orders) {
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(order.getOrderId());
-                row.createCell(1).setCellValue(order.getOrderNumber() != null ? order.getOrderNumber() : "");
-                row.createCell(2).setCellValue(order.getCustomerName() != null ? order.getCustomerName() : "");
-                row.createCell(3).setCellValue(order.getStatus() != null ? order.getStatus() : "");
-                Cell dateCell = row.createCell(4);
-                if (order.getOrderDate() != null) {
-                    dateCell.setCellValue(order.getOrderDate().toString());
+            long afterId = 0L;
+            Pageable page = PageRequest.of(0, pageSize);
+            while (true) {
+                List<T> items = pageLoader.apply(afterId, page);
+                for (T item : items) {
+                    Object[] values = rowValues.apply(item);
+                    Row row = sheet.createRow(rowNum);
+                    for (int i = 0; i < values.length; i++) {
+                        String text = setCellValue(row.createCell(i), values[i]);
+                        if (rowNum <= WIDTH_SAMPLE_ROWS) {
+                            widths[i] = Math.max(widths[i], text.length());
+                        }
+                    }
+                    rowNum++;
                 }
-                Cell createdOnCell = row.createCell(5);
-                if (order.getCreatedOn() != null) {
-                    createdOnCell.setCellValue(order.getCreatedOn().toString());
+                // Rows are in the sheet now; drop the page so the persistence context stays empty
+                entityManager.clear();
+                if (items.size() < pageSize) {
+                    break;
                 }
+                afterId = idOf.apply(items.get(items.size() - 1));
             }
 
-            // Auto-size columns
             for (int i = 0; i < columns.length; i++) {
-                sheet.autoSizeColumn(i);
+                sheet.setColumnWidth(i, (Math.min(widths[i], MAX_COLUMN_CHARS) + 2) * 256);
             }
 
-            // Add metadata sheet
-            addMetadataSheet(workbook, "Orders Export", orders.size());
+            int recordCount = rowNum - 1;
+            addMetadataSheet(workbook, reportName, recordCount);
 
-            workbook.write(baos);
-            log.info("Exported {} orders to Excel", orders.size());
-            return baos.toByteArray();
+            workbook.write(out);
+            out.flush();
+            return recordCount;
         } catch (Exception e) {
-            log.error("Error exporting orders to Excel", e);
+            log.error("Error exporting {} to Excel", sheetName, e);
             throw new RuntimeException("Failed to export to Excel", e);
+        } finally {
+            // Deletes the temp files backing flushed rows
+            workbook.dispose();
         }
     }
 
     /**
-     * Export inventory to Excel (.xlsx).
+     * Writes a value to the cell and returns its text, used for width estimation.
      */
-    public byte[] exportInventory() {
-        try (Workbook workbook = new XSSFWorkbook();
-             ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-
-            Sheet sheet = workbook.createSheet("Inventory");
-
-            CellStyle headerStyle = createHeaderStyle(workbook);
-
-            Row header = sheet.createRow(0);
-            String[] columns = {"ID", "Material ID", "Material Name", "Type", "Quantity", "Unit", "State", "Location", "Batch Number"};
-            for (int i = 0; i < columns.length; i++) {
-                Cell cell = header.createCell(i);
-                cell.setCellValue(columns[i]);
-                cell.setCellStyle(headerStyle);
-            }
-
-            List<Inventory> items = inventoryRepository.findAll();
-            int rowNum = 1;
-            for (Inventory inv : items) {
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(inv.getInventoryId());
-                row.createCell(1).setCellValue(inv.getMaterialId() != null ? inv.getMaterialId() : "");
-                row.createCell(2).setCellValue(inv.getMaterialName() != null ? inv.getMaterialName() : "");
-                row.createCell(3).setCellValue(inv.getInventoryType() != null ? inv.getInventoryType() : "");
-                if (inv.getQuantity() != null) {
-                    row.createCell(4).setCellValue(inv.getQuantity().doubleValue());
-                }
-                row.createCell(5).setCellValue(inv.getUnit() != null ? inv.getUnit() : "");
-                row.createCell(6).setCellValue(inv.getState() != null ? inv.getState() : "");
-                row.createCell(7).setCellValue(inv.getLocation() != null ? inv.getLocation() : "");
-                row.createCell(8).setCellValue(inv.getBatch() != null && inv.getBatch().getBatchNumber() != null ? inv.getBatch().getBatchNumber() : "");
-            }
-
-            for (int i = 0; i < columns.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
-
-            addMetadataSheet(workbook, "Inventory Export", items.size());
-
-            workbook.write(baos);
-            log.info("Exported {} inventory items to Excel", items.size());
-            return baos.toByteArray();
-        } catch (Exception e) {
-            log.error("Error exporting inventory to Excel", e);
-            throw new RuntimeException("Failed to export to Excel", e);
+    private String setCellValue(Cell cell, Object value) {
+        if (value == null) {
+            cell.setCellValue("");
+            return "";
+        }
+        if (value instanceof Number number) {
+            cell.setCellValue(number.doubleValue());
+        } else {
+            cell.setCellValue(value.toString());
         }
+        return value.toString();
     }
 
     private CellStyle createHeaderStyle(Workbook workbook) {
@@ -147,13 +182,6 @@ public class ExcelExportService {
         return style;
     }
 
-    private CellStyle createDateStyle(Workbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        CreationHelper helper = workbook.getCreationHelper();
-        style.setDataFormat(helper.createDataFormat().getFormat("yyyy-mm-dd"));
-        return style;
-    }
-
     private void addMetadataSheet(Workbook workbook, String reportName, int recordCount) {
         Sheet meta = workbook.createSheet("_Metadata");
         Row r0 = meta.createRow(0);
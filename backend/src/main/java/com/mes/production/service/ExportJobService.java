@@ -0,0 +1,458 @@
+package com.mes.production.service;
+
+import com.mes.production.dto.ExportJobDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background generation of PDF, Excel and CSV/NDJSON exports.
+ *
+ * A submitted report becomes a job on a bounded worker pool that writes the file to a local
+ * spool directory; callers poll the job and download the file once it is complete, so large
+ * reports never hold a request thread. An identical report already queued or running is shared
+ * instead of generated twice, each user may have a limited number of jobs in flight, and
+ * finished jobs are removed with their files after the retention period.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportJobService {
+
+    public static final String PDF_ORDERS = "PDF_ORDERS";
+    public static final String PDF_INVENTORY = "PDF_INVENTORY";
+    public static final String EXCEL_ORDERS = "EXCEL_ORDERS";
+    public static final String EXCEL_INVENTORY = "EXCEL_INVENTORY";
+    public static final String DATA_EXPORT = "DATA_EXPORT";
+    static final Set<String> REPORT_TYPES = Set.of(PDF_ORDERS, PDF_INVENTORY, EXCEL_ORDERS, EXCEL_INVENTORY, DATA_EXPORT);
+
+    public static final String STATUS_QUEUED = "QUEUED";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+    public static final String STATUS_CANCELLED = "CANCELLED";
+
+    private static final String XLSX_CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+    private final PdfReportService pdfReportService;
+    private final ExcelExportService excelExportService;
+    private final DataExportService dataExportService;
+
+    @Value("${app.exports.jobs.workers:2}")
+    private int workerCount = 2;
+
+    @Value("${app.exports.jobs.queue-capacity:20}")
+    private int queueCapacity = 20;
+
+    @Value("${app.exports.jobs.max-active-per-user:2}")
+    private int maxActivePerUser = 2;
+
+    @Value("${app.exports.jobs.ttl-ms:3600000}")
+    private long ttlMs = 3600000;
+
+    @Value("${app.exports.jobs.spool-dir:${java.io.tmpdir}/mes-exports}")
+    private String spoolDirectory = System.getProperty("java.io.tmpdir") + "/mes-exports";
+
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+    // Queued or running job per report key, for deduplication; guarded by this
+    private final Map<String, ExportJob> activeByKey = new HashMap<>();
+
+    private Path spoolDir;
+    private ThreadPoolExecutor workers;
+
+    /**
+     * One export job; status transitions are guarded by the job's monitor.
+     */
+    static final class ExportJob {
+        final String id;
+        final String key;
+        final ExportJobDTO.Request request;
+        final String owner;
+        final Set<String> requesters = ConcurrentHashMap.newKeySet();
+        final LocalDateTime createdAt = LocalDateTime.now();
+        final AtomicLong bytesWritten = new AtomicLong();
+        final String fileName;
+        final String contentType;
+        volatile String status = STATUS_QUEUED;
+        volatile LocalDateTime startedAt;
+        volatile LocalDateTime completedAt;
+        volatile String errorMessage;
+        volatile Path file;
+        volatile Future<?> future;
+
+        ExportJob(String id, String key, ExportJobDTO.Request request, String owner, String fileName, String contentType) {
+            this.id = id;
+            this.key = key;
+            this.request = request;
+            this.owner = owner;
+            this.fileName = fileName;
+            this.contentType = contentType;
+            requesters.add(owner);
+        }
+
+        boolean isActive() {
+            return STATUS_QUEUED.equals(status) || STATUS_RUNNING.equals(status);
+        }
+    }
+
+    /**
+     * Completed export ready for download.
+     */
+    public record ExportFile(Path path, String fileName, String contentType) {
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        spoolDir = Paths.get(spoolDirectory);
+        Files.createDirectories(spoolDir);
+        // Jobs do not survive a restart, so job files left from a previous run are orphaned.
+        // Only those are removed: the spool directory may be shared with other files.
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(spoolDir, "*.{part,out}")) {
+            for (Path leftover : leftovers) {
+                if (isJobFile(leftover)) {
+                    deleteQuietly(leftover);
+                }
+            }
+        }
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+            Thread thread = new Thread(r, "export-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Export job spool directory: {} ({} workers)", spoolDir, workerCount);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    // ========== Submission ==========
+
+    /**
+     * Queue a report, or attach to an identical one already queued or running.
+     */
+    public ExportJobDTO.Job submit(ExportJobDTO.Request request, String username) {
+        String reportType = request.getReportType() != null ? request.getReportType().toUpperCase() : null;
+        if (!REPORT_TYPES.contains(reportType)) {
+            throw new RuntimeException("Unknown report type: " + request.getReportType() + ". Expected one of " + REPORT_TYPES);
+        }
+        ExportJobDTO.Request normalized = normalize(request, reportType);
+        String key = reportKey(normalized);
+
+        synchronized (this) {
+            ExportJob existing = activeByKey.get(key);
+            if (existing != null && existing.isActive()) {
+                existing.requesters.add(username);
+                log.info("Export job {} shared with {} for {}", existing.id, username, key);
+                return toDto(existing, true);
+            }
+
+            long inFlight = jobs.values().stream()
+                    .filter(job -> job.owner.equals(username) && job.isActive())
+                    .count();
+            if (inFlight >= maxActivePerUser) {
+                throw new RuntimeException("Too many export jobs in progress (limit " + maxActivePerUser
+                        + "). Wait for one to finish or cancel it.");
+            }
+
+            String id = UUID.randomUUID().toString();
+            ExportJob job = new ExportJob(id, key, normalized, username, fileName(normalized), contentType(normalized));
+            try {
+                job.future = workers.submit(() -> run(job));
+            } catch (RejectedExecutionException e) {
+                throw new RuntimeException("Export queue is full, try again later");
+            }
+            jobs.put(id, job);
+            activeByKey.put(key, job);
+            log.info("Export job {} queued by {} for {}", id, username, key);
+            return toDto(job, false);
+        }
+    }
+
+    private ExportJobDTO.Request normalize(ExportJobDTO.Request request, String reportType) {
+        if (!DATA_EXPORT.equals(reportType)) {
+            return ExportJobDTO.Request.builder().reportType(reportType).build();
+        }
+        dataExportService.getColumns(request.getDataset());
+        return ExportJobDTO.Request.builder()
+                .reportType(reportType)
+                .dataset(request.getDataset())
+                .format(dataExportService.normalizeFormat(request.getFormat()))
+                .fromDate(request.getFromDate())
+                .toDate(request.getToDate())
+                .status(request.getStatus() == null || request.getStatus().isBlank() ? null : request.getStatus())
+                .gzip(request.isGzip())
+                .build();
+    }
+
+    private String reportKey(ExportJobDTO.Request request) {
+        return String.join("|", request.getReportType(), String.valueOf(request.getDataset()),
+                String.valueOf(request.getFormat()), String.valueOf(request.getFromDate()),
+                String.valueOf(request.getToDate()), String.valueOf(request.getStatus()),
+                String.valueOf(request.isGzip()));
+    }
+
+    private String fileName(ExportJobDTO.Request request) {
+        return switch (request.getReportType()) {
+            case PDF_ORDERS -> "orders-report.pdf";
+            case PDF_INVENTORY -> "inventory-report.pdf";
+            case EXCEL_ORDERS -> "orders-export.xlsx";
+            case EXCEL_INVENTORY -> "inventory-export.xlsx";
+            default -> request.getDataset() + "-export." + request.getFormat() + (request.isGzip() ? ".gz" : "");
+        };
+    }
+
+    private String contentType(ExportJobDTO.Request request) {
+        return switch (request.getReportType()) {
+            case PDF_ORDERS, PDF_INVENTORY -> "application/pdf";
+            case EXCEL_ORDERS, EXCEL_INVENTORY -> XLSX_CONTENT_TYPE;
+            default -> request.isGzip() ? "application/gzip"
+                    : DataExportService.FORMAT_NDJSON.equals(request.getFormat()) ? "application/x-ndjson" : "text/csv";
+        };
+    }
+
+    // ========== Generation ==========
+
+    void run(ExportJob job) {
+        synchronized (job) {
+            if (!STATUS_QUEUED.equals(job.status)) {
+                return; // Cancelled while queued
+            }
+            job.status = STATUS_RUNNING;
+            job.startedAt = LocalDateTime.now();
+        }
+
+        Path part = spoolDir.resolve(job.id + ".part");
+        Path target = spoolDir.resolve(job.id + ".out");
+        try {
+            try (OutputStream out = new CountingOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(part)), job.bytesWritten)) {
+                generate(job.request, out);
+            }
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+            synchronized (job) {
+                if (STATUS_CANCELLED.equals(job.status)) {
+                    deleteQuietly(target);
+                } else {
+                    job.file = target;
+                    job.completedAt = LocalDateTime.now();
+                    job.status = STATUS_COMPLETED;
+                }
+            }
+            log.info("Export job {} completed: {} bytes", job.id, job.bytesWritten.get());
+        } catch (Exception e) {
+            deleteQuietly(part);
+            synchronized (job) {
+                if (!STATUS_CANCELLED.equals(job.status)) {
+                    job.errorMessage = e.getMessage();
+                    job.completedAt = LocalDateTime.now();
+                    job.status = STATUS_FAILED;
+                }
+            }
+            log.error("Export job {} failed", job.id, e);
+        } finally {
+            release(job);
+        }
+    }
+
+    private void generate(ExportJobDTO.Request request, OutputStream out) throws IOException {
+        switch (request.getReportType()) {
+            case PDF_ORDERS -> pdfReportService.writeOrderReport(out);
+            case PDF_INVENTORY -> pdfReportService.writeInventoryReport(out);
+            case EXCEL_ORDERS -> excelExportService.writeOrders(out);
+            case EXCEL_INVENTORY -> excelExportService.writeInventory(out);
+            default -> dataExportService.export(request.getDataset(), request.getFormat(), request.getFromDate(),
+                    request.getToDate(), request.getStatus(), request.isGzip(), out);
+        }
+    }
+
+    private synchronized void release(ExportJob job) {
+        activeByKey.remove(job.key, job);
+    }
+
+    // ========== Queries ==========
+
+    public ExportJobDTO.Job getJob(String jobId, String username) {
+        return toDto(findJob(jobId, username), false);
+    }
+
+    /**
+     * Jobs the user submitted or shares, newest first.
+     */
+    public List<ExportJobDTO.Job> getJobs(String username) {
+        return jobs.values().stream()
+                .filter(job -> job.requesters.contains(username))
+                .sorted(Comparator.comparing((ExportJob job) -> job.createdAt).reversed())
+                .map(job -> toDto(job, false))
+                .toList();
+    }
+
+    public ExportFile getFile(String jobId, String username) {
+        ExportJob job = findJob(jobId, username);
+        Path file = job.file;
+        if (!STATUS_COMPLETED.equals(job.status) || file == null || !Files.exists(file)) {
+            throw new RuntimeException("Export job " + jobId + " has no file to download (status " + job.status + ")");
+        }
+        return new ExportFile(file, job.fileName, job.contentType);
+    }
+
+    /**
+     * Withdraw the user's interest in a job. The job itself is cancelled once nobody else shares it.
+     */
+    public ExportJobDTO.Job cancel(String jobId, String username) {
+        ExportJob job = findJob(jobId, username);
+        job.requesters.remove(username);
+        if (job.requesters.isEmpty()) {
+            synchronized (job) {
+                if (job.isActive()) {
+                    job.status = STATUS_CANCELLED;
+                    job.completedAt = LocalDateTime.now();
+                    if (job.future != null) {
+                        job.future.cancel(true);
+                    }
+                }
+            }
+            release(job);
+            removeJob(job);
+            log.info("Export job {} cancelled by {}", jobId, username);
+        }
+        return toDto(job, false);
+    }
+
+    public ExportJobDTO.QueueStats getQueueStats() {
+        int running = (int) jobs.values().stream().filter(job -> STATUS_RUNNING.equals(job.status)).count();
+        int queued = (int) jobs.values().stream().filter(job -> STATUS_QUEUED.equals(job.status)).count();
+        return ExportJobDTO.QueueStats.builder()
+                .queued(queued)
+                .running(running)
+                .retained(jobs.size())
+                .workers(workerCount)
+                .queueCapacity(queueCapacity)
+                .build();
+    }
+
+    private ExportJob findJob(String jobId, String username) {
+        ExportJob job = jobs.get(jobId);
+        if (job == null || !job.requesters.contains(username)) {
+            throw new RuntimeException("Export job not found: " + jobId);
+        }
+        return job;
+    }
+
+    // ========== Cleanup ==========
+
+    /**
+     * Remove finished jobs and their files once the retention period has passed.
+     */
+    @Scheduled(fixedDelayString = "${app.exports.jobs.cleanup-interval-ms:300000}")
+    public void cleanupExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMillis(ttlMs));
+        int removed = 0;
+        for (ExportJob job : jobs.values()) {
+            if (!job.isActive() && job.completedAt != null && job.completedAt.isBefore(cutoff)) {
+                removeJob(job);
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            log.info("Removed {} expired export jobs", removed);
+        }
+    }
+
+    private void removeJob(ExportJob job) {
+        jobs.remove(job.id, job);
+        if (job.file != null) {
+            deleteQuietly(job.file);
+        }
+    }
+
+    /**
+     * Whether a file is one this service spools: a job id (UUID) with a .part or .out suffix
+     */
+    static boolean isJobFile(Path path) {
+        String name = path.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String suffix = dot < 0 ? "" : name.substring(dot);
+        if (!".part".equals(suffix) && !".out".equals(suffix) || !Files.isRegularFile(path)) {
+            return false;
+        }
+        String id = name.substring(0, dot);
+        try {
+            return UUID.fromString(id).toString().equals(id);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete export file {}: {}", path, e.getMessage());
+        }
+    }
+
+    private ExportJobDTO.Job toDto(ExportJob job, boolean deduplicated) {
+        LocalDateTime completedAt = job.completedAt;
+        return ExportJobDTO.Job.builder()
+                .jobId(job.id)
+                .reportType(job.request.getReportType())
+                .dataset(job.request.getDataset())
+                .status(job.status)
+                .requestedBy(job.owner)
+                .deduplicated(deduplicated)
+                .bytesWritten(job.bytesWritten.get())
+                .fileName(job.fileName)
+                .errorMessage(job.errorMessage)
+                .createdAt(job.createdAt)
+                .startedAt(job.startedAt)
+                .completedAt(completedAt)
+                .expiresAt(completedAt != null ? completedAt.plus(Duration.ofMillis(ttlMs)) : null)
+                .build();
+    }
+
+    /**
+     * Counts bytes as they are written so pollers can follow progress.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private final AtomicLong count;
+
+        CountingOutputStream(OutputStream out, AtomicLong count) {
+            super(out);
+            this.count = count;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count.incrementAndGet();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count.addAndGet(len);
+        }
+    }
+}
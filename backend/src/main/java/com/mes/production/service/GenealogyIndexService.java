@@ -0,0 +1,585 @@
+package com.mes.production.service;
+
+import com.mes.production.dto.BatchDTO;
+import com.mes.production.entity.BatchRelation;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory index of ACTIVE batch_relations for recall impact analysis.
+ *
+ * The relations are loaded into a compressed sparse row (CSR) snapshot: batch ids sorted in a
+ * long[], and for each batch a slice of int[] neighbour positions, once for children and once
+ * for parents. Ancestor, descendant and common-ancestor queries walk these arrays without
+ * touching the database.
+ *
+ * Relations created or deactivated after the snapshot was loaded are applied, after their
+ * transaction commits, to a small overlay of added edges and removed relation ids. Once the
+ * overlay passes app.genealogy.index.rebuild-threshold, the snapshot is reloaded in the background.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GenealogyIndexService {
+
+    public static final String DESCENDANTS = "DESCENDANTS";
+    public static final String ANCESTORS = "ANCESTORS";
+    public static final String COMMON_ANCESTORS = "COMMON_ANCESTORS";
+
+    static final String LOAD_SQL =
+            "SELECT relation_id, parent_batch_id, child_batch_id FROM batch_relations WHERE status = 'ACTIVE'";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.genealogy.index.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.genealogy.index.rebuild-threshold:50000}")
+    private int rebuildThreshold = 50000;
+
+    private volatile IndexState state = new IndexState(Csr.EMPTY, new Delta());
+    private volatile boolean ready;
+    private volatile long lastRebuildMillis;
+    private volatile LocalDateTime lastRebuiltAt;
+
+    /** Changes committed while a rebuild was loading, replayed onto the new snapshot */
+    private List<Change> changesDuringRebuild;
+    private final Object updateLock = new Object();
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    private ExecutorService rebuildExecutor;
+    private Timer rebuildTimer;
+
+    /**
+     * Immutable CSR snapshot. Position i in batchIds is the batch's dense index; its children
+     * are childTargets[childOffsets[i] .. childOffsets[i + 1]) (same layout for parents), with
+     * the relation id of each edge alongside.
+     */
+    static final class Csr {
+
+        static final Csr EMPTY = build(new long[0], new long[0], new long[0], 0);
+
+        final long[] batchIds;
+        final int[] childOffsets;
+        final int[] childTargets;
+        final long[] childRelations;
+        final int[] parentOffsets;
+        final int[] parentTargets;
+        final long[] parentRelations;
+        final long[] relationIds;
+
+        private Csr(long[] batchIds, int[] childOffsets, int[] childTargets, long[] childRelations,
+                    int[] parentOffsets, int[] parentTargets, long[] parentRelations, long[] relationIds) {
+            this.batchIds = batchIds;
+            this.childOffsets = childOffsets;
+            this.childTargets = childTargets;
+            this.childRelations = childRelations;
+            this.parentOffsets = parentOffsets;
+            this.parentTargets = parentTargets;
+            this.parentRelations = parentRelations;
+            this.relationIds = relationIds;
+        }
+
+        static Csr build(long[] relationIds, long[] parentIds, long[] childIds, int size) {
+            // Dense index: sorted distinct batch ids
+            long[] ids = new long[size * 2];
+            System.arraycopy(parentIds, 0, ids, 0, size);
+            System.arraycopy(childIds, 0, ids, size, size);
+            Arrays.sort(ids);
+            int n = 0;
+            for (long id : ids) {
+                if (n == 0 || ids[n - 1] != id) {
+                    ids[n++] = id;
+                }
+            }
+            long[] batchIds = Arrays.copyOf(ids, n);
+
+            int[] parentIdx = new int[size];
+            int[] childIdx = new int[size];
+            for (int i = 0; i < size; i++) {
+                parentIdx[i] = Arrays.binarySearch(batchIds, parentIds[i]);
+                childIdx[i] = Arrays.binarySearch(batchIds, childIds[i]);
+            }
+
+            int[] childOffsets = offsets(parentIdx, n);
+            int[] childTargets = new int[size];
+            long[] childRelations = new long[size];
+            fill(childOffsets, parentIdx, childIdx, relationIds, childTargets, childRelations);
+
+            int[] parentOffsets = offsets(childIdx, n);
+            int[] parentTargets = new int[size];
+            long[] parentRelations = new long[size];
+            fill(parentOffsets, childIdx, parentIdx, relationIds, parentTargets, parentRelations);
+
+            long[] sortedRelations = Arrays.copyOf(relationIds, size);
+            Arrays.sort(sortedRelations);
+
+            return new Csr(batchIds, childOffsets, childTargets, childRelations,
+                    parentOffsets, parentTargets, parentRelations, sortedRelations);
+        }
+
+        private static int[] offsets(int[] from, int n) {
+            int[] offsets = new int[n + 1];
+            for (int f : from) {
+                offsets[f + 1]++;
+            }
+            for (int i = 0; i < n; i++) {
+                offsets[i + 1] += offsets[i];
+            }
+            return offsets;
+        }
+
+        private static void fill(int[] offsets, int[] from, int[] to, long[] relationIds,
+                                 int[] targets, long[] relations) {
+            int[] cursor = Arrays.copyOf(offsets, offsets.length - 1);
+            for (int i = 0; i < from.length; i++) {
+                int pos = cursor[from[i]]++;
+                targets[pos] = to[i];
+                relations[pos] = relationIds[i];
+            }
+        }
+
+        int indexOf(long batchId) {
+            int i = Arrays.binarySearch(batchIds, batchId);
+            return i >= 0 ? i : -1;
+        }
+
+        boolean containsRelation(long relationId) {
+            return Arrays.binarySearch(relationIds, relationId) >= 0;
+        }
+    }
+
+    record Edge(long relationId, long parentId, long childId) {
+    }
+
+    record Change(Edge edge, boolean active) {
+    }
+
+    /**
+     * Relations added or deactivated since the snapshot was loaded
+     */
+    static final class Delta {
+        final Map<Long, Edge> added = new ConcurrentHashMap<>();
+        final Map<Long, List<Edge>> addedByParent = new ConcurrentHashMap<>();
+        final Map<Long, List<Edge>> addedByChild = new ConcurrentHashMap<>();
+        final Set<Long> removed = ConcurrentHashMap.newKeySet();
+
+        int size() {
+            return added.size() + removed.size();
+        }
+    }
+
+    record IndexState(Csr csr, Delta delta) {
+    }
+
+    @PostConstruct
+    void init() {
+        rebuildExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "genealogy-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("mes.genealogy.index.batches", this, s -> s.state.csr().batchIds.length)
+                .description("Batches in the genealogy index snapshot")
+                .register(meterRegistry);
+        Gauge.builder("mes.genealogy.index.relations", this, s -> s.state.csr().relationIds.length)
+                .description("Active relations in the genealogy index snapshot")
+                .register(meterRegistry);
+        Gauge.builder("mes.genealogy.index.pending", this, s -> s.state.delta().size())
+                .description("Relation changes applied on top of the snapshot")
+                .register(meterRegistry);
+        rebuildTimer = Timer.builder("mes.genealogy.index.rebuild")
+                .description("Time to load the genealogy index from batch_relations")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (enabled) {
+            requestRebuild();
+        }
+    }
+
+    /**
+     * Reload the snapshot in the background; queries keep using the current one meanwhile
+     */
+    public void requestRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            try {
+                rebuildExecutor.execute(() -> {
+                    try {
+                        rebuild();
+                    } catch (RuntimeException e) {
+                        log.error("Genealogy index rebuild failed: {}", e.getMessage(), e);
+                    } finally {
+                        rebuildPending.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                rebuildPending.set(false);
+            }
+        }
+    }
+
+    /**
+     * Load all ACTIVE relations into a new snapshot and swap it in
+     */
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        synchronized (updateLock) {
+            changesDuringRebuild = new ArrayList<>();
+        }
+        try {
+            LongArray relationIds = new LongArray();
+            LongArray parentIds = new LongArray();
+            LongArray childIds = new LongArray();
+            jdbcTemplate.query(con -> {
+                var ps = con.prepareStatement(LOAD_SQL);
+                ps.setFetchSize(10000);
+                return ps;
+            }, rs -> {
+                relationIds.add(rs.getLong(1));
+                parentIds.add(rs.getLong(2));
+                childIds.add(rs.getLong(3));
+            });
+            Csr csr = Csr.build(relationIds.values, parentIds.values, childIds.values, relationIds.size);
+
+            synchronized (updateLock) {
+                IndexState fresh = new IndexState(csr, new Delta());
+                for (Change change : changesDuringRebuild) {
+                    apply(fresh, change);
+                }
+                state = fresh;
+                ready = true;
+            }
+        } finally {
+            synchronized (updateLock) {
+                changesDuringRebuild = null;
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        rebuildTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        lastRebuildMillis = TimeUnit.NANOSECONDS.toMillis(elapsed);
+        lastRebuiltAt = LocalDateTime.now();
+        log.info("Genealogy index loaded: {} batches, {} relations in {} ms",
+                state.csr().batchIds.length, state.csr().relationIds.length, lastRebuildMillis);
+    }
+
+    /**
+     * Record new ACTIVE relations; applied once the current transaction commits
+     */
+    public void relationsCreated(Collection<BatchRelation> relations) {
+        record(relations, true);
+    }
+
+    /**
+     * Record relations that were reversed or soft-deleted; applied once the current transaction commits
+     */
+    public void relationsRemoved(Collection<BatchRelation> relations) {
+        record(relations, false);
+    }
+
+    private void record(Collection<BatchRelation> relations, boolean active) {
+        if (!enabled || relations == null || relations.isEmpty()) {
+            return;
+        }
+        List<Change> changes = new ArrayList<>(relations.size());
+        for (BatchRelation relation : relations) {
+            if (relation == null || relation.getRelationId() == null
+                    || relation.getParentBatch() == null || relation.getChildBatch() == null) {
+                continue;
+            }
+            changes.add(new Change(new Edge(relation.getRelationId(),
+                    relation.getParentBatch().getBatchId(), relation.getChildBatch().getBatchId()), active));
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyAll(changes);
+                }
+            });
+        } else {
+            applyAll(changes);
+        }
+    }
+
+    private void applyAll(List<Change> changes) {
+        int pending;
+        synchronized (updateLock) {
+            IndexState current = state;
+            for (Change change : changes) {
+                apply(current, change);
+            }
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.addAll(changes);
+            }
+            pending = current.delta().size();
+        }
+        if (ready && pending >= rebuildThreshold) {
+            requestRebuild();
+        }
+    }
+
+    /**
+     * Apply one change to the overlay. Idempotent, so replaying changes the reload already saw is harmless.
+     */
+    private static void apply(IndexState target, Change change) {
+        Edge edge = change.edge();
+        Delta delta = target.delta();
+        if (change.active()) {
+            if (target.csr().containsRelation(edge.relationId())) {
+                delta.removed.remove(edge.relationId());
+                return;
+            }
+            if (delta.added.putIfAbsent(edge.relationId(), edge) == null) {
+                delta.addedByParent.computeIfAbsent(edge.parentId(), k -> new CopyOnWriteArrayList<>()).add(edge);
+                delta.addedByChild.computeIfAbsent(edge.childId(), k -> new CopyOnWriteArrayList<>()).add(edge);
+            }
+        } else {
+            Edge added = delta.added.remove(edge.relationId());
+            if (added != null) {
+                removeEdge(delta.addedByParent, added.parentId(), added);
+                removeEdge(delta.addedByChild, added.childId(), added);
+            } else if (target.csr().containsRelation(edge.relationId())) {
+                delta.removed.add(edge.relationId());
+            }
+        }
+    }
+
+    private static void removeEdge(Map<Long, List<Edge>> index, long batchId, Edge edge) {
+        List<Edge> edges = index.get(batchId);
+        if (edges != null) {
+            edges.remove(edge);
+            if (edges.isEmpty()) {
+                index.remove(batchId);
+            }
+        }
+    }
+
+    /**
+     * All batches made from any of the given batches, directly or indirectly (excluding the given batches)
+     */
+    public long[] findDescendants(Collection<Long> batchIds, Integer maxDepth) {
+        return traverse(batchIds, true, maxDepth);
+    }
+
+    /**
+     * All batches that went into any of the given batches, directly or indirectly (excluding the given batches)
+     */
+    public long[] findAncestors(Collection<Long> batchIds, Integer maxDepth) {
+        return traverse(batchIds, false, maxDepth);
+    }
+
+    /**
+     * Batches that are an ancestor of every one of the given batches
+     */
+    public long[] findCommonAncestors(Collection<Long> batchIds) {
+        if (batchIds == null || batchIds.isEmpty()) {
+            return new long[0];
+        }
+        long[] common = null;
+        for (Long batchId : new HashSet<>(batchIds)) {
+            long[] ancestors = traverse(List.of(batchId), false, null);
+            Arrays.sort(ancestors);
+            if (common == null) {
+                common = ancestors;
+            } else {
+                int n = 0;
+                for (long id : common) {
+                    if (Arrays.binarySearch(ancestors, id) >= 0) {
+                        common[n++] = id;
+                    }
+                }
+                common = Arrays.copyOf(common, n);
+            }
+            if (common.length == 0) {
+                break;
+            }
+        }
+        return common;
+    }
+
+    /**
+     * Run one index query and wrap the result for the API
+     */
+    public BatchDTO.GenealogyIndexResult query(String query, BatchDTO.GenealogyIndexRequest request) {
+        List<Long> batchIds = request.getBatchIds() != null ? request.getBatchIds() : List.of();
+        long start = System.nanoTime();
+        long[] result = switch (query) {
+            case DESCENDANTS -> findDescendants(batchIds, request.getMaxDepth());
+            case ANCESTORS -> findAncestors(batchIds, request.getMaxDepth());
+            case COMMON_ANCESTORS -> findCommonAncestors(batchIds);
+            default -> throw new RuntimeException("Unknown genealogy index query: " + query);
+        };
+        long elapsedMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+        log.debug("Genealogy index {} for {} batches: {} results in {} us", query, batchIds.size(), result.length, elapsedMicros);
+
+        return BatchDTO.GenealogyIndexResult.builder()
+                .query(query)
+                .sourceBatchIds(batchIds)
+                .batchIds(result)
+                .count(result.length)
+                .elapsedMicros(elapsedMicros)
+                .build();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Index size and freshness
+     */
+    public BatchDTO.GenealogyIndexStats getStats() {
+        IndexState current = state;
+        return BatchDTO.GenealogyIndexStats.builder()
+                .enabled(enabled)
+                .ready(ready)
+                .batchCount(current.csr().batchIds.length)
+                .relationCount(current.csr().relationIds.length)
+                .pendingChanges(current.delta().size())
+                .lastRebuildMillis(lastRebuildMillis)
+                .lastRebuiltAt(lastRebuiltAt)
+                .build();
+    }
+
+    /**
+     * Level-by-level walk over the snapshot plus overlay
+     */
+    private long[] traverse(Collection<Long> batchIds, boolean down, Integer maxDepth) {
+        if (!enabled) {
+            throw new RuntimeException("Genealogy index is disabled");
+        }
+        if (!ready) {
+            throw new RuntimeException("Genealogy index is still loading, try again shortly");
+        }
+        if (batchIds == null || batchIds.isEmpty()) {
+            return new long[0];
+        }
+        int depthLimit = maxDepth != null && maxDepth > 0 ? maxDepth : Integer.MAX_VALUE;
+
+        IndexState current = state;
+        Csr csr = current.csr();
+        Delta delta = current.delta();
+        int[] offsets = down ? csr.childOffsets : csr.parentOffsets;
+        int[] targets = down ? csr.childTargets : csr.parentTargets;
+        long[] relations = down ? csr.childRelations : csr.parentRelations;
+        Map<Long, List<Edge>> addedEdges = down ? delta.addedByParent : delta.addedByChild;
+        boolean checkRemoved = !delta.removed.isEmpty();
+
+        BitSet seen = new BitSet(csr.batchIds.length);
+        Set<Long> seenOutsideSnapshot = new HashSet<>();
+        LongArray frontier = new LongArray();
+        for (Long batchId : batchIds) {
+            if (batchId != null && markSeen(csr, batchId, seen, seenOutsideSnapshot)) {
+                frontier.add(batchId);
+            }
+        }
+
+        LongArray result = new LongArray();
+        for (int depth = 0; depth < depthLimit && frontier.size > 0; depth++) {
+            LongArray next = new LongArray();
+            for (int i = 0; i < frontier.size; i++) {
+                long batchId = frontier.values[i];
+                int idx = csr.indexOf(batchId);
+                if (idx >= 0) {
+                    for (int p = offsets[idx]; p < offsets[idx + 1]; p++) {
+                        int target = targets[p];
+                        if (seen.get(target) || (checkRemoved && delta.removed.contains(relations[p]))) {
+                            continue;
+                        }
+                        seen.set(target);
+                        next.add(csr.batchIds[target]);
+                    }
+                }
+                List<Edge> extra = addedEdges.get(batchId);
+                if (extra != null) {
+                    for (Edge edge : extra) {
+                        long neighbour = down ? edge.childId() : edge.parentId();
+                        if (markSeen(csr, neighbour, seen, seenOutsideSnapshot)) {
+                            next.add(neighbour);
+                        }
+                    }
+                }
+            }
+            result.addAll(next);
+            frontier = next;
+        }
+        return Arrays.copyOf(result.values, result.size);
+    }
+
+    private static boolean markSeen(Csr csr, long batchId, BitSet seen, Set<Long> seenOutsideSnapshot) {
+        int idx = csr.indexOf(batchId);
+        if (idx < 0) {
+            return seenOutsideSnapshot.add(batchId);
+        }
+        if (seen.get(idx)) {
+            return false;
+        }
+        seen.set(idx);
+        return true;
+    }
+
+    /**
+     * Growable primitive long list
+     */
+    static final class LongArray {
+        long[] values = new long[16];
+        int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(LongArray other) {
+            if (size + other.size > values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, size + other.size));
+            }
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+        }
+    }
+}
@@ -29,6 +29,8 @@ public class HoldService {
     private final OrderRepository orderRepository;
     private final InventoryRepository inventoryRepository;
     private final BatchRepository batchRepository;
+    private final DashboardService dashboardService;
+    private final LiveEventService liveEventService;
 
     @Transactional
     public HoldDTO.HoldResponse applyHold(HoldDTO.ApplyHoldRequest request, String appliedBy) {
@@ -62,6 +64,8 @@ public class HoldService {
 
         // Update entity status to ON_HOLD
         updateEntityStatus(request.getEntityType(), request.getEntityId(), "ON_HOLD", appliedBy);
+        dashboardService.markSummaryDirty();
+        liveEventService.holdChanged(holdRecord);
 
         return convertToResponse(holdRecord, entityName);
     }
@@ -87,6 +91,8 @@ public class HoldService {
 
         // Restore entity status
         updateEntityStatus(holdRecord.getEntityType(), holdRecord.getEntityId(), restoreStatus, releasedBy);
+        dashboardService.markSummaryDirty();
+        liveEventService.holdChanged(holdRecord);
 
         String entityName = getEntityName(holdRecord.getEntityType(), holdRecord.getEntityId());
         return convertToResponse(holdRecord, entityName);
@@ -236,9 +242,11 @@ public class HoldService {
             case "OPERATION" -> {
                 Operation operation = operationRepository.findById(entityId)
                         .orElseThrow(() -> new RuntimeException("Operation not found"));
+                String previousStatus = operation.getStatus();
                 operation.setStatus(newStatus);
                 operation.setUpdatedBy(updatedBy);
                 operationRepository.save(operation);
+                liveEventService.operationStatusChanged(operation, previousStatus);
             }
             case "PROCESS" -> {
                 // Process is design-time only (DRAFT/ACTIVE/INACTIVE)
@@ -258,9 +266,11 @@ public class HoldService {
                         if (li.getOperations() != null) {
                             for (Operation op : li.getOperations()) {
                                 if ("READY".equals(op.getStatus()) || "IN_PROGRESS".equals(op.getStatus())) {
+                                    String previousStatus = op.getStatus();
                                     op.setStatus("ON_HOLD");
                                     op.setUpdatedBy(updatedBy);
                                     operationRepository.save(op);
+                                    liveEventService.operationStatusChanged(op, previousStatus);
                                     log.info("Cascaded hold to operation {} ({})", op.getOperationId(), op.getOperationName());
                                 }
                             }
@@ -276,6 +286,7 @@ public class HoldService {
                                     op.setStatus("READY");
                                     op.setUpdatedBy(updatedBy);
                                     operationRepository.save(op);
+                                    liveEventService.operationStatusChanged(op, "ON_HOLD");
                                     log.info("Cascaded release to operation {} ({})", op.getOperationId(), op.getOperationName());
                                 }
                             }
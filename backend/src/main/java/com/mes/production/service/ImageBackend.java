@@ -0,0 +1,19 @@
+package com.mes.production.service;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Pixel operations behind ImageProcessingService. Decoding and PNG encoding stay in the
+ * service; a backend only transforms images that are already decoded.
+ */
+public interface ImageBackend {
+
+    /**
+     * Name reported in image metadata (awt, opencv).
+     */
+    String name();
+
+    BufferedImage resize(BufferedImage source, int width, int height);
+
+    BufferedImage grayscale(BufferedImage source);
+}
@@ -1,120 +1,319 @@
 package com.mes.production.service;
 
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.imageio.ImageIO;
-import java.awt.*;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.stream.ImageInputStream;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Service for image processing operations using Java AWT (OpenCV-compatible patterns).
- * Uses Java built-in image processing to avoid native library load issues.
- * The opencv dependency is available for advanced use cases when native libs are configured.
+ * Service for image processing operations. Pixel work is done by an {@link ImageBackend}:
+ * OpenCV when its bundled natives load at startup, Java2D otherwise
+ * (app.reports.images.backend = auto, opencv or awt).
+ *
+ * Images are decoded straight from the upload stream. Resize and thumbnail read the header
+ * first and decode with source subsampling, so only a little more than the output size is
+ * ever held in memory; metadata never decodes pixels at all. A semaphore bounds how many
+ * images are processed at once.
  */
 @Service
 @Slf4j
 public class ImageProcessingService {
 
+    @Value("${app.reports.images.max-concurrent:4}")
+    private int maxConcurrent = 4;
+
+    @Value("${app.reports.images.acquire-timeout-ms:10000}")
+    private long acquireTimeoutMs = 10000;
+
+    @Value("${app.reports.images.max-pixels:100000000}")
+    private long maxPixels = 100_000_000L;
+
+    @Value("${app.reports.images.backend:auto}")
+    private String backendName = "auto";
+
+    private Semaphore permits;
+    private ImageBackend backend;
+
     /**
-     * Convert image to grayscale.
+     * Decoded image together with the dimensions and image type of the source it was subsampled from.
      */
-    public byte[] convertToGrayscale(byte[] imageData) {
+    private record Decoded(BufferedImage image, int sourceWidth, int sourceHeight, int colorType) {
+    }
+
+    /**
+     * Thrown when no processing permit frees up within the acquire timeout; the request may be
+     * retried after retryAfterSeconds.
+     */
+    public static class BusyException extends RuntimeException {
+        private final long retryAfterSeconds;
+
+        public BusyException(String message, long retryAfterSeconds) {
+            super(message);
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        permits = new Semaphore(Math.max(1, maxConcurrent), true);
+        backend = selectBackend(backendName);
+        log.info("Image processing backend: {}", backend.name());
+    }
+
+    static ImageBackend selectBackend(String configured) {
+        if (AwtImageBackend.NAME.equalsIgnoreCase(configured)) {
+            return new AwtImageBackend();
+        }
         try {
-            BufferedImage original = ImageIO.read(new ByteArrayInputStream(imageData));
-            if (original == null) {
-                throw new IllegalArgumentException("Invalid image data");
+            return OpenCvImageBackend.load();
+        } catch (Exception | LinkageError e) {
+            if (OpenCvImageBackend.NAME.equalsIgnoreCase(configured)) {
+                throw new IllegalStateException("OpenCV image backend requested but its natives could not be loaded", e);
             }
+            log.warn("OpenCV natives unavailable, falling back to the AWT image backend: {}", e.toString());
+            return new AwtImageBackend();
+        }
+    }
 
-            BufferedImage grayscale = new BufferedImage(
-                    original.getWidth(), original.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
-            Graphics2D g = grayscale.createGraphics();
-            g.drawImage(original, 0, 0, null);
-            g.dispose();
+    /**
+     * Name of the active image backend (awt or opencv).
+     */
+    public String getBackendName() {
+        return backend.name();
+    }
+
+    /**
+     * Convert image to grayscale.
+     */
+    public byte[] convertToGrayscale(InputStream imageData) {
+        acquire();
+        try {
+            BufferedImage original = decode(imageData, 0, 0).image();
 
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            ImageIO.write(grayscale, "png", baos);
+            byte[] png = toPng(backend.grayscale(original));
             log.info("Converted image to grayscale ({}x{})", original.getWidth(), original.getHeight());
-            return baos.toByteArray();
+            return png;
+        } catch (IllegalArgumentException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error converting image to grayscale", e);
             throw new RuntimeException("Failed to process image", e);
+        } finally {
+            permits.release();
         }
     }
 
     /**
      * Resize image to specified dimensions.
      */
-    public byte[] resizeImage(byte[] imageData, int targetWidth, int targetHeight) {
+    public byte[] resizeImage(InputStream imageData, int targetWidth, int targetHeight) {
+        validateTarget(targetWidth, targetHeight);
+        acquire();
         try {
-            BufferedImage original = ImageIO.read(new ByteArrayInputStream(imageData));
-            if (original == null) {
-                throw new IllegalArgumentException("Invalid image data");
-            }
-
-            BufferedImage resized = new BufferedImage(targetWidth, targetHeight, original.getType());
-            Graphics2D g = resized.createGraphics();
-            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-            g.drawImage(original, 0, 0, targetWidth, targetHeight, null);
-            g.dispose();
-
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            ImageIO.write(resized, "png", baos);
-            log.info("Resized image from {}x{} to {}x{}", original.getWidth(), original.getHeight(), targetWidth, targetHeight);
-            return baos.toByteArray();
+            Decoded decoded = decode(imageData, targetWidth, targetHeight);
+            byte[] png = toPng(backend.resize(decoded.image(), targetWidth, targetHeight));
+            log.info("Resized image from {}x{} to {}x{} (decoded at {}x{})",
+                    decoded.sourceWidth(), decoded.sourceHeight(), targetWidth, targetHeight,
+                    decoded.image().getWidth(), decoded.image().getHeight());
+            return png;
+        } catch (IllegalArgumentException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error resizing image", e);
             throw new RuntimeException("Failed to resize image", e);
+        } finally {
+            permits.release();
         }
     }
 
     /**
-     * Generate a thumbnail from an image.
+     * Generate a thumbnail from an image, keeping its aspect ratio.
      */
-    public byte[] generateThumbnail(byte[] imageData, int maxDimension) {
+    public byte[] generateThumbnail(InputStream imageData, int maxDimension) {
+        validateTarget(maxDimension, maxDimension);
+        acquire();
         try {
-            BufferedImage original = ImageIO.read(new ByteArrayInputStream(imageData));
-            if (original == null) {
-                throw new IllegalArgumentException("Invalid image data");
-            }
-
-            int origWidth = original.getWidth();
-            int origHeight = original.getHeight();
-            int newWidth, newHeight;
-
-            if (origWidth > origHeight) {
-                newWidth = maxDimension;
-                newHeight = (int) ((double) origHeight / origWidth * maxDimension);
-            } else {
-                newHeight = maxDimension;
-                newWidth = (int) ((double) origWidth / origHeight * maxDimension);
-            }
-
-            return resizeImage(imageData, newWidth, newHeight);
+            return thumbnail(decodeForThumbnail(imageData, maxDimension), maxDimension);
+        } catch (IllegalArgumentException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error generating thumbnail", e);
             throw new RuntimeException("Failed to generate thumbnail", e);
+        } finally {
+            permits.release();
         }
     }
 
     /**
-     * Get image metadata (dimensions, type).
+     * Thumbnail and header metadata from a single read of the image. Takes no permit: for callers
+     * that bound their own concurrency, such as ThumbnailBatchService on its fixed-size pool.
      */
-    public ImageMetadata getImageMetadata(byte[] imageData) {
+    Thumbnail generateThumbnailWithMetadata(InputStream imageData, int maxDimension, long sizeBytes) {
+        validateTarget(maxDimension, maxDimension);
         try {
-            BufferedImage image = ImageIO.read(new ByteArrayInputStream(imageData));
-            if (image == null) {
-                throw new IllegalArgumentException("Invalid image data");
+            Decoded decoded = decodeForThumbnail(imageData, maxDimension);
+            ImageMetadata metadata = new ImageMetadata(decoded.sourceWidth(), decoded.sourceHeight(),
+                    decoded.colorType(), sizeBytes, backend.name());
+            return new Thumbnail(thumbnail(decoded, maxDimension), metadata);
+        } catch (Exception e) {
+            log.error("Error generating thumbnail", e);
+            throw new RuntimeException("Failed to generate thumbnail", e);
+        }
+    }
+
+    /**
+     * PNG thumbnail with the metadata of the image it was made from.
+     */
+    record Thumbnail(byte[] png, ImageMetadata metadata) {
+    }
+
+    private Decoded decodeForThumbnail(InputStream imageData, int maxDimension) throws IOException {
+        // The target size depends on the source aspect ratio, which the reader knows from the header
+        return decode(imageData, -maxDimension, -maxDimension);
+    }
+
+    private byte[] thumbnail(Decoded decoded, int maxDimension) throws IOException {
+        int origWidth = decoded.sourceWidth();
+        int origHeight = decoded.sourceHeight();
+        int newWidth, newHeight;
+
+        if (origWidth > origHeight) {
+            newWidth = maxDimension;
+            newHeight = Math.max(1, (int) ((double) origHeight / origWidth * maxDimension));
+        } else {
+            newHeight = maxDimension;
+            newWidth = Math.max(1, (int) ((double) origWidth / origHeight * maxDimension));
+        }
+
+        return toPng(backend.resize(decoded.image(), newWidth, newHeight));
+    }
+
+    /**
+     * Get image metadata (dimensions, type) from the image header, without decoding pixels.
+     */
+    public ImageMetadata getImageMetadata(InputStream imageData, long sizeBytes) {
+        try (ImageInputStream input = ImageIO.createImageInputStream(imageData)) {
+            ImageReader reader = reader(input);
+            try {
+                return new ImageMetadata(reader.getWidth(0), reader.getHeight(0), colorType(reader), sizeBytes, backend.name());
+            } finally {
+                reader.dispose();
             }
-            return new ImageMetadata(image.getWidth(), image.getHeight(),
-                    image.getType(), imageData.length);
         } catch (Exception e) {
             log.error("Error reading image metadata", e);
             throw new RuntimeException("Failed to read image metadata", e);
         }
     }
 
-    public record ImageMetadata(int width, int height, int colorType, long sizeBytes) {}
+    /**
+     * Image header details; backend is the image backend that would process the image.
+     */
+    public record ImageMetadata(int width, int height, int colorType, long sizeBytes, String backend) {}
+
+    // ========== Decoding ==========
+
+    /**
+     * Decode an image, subsampled so it stays at least twice the target size in both directions
+     * (the final area or bilinear scale then has enough pixels to work with). A target of 0 decodes at full
+     * size; a negative target is a bounding box that keeps the source aspect ratio.
+     */
+    private Decoded decode(InputStream imageData, int targetWidth, int targetHeight) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(imageData)) {
+            ImageReader reader = reader(input);
+            try {
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = subsampling(width, height, targetWidth, targetHeight);
+                if ((long) (width / step) * (height / step) > maxPixels) {
+                    throw new IllegalArgumentException("Image too large: " + width + "x" + height);
+                }
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                return new Decoded(reader.read(0, param), width, height, colorType(reader));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * The first image type is the one a full decode would produce
+     */
+    private static int colorType(ImageReader reader) throws IOException {
+        Iterator<ImageTypeSpecifier> types = reader.getImageTypes(0);
+        return types.hasNext() ? types.next().getBufferedImageType() : BufferedImage.TYPE_CUSTOM;
+    }
+
+    static int subsampling(int width, int height, int targetWidth, int targetHeight) {
+        if (targetWidth == 0 || targetHeight == 0) {
+            return 1;
+        }
+        int ratio;
+        if (targetWidth < 0) {
+            // Bounding box: the longer side is scaled down to the box
+            ratio = Math.max(width, height) / -targetWidth;
+        } else {
+            ratio = Math.min(width / targetWidth, height / targetHeight);
+        }
+        return Math.max(1, ratio / 2);
+    }
+
+    private ImageReader reader(ImageInputStream input) {
+        if (input == null) {
+            throw new IllegalArgumentException("Invalid image data");
+        }
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        if (!readers.hasNext()) {
+            throw new IllegalArgumentException("Invalid image data");
+        }
+        ImageReader reader = readers.next();
+        reader.setInput(input, true, true);
+        return reader;
+    }
+
+    private byte[] toPng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", baos);
+        return baos.toByteArray();
+    }
+
+    private void validateTarget(int width, int height) {
+        if (width <= 0 || height <= 0 || (long) width * height > maxPixels) {
+            throw new IllegalArgumentException("Invalid target size " + width + "x" + height);
+        }
+    }
+
+    // ========== Concurrency ==========
+
+    private void acquire() {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new BusyException("Image processing is busy, please retry shortly",
+                        Math.max(1, TimeUnit.MILLISECONDS.toSeconds(acquireTimeoutMs)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for image processing", e);
+        }
+    }
 }
@@ -15,6 +15,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -27,6 +28,11 @@ public class InventoryMovementService {
     private final OperationRepository operationRepository;
     private final AuditService auditService;
 
+    /**
+     * One movement to record against an already-loaded inventory item
+     */
+    public record MovementLine(Inventory inventory, BigDecimal quantity, String reason) {}
+
     /**
      * Record a consume movement
      */
@@ -99,6 +105,44 @@ public class InventoryMovementService {
         return movement;
     }
 
+    /**
+     * Record movements for already-loaded inventory in a single batched save.
+     * Avoids the per-movement inventory and operation lookups of recordMovement().
+     */
+    @Transactional
+    public List<InventoryMovement> recordMovements(Operation operation, String movementType, List<MovementLine> lines) {
+        if (lines.isEmpty()) {
+            return List.of();
+        }
+
+        String currentUser = getCurrentUser();
+        LocalDateTime now = LocalDateTime.now();
+        List<InventoryMovement> movements = new ArrayList<>(lines.size());
+        for (MovementLine line : lines) {
+            movements.add(InventoryMovement.builder()
+                    .inventory(line.inventory())
+                    .operation(operation)
+                    .movementType(movementType)
+                    .quantity(line.quantity())
+                    .timestamp(now)
+                    .reason(line.reason())
+                    .status(InventoryMovement.STATUS_EXECUTED)
+                    .createdBy(currentUser)
+                    .build());
+        }
+
+        List<InventoryMovement> saved = movementRepository.saveAll(movements);
+        log.info("Recorded {} {} movements in batch", saved.size(), movementType);
+
+        for (InventoryMovement movement : saved) {
+            auditService.logCreate("INVENTORY_MOVEMENT", movement.getMovementId(),
+                    String.format("Type: %s, Qty: %s, Inventory: %d", movementType,
+                            movement.getQuantity(), movement.getInventory().getInventoryId()));
+        }
+
+        return saved;
+    }
+
     /**
      * Get movement history for an inventory item
      */
@@ -7,8 +7,10 @@ import com.mes.production.entity.Batch;
 import com.mes.production.entity.Inventory;
 import com.mes.production.repository.BatchRepository;
 import com.mes.production.repository.InventoryRepository;
+import com.mes.production.repository.InventorySpecifications;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -28,6 +30,10 @@ public class InventoryService {
     private final BatchRepository batchRepository;
     private final AuditService auditService;
     private final InventoryStateValidator stateValidator;
+    private final KeysetPaginator keysetPaginator;
+
+    static final KeysetPaginator.Keyset<Inventory> KEYSET = new KeysetPaginator.Keyset<>(
+            Inventory.class, "inventory", "inventoryId", "createdOn", Set.of("createdOn"), List.of("batch"));
 
     private static final Set<String> VALID_STATES = Set.of(
             Inventory.STATE_AVAILABLE,
@@ -80,19 +86,23 @@ public class InventoryService {
                 pageRequest.getPage(), pageRequest.getSize(),
                 pageRequest.getStatus(), pageRequest.getType(), pageRequest.getSearch());
 
-        org.springframework.data.domain.Pageable pageable = pageRequest.toPageable("createdOn");
+        Specification<Inventory> filter = pageRequest.hasFilters()
+                ? InventorySpecifications.withFilters(pageRequest.getStatus(), pageRequest.getType(), pageRequest.getSearch(),
+                        InventorySpecifications.batchIdsMatching(batchRepository, pageRequest.getSearch()))
+                : null;
 
-        org.springframework.data.domain.Page<Inventory> page;
-        if (pageRequest.hasFilters()) {
-            page = inventoryRepository.findByFilters(
-                    pageRequest.getStatus(), // state filter
-                    pageRequest.getType(),   // inventory type filter
-                    pageRequest.getSearchPattern(),
-                    pageable);
-        } else {
-            page = inventoryRepository.findAll(pageable);
+        if (pageRequest.isKeyset()) {
+            KeysetPaginator.KeysetPage<Inventory> page = keysetPaginator.fetch(KEYSET, filter, pageRequest);
+            return PagedResponseDTO.fromKeyset(page.content().stream().map(this::convertToDTO).toList(),
+                    pageRequest, page.sortBy(), page.nextCursor(), page.total(), page.totalMode());
         }
 
+        org.springframework.data.domain.Pageable pageable = pageRequest.toPageable("createdOn");
+
+        org.springframework.data.domain.Page<Inventory> page = filter != null
+                ? inventoryRepository.findAll(filter, pageable)
+                : inventoryRepository.findAll(pageable);
+
         org.springframework.data.domain.Page<InventoryDTO> dtoPage = page.map(this::convertToDTO);
 
         return PagedResponseDTO.fromPage(dtoPage,
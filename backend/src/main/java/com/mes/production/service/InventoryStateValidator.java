@@ -119,6 +119,57 @@ public class InventoryStateValidator {
      * @throws IllegalStateException if consumption is not allowed
      */
     public void validateConsumption(Inventory inventory, Long orderId) {
+        validateConsumableState(inventory, orderId);
+
+        // Check for active holds on inventory
+        if (hasActiveHold(inventory)) {
+            throw new IllegalStateException(
+                String.format("Inventory %d has an active hold and cannot be consumed",
+                    inventory.getInventoryId())
+            );
+        }
+
+        // Check for active holds on batch
+        if (inventory.getBatch() != null && hasBatchActiveHold(inventory.getBatch().getBatchId())) {
+            throw new IllegalStateException(
+                String.format("Batch %d has an active hold, inventory %d cannot be consumed",
+                    inventory.getBatch().getBatchId(), inventory.getInventoryId())
+            );
+        }
+    }
+
+    /**
+     * Validates if inventory can be consumed, using hold sets prefetched for the whole
+     * confirmation instead of querying holds per inventory item.
+     * @param inventory The inventory to consume
+     * @param orderId The order consuming the inventory (for reservation check)
+     * @param inventoryIdsOnHold Inventory IDs with an ACTIVE hold
+     * @param batchIdsOnHold Batch IDs with an ACTIVE hold
+     * @throws IllegalStateException if consumption is not allowed
+     */
+    public void validateConsumption(Inventory inventory, Long orderId,
+                                    Set<Long> inventoryIdsOnHold, Set<Long> batchIdsOnHold) {
+        validateConsumableState(inventory, orderId);
+
+        if (inventoryIdsOnHold.contains(inventory.getInventoryId())) {
+            throw new IllegalStateException(
+                String.format("Inventory %d has an active hold and cannot be consumed",
+                    inventory.getInventoryId())
+            );
+        }
+
+        if (inventory.getBatch() != null && batchIdsOnHold.contains(inventory.getBatch().getBatchId())) {
+            throw new IllegalStateException(
+                String.format("Batch %d has an active hold, inventory %d cannot be consumed",
+                    inventory.getBatch().getBatchId(), inventory.getInventoryId())
+            );
+        }
+    }
+
+    /**
+     * Checks state and reservation rules for consumption (no hold lookups).
+     */
+    private void validateConsumableState(Inventory inventory, Long orderId) {
         String state = inventory.getState();
 
         // Check if state allows consumption
@@ -139,22 +190,6 @@ public class InventoryStateValidator {
                 );
             }
         }
-
-        // Check for active holds on inventory
-        if (hasActiveHold(inventory)) {
-            throw new IllegalStateException(
-                String.format("Inventory %d has an active hold and cannot be consumed",
-                    inventory.getInventoryId())
-            );
-        }
-
-        // Check for active holds on batch
-        if (inventory.getBatch() != null && hasBatchActiveHold(inventory.getBatch().getBatchId())) {
-            throw new IllegalStateException(
-                String.format("Batch %d has an active hold, inventory %d cannot be consumed",
-                    inventory.getBatch().getBatchId(), inventory.getInventoryId())
-            );
-        }
     }
 
     /**
@@ -0,0 +1,237 @@
+package com.mes.production.service;
+
+import com.mes.production.dto.PageRequestDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keyset (seek) paging for the paged list endpoints.
+ *
+ * Rows are ordered by the sort column and then the id, and a page starts right after the last
+ * row of the previous one: WHERE (sort, id) > (:lastSort, :lastId) instead of OFFSET. With an
+ * index on (sort, id) every page costs the same, and rows inserted while a client is paging
+ * never shift later pages. The cursor handed to clients is that last (sort, id) pair, base64url
+ * encoded together with the sort it belongs to.
+ *
+ * The total is optional: skipped, counted exactly, or estimated from pg_class.reltuples when no
+ * filter is active (an estimate for a filtered query would be meaningless, so it is skipped).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class KeysetPaginator {
+
+    static final String CURSOR_VERSION = "v1";
+
+    static final String ESTIMATE_SQL = "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)";
+
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * How an entity is paged: its table (for the estimate), id attribute, default sort, the
+     * attributes clients may sort by and the to-one associations fetched with each row. Every
+     * sortable attribute must be non-null.
+     */
+    public record Keyset<T>(Class<T> entityClass, String table, String idAttribute,
+                            String defaultSortBy, Set<String> sortableFields, List<String> fetch) {
+
+        public Keyset(Class<T> entityClass, String table, String idAttribute,
+                      String defaultSortBy, Set<String> sortableFields) {
+            this(entityClass, table, idAttribute, defaultSortBy, sortableFields, List.of());
+        }
+    }
+
+    /**
+     * One page of entities; nextCursor is null on the last page and total null when not computed.
+     */
+    public record KeysetPage<T>(List<T> content, String sortBy, String nextCursor, Long total, String totalMode) {
+    }
+
+    /**
+     * Decoded cursor: the sort and direction it was issued for and the last row's key.
+     */
+    record Cursor(String sortBy, String direction, String id, String value) {
+    }
+
+    /**
+     * Fetch the page after request.cursor (the first page for an empty cursor).
+     */
+    public <T> KeysetPage<T> fetch(Keyset<T> keyset, Specification<T> filter, PageRequestDTO request) {
+        request.normalize();
+        String sortBy = request.getSortBy() != null && !request.getSortBy().isEmpty()
+                ? request.getSortBy() : keyset.defaultSortBy();
+        if (!sortBy.equals(keyset.idAttribute()) && !keyset.sortableFields().contains(sortBy)) {
+            throw new RuntimeException("Cursor paging does not support sorting by " + sortBy
+                    + ". Supported: " + keyset.sortableFields());
+        }
+        boolean descending = "DESC".equalsIgnoreCase(request.getSortDirection());
+        String direction = descending ? "DESC" : "ASC";
+        Cursor cursor = decodeCursor(request.getCursor());
+        if (cursor != null && (!cursor.sortBy().equals(sortBy) || !cursor.direction().equals(direction))) {
+            throw new RuntimeException("Cursor was issued for a different sort order; restart from the first page");
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(keyset.entityClass());
+        Root<T> root = query.from(keyset.entityClass());
+        keyset.fetch().forEach(attribute -> root.fetch(attribute, JoinType.LEFT));
+        Path<Comparable<Object>> sortPath = root.get(sortBy);
+        Path<Comparable<Object>> idPath = root.get(keyset.idAttribute());
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter != null) {
+            Predicate predicate = filter.toPredicate(root, query, cb);
+            if (predicate != null) {
+                predicates.add(predicate);
+            }
+        }
+        if (cursor != null) {
+            Comparable<Object> lastId = parse(idPath.getJavaType(), cursor.id());
+            if (sortBy.equals(keyset.idAttribute())) {
+                predicates.add(descending ? cb.lessThan(idPath, lastId) : cb.greaterThan(idPath, lastId));
+            } else {
+                // Written as sort >= v AND (sort > v OR id > lastId) so the index range scan starts at v
+                Comparable<Object> lastValue = parse(sortPath.getJavaType(), cursor.value());
+                predicates.add(descending
+                        ? cb.and(cb.lessThanOrEqualTo(sortPath, lastValue),
+                                 cb.or(cb.lessThan(sortPath, lastValue), cb.lessThan(idPath, lastId)))
+                        : cb.and(cb.greaterThanOrEqualTo(sortPath, lastValue),
+                                 cb.or(cb.greaterThan(sortPath, lastValue), cb.greaterThan(idPath, lastId))));
+            }
+        }
+        query.select(root).where(predicates.toArray(new Predicate[0]));
+        if (sortBy.equals(keyset.idAttribute())) {
+            query.orderBy(descending ? cb.desc(idPath) : cb.asc(idPath));
+        } else {
+            query.orderBy(descending ? cb.desc(sortPath) : cb.asc(sortPath),
+                    descending ? cb.desc(idPath) : cb.asc(idPath));
+        }
+
+        // One extra row tells whether there is a next page without a count
+        List<T> rows = entityManager.createQuery(query)
+                .setMaxResults(request.getSize() + 1)
+                .getResultList();
+        boolean hasNext = rows.size() > request.getSize();
+        List<T> content = hasNext ? new ArrayList<>(rows.subList(0, request.getSize())) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            var last = PropertyAccessorFactory.forBeanPropertyAccess(content.get(content.size() - 1));
+            nextCursor = encodeCursor(sortBy, direction,
+                    last.getPropertyValue(keyset.idAttribute()), last.getPropertyValue(sortBy));
+        }
+
+        Long total = null;
+        String totalMode = request.getTotal();
+        if (PageRequestDTO.TOTAL_ESTIMATE.equals(totalMode)) {
+            total = filter == null ? estimate(keyset) : null;
+            if (total == null && filter == null) {
+                total = count(keyset, null);
+                totalMode = PageRequestDTO.TOTAL_EXACT;
+            }
+        } else if (PageRequestDTO.TOTAL_EXACT.equals(totalMode)) {
+            total = count(keyset, filter);
+        }
+        return new KeysetPage<>(content, sortBy, nextCursor, total, total != null ? totalMode : PageRequestDTO.TOTAL_NONE);
+    }
+
+    private <T> long count(Keyset<T> keyset, Specification<T> filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(keyset.entityClass());
+        query.select(cb.count(root));
+        if (filter != null) {
+            Predicate predicate = filter.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    /**
+     * Row estimate from the planner statistics, or null when there are none (never analyzed,
+     * or not PostgreSQL).
+     */
+    private Long estimate(Keyset<?> keyset) {
+        try {
+            Long estimate = jdbcTemplate.queryForObject(ESTIMATE_SQL, Long.class, keyset.table());
+            return estimate != null && estimate >= 0 ? estimate : null;
+        } catch (DataAccessException e) {
+            log.debug("No row estimate for {}: {}", keyset.table(), e.getMessage());
+            return null;
+        }
+    }
+
+    // ========== Cursor ==========
+
+    static String encodeCursor(String sortBy, String direction, Object id, Object value) {
+        String raw = String.join("|", CURSOR_VERSION, sortBy, direction,
+                String.valueOf(id), value != null ? value.toString() : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Cursor decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            // The value goes last and may itself contain the separator
+            String[] parts = raw.split("\\|", 5);
+            if (parts.length != 5 || !CURSOR_VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("unknown cursor format");
+            }
+            return new Cursor(parts[1], parts[2], parts[3], parts[4]);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid page cursor");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static Comparable<Object> parse(Class<?> type, String value) {
+        try {
+            Object parsed;
+            if (type == LocalDateTime.class) {
+                parsed = LocalDateTime.parse(value);
+            } else if (type == LocalDate.class) {
+                parsed = LocalDate.parse(value);
+            } else if (type == Long.class || type == long.class) {
+                parsed = Long.valueOf(value);
+            } else if (type == Integer.class || type == int.class) {
+                parsed = Integer.valueOf(value);
+            } else if (type == BigDecimal.class) {
+                parsed = new BigDecimal(value);
+            } else if (type == String.class) {
+                parsed = value;
+            } else {
+                throw new IllegalArgumentException("unsupported cursor type " + type.getSimpleName());
+            }
+            return (Comparable<Object>) parsed;
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid page cursor");
+        }
+    }
+}
@@ -0,0 +1,466 @@
+package com.mes.production.service;
+
+import com.mes.production.dto.LiveEventDTO;
+import com.mes.production.entity.Batch;
+import com.mes.production.entity.HoldRecord;
+import com.mes.production.entity.Operation;
+import com.mes.production.entity.ProductionConfirmation;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-Sent Events stream of shop-floor changes for the dashboard and operation boards.
+ *
+ * Producers publish inside their transaction; the event is sequenced and fanned out only
+ * after commit, so a rolled-back change is never seen. Each client has a bounded buffer that
+ * keeps the latest event per entity (an operation going READY -> IN_PROGRESS -> CONFIRMED
+ * between two flushes is sent once, as CONFIRMED). Every flush interval the dispatcher hands
+ * each client's buffer to a small sender pool. A client still writing its previous flush is
+ * skipped, so its buffer overflows into a resync rather than holding up the others; one that
+ * makes no progress for the send timeout is dropped and resumes when it reconnects.
+ *
+ * The SSE id, "epoch-sequence", is the resync token. The epoch is drawn at startup, because
+ * sequences are per process and restart at 1. A client reconnecting with Last-Event-ID (or
+ * ?since=) of this process gets the events it missed from the retained history; when they are
+ * no longer retained, its buffer overflowed or the id came from another process, it gets a
+ * sync event asking it to reload current state.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LiveEventService {
+
+    public static final String TOPIC_CONFIRMATIONS = "confirmations";
+    public static final String TOPIC_OPERATIONS = "operations";
+    public static final String TOPIC_HOLDS = "holds";
+    public static final String TOPIC_BATCHES = "batches";
+    static final Set<String> TOPICS = Set.of(TOPIC_CONFIRMATIONS, TOPIC_OPERATIONS, TOPIC_HOLDS, TOPIC_BATCHES);
+
+    public static final String CONFIRMATION_CREATED = "CONFIRMATION_CREATED";
+    public static final String OPERATION_STATUS_CHANGED = "OPERATION_STATUS_CHANGED";
+    public static final String HOLD_APPLIED = "HOLD_APPLIED";
+    public static final String HOLD_RELEASED = "HOLD_RELEASED";
+    public static final String BATCH_APPROVED = "BATCH_APPROVED";
+    public static final String BATCH_REJECTED = "BATCH_REJECTED";
+
+    static final String SYNC_EVENT = "SYNC";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.live.flush-interval-ms:250}")
+    private long flushIntervalMs = 250;
+
+    @Value("${app.live.heartbeat-interval-ms:15000}")
+    private long heartbeatIntervalMs = 15000;
+
+    @Value("${app.live.client-buffer-size:200}")
+    private int clientBufferSize = 200;
+
+    @Value("${app.live.history-size:2000}")
+    private int historySize = 2000;
+
+    @Value("${app.live.max-subscribers:500}")
+    private int maxSubscribers = 500;
+
+    @Value("${app.live.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs = 1800000;
+
+    @Value("${app.live.sender-threads:4}")
+    private int senderThreads = 4;
+
+    @Value("${app.live.send-timeout-ms:10000}")
+    private long sendTimeoutMs = 10000;
+
+    /** Prefix of every event id; ids of other processes (or before a restart) force a resync */
+    private final String epoch = UUID.randomUUID().toString().substring(0, 8);
+
+    private final Object historyLock = new Object();
+    private final ArrayDeque<LiveEventDTO.Event> history = new ArrayDeque<>();
+    private long lastSequence; // guarded by historyLock
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong droppedBuffers = new AtomicLong();
+    private ScheduledExecutorService dispatcher;
+    private Executor senders = Runnable::run; // sender pool once started
+
+    /** One open stream: its filter and the events waiting for the next flush */
+    static final class Subscriber {
+        final SseEmitter emitter;
+        final Set<String> topics;     // empty = all topics
+        final String operationType;   // null = all operation types
+        private final LinkedHashMap<String, LiveEventDTO.Event> pending = new LinkedHashMap<>();
+        private LiveEventDTO.Sync sync;
+        private boolean overflowed;
+        private volatile long lastSentAt = System.currentTimeMillis();
+        private volatile long sendingSince; // 0 = no flush in progress
+
+        Subscriber(SseEmitter emitter, Set<String> topics, String operationType) {
+            this.emitter = emitter;
+            this.topics = topics;
+            this.operationType = operationType;
+        }
+
+        boolean accepts(LiveEventDTO.Event event) {
+            if (!topics.isEmpty() && !topics.contains(event.getTopic())) {
+                return false;
+            }
+            // Holds and batches carry no operation type and reach every board
+            return operationType == null || event.getOperationType() == null
+                    || operationType.equalsIgnoreCase(event.getOperationType());
+        }
+
+        /**
+         * Queue an event in place of any queued event for the same entity. On overflow the
+         * queue is dropped for a resync, and events are ignored until that has been sent.
+         */
+        synchronized boolean offer(LiveEventDTO.Event event, int capacity) {
+            if (overflowed) {
+                return true;
+            }
+            String key = event.getEntityType() + ":" + event.getEntityId();
+            // Remove first so the newer event takes the later position
+            if (pending.remove(key) == null && pending.size() >= capacity) {
+                pending.clear();
+                overflowed = true;
+                return false;
+            }
+            pending.put(key, event);
+            return true;
+        }
+
+        synchronized void requestSync(long sequence, boolean resyncRequired) {
+            sync = LiveEventDTO.Sync.builder().sequence(sequence).resyncRequired(resyncRequired).build();
+        }
+
+        /** The sync to send next, if any; after an overflow the client reloads state as of currentSequence */
+        synchronized LiveEventDTO.Sync takeSync(long currentSequence) {
+            LiveEventDTO.Sync taken = sync;
+            if (overflowed) {
+                overflowed = false;
+                taken = LiveEventDTO.Sync.builder().sequence(currentSequence).resyncRequired(true).build();
+            }
+            sync = null;
+            return taken;
+        }
+
+        synchronized List<LiveEventDTO.Event> takePending() {
+            List<LiveEventDTO.Event> taken = new ArrayList<>(pending.values());
+            pending.clear();
+            return taken;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        dispatcher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "live-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger senderCount = new AtomicInteger();
+        senders = Executors.newFixedThreadPool(senderThreads, r -> {
+            Thread thread = new Thread(r, "live-events-send-" + senderCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher.scheduleWithFixedDelay(this::flushAll, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+
+        Gauge.builder("mes.live.subscribers", subscribers, Set::size)
+                .description("Open live event streams")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dispatcher.shutdownNow();
+        if (senders instanceof ExecutorService pool) {
+            pool.shutdownNow();
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    // ========== Subscriptions ==========
+
+    /**
+     * Open a stream for the given topics (all when empty) and operation type (all when blank),
+     * resuming after lastEventId when given.
+     */
+    public SseEmitter subscribe(Collection<String> topics, String operationType, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = register(emitter, topics, operationType, lastEventId);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        return emitter;
+    }
+
+    Subscriber register(SseEmitter emitter, Collection<String> topics, String operationType, String lastEventId) {
+        Set<String> topicFilter = new HashSet<>();
+        if (topics != null) {
+            for (String topic : topics) {
+                String normalized = topic.trim().toLowerCase();
+                if (!TOPICS.contains(normalized)) {
+                    throw new RuntimeException("Unknown live event topic: " + topic);
+                }
+                topicFilter.add(normalized);
+            }
+        }
+        if (subscribers.size() >= maxSubscribers) {
+            throw new RuntimeException("Too many live event subscribers");
+        }
+        Subscriber subscriber = new Subscriber(emitter, topicFilter,
+                operationType == null || operationType.isBlank() ? null : operationType.trim());
+
+        Long resumeAfter = resumeSequence(lastEventId);
+        // Registering under the history lock means no event falls between the replay and the live feed
+        synchronized (historyLock) {
+            long oldestRetained = history.isEmpty() ? lastSequence + 1 : history.peekFirst().getSequence();
+            boolean canResume = resumeAfter != null && resumeAfter <= lastSequence && resumeAfter + 1 >= oldestRetained;
+            if (canResume) {
+                subscriber.requestSync(resumeAfter, false);
+                for (LiveEventDTO.Event event : history) {
+                    if (event.getSequence() > resumeAfter && subscriber.accepts(event)
+                            && !subscriber.offer(event, clientBufferSize)) {
+                        droppedBuffers.incrementAndGet();
+                    }
+                }
+            } else {
+                subscriber.requestSync(lastSequence, true);
+            }
+            subscribers.add(subscriber);
+        }
+        log.debug("Live event subscriber added (topics={}, operationType={}, resumeAfter={}), {} open",
+                topicFilter, subscriber.operationType, lastEventId, subscribers.size());
+        return subscriber;
+    }
+
+    /** SSE id of the given sequence */
+    String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    /**
+     * Sequence a Last-Event-ID of this process resumes after; null when missing, malformed or
+     * issued by another process
+     */
+    Long resumeSequence(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        int dash = lastEventId.lastIndexOf('-');
+        if (dash <= 0 || !epoch.equals(lastEventId.substring(0, dash).trim())) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(dash + 1).trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public LiveEventDTO.StreamStats getStats() {
+        synchronized (historyLock) {
+            return LiveEventDTO.StreamStats.builder()
+                    .subscribers(subscribers.size())
+                    .lastSequence(lastSequence)
+                    .retainedEvents(history.size())
+                    .droppedBuffers(droppedBuffers.get())
+                    .build();
+        }
+    }
+
+    // ========== Producers ==========
+
+    public void confirmationCreated(ProductionConfirmation confirmation) {
+        Operation operation = confirmation.getOperation();
+        publish(LiveEventDTO.Event.builder()
+                .topic(TOPIC_CONFIRMATIONS)
+                .type(CONFIRMATION_CREATED)
+                .entityType("PRODUCTION_CONFIRMATION")
+                .entityId(confirmation.getConfirmationId())
+                .status(confirmation.getStatus())
+                .operationType(operation != null ? operation.getOperationType() : null)
+                .operationId(operation != null ? operation.getOperationId() : null)
+                .quantity(confirmation.getProducedQty())
+                .changedBy(confirmation.getCreatedBy())
+                .build());
+    }
+
+    public void operationStatusChanged(Operation operation, String previousStatus) {
+        publish(LiveEventDTO.Event.builder()
+                .topic(TOPIC_OPERATIONS)
+                .type(OPERATION_STATUS_CHANGED)
+                .entityType("OPERATION")
+                .entityId(operation.getOperationId())
+                .previousStatus(previousStatus)
+                .status(operation.getStatus())
+                .operationType(operation.getOperationType())
+                .operationId(operation.getOperationId())
+                .changedBy(operation.getUpdatedBy())
+                .build());
+    }
+
+    public void holdChanged(HoldRecord hold) {
+        boolean released = "RELEASED".equals(hold.getStatus());
+        publish(LiveEventDTO.Event.builder()
+                .topic(TOPIC_HOLDS)
+                .type(released ? HOLD_RELEASED : HOLD_APPLIED)
+                .entityType("HOLD")
+                .entityId(hold.getHoldId())
+                .status(hold.getStatus())
+                .operationId("OPERATION".equals(hold.getEntityType()) ? hold.getEntityId() : null)
+                .changedBy(released ? hold.getReleasedBy() : hold.getAppliedBy())
+                .build());
+    }
+
+    public void batchStatusChanged(Batch batch, String type, String previousStatus) {
+        publish(LiveEventDTO.Event.builder()
+                .topic(TOPIC_BATCHES)
+                .type(type)
+                .entityType("BATCH")
+                .entityId(batch.getBatchId())
+                .previousStatus(previousStatus)
+                .status(batch.getStatus())
+                .quantity(batch.getQuantity())
+                .changedBy(batch.getUpdatedBy())
+                .build());
+    }
+
+    /**
+     * Publish an event; inside a transaction it goes out only after commit
+     */
+    public void publish(LiveEventDTO.Event event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(event);
+                }
+            });
+        } else {
+            dispatch(event);
+        }
+    }
+
+    void dispatch(LiveEventDTO.Event event) {
+        synchronized (historyLock) {
+            LiveEventDTO.Event sequenced = event.toBuilder()
+                    .sequence(++lastSequence)
+                    .timestamp(event.getTimestamp() != null ? event.getTimestamp() : LocalDateTime.now())
+                    .build();
+            history.addLast(sequenced);
+            while (history.size() > historySize) {
+                history.removeFirst();
+            }
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.accepts(sequenced) && !subscriber.offer(sequenced, clientBufferSize)) {
+                    droppedBuffers.incrementAndGet();
+                    log.debug("Live event buffer overflow, subscriber will resync");
+                }
+            }
+        }
+    }
+
+    // ========== Dispatch ==========
+
+    void flushAll() {
+        long now = System.currentTimeMillis();
+        long currentSequence;
+        synchronized (historyLock) {
+            currentSequence = lastSequence;
+        }
+        for (Subscriber subscriber : subscribers) {
+            long sendingSince = subscriber.sendingSince;
+            if (sendingSince != 0) {
+                // Still writing its last flush: events keep coalescing and overflow into a resync
+                if (now - sendingSince >= sendTimeoutMs && subscribers.remove(subscriber)) {
+                    droppedBuffers.incrementAndGet();
+                    log.debug("Live event subscriber dropped, no send progress for {} ms", now - sendingSince);
+                }
+                continue;
+            }
+            subscriber.sendingSince = now;
+            try {
+                senders.execute(() -> send(subscriber, currentSequence, now));
+            } catch (RejectedExecutionException e) {
+                subscriber.sendingSince = 0;
+            }
+        }
+    }
+
+    private void send(Subscriber subscriber, long currentSequence, long now) {
+        try {
+            flush(subscriber, currentSequence, now);
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the emitter callbacks may not fire for a dead connection
+            subscribers.remove(subscriber);
+            log.debug("Live event subscriber dropped: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            subscribers.remove(subscriber);
+            log.warn("Live event subscriber failed: {}", e.getMessage());
+        } finally {
+            subscriber.sendingSince = 0;
+        }
+        if (!subscribers.contains(subscriber)) {
+            // Dropped while sending, e.g. as stalled; the client reconnects and resumes
+            subscriber.emitter.complete();
+        }
+    }
+
+    private void flush(Subscriber subscriber, long currentSequence, long now) throws IOException {
+        boolean sent = false;
+        LiveEventDTO.Sync sync = subscriber.takeSync(currentSequence);
+        if (sync != null) {
+            subscriber.emitter.send(SseEmitter.event()
+                    .id(eventId(sync.getSequence()))
+                    .name(SYNC_EVENT)
+                    .data(sync));
+            sent = true;
+        }
+        for (LiveEventDTO.Event event : subscriber.takePending()) {
+            subscriber.emitter.send(SseEmitter.event()
+                    .id(eventId(event.getSequence()))
+                    .name(event.getType())
+                    .data(event));
+            sent = true;
+        }
+        if (sent) {
+            subscriber.lastSentAt = now;
+        } else if (now - subscriber.lastSentAt >= heartbeatIntervalMs) {
+            subscriber.emitter.send(SseEmitter.event().comment("keepalive"));
+            subscriber.lastSentAt = now;
+        }
+    }
+}
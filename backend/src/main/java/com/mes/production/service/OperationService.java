@@ -25,6 +25,7 @@ public class OperationService {
 
     private final OperationRepository operationRepository;
     private final AuditService auditService;
+    private final LiveEventService liveEventService;
 
     /**
      * Get all operations
@@ -121,6 +122,7 @@ public class OperationService {
 
         log.info("Operation {} blocked by {}", operationId, currentUser);
         auditService.logStatusChange("OPERATION", operationId, oldStatus, Operation.STATUS_BLOCKED);
+        liveEventService.operationStatusChanged(operation, oldStatus);
 
         return OperationDTO.StatusUpdateResponse.builder()
                 .operationId(operationId)
@@ -157,6 +159,7 @@ public class OperationService {
 
         log.info("Operation {} unblocked by {}", operationId, currentUser);
         auditService.logStatusChange("OPERATION", operationId, oldStatus, Operation.STATUS_READY);
+        liveEventService.operationStatusChanged(operation, oldStatus);
 
         return OperationDTO.StatusUpdateResponse.builder()
                 .operationId(operationId)
@@ -189,6 +192,7 @@ public class OperationService {
 
         log.info("Operation {} paused by {}", operationId, currentUser);
         auditService.logStatusChange("OPERATION", operationId, oldStatus, Operation.STATUS_PAUSED);
+        liveEventService.operationStatusChanged(operation, oldStatus);
 
         return OperationDTO.StatusUpdateResponse.builder()
                 .operationId(operationId)
@@ -221,6 +225,7 @@ public class OperationService {
 
         log.info("Operation {} resumed by {}", operationId, currentUser);
         auditService.logStatusChange("OPERATION", operationId, oldStatus, Operation.STATUS_IN_PROGRESS);
+        liveEventService.operationStatusChanged(operation, oldStatus);
 
         return OperationDTO.StatusUpdateResponse.builder()
                 .operationId(operationId)
@@ -5,6 +5,8 @@ import com.mes.production.dto.PagedResponseDTO;
 import com.mes.production.dto.PageRequestDTO;
 import com.mes.production.dto.order.CreateOrderRequest;
 import com.mes.production.dto.order.LineItemRequest;
+import com.mes.production.dto.order.OrderLineView;
+import com.mes.production.dto.order.OrderOperationView;
 import com.mes.production.dto.order.UpdateOrderRequest;
 import com.mes.production.entity.AuditTrail;
 import com.mes.production.entity.Operation;
@@ -14,18 +16,23 @@ import com.mes.production.repository.AuditTrailRepository;
 import com.mes.production.repository.OperationRepository;
 import com.mes.production.repository.OrderLineItemRepository;
 import com.mes.production.repository.OrderRepository;
+import com.mes.production.repository.OrderSpecifications;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -33,10 +40,18 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class OrderService {
 
+    // Upper bound on ids per IN list when loading line items and operations
+    static final int IN_LIST_CHUNK = 1000;
+
+    static final KeysetPaginator.Keyset<Order> KEYSET = new KeysetPaginator.Keyset<>(
+            Order.class, "orders", "orderId", "orderDate", Set.of("orderDate"));
+
     private final OrderRepository orderRepository;
     private final OrderLineItemRepository orderLineItemRepository;
     private final OperationRepository operationRepository;
     private final AuditTrailRepository auditTrailRepository;
+    private final DashboardService dashboardService;
+    private final KeysetPaginator keysetPaginator;
 
     /**
      * Get all orders with ready operations (available for production confirmation)
@@ -48,12 +63,11 @@ public class OrderService {
 
         // Group by order and convert to DTOs
         // Operations now link directly to OrderLineItem
-        return readyOperations.stream()
+        return toDTOs(readyOperations.stream()
                 .filter(op -> op.getOrderLineItem() != null)
                 .map(op -> op.getOrderLineItem().getOrder())
                 .distinct()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+                .toList());
     }
 
     /**
@@ -65,7 +79,7 @@ public class OrderService {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found: " + orderId));
 
-        return convertToDTO(order);
+        return toDTOs(List.of(order)).get(0);
     }
 
     /**
@@ -74,9 +88,7 @@ public class OrderService {
     public List<OrderDTO> getActiveOrders() {
         log.info("Fetching all active orders");
 
-        return orderRepository.findActiveOrders().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return toDTOs(orderRepository.findActiveOrders());
     }
 
     /**
@@ -87,19 +99,23 @@ public class OrderService {
                 pageRequest.getPage(), pageRequest.getSize(),
                 pageRequest.getSortBy(), pageRequest.getSearch());
 
-        Pageable pageable = pageRequest.toPageable("orderDate");
+        Specification<Order> filter = pageRequest.hasFilters()
+                ? OrderSpecifications.withFilters(pageRequest.getStatus(), pageRequest.getSearch())
+                : null;
 
-        Page<Order> page;
-        if (pageRequest.hasFilters()) {
-            page = orderRepository.findByFilters(
-                    pageRequest.getStatus(),
-                    pageRequest.getSearchPattern(),
-                    pageable);
-        } else {
-            page = orderRepository.findAll(pageable);
+        if (pageRequest.isKeyset()) {
+            KeysetPaginator.KeysetPage<Order> page = keysetPaginator.fetch(KEYSET, filter, pageRequest);
+            return PagedResponseDTO.fromKeyset(toDTOs(page.content()),
+                    pageRequest, page.sortBy(), page.nextCursor(), page.total(), page.totalMode());
         }
 
-        Page<OrderDTO> dtoPage = page.map(this::convertToDTO);
+        Pageable pageable = pageRequest.toPageable("orderDate");
+
+        Page<Order> page = filter != null
+                ? orderRepository.findAll(filter, pageable)
+                : orderRepository.findAll(pageable);
+
+        Page<OrderDTO> dtoPage = new PageImpl<>(toDTOs(page.getContent()), page.getPageable(), page.getTotalElements());
 
         return PagedResponseDTO.fromPage(dtoPage,
                 pageRequest.getSortBy(),
@@ -115,13 +131,80 @@ public class OrderService {
 
         Pageable pageable = pageRequest.toPageable("orderDate");
         Page<Order> page = orderRepository.findActiveOrders(pageable);
-        Page<OrderDTO> dtoPage = page.map(this::convertToDTO);
+        Page<OrderDTO> dtoPage = new PageImpl<>(toDTOs(page.getContent()), page.getPageable(), page.getTotalElements());
 
         return PagedResponseDTO.fromPage(dtoPage,
                 pageRequest.getSortBy(),
                 pageRequest.getSortDirection());
     }
 
+    /**
+     * Order DTOs with their line items and operations. The whole list takes two projection
+     * queries with IN lists (line items, then operations with their process), instead of lazy
+     * loading the line items of every order and the operations of every line.
+     */
+    private List<OrderDTO> toDTOs(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+        List<Long> orderIds = orders.stream().map(Order::getOrderId).toList();
+
+        Map<Long, List<OrderLineView>> linesByOrder = new HashMap<>();
+        List<Long> lineIds = new ArrayList<>();
+        for (List<Long> chunk : chunks(orderIds)) {
+            for (OrderLineView line : orderLineItemRepository.findViewsByOrderIds(chunk)) {
+                linesByOrder.computeIfAbsent(line.orderId(), id -> new ArrayList<>()).add(line);
+                lineIds.add(line.orderLineId());
+            }
+        }
+
+        Map<Long, List<OrderDTO.OperationDTO>> operationsByLine = new HashMap<>();
+        for (List<Long> chunk : chunks(lineIds)) {
+            for (OrderOperationView op : operationRepository.findOrderViewsByOrderLineIds(chunk)) {
+                operationsByLine.computeIfAbsent(op.orderLineId(), id -> new ArrayList<>())
+                        .add(OrderDTO.OperationDTO.builder()
+                                .operationId(op.operationId())
+                                .operationName(op.operationName())
+                                .operationCode(op.operationCode())
+                                .operationType(op.operationType())
+                                .sequenceNumber(op.sequenceNumber())
+                                .status(op.status())
+                                .processId(op.processId())
+                                .processName(op.processName())
+                                .build());
+            }
+        }
+
+        List<OrderDTO> dtos = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            List<OrderDTO.OrderLineDTO> lineDTOs = new ArrayList<>();
+            for (OrderLineView line : linesByOrder.getOrDefault(order.getOrderId(), List.of())) {
+                lineDTOs.add(withOperations(OrderDTO.OrderLineDTO.builder()
+                                .orderLineId(line.orderLineId())
+                                .productSku(line.productSku())
+                                .productName(line.productName())
+                                .quantity(line.quantity())
+                                .unit(line.unit())
+                                .deliveryDate(line.deliveryDate())
+                                .status(line.status()),
+                        operationsByLine.getOrDefault(line.orderLineId(), new ArrayList<>())));
+            }
+            dtos.add(toDTO(order, lineDTOs));
+        }
+        return dtos;
+    }
+
+    private static List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += IN_LIST_CHUNK) {
+            chunks.add(ids.subList(i, Math.min(ids.size(), i + IN_LIST_CHUNK)));
+        }
+        return chunks;
+    }
+
+    /**
+     * DTO of an order whose line items are already loaded (an order just created or updated).
+     */
     private OrderDTO convertToDTO(Order order) {
         List<OrderDTO.OrderLineDTO> lineDTOs = new ArrayList<>();
 
@@ -132,6 +215,10 @@ public class OrderService {
             }
         }
 
+        return toDTO(order, lineDTOs);
+    }
+
+    private OrderDTO toDTO(Order order, List<OrderDTO.OrderLineDTO> lineDTOs) {
         return OrderDTO.builder()
                 .orderId(order.getOrderId())
                 .orderNumber(order.getOrderNumber())
@@ -148,12 +235,11 @@ public class OrderService {
 
     private OrderDTO.OrderLineDTO convertLineToDTO(OrderLineItem line) {
         List<OrderDTO.OperationDTO> operationDTOs = new ArrayList<>();
-        OrderDTO.OperationDTO currentOperation = null;
 
         // Operations now link directly to OrderLineItem (no Process intermediary)
         if (line.getOperations() != null) {
             for (Operation op : line.getOperations()) {
-                OrderDTO.OperationDTO opDTO = OrderDTO.OperationDTO.builder()
+                operationDTOs.add(OrderDTO.OperationDTO.builder()
                         .operationId(op.getOperationId())
                         .operationName(op.getOperationName())
                         .operationCode(op.getOperationCode())
@@ -162,28 +248,30 @@ public class OrderService {
                         .status(op.getStatus())
                         .processId(op.getProcess() != null ? op.getProcess().getProcessId() : null)
                         .processName(op.getProcess() != null ? op.getProcess().getProcessName() : null)
-                        .build();
-
-                operationDTOs.add(opDTO);
-
-                // Find current (READY) operation
-                if ("READY".equals(op.getStatus())) {
-                    currentOperation = opDTO;
-                }
+                        .build());
             }
         }
 
-        return OrderDTO.OrderLineDTO.builder()
+        return withOperations(OrderDTO.OrderLineDTO.builder()
                 .orderLineId(line.getOrderLineId())
                 .productSku(line.getProductSku())
                 .productName(line.getProductName())
                 .quantity(line.getQuantity())
                 .unit(line.getUnit())
                 .deliveryDate(line.getDeliveryDate())
-                .status(line.getStatus())
-                .operations(operationDTOs)
-                .currentOperation(currentOperation)
-                .build();
+                .status(line.getStatus()), operationDTOs);
+    }
+
+    private OrderDTO.OrderLineDTO withOperations(OrderDTO.OrderLineDTO.OrderLineDTOBuilder line,
+                                                 List<OrderDTO.OperationDTO> operations) {
+        // Find current (READY) operation
+        OrderDTO.OperationDTO currentOperation = null;
+        for (OrderDTO.OperationDTO op : operations) {
+            if ("READY".equals(op.getStatus())) {
+                currentOperation = op;
+            }
+        }
+        return line.operations(operations).currentOperation(currentOperation).build();
     }
 
     // ==================== CRUD OPERATIONS ====================
@@ -240,6 +328,7 @@ public class OrderService {
 
         // Audit
         auditOrderAction(savedOrder.getOrderId(), AuditTrail.ACTION_CREATE, null, savedOrder.getOrderNumber(), currentUser);
+        dashboardService.markSummaryDirty();
 
         log.info("Created order: {} with {} line items by {}", savedOrder.getOrderNumber(), lineItems.size(), currentUser);
         return convertToDTO(savedOrder);
@@ -278,6 +367,7 @@ public class OrderService {
 
         String newValues = String.format("customer=%s, status=%s", saved.getCustomerId(), saved.getStatus());
         auditOrderAction(saved.getOrderId(), AuditTrail.ACTION_UPDATE, oldValues, newValues, currentUser);
+        dashboardService.markSummaryDirty();
 
         log.info("Updated order: {} by {}", saved.getOrderNumber(), currentUser);
         return convertToDTO(saved);
@@ -305,6 +395,7 @@ public class OrderService {
         orderRepository.save(order);
 
         auditOrderAction(order.getOrderId(), AuditTrail.ACTION_DELETE, "CREATED", "CANCELLED", currentUser);
+        dashboardService.markSummaryDirty();
 
         log.info("Deleted (cancelled) order: {} by {}", order.getOrderNumber(), currentUser);
     }
@@ -15,6 +15,7 @@ import org.springframework.stereotype.Service;
 
 import java.awt.*;
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
@@ -39,9 +40,20 @@ public class PdfReportService {
      * Generate order summary PDF report.
      */
     public byte[] generateOrderReport() {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writeOrderReport(baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Write the order summary PDF report to the given stream.
+     * @return number of orders written
+     */
+    public int writeOrderReport(OutputStream out) {
+        try {
             Document document = new Document(PageSize.A4, 36, 36, 54, 36);
-            PdfWriter.getInstance(document, baos);
+            // The caller owns the stream
+            PdfWriter.getInstance(document, out).setCloseStream(false);
             document.open();
 
             addReportHeader(document, "Order Summary Report");
@@ -68,7 +80,7 @@ public class PdfReportService {
             document.close();
 
             log.info("Generated order PDF report with {} records", orders.size());
-            return baos.toByteArray();
+            return orders.size();
         } catch (Exception e) {
             log.error("Error generating order PDF report", e);
             throw new RuntimeException("Failed to generate PDF report", e);
@@ -79,9 +91,20 @@ public class PdfReportService {
      * Generate inventory summary PDF report.
      */
     public byte[] generateInventoryReport() {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writeInventoryReport(baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Write the inventory summary PDF report to the given stream.
+     * @return number of inventory items written
+     */
+    public int writeInventoryReport(OutputStream out) {
+        try {
             Document document = new Document(PageSize.A4.rotate(), 36, 36, 54, 36);
-            PdfWriter.getInstance(document, baos);
+            // The caller owns the stream
+            PdfWriter.getInstance(document, out).setCloseStream(false);
             document.open();
 
             addReportHeader(document, "Inventory Summary Report");
@@ -110,7 +133,7 @@ public class PdfReportService {
             document.close();
 
             log.info("Generated inventory PDF report with {} records", items.size());
-            return baos.toByteArray();
+            return items.size();
         } catch (Exception e) {
             log.error("Error generating inventory PDF report", e);
             throw new RuntimeException("Failed to generate PDF report", e);
@@ -0,0 +1,104 @@
+package com.mes.production.service;
+
+import com.mes.production.entity.BatchSizeConfig;
+import com.mes.production.entity.BillOfMaterial;
+import com.mes.production.entity.Equipment;
+import com.mes.production.entity.Operator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Reference data shared across production confirmations: equipment, operators,
+ * active BOM lines per product and batch size configs per lookup key.
+ *
+ * A single confirmation uses a fresh instance; a bulk confirmation reuses one
+ * instance for every item so each lookup hits the database at most once.
+ * Not thread-safe - scope an instance to one request.
+ */
+public class ProductionLookups {
+
+    private final Map<Long, Equipment> equipmentById = new HashMap<>();
+    private final Map<Long, Operator> operatorById = new HashMap<>();
+    private final Map<String, List<BillOfMaterial>> bomByProductSku = new HashMap<>();
+    private final Map<String, Optional<BatchSizeConfig>> batchSizeConfigByKey = new HashMap<>();
+
+    /**
+     * Preload equipment so later lookups are served from memory
+     */
+    public void putEquipment(Collection<Equipment> equipment) {
+        for (Equipment eq : equipment) {
+            equipmentById.put(eq.getEquipmentId(), eq);
+        }
+    }
+
+    /**
+     * Preload operators so later lookups are served from memory
+     */
+    public void putOperators(Collection<Operator> operators) {
+        for (Operator op : operators) {
+            operatorById.put(op.getOperatorId(), op);
+        }
+    }
+
+    /**
+     * Get equipment by IDs, loading only the IDs not already known
+     */
+    public List<Equipment> equipment(List<Long> ids, Function<List<Long>, List<Equipment>> loader) {
+        if (ids == null) {
+            return List.of();
+        }
+        List<Long> missing = ids.stream().filter(id -> !equipmentById.containsKey(id)).distinct().toList();
+        if (!missing.isEmpty()) {
+            putEquipment(loader.apply(missing));
+        }
+        return resolve(ids, equipmentById);
+    }
+
+    /**
+     * Get operators by IDs, loading only the IDs not already known
+     */
+    public List<Operator> operators(List<Long> ids, Function<List<Long>, List<Operator>> loader) {
+        if (ids == null) {
+            return List.of();
+        }
+        List<Long> missing = ids.stream().filter(id -> !operatorById.containsKey(id)).distinct().toList();
+        if (!missing.isEmpty()) {
+            putOperators(loader.apply(missing));
+        }
+        return resolve(ids, operatorById);
+    }
+
+    /**
+     * Get active BOM lines for a product, loading once per product SKU
+     */
+    public List<BillOfMaterial> bom(String productSku, Supplier<List<BillOfMaterial>> loader) {
+        return bomByProductSku.computeIfAbsent(productSku, sku -> loader.get());
+    }
+
+    /**
+     * Get the applicable batch size config, loading once per lookup key
+     */
+    public Optional<BatchSizeConfig> batchSizeConfig(String operationType, String productSku, String equipmentType,
+                                                     Supplier<Optional<BatchSizeConfig>> loader) {
+        String key = operationType + "|" + productSku + "|" + equipmentType;
+        return batchSizeConfigByKey.computeIfAbsent(key, k -> loader.get());
+    }
+
+    private static <T> List<T> resolve(List<Long> ids, Map<Long, T> byId) {
+        List<T> result = new ArrayList<>(ids.size());
+        for (Long id : ids.stream().distinct().toList()) {
+            T value = byId.get(id);
+            if (value != null) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,446 @@
+package com.mes.production.service;
+
+import com.mes.production.dto.ReportAnalyticsDTO;
+import com.mes.production.entity.Equipment;
+import com.mes.production.entity.ProductionConfirmation;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hourly production rollup (production_hourly_rollup) behind the report analytics.
+ *
+ * Each row holds the totals of the confirmations created in one hour for one operation type,
+ * product SKU, shift and equipment. New confirmations are added to their row in the confirming
+ * transaction. Like the production reports always did, confirmations count whatever their later
+ * status: a rejection or reversal changes no quantity and leaves the rollup as it is. Time ranges
+ * are half-open, [start, end), here and in the ProductionConfirmationRepository aggregates.
+ *
+ * A rebuild deletes and re-inserts its window, so it must not interleave with the incremental
+ * path: it holds a transaction-level advisory lock exclusively, while confirming transactions
+ * take it shared. Confirmations do not wait for each other, and a rebuild waits for those in
+ * flight and sees them committed.
+ *
+ * A confirmation with several pieces of equipment is attributed to the lowest equipment id, so
+ * totals summed over equipment are not double counted. The shift is the first ACTIVE shift whose
+ * window contains the start of the hour.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductionRollupService {
+
+    /** Stored in place of a missing operation type, SKU or shift so it can be part of the key */
+    static final String NONE = "";
+    static final long NO_EQUIPMENT = 0L;
+
+    static final String SOURCE_SQL =
+            "SELECT pc.confirmation_id, pc.created_on, pc.start_time, pc.end_time, pc.produced_qty, pc.scrap_qty, " +
+            "op.operation_type, oli.product_sku, oli.product_name, " +
+            "(SELECT MIN(ce.equipment_id) FROM confirmation_equipment ce " +
+            "WHERE ce.confirmation_id = pc.confirmation_id) AS equipment_id " +
+            "FROM production_confirmation pc " +
+            "JOIN operations op ON op.operation_id = pc.operation_id " +
+            "LEFT JOIN order_line_items oli ON oli.order_line_id = op.order_line_id " +
+            "WHERE pc.created_on >= ? AND pc.created_on < ?";
+
+    /** pg_advisory_xact_lock key serialising rebuilds with the incremental path ("ROLLUP") */
+    static final long LOCK_KEY = 0x524F4C4C5550L;
+
+    static final String INSERT_SQL =
+            "INSERT INTO production_hourly_rollup (bucket_start, operation_type, product_sku, shift_code, equipment_id, " +
+            "product_name, confirmation_count, produced_qty, scrap_qty, cycle_minutes_sum, cycle_minutes_min, " +
+            "cycle_minutes_max, updated_on) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    static final String INCREMENT_SQL =
+            "UPDATE production_hourly_rollup SET confirmation_count = confirmation_count + 1, " +
+            "produced_qty = produced_qty + ?, scrap_qty = scrap_qty + ?, " +
+            "cycle_minutes_sum = cycle_minutes_sum + ?, " +
+            "cycle_minutes_min = COALESCE(LEAST(cycle_minutes_min, ?), ?), " +
+            "cycle_minutes_max = COALESCE(GREATEST(cycle_minutes_max, ?), ?), updated_on = ? " +
+            "WHERE bucket_start = ? AND operation_type = ? AND product_sku = ? AND shift_code = ? AND equipment_id = ?";
+
+    static final String BY_OPERATION_SQL =
+            "SELECT NULLIF(operation_type, ''), SUM(confirmation_count), SUM(produced_qty), SUM(scrap_qty), " +
+            "SUM(cycle_minutes_sum), MIN(cycle_minutes_min), MAX(cycle_minutes_max) " +
+            "FROM production_hourly_rollup WHERE bucket_start >= ? AND bucket_start < ? " +
+            "GROUP BY operation_type";
+
+    static final String BY_PRODUCT_SQL =
+            "SELECT NULLIF(product_sku, ''), MAX(product_name), SUM(scrap_qty), SUM(produced_qty) " +
+            "FROM production_hourly_rollup WHERE bucket_start >= ? AND bucket_start < ? " +
+            "GROUP BY product_sku";
+
+    private static final long SHIFT_CACHE_MILLIS = 10 * 60 * 1000L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.reports.rollup.enabled:true}")
+    private boolean enabled = true;
+
+    private volatile boolean ready;
+    private volatile LocalDateTime lastRebuiltAt;
+    private volatile LocalDate lastRebuildFrom;
+    private volatile LocalDate lastRebuildTo;
+
+    private volatile List<ShiftWindow> shifts;
+    private volatile long shiftsLoadedAt;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private ExecutorService rebuildExecutor;
+
+    /** ACTIVE shift window; end before start means it runs past midnight */
+    record ShiftWindow(String shiftCode, LocalTime start, LocalTime end) {
+
+        boolean contains(LocalTime time) {
+            if (start == null || end == null) return false;
+            if (start.isBefore(end)) {
+                return !time.isBefore(start) && time.isBefore(end);
+            }
+            return !time.isBefore(start) || time.isBefore(end);
+        }
+    }
+
+    record RollupKey(LocalDateTime bucketStart, String operationType, String productSku,
+                     String shiftCode, long equipmentId) {
+    }
+
+    /** Totals of one rollup row */
+    static final class RollupTotals {
+        String productName;
+        long count;
+        BigDecimal produced = BigDecimal.ZERO;
+        BigDecimal scrap = BigDecimal.ZERO;
+        long cycleMinutes;
+        Long minCycleMinutes;
+        Long maxCycleMinutes;
+
+        void add(BigDecimal producedQty, BigDecimal scrapQty, Long minutes) {
+            count++;
+            produced = produced.add(producedQty != null ? producedQty : BigDecimal.ZERO);
+            scrap = scrap.add(scrapQty != null ? scrapQty : BigDecimal.ZERO);
+            if (minutes != null) {
+                cycleMinutes += minutes;
+                minCycleMinutes = minCycleMinutes == null ? minutes : Math.min(minCycleMinutes, minutes);
+                maxCycleMinutes = maxCycleMinutes == null ? minutes : Math.max(maxCycleMinutes, minutes);
+            }
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        rebuildExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "production-rollup");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    /**
+     * Mark the rollup ready, or backfill it in the background when it is empty but confirmations exist.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        Long rollupRows;
+        LocalDateTime firstConfirmation;
+        try {
+            rollupRows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM production_hourly_rollup", Long.class);
+            firstConfirmation = jdbcTemplate.queryForObject(
+                    "SELECT MIN(created_on) FROM production_confirmation", LocalDateTime.class);
+        } catch (DataAccessException e) {
+            // Reports keep reading production_confirmation
+            log.warn("Production rollup unavailable: {}", e.getMessage());
+            return;
+        }
+        if ((rollupRows == null || rollupRows == 0) && firstConfirmation != null) {
+            log.info("Production rollup is empty, backfilling from {}", firstConfirmation.toLocalDate());
+            requestRebuild(firstConfirmation.toLocalDate(), LocalDate.now());
+        } else {
+            ready = true;
+        }
+    }
+
+    /**
+     * True once the rollup covers all confirmations and reports can read from it
+     */
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    // ========== Maintenance (called inside the production transactions) ==========
+
+    /**
+     * Add a newly saved confirmation to its rollup row.
+     */
+    public void confirmationRecorded(ProductionConfirmation confirmation) {
+        if (!enabled || confirmation.getCreatedOn() == null) {
+            return;
+        }
+        RollupKey key = keyFor(confirmation.getCreatedOn(),
+                confirmation.getOperation() != null ? confirmation.getOperation().getOperationType() : null,
+                productSku(confirmation), primaryEquipmentId(confirmation));
+        RollupTotals totals = new RollupTotals();
+        totals.productName = confirmation.getOperation() != null && confirmation.getOperation().getOrderLineItem() != null
+                ? confirmation.getOperation().getOrderLineItem().getProductName() : null;
+        totals.add(confirmation.getProducedQty(), confirmation.getScrapQty(),
+                cycleMinutes(confirmation.getStartTime(), confirmation.getEndTime()));
+
+        // Held until commit; waits only while a rebuild of some window is running
+        jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock_shared(?)", LOCK_KEY);
+
+        // Existing row: one UPDATE. First confirmation of the key: INSERT, unless another
+        // transaction inserted it meanwhile, then UPDATE that row.
+        if (increment(key, totals) == 0 && insertIfAbsent(key, totals) == 0) {
+            increment(key, totals);
+        }
+    }
+
+    // ========== Backfill / rebuild ==========
+
+    /**
+     * Recompute the rollup for the given days in the background, one transaction per day.
+     */
+    public ReportAnalyticsDTO.RollupStatus requestRebuild(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null || endDate.isBefore(startDate)) {
+            throw new RuntimeException("Rollup rebuild needs a start date on or before the end date");
+        }
+        if (rebuilding.compareAndSet(false, true)) {
+            try {
+                rebuildExecutor.execute(() -> {
+                    try {
+                        rebuild(startDate, endDate);
+                    } catch (RuntimeException e) {
+                        log.error("Production rollup rebuild failed: {}", e.getMessage(), e);
+                    } finally {
+                        rebuilding.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                rebuilding.set(false);
+                log.warn("Production rollup rebuild rejected: {}", e.getMessage());
+            }
+        } else {
+            log.info("Production rollup rebuild already running, ignoring request for {} to {}", startDate, endDate);
+        }
+        return getStatus();
+    }
+
+    /**
+     * Recompute the rollup for the given days. Each day is replaced atomically, so reports
+     * running meanwhile see either the old or the new totals for a day, never a mix.
+     */
+    void rebuild(LocalDate startDate, LocalDate endDate) {
+        long started = System.currentTimeMillis();
+        shifts = null;
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int rows = 0;
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            LocalDateTime from = day.atStartOfDay();
+            Integer written = transactionTemplate.execute(status -> rebuildWindow(from, from.plusDays(1)));
+            rows += written != null ? written : 0;
+        }
+        ready = true;
+        lastRebuiltAt = LocalDateTime.now();
+        lastRebuildFrom = startDate;
+        lastRebuildTo = endDate;
+        log.info("Production rollup rebuilt for {} to {}: {} rows in {} ms",
+                startDate, endDate, rows, System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Replace the rollup rows of [from, to) with totals recomputed from production_confirmation.
+     * Runs in the caller's transaction, holding the rollup lock exclusively until it ends.
+     */
+    int rebuildWindow(LocalDateTime from, LocalDateTime to) {
+        // No confirmation can add to a row between the DELETE and the INSERT below
+        jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(?)", LOCK_KEY);
+        jdbcTemplate.update("DELETE FROM production_hourly_rollup WHERE bucket_start >= ? AND bucket_start < ?",
+                Timestamp.valueOf(from), Timestamp.valueOf(to));
+
+        Map<RollupKey, RollupTotals> buckets = new LinkedHashMap<>();
+        jdbcTemplate.query(SOURCE_SQL, rs -> {
+            long equipmentId = rs.getLong("equipment_id");
+            if (rs.wasNull()) {
+                equipmentId = NO_EQUIPMENT;
+            }
+            Timestamp startTime = rs.getTimestamp("start_time");
+            Timestamp endTime = rs.getTimestamp("end_time");
+            RollupKey key = keyFor(rs.getTimestamp("created_on").toLocalDateTime(), rs.getString("operation_type"),
+                    rs.getString("product_sku"), equipmentId);
+            RollupTotals totals = buckets.computeIfAbsent(key, k -> new RollupTotals());
+            if (totals.productName == null) {
+                totals.productName = rs.getString("product_name");
+            }
+            totals.add(rs.getBigDecimal("produced_qty"), rs.getBigDecimal("scrap_qty"),
+                    cycleMinutes(startTime != null ? startTime.toLocalDateTime() : null,
+                            endTime != null ? endTime.toLocalDateTime() : null));
+        }, Timestamp.valueOf(from), Timestamp.valueOf(to));
+
+        if (buckets.isEmpty()) {
+            return 0;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(buckets.size());
+        buckets.forEach((key, totals) -> rows.add(insertParams(key, totals, now)));
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        return rows.size();
+    }
+
+    // ========== Report queries ==========
+
+    /**
+     * Rows for confirmations created in [startDate, endDate) of
+     * {operationType, count, produced, scrap, cycleMinutesSum, cycleMinutesMin, cycleMinutesMax},
+     * the same shape as ProductionConfirmationRepository.aggregateByOperationType.
+     */
+    public List<Object[]> aggregateByOperationType(LocalDateTime startDate, LocalDateTime endDate) {
+        return queryRows(BY_OPERATION_SQL, startDate, endDate);
+    }
+
+    /**
+     * Rows for confirmations created in [startDate, endDate) of {productSku, productName, scrap, produced},
+     * the same shape as ProductionConfirmationRepository.aggregateScrapByProduct.
+     */
+    public List<Object[]> aggregateScrapByProduct(LocalDateTime startDate, LocalDateTime endDate) {
+        return queryRows(BY_PRODUCT_SQL, startDate, endDate);
+    }
+
+    public ReportAnalyticsDTO.RollupStatus getStatus() {
+        Long rowCount = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM production_hourly_rollup", Long.class);
+        return ReportAnalyticsDTO.RollupStatus.builder()
+                .enabled(enabled)
+                .ready(isReady())
+                .rebuilding(rebuilding.get())
+                .rowCount(rowCount != null ? rowCount : 0L)
+                .lastRebuiltAt(lastRebuiltAt)
+                .lastRebuildFrom(lastRebuildFrom)
+                .lastRebuildTo(lastRebuildTo)
+                .build();
+    }
+
+    // ========== Helpers ==========
+
+    private List<Object[]> queryRows(String sql, LocalDateTime startDate, LocalDateTime endDate) {
+        return jdbcTemplate.query(sql, (rs, rowNum) -> {
+            int columns = rs.getMetaData().getColumnCount();
+            Object[] row = new Object[columns];
+            for (int i = 0; i < columns; i++) {
+                row[i] = rs.getObject(i + 1);
+            }
+            return row;
+        }, Timestamp.valueOf(startDate), Timestamp.valueOf(endDate));
+    }
+
+    private int increment(RollupKey key, RollupTotals totals) {
+        return jdbcTemplate.update(INCREMENT_SQL,
+                totals.produced, totals.scrap, totals.cycleMinutes,
+                totals.minCycleMinutes, totals.minCycleMinutes,
+                totals.maxCycleMinutes, totals.maxCycleMinutes,
+                Timestamp.valueOf(LocalDateTime.now()),
+                Timestamp.valueOf(key.bucketStart()), key.operationType(), key.productSku(),
+                key.shiftCode(), key.equipmentId());
+    }
+
+    private int insertIfAbsent(RollupKey key, RollupTotals totals) {
+        return jdbcTemplate.update(INSERT_SQL + " ON CONFLICT DO NOTHING",
+                insertParams(key, totals, Timestamp.valueOf(LocalDateTime.now())));
+    }
+
+    private static Object[] insertParams(RollupKey key, RollupTotals totals, Timestamp now) {
+        return new Object[]{
+                Timestamp.valueOf(key.bucketStart()), key.operationType(), key.productSku(), key.shiftCode(),
+                key.equipmentId(), totals.productName, totals.count, totals.produced, totals.scrap,
+                totals.cycleMinutes, totals.minCycleMinutes, totals.maxCycleMinutes, now};
+    }
+
+    RollupKey keyFor(LocalDateTime createdOn, String operationType, String productSku, long equipmentId) {
+        LocalDateTime bucketStart = createdOn.truncatedTo(ChronoUnit.HOURS);
+        return new RollupKey(bucketStart,
+                operationType != null ? operationType : NONE,
+                productSku != null ? productSku : NONE,
+                shiftFor(bucketStart.toLocalTime()),
+                equipmentId);
+    }
+
+    String shiftFor(LocalTime time) {
+        for (ShiftWindow shift : activeShifts()) {
+            if (shift.contains(time)) {
+                return shift.shiftCode();
+            }
+        }
+        return NONE;
+    }
+
+    private List<ShiftWindow> activeShifts() {
+        List<ShiftWindow> current = shifts;
+        if (current == null || System.currentTimeMillis() - shiftsLoadedAt > SHIFT_CACHE_MILLIS) {
+            current = jdbcTemplate.query(
+                    "SELECT shift_code, start_time, end_time FROM shifts WHERE status = 'ACTIVE' ORDER BY shift_id",
+                    (rs, rowNum) -> new ShiftWindow(rs.getString("shift_code"),
+                            rs.getObject("start_time", LocalTime.class),
+                            rs.getObject("end_time", LocalTime.class)));
+            shifts = current;
+            shiftsLoadedAt = System.currentTimeMillis();
+        }
+        return current;
+    }
+
+    private static String productSku(ProductionConfirmation confirmation) {
+        return confirmation.getOperation() != null && confirmation.getOperation().getOrderLineItem() != null
+                ? confirmation.getOperation().getOrderLineItem().getProductSku() : null;
+    }
+
+    private static long primaryEquipmentId(ProductionConfirmation confirmation) {
+        if (confirmation.getEquipment() == null) {
+            return NO_EQUIPMENT;
+        }
+        return confirmation.getEquipment().stream()
+                .map(Equipment::getEquipmentId)
+                .filter(id -> id != null)
+                .mapToLong(Long::longValue)
+                .min()
+                .orElse(NO_EQUIPMENT);
+    }
+
+    /** Whole minutes, truncated like Duration.toMinutes(); null when either time is missing */
+    private static Long cycleMinutes(LocalDateTime startTime, LocalDateTime endTime) {
+        if (startTime == null || endTime == null) {
+            return null;
+        }
+        return Duration.between(startTime, endTime).toMinutes();
+    }
+}
@@ -31,7 +31,11 @@ public class ProductionService {
     private final InventoryRepository inventoryRepository;
     private final BatchRepository batchRepository;
     private final BatchRelationRepository batchRelationRepository;
+    private final GenealogyIndexService genealogyIndexService;
     private final ProductionConfirmationRepository confirmationRepository;
+    private final ProductionRollupService productionRollupService;
+    private final DashboardService dashboardService;
+    private final LiveEventService liveEventService;
     private final EquipmentRepository equipmentRepository;
     private final OperatorRepository operatorRepository;
     private final HoldRecordRepository holdRecordRepository;
@@ -51,6 +55,16 @@ public class ProductionService {
      */
     @Transactional
     public ProductionConfirmationDTO.Response confirmProduction(ProductionConfirmationDTO.Request request) {
+        return confirmProduction(request, new ProductionLookups());
+    }
+
+    /**
+     * Confirm production for an operation, resolving equipment, operators, BOM and
+     * batch size configs through the given lookups (shared across a bulk confirmation).
+     */
+    @Transactional
+    public ProductionConfirmationDTO.Response confirmProduction(ProductionConfirmationDTO.Request request,
+                                                                ProductionLookups lookups) {
         log.info("Processing production confirmation for operation: {}", request.getOperationId());
 
         String currentUser = getCurrentUser();
@@ -102,55 +116,63 @@ public class ProductionService {
             }
         }
 
-        // 3. Process material consumption
-        Map<String, Object> rmConsumed = new HashMap<>();
-        List<ProductionConfirmationDTO.MaterialConsumedInfo> materialsConsumedInfo = new java.util.ArrayList<>();
-        BigDecimal totalConsumed = BigDecimal.ZERO;
+        // 3. Process material consumption (set-based)
+        // Prefetch all referenced inventory, batches and active holds in one query each,
+        // validate in memory, then write back in batches so round trips stay constant
+        // regardless of how many lines the confirmation has.
+        List<ProductionConfirmationDTO.MaterialConsumption> consumptions = request.getMaterialsConsumed();
+        ConsumptionContext consumptionContext = prefetchConsumption(consumptions);
 
-        for (ProductionConfirmationDTO.MaterialConsumption consumption : request.getMaterialsConsumed()) {
-            // Get inventory and batch
-            Inventory inventory = inventoryRepository.findById(consumption.getInventoryId())
-                    .orElseThrow(() -> new RuntimeException("Inventory not found: " + consumption.getInventoryId()));
+        // Per MES Consolidated Specification: Operation has OrderLineItem (runtime ref)
+        Long orderId = operation.getOrderLineItem() != null && operation.getOrderLineItem().getOrder() != null
+                ? operation.getOrderLineItem().getOrder().getOrderId()
+                : null;
+
+        for (ProductionConfirmationDTO.MaterialConsumption consumption : consumptions) {
+            Inventory inventory = consumptionContext.inventoryById().get(consumption.getInventoryId());
+            if (inventory == null) {
+                throw new RuntimeException("Inventory not found: " + consumption.getInventoryId());
+            }
 
             // Use centralized state validator to check consumption is allowed
             // This validates: state is AVAILABLE or RESERVED (for this order), no active holds on inventory/batch
-            // Per MES Consolidated Specification: Operation has OrderLineItem (runtime ref)
-            Long orderId = operation.getOrderLineItem() != null && operation.getOrderLineItem().getOrder() != null
-                    ? operation.getOrderLineItem().getOrder().getOrderId()
-                    : null;
-            inventoryStateValidator.validateConsumption(inventory, orderId);
+            inventoryStateValidator.validateConsumption(inventory, orderId,
+                    consumptionContext.inventoryIdsOnHold(), consumptionContext.batchIdsOnHold());
 
             // Validate quantity
             if (consumption.getQuantity().compareTo(inventory.getQuantity()) > 0) {
                 throw new RuntimeException("Consumption quantity exceeds available quantity for inventory: " + consumption.getInventoryId());
             }
+        }
+
+        Map<String, Object> rmConsumed = new HashMap<>();
+        List<ProductionConfirmationDTO.MaterialConsumedInfo> materialsConsumedInfo = new java.util.ArrayList<>();
+        List<Inventory> consumedInventories = new ArrayList<>();
+        Map<Long, Batch> consumedBatches = new LinkedHashMap<>();
+        Map<Long, String> oldInventoryStates = new HashMap<>();
+        Map<Long, String> oldBatchStatuses = new HashMap<>();
+        List<InventoryMovementService.MovementLine> consumeMovements = new ArrayList<>();
+        BigDecimal totalConsumed = BigDecimal.ZERO;
+
+        for (ProductionConfirmationDTO.MaterialConsumption consumption : consumptions) {
+            Inventory inventory = consumptionContext.inventoryById().get(consumption.getInventoryId());
 
             // Update inventory state to CONSUMED
-            String oldState = inventory.getState();
+            oldInventoryStates.put(inventory.getInventoryId(), inventory.getState());
             inventory.setState("CONSUMED");
             inventory.setUpdatedBy(currentUser);
-            inventoryRepository.save(inventory);
-
-            // Audit: Log inventory consumption
-            auditService.logStatusChange("INVENTORY", inventory.getInventoryId(), oldState, "CONSUMED");
+            consumedInventories.add(inventory);
 
-            // Record inventory movement
-            inventoryMovementService.recordConsume(
-                    inventory.getInventoryId(),
-                    request.getOperationId(),
-                    consumption.getQuantity(),
-                    "Production confirmation");
+            consumeMovements.add(new InventoryMovementService.MovementLine(
+                    inventory, consumption.getQuantity(), "Production confirmation"));
 
-            // Update batch status if fully consumed
+            // Update batch status (once per batch, even if several lines draw from it)
             Batch batch = inventory.getBatch();
-            if (batch != null) {
-                String oldBatchStatus = batch.getStatus();
+            if (batch != null && !consumedBatches.containsKey(batch.getBatchId())) {
+                oldBatchStatuses.put(batch.getBatchId(), batch.getStatus());
                 batch.setStatus("CONSUMED");
                 batch.setUpdatedBy(currentUser);
-                batchRepository.save(batch);
-
-                // Audit: Log batch status change
-                auditService.logStatusChange("BATCH", batch.getBatchId(), oldBatchStatus, "CONSUMED");
+                consumedBatches.put(batch.getBatchId(), batch);
             }
 
             // Record consumption
@@ -173,6 +195,21 @@ public class ProductionService {
             log.info("Consumed {} from batch {}", consumption.getQuantity(), consumption.getBatchId());
         }
 
+        // Write back consumed inventory, batches and movements in batches
+        inventoryRepository.saveAll(consumedInventories);
+        batchRepository.saveAll(consumedBatches.values());
+        inventoryMovementService.recordMovements(operation, InventoryMovement.TYPE_CONSUME, consumeMovements);
+
+        // Audit: Log inventory consumption and batch status changes
+        for (Inventory inventory : consumedInventories) {
+            auditService.logStatusChange("INVENTORY", inventory.getInventoryId(),
+                    oldInventoryStates.get(inventory.getInventoryId()), "CONSUMED");
+        }
+        for (Batch batch : consumedBatches.values()) {
+            auditService.logStatusChange("BATCH", batch.getBatchId(),
+                    oldBatchStatuses.get(batch.getBatchId()), "CONSUMED");
+        }
+
         // R-02: Validate consumed materials against BOM requirements
         String productSku = operation.getOrderLineItem() != null ?
                 operation.getOrderLineItem().getProductSku() : null;
@@ -190,7 +227,8 @@ public class ProductionService {
                     .materialsConsumed(bomConsumptions)
                     .build();
 
-            BomDTO.BomValidationResult bomResult = bomValidationService.validateConsumption(bomValidationRequest);
+            List<BillOfMaterial> bomLines = lookups.bom(productSku, () -> bomValidationService.getActiveBom(productSku));
+            BomDTO.BomValidationResult bomResult = bomValidationService.validateConsumption(bomValidationRequest, bomLines);
             if (!bomResult.isValid()) {
                 String bomErrors = String.join("; ", bomResult.getErrors());
                 log.warn("BOM validation failed for operation {}: {}", operation.getOperationId(), bomErrors);
@@ -207,26 +245,30 @@ public class ProductionService {
         String operationType = operation.getOperationType();
         String equipmentType = null; // Could be enhanced to get from request.getEquipmentIds()
 
+        // materialId is not used for output batch size lookup
+        Optional<BatchSizeConfig> batchSizeConfig = lookups.batchSizeConfig(operationType, productSku, equipmentType,
+                () -> batchSizeService.findApplicableConfig(operationType, null, productSku, equipmentType));
         BatchSizeService.BatchSizeResult batchSizeResult = batchSizeService.calculateBatchSizes(
-                request.getProducedQty(),
-                operationType,
-                null, // materialId - not used for output
-                productSku,
-                equipmentType);
+                request.getProducedQty(), batchSizeConfig);
 
         log.info("Batch size calculation: {} batches for {} qty",
                 batchSizeResult.batchCount(), request.getProducedQty());
 
         // R-12: Validate produced quantity against batch size config (soft enforcement)
-        validateBatchSizeConfig(request.getProducedQty(), operationType, productSku, equipmentType, operation.getOperationId());
+        validateBatchSizeConfig(request.getProducedQty(), batchSizeConfig, operationType, productSku, operation.getOperationId());
 
         // 4. Generate output batches (may be multiple if quantity exceeds max batch size)
         List<Batch> outputBatches = new java.util.ArrayList<>();
         List<Inventory> outputInventories = new java.util.ArrayList<>();
 
-        for (int i = 0; i < batchSizeResult.batchSizes().size(); i++) {
+        // Take all batch numbers in one sequence allocation rather than one per output batch
+        int outputCount = batchSizeResult.batchSizes().size();
+        List<String> batchNumbers = batchNumberService.generateBatchNumbers(operationType, productSku, outputCount);
+
+        for (int i = 0; i < outputCount; i++) {
             BigDecimal batchQty = batchSizeResult.batchSizes().get(i);
-            Batch outputBatch = generateOutputBatch(operation, batchQty, currentUser, i + 1, batchSizeResult.batchCount());
+            Batch outputBatch = generateOutputBatch(operation, batchQty, currentUser, batchNumbers.get(i),
+                    i + 1, batchSizeResult.batchCount());
             outputBatches.add(outputBatch);
 
             // Create inventory for each batch
@@ -238,9 +280,8 @@ public class ProductionService {
         Batch primaryOutputBatch = outputBatches.get(0);
 
         // 5. Create batch relations (link all output batches to consumed inputs)
-        for (Batch outputBatch : outputBatches) {
-            createBatchRelations(request.getMaterialsConsumed(), outputBatch, operation.getOperationId(), currentUser);
-        }
+        createBatchRelations(consumptions, outputBatches, consumptionContext.parentBatchById(),
+                operation.getOperationId(), currentUser);
 
         // 6. Determine confirmation status (partial vs full)
         BigDecimal targetQty = operation.getTargetQty();
@@ -267,10 +308,10 @@ public class ProductionService {
 
         // 6. Create production confirmation record
         // Fetch equipment and operator entities
-        Set<Equipment> equipmentSet = request.getEquipmentIds() != null ?
-                new HashSet<>(equipmentRepository.findAllById(request.getEquipmentIds())) : new HashSet<>();
-        Set<Operator> operatorSet = request.getOperatorIds() != null ?
-                new HashSet<>(operatorRepository.findAllById(request.getOperatorIds())) : new HashSet<>();
+        List<Equipment> equipmentList = lookups.equipment(request.getEquipmentIds(), equipmentRepository::findAllById);
+        List<Operator> operatorList = lookups.operators(request.getOperatorIds(), operatorRepository::findAllById);
+        Set<Equipment> equipmentSet = new HashSet<>(equipmentList);
+        Set<Operator> operatorSet = new HashSet<>(operatorList);
 
         ProductionConfirmation confirmation = ProductionConfirmation.builder()
                 .operation(operation)
@@ -291,12 +332,15 @@ public class ProductionService {
 
         confirmation = confirmationRepository.save(confirmation);
         log.info("Production confirmation created: {} with status: {}", confirmation.getConfirmationId(), confirmationStatus);
+        productionRollupService.confirmationRecorded(confirmation);
+        dashboardService.markSummaryDirty();
+        liveEventService.confirmationCreated(confirmation);
 
         // R-13: Link output batches to this confirmation for reversal traceability
         for (Batch outputBatch : outputBatches) {
             outputBatch.setConfirmationId(confirmation.getConfirmationId());
-            batchRepository.save(outputBatch);
         }
+        batchRepository.saveAll(outputBatches);
 
         // Audit: Log production confirmation creation
         auditService.logCreate("PRODUCTION_CONFIRMATION", confirmation.getConfirmationId(),
@@ -311,14 +355,16 @@ public class ProductionService {
                 request.getEndTime());
 
         // Record inventory movement for all produced outputs
-        for (Inventory outputInventory : outputInventories) {
-            inventoryMovementService.recordProduce(
-                    outputInventory.getInventoryId(),
-                    operation.getOperationId(),
+        List<InventoryMovementService.MovementLine> produceMovements = new ArrayList<>();
+        for (int i = 0; i < outputInventories.size(); i++) {
+            Inventory outputInventory = outputInventories.get(i);
+            produceMovements.add(new InventoryMovementService.MovementLine(
+                    outputInventory,
                     outputInventory.getQuantity(),
                     "Production confirmation output" + (outputBatches.size() > 1 ?
-                            " (batch " + (outputInventories.indexOf(outputInventory) + 1) + " of " + outputBatches.size() + ")" : ""));
+                            " (batch " + (i + 1) + " of " + outputBatches.size() + ")" : "")));
         }
+        inventoryMovementService.recordMovements(operation, InventoryMovement.TYPE_PRODUCE, produceMovements);
 
         // 7. Update operation status based on confirmation type
         String oldOperationStatus = operation.getStatus();
@@ -334,6 +380,7 @@ public class ProductionService {
 
             if (!oldOperationStatus.equals(newOperationStatus)) {
                 auditService.logStatusChange("OPERATION", operation.getOperationId(), oldOperationStatus, newOperationStatus);
+                liveEventService.operationStatusChanged(operation, oldOperationStatus);
             }
             log.info("Operation remains IN_PROGRESS due to partial confirmation");
         } else {
@@ -345,29 +392,29 @@ public class ProductionService {
 
             // Audit: Log operation status change
             auditService.logStatusChange("OPERATION", operation.getOperationId(), oldOperationStatus, newOperationStatus);
+            liveEventService.operationStatusChanged(operation, oldOperationStatus);
 
             // 8. Set next operation to READY (only for full confirmations)
             nextOpInfo = setNextOperationReady(operation, currentUser);
         }
 
         // 9. Get equipment and operator details
-        List<ProductionConfirmationDTO.EquipmentInfo> equipmentInfo = request.getEquipmentIds() != null ?
-                equipmentRepository.findAllById(request.getEquipmentIds()).stream()
-                        .map(eq -> ProductionConfirmationDTO.EquipmentInfo.builder()
-                                .equipmentId(eq.getEquipmentId())
-                                .equipmentCode(eq.getEquipmentCode())
-                                .name(eq.getName())
-                                .build())
-                        .collect(Collectors.toList()) : List.of();
+        // Reuse the entities loaded for the confirmation record
+        List<ProductionConfirmationDTO.EquipmentInfo> equipmentInfo = equipmentList.stream()
+                .map(eq -> ProductionConfirmationDTO.EquipmentInfo.builder()
+                        .equipmentId(eq.getEquipmentId())
+                        .equipmentCode(eq.getEquipmentCode())
+                        .name(eq.getName())
+                        .build())
+                .collect(Collectors.toList());
 
-        List<ProductionConfirmationDTO.OperatorInfo> operatorInfo = request.getOperatorIds() != null ?
-                operatorRepository.findAllById(request.getOperatorIds()).stream()
-                        .map(op -> ProductionConfirmationDTO.OperatorInfo.builder()
-                                .operatorId(op.getOperatorId())
-                                .operatorCode(op.getOperatorCode())
-                                .name(op.getName())
-                                .build())
-                        .collect(Collectors.toList()) : List.of();
+        List<ProductionConfirmationDTO.OperatorInfo> operatorInfo = operatorList.stream()
+                .map(op -> ProductionConfirmationDTO.OperatorInfo.builder()
+                        .operatorId(op.getOperatorId())
+                        .operatorCode(op.getOperatorCode())
+                        .name(op.getName())
+                        .build())
+                .collect(Collectors.toList());
 
         // 10. Build response with multi-batch support
         List<ProductionConfirmationDTO.BatchInfo> outputBatchInfos = outputBatches.stream()
@@ -418,22 +465,11 @@ public class ProductionService {
                 .build();
     }
 
-    private Batch generateOutputBatch(Operation operation, BigDecimal quantity, String currentUser) {
-        return generateOutputBatch(operation, quantity, currentUser, 1, 1);
-    }
-
     private Batch generateOutputBatch(Operation operation, BigDecimal quantity, String currentUser,
-                                      int sequenceNumber, int totalBatches) {
-        // Get product SKU for configuration lookup
-        // Per MES Consolidated Specification: Operation has OrderLineItem (runtime ref)
-        String productSku = null;
-        if (operation.getOrderLineItem() != null) {
-            productSku = operation.getOrderLineItem().getProductSku();
-        }
-
-        // Generate batch number using configurable service (GAP-005)
+                                      String generatedNumber, int sequenceNumber, int totalBatches) {
+        // Batch number comes from the configurable service (GAP-005)
         // For multi-batch, append sequence suffix (e.g., -01, -02)
-        String batchNumber = batchNumberService.generateBatchNumber(operation.getOperationType(), productSku);
+        String batchNumber = generatedNumber;
         if (totalBatches > 1) {
             batchNumber = batchNumber + String.format("-%02d", sequenceNumber);
             log.info("Multi-batch: generated batch {} of {} with number {}", sequenceNumber, totalBatches, batchNumber);
@@ -499,29 +535,87 @@ public class ProductionService {
         return inventory;
     }
 
-    private void createBatchRelations(List<ProductionConfirmationDTO.MaterialConsumption> consumptions,
-                                      Batch childBatch, Long operationId, String currentUser) {
+    /**
+     * Prefetched state for a set of consumption lines: one query each for inventory
+     * (with batch), parent batches, inventory holds and batch holds.
+     */
+    private record ConsumptionContext(Map<Long, Inventory> inventoryById,
+                                      Map<Long, Batch> parentBatchById,
+                                      Set<Long> inventoryIdsOnHold,
+                                      Set<Long> batchIdsOnHold) {}
+
+    private ConsumptionContext prefetchConsumption(List<ProductionConfirmationDTO.MaterialConsumption> consumptions) {
+        Set<Long> inventoryIds = new LinkedHashSet<>();
+        Set<Long> parentBatchIds = new LinkedHashSet<>();
         for (ProductionConfirmationDTO.MaterialConsumption consumption : consumptions) {
-            Batch parentBatch = batchRepository.findById(consumption.getBatchId())
-                    .orElseThrow(() -> new RuntimeException("Parent batch not found: " + consumption.getBatchId()));
-
-            BatchRelation relation = BatchRelation.builder()
-                    .parentBatch(parentBatch)
-                    .childBatch(childBatch)
-                    .operationId(operationId)
-                    .relationType("MERGE")
-                    .quantityConsumed(consumption.getQuantity())
-                    .status("ACTIVE")
-                    .createdBy(currentUser)
-                    .build();
+            if (!inventoryIds.add(consumption.getInventoryId())) {
+                throw new RuntimeException("Inventory listed more than once in confirmation: " + consumption.getInventoryId());
+            }
+            parentBatchIds.add(consumption.getBatchId());
+        }
+
+        if (inventoryIds.isEmpty()) {
+            return new ConsumptionContext(Map.of(), Map.of(), Set.of(), Set.of());
+        }
+
+        Map<Long, Inventory> inventoryById = new HashMap<>();
+        for (Inventory inventory : inventoryRepository.findAllByIdWithBatch(inventoryIds)) {
+            inventoryById.put(inventory.getInventoryId(), inventory);
+        }
+
+        Map<Long, Batch> parentBatchById = new HashMap<>();
+        for (Batch batch : batchRepository.findAllById(parentBatchIds)) {
+            parentBatchById.put(batch.getBatchId(), batch);
+        }
+
+        Set<Long> inventoryBatchIds = inventoryById.values().stream()
+                .map(Inventory::getBatch)
+                .filter(Objects::nonNull)
+                .map(Batch::getBatchId)
+                .collect(Collectors.toSet());
+
+        Set<Long> inventoryIdsOnHold = new HashSet<>(
+                holdRecordRepository.findActiveHoldEntityIds("INVENTORY", inventoryIds));
+        Set<Long> batchIdsOnHold = inventoryBatchIds.isEmpty() ? Set.of() : new HashSet<>(
+                holdRecordRepository.findActiveHoldEntityIds("BATCH", inventoryBatchIds));
 
-            relation = batchRelationRepository.save(relation);
-            log.info("Created batch relation: {} -> {}", parentBatch.getBatchNumber(), childBatch.getBatchNumber());
+        return new ConsumptionContext(inventoryById, parentBatchById, inventoryIdsOnHold, batchIdsOnHold);
+    }
 
-            // Audit: Log batch relation creation
+    private void createBatchRelations(List<ProductionConfirmationDTO.MaterialConsumption> consumptions,
+                                      List<Batch> childBatches, Map<Long, Batch> parentBatchById,
+                                      Long operationId, String currentUser) {
+        List<BatchRelation> relations = new ArrayList<>();
+        for (Batch childBatch : childBatches) {
+            for (ProductionConfirmationDTO.MaterialConsumption consumption : consumptions) {
+                Batch parentBatch = parentBatchById.get(consumption.getBatchId());
+                if (parentBatch == null) {
+                    throw new RuntimeException("Parent batch not found: " + consumption.getBatchId());
+                }
+
+                relations.add(BatchRelation.builder()
+                        .parentBatch(parentBatch)
+                        .childBatch(childBatch)
+                        .operationId(operationId)
+                        .relationType("MERGE")
+                        .quantityConsumed(consumption.getQuantity())
+                        .status("ACTIVE")
+                        .createdBy(currentUser)
+                        .build());
+            }
+        }
+
+        List<BatchRelation> saved = batchRelationRepository.saveAll(relations);
+        log.info("Created {} batch relations for {} output batches", saved.size(), childBatches.size());
+        genealogyIndexService.relationsCreated(saved);
+
+        // Audit: Log batch relation creation
+        for (BatchRelation relation : saved) {
             auditService.logCreate("BATCH_RELATION", relation.getRelationId(),
                     String.format("Parent: %s -> Child: %s, Qty: %s",
-                            parentBatch.getBatchNumber(), childBatch.getBatchNumber(), consumption.getQuantity()));
+                            relation.getParentBatch().getBatchNumber(),
+                            relation.getChildBatch().getBatchNumber(),
+                            relation.getQuantityConsumed()));
         }
     }
 
@@ -544,6 +638,7 @@ public class ProductionService {
 
             // Audit: Log next operation status change
             auditService.logStatusChange("OPERATION", next.getOperationId(), oldStatus, "READY");
+            liveEventService.operationStatusChanged(next, oldStatus);
 
             return ProductionConfirmationDTO.NextOperationInfo.builder()
                     .operationId(next.getOperationId())
@@ -614,12 +709,9 @@ public class ProductionService {
      * R-12: Validate produced quantity against batch size configuration.
      * This is SOFT enforcement - logs warnings and audit entries but does not block production.
      */
-    private void validateBatchSizeConfig(BigDecimal producedQty, String operationType,
-                                          String productSku, String equipmentType, Long operationId) {
+    private void validateBatchSizeConfig(BigDecimal producedQty, Optional<BatchSizeConfig> configOpt,
+                                          String operationType, String productSku, Long operationId) {
         try {
-            Optional<BatchSizeConfig> configOpt = batchSizeService.findApplicableConfig(
-                    operationType, null, productSku, equipmentType);
-
             if (configOpt.isEmpty()) {
                 log.debug("R-12: No batch size config found for operation={}, product={} - skipping validation",
                         operationType, productSku);
@@ -693,6 +785,7 @@ public class ProductionService {
         confirmation.setRejectedOn(java.time.LocalDateTime.now());
         confirmation.setUpdatedBy(currentUser);
         confirmationRepository.save(confirmation);
+        dashboardService.markSummaryDirty();
 
         log.info("Production confirmation {} rejected by {}", request.getConfirmationId(), currentUser);
 
@@ -938,6 +1031,7 @@ public class ProductionService {
         }
 
         // Step 7: Deactivate batch relations (ACTIVE → REVERSED)
+        List<BatchRelation> reversedRelations = new ArrayList<>();
         for (Batch outputBatch : outputBatches) {
             // Find relations where this output batch is the child (parent→child)
             List<BatchRelation> relations = batchRelationRepository.findParentRelations(outputBatch.getBatchId());
@@ -946,9 +1040,11 @@ public class ProductionService {
                     rel.setStatus("REVERSED");
                     batchRelationRepository.save(rel);
                     auditService.logStatusChange("BATCH_RELATION", rel.getRelationId(), "ACTIVE", "REVERSED");
+                    reversedRelations.add(rel);
                 }
             }
         }
+        genealogyIndexService.relationsRemoved(reversedRelations);
 
         // Step 8: Revert operation status and confirmed qty
         Operation operation = confirmation.getOperation();
@@ -972,6 +1068,7 @@ public class ProductionService {
         operationRepository.save(operation);
         if (!oldOpStatus.equals(newOpStatus)) {
             auditService.logStatusChange("OPERATION", operation.getOperationId(), oldOpStatus, newOpStatus);
+            liveEventService.operationStatusChanged(operation, oldOpStatus);
         }
 
         // Step 9: Revert next operation if this was a full confirmation
@@ -986,6 +1083,7 @@ public class ProductionService {
                 next.setUpdatedBy(currentUser);
                 operationRepository.save(next);
                 auditService.logStatusChange("OPERATION", next.getOperationId(), "READY", "NOT_STARTED");
+                liveEventService.operationStatusChanged(next, "READY");
                 nextOperationId = next.getOperationId();
                 nextOperationNewStatus = "NOT_STARTED";
             }
@@ -1001,6 +1099,7 @@ public class ProductionService {
         confirmation.setReversedOn(LocalDateTime.now());
         confirmation.setUpdatedBy(currentUser);
         confirmationRepository.save(confirmation);
+        dashboardService.markSummaryDirty();
 
         auditService.logStatusChange("PRODUCTION_CONFIRMATION",
                 confirmation.getConfirmationId(), oldStatus, ProductionConfirmation.STATUS_REVERSED);
@@ -2,18 +2,16 @@ package com.mes.production.service;
 
 import com.mes.production.dto.ReportAnalyticsDTO;
 import com.mes.production.entity.HoldRecord;
-import com.mes.production.entity.Inventory;
 import com.mes.production.entity.Order;
-import com.mes.production.entity.ProductionConfirmation;
 import com.mes.production.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
@@ -23,17 +21,26 @@ import java.util.stream.Collectors;
  * Service for generating report analytics across production, orders,
  * inventory, and holds. Aggregates data from multiple repositories
  * and computes KPIs for the reporting dashboard.
+ *
+ * Production, inventory and hold figures come from GROUP BY queries, so only
+ * one row per group is loaded no matter how much history is in the tables.
+ * Production figures are read from the hourly rollup once it is ready and from
+ * production_confirmation until then; both count confirmations created in [start, end).
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ReportAnalyticsService {
 
+    private static final String UNKNOWN = "UNKNOWN";
+    private static final int TOP_REASON_LIMIT = 10;
+
     private final ProductionConfirmationRepository confirmationRepository;
     private final OrderRepository orderRepository;
     private final InventoryRepository inventoryRepository;
     private final HoldRecordRepository holdRecordRepository;
     private final OperationRepository operationRepository;
+    private final ProductionRollupService productionRollupService;
 
     /**
      * Get production summary for a date range.
@@ -43,52 +50,19 @@ public class ReportAnalyticsService {
     public ReportAnalyticsDTO.ProductionSummary getProductionSummary(LocalDate startDate, LocalDate endDate) {
         log.info("Getting production summary from {} to {}", startDate, endDate);
 
-        LocalDateTime startDateTime = startDate.atStartOfDay();
-        LocalDateTime endDateTime = endDate.plusDays(1).atStartOfDay();
-
-        List<ProductionConfirmation> confirmations = confirmationRepository.findByDateRange(startDateTime, endDateTime);
-
-        BigDecimal totalProduced = BigDecimal.ZERO;
-        BigDecimal totalScrap = BigDecimal.ZERO;
-        long totalCycleTimeMinutes = 0;
-        int cycleTimeCount = 0;
-
-        for (ProductionConfirmation pc : confirmations) {
-            if (pc.getProducedQty() != null) {
-                totalProduced = totalProduced.add(pc.getProducedQty());
-            }
-            if (pc.getScrapQty() != null) {
-                totalScrap = totalScrap.add(pc.getScrapQty());
-            }
-            if (pc.getStartTime() != null && pc.getEndTime() != null) {
-                long minutes = Duration.between(pc.getStartTime(), pc.getEndTime()).toMinutes();
-                totalCycleTimeMinutes += minutes;
-                cycleTimeCount++;
-            }
-        }
-
-        BigDecimal totalInput = totalProduced.add(totalScrap);
-        BigDecimal yieldPercentage = BigDecimal.ZERO;
-        if (totalInput.compareTo(BigDecimal.ZERO) > 0) {
-            yieldPercentage = totalProduced
-                    .multiply(BigDecimal.valueOf(100))
-                    .divide(totalInput, 2, RoundingMode.HALF_UP);
-        }
-
-        BigDecimal avgCycleTime = BigDecimal.ZERO;
-        if (cycleTimeCount > 0) {
-            avgCycleTime = BigDecimal.valueOf(totalCycleTimeMinutes)
-                    .divide(BigDecimal.valueOf(cycleTimeCount), 2, RoundingMode.HALF_UP);
+        OperationTotals totals = new OperationTotals(null);
+        for (OperationTotals byType : loadOperationTotals(startDate, endDate)) {
+            totals.add(byType);
         }
 
         return ReportAnalyticsDTO.ProductionSummary.builder()
                 .startDate(startDate)
                 .endDate(endDate)
-                .totalProduced(totalProduced)
-                .totalScrap(totalScrap)
-                .yieldPercentage(yieldPercentage)
-                .avgCycleTimeMinutes(avgCycleTime)
-                .confirmationCount((long) confirmations.size())
+                .totalProduced(totals.produced)
+                .totalScrap(totals.scrap)
+                .yieldPercentage(percentage(totals.produced, totals.produced.add(totals.scrap)))
+                .avgCycleTimeMinutes(totals.avgCycleMinutes())
+                .confirmationCount(totals.count)
                 .build();
     }
 
@@ -99,45 +73,14 @@ public class ReportAnalyticsService {
     public ReportAnalyticsDTO.ProductionByOperation getProductionByOperation(LocalDate startDate, LocalDate endDate) {
         log.info("Getting production by operation from {} to {}", startDate, endDate);
 
-        LocalDateTime startDateTime = startDate.atStartOfDay();
-        LocalDateTime endDateTime = endDate.plusDays(1).atStartOfDay();
-
-        List<ProductionConfirmation> confirmations = confirmationRepository.findByDateRange(startDateTime, endDateTime);
-
-        // Group by operation type
-        Map<String, List<ProductionConfirmation>> grouped = confirmations.stream()
-                .collect(Collectors.groupingBy(pc -> {
-                    if (pc.getOperation() != null && pc.getOperation().getOperationType() != null) {
-                        return pc.getOperation().getOperationType();
-                    }
-                    return "UNKNOWN";
-                }));
-
         List<ReportAnalyticsDTO.OperationProductionEntry> entries = new ArrayList<>();
-        for (Map.Entry<String, List<ProductionConfirmation>> entry : grouped.entrySet()) {
-            String opType = entry.getKey();
-            List<ProductionConfirmation> pcs = entry.getValue();
-
-            BigDecimal produced = pcs.stream()
-                    .map(pc -> pc.getProducedQty() != null ? pc.getProducedQty() : BigDecimal.ZERO)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            BigDecimal scrap = pcs.stream()
-                    .map(pc -> pc.getScrapQty() != null ? pc.getScrapQty() : BigDecimal.ZERO)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            BigDecimal totalInput = produced.add(scrap);
-            BigDecimal yieldPct = BigDecimal.ZERO;
-            if (totalInput.compareTo(BigDecimal.ZERO) > 0) {
-                yieldPct = produced.multiply(BigDecimal.valueOf(100))
-                        .divide(totalInput, 2, RoundingMode.HALF_UP);
-            }
-
+        for (OperationTotals totals : loadOperationTotals(startDate, endDate)) {
             entries.add(ReportAnalyticsDTO.OperationProductionEntry.builder()
-                    .operationType(opType)
-                    .confirmationCount((long) pcs.size())
-                    .totalProduced(produced)
-                    .totalScrap(scrap)
-                    .yieldPercentage(yieldPct)
+                    .operationType(totals.operationType)
+                    .confirmationCount(totals.count)
+                    .totalProduced(totals.produced)
+                    .totalScrap(totals.scrap)
+                    .yieldPercentage(percentage(totals.produced, totals.produced.add(totals.scrap)))
                     .build());
         }
 
@@ -159,85 +102,43 @@ public class ReportAnalyticsService {
     public ReportAnalyticsDTO.ScrapAnalysis getScrapAnalysis(LocalDate startDate, LocalDate endDate) {
         log.info("Getting scrap analysis from {} to {}", startDate, endDate);
 
+        // --- Scrap by product ---
+        Map<String, ReportAnalyticsDTO.ScrapByProductEntry> productMap = new LinkedHashMap<>();
         LocalDateTime startDateTime = startDate.atStartOfDay();
         LocalDateTime endDateTime = endDate.plusDays(1).atStartOfDay();
-
-        List<ProductionConfirmation> confirmations = confirmationRepository.findByDateRange(startDateTime, endDateTime);
-
-        BigDecimal totalScrap = BigDecimal.ZERO;
-
-        // --- Scrap by product ---
-        Map<String, BigDecimal[]> productMap = new LinkedHashMap<>(); // sku -> [scrap, produced]
-        Map<String, String> productNames = new HashMap<>();
-
-        for (ProductionConfirmation pc : confirmations) {
-            BigDecimal scrap = pc.getScrapQty() != null ? pc.getScrapQty() : BigDecimal.ZERO;
-            BigDecimal produced = pc.getProducedQty() != null ? pc.getProducedQty() : BigDecimal.ZERO;
-            totalScrap = totalScrap.add(scrap);
-
-            String sku = "UNKNOWN";
-            String name = "Unknown Product";
-            if (pc.getOperation() != null && pc.getOperation().getOrderLineItem() != null) {
-                sku = pc.getOperation().getOrderLineItem().getProductSku();
-                name = pc.getOperation().getOrderLineItem().getProductName() != null
-                        ? pc.getOperation().getOrderLineItem().getProductName() : sku;
-            }
-
-            productMap.computeIfAbsent(sku, k -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
-            productMap.get(sku)[0] = productMap.get(sku)[0].add(scrap);
-            productMap.get(sku)[1] = productMap.get(sku)[1].add(produced);
-            productNames.putIfAbsent(sku, name);
+        List<Object[]> productRows = productionRollupService.isReady()
+                ? productionRollupService.aggregateScrapByProduct(startDateTime, endDateTime)
+                : confirmationRepository.aggregateScrapByProduct(startDateTime, endDateTime);
+        for (Object[] row : productRows) {
+            String sku = (String) row[0];
+            String name = sku == null ? "Unknown Product" : row[1] != null ? (String) row[1] : sku;
+            ReportAnalyticsDTO.ScrapByProductEntry entry = productMap.computeIfAbsent(sku != null ? sku : UNKNOWN,
+                    k -> ReportAnalyticsDTO.ScrapByProductEntry.builder()
+                            .productSku(k)
+                            .productName(name)
+                            .scrapQty(BigDecimal.ZERO)
+                            .producedQty(BigDecimal.ZERO)
+                            .build());
+            entry.setScrapQty(entry.getScrapQty().add(toBigDecimal(row[2])));
+            entry.setProducedQty(entry.getProducedQty().add(toBigDecimal(row[3])));
         }
 
-        List<ReportAnalyticsDTO.ScrapByProductEntry> scrapByProduct = new ArrayList<>();
-        for (Map.Entry<String, BigDecimal[]> entry : productMap.entrySet()) {
-            BigDecimal scrap = entry.getValue()[0];
-            BigDecimal produced = entry.getValue()[1];
-            BigDecimal total = produced.add(scrap);
-            BigDecimal pct = BigDecimal.ZERO;
-            if (total.compareTo(BigDecimal.ZERO) > 0) {
-                pct = scrap.multiply(BigDecimal.valueOf(100)).divide(total, 2, RoundingMode.HALF_UP);
-            }
-            scrapByProduct.add(ReportAnalyticsDTO.ScrapByProductEntry.builder()
-                    .productSku(entry.getKey())
-                    .productName(productNames.get(entry.getKey()))
-                    .scrapQty(scrap)
-                    .producedQty(produced)
-                    .scrapPercentage(pct)
-                    .build());
+        List<ReportAnalyticsDTO.ScrapByProductEntry> scrapByProduct = new ArrayList<>(productMap.values());
+        for (ReportAnalyticsDTO.ScrapByProductEntry entry : scrapByProduct) {
+            entry.setScrapPercentage(percentage(entry.getScrapQty(), entry.getProducedQty().add(entry.getScrapQty())));
         }
         scrapByProduct.sort((a, b) -> b.getScrapQty().compareTo(a.getScrapQty()));
 
         // --- Scrap by operation type ---
-        Map<String, BigDecimal[]> opMap = new LinkedHashMap<>(); // type -> [scrap, produced]
-        for (ProductionConfirmation pc : confirmations) {
-            BigDecimal scrap = pc.getScrapQty() != null ? pc.getScrapQty() : BigDecimal.ZERO;
-            BigDecimal produced = pc.getProducedQty() != null ? pc.getProducedQty() : BigDecimal.ZERO;
-
-            String opType = "UNKNOWN";
-            if (pc.getOperation() != null && pc.getOperation().getOperationType() != null) {
-                opType = pc.getOperation().getOperationType();
-            }
-
-            opMap.computeIfAbsent(opType, k -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
-            opMap.get(opType)[0] = opMap.get(opType)[0].add(scrap);
-            opMap.get(opType)[1] = opMap.get(opType)[1].add(produced);
-        }
-
+        BigDecimal totalScrap = BigDecimal.ZERO;
         List<ReportAnalyticsDTO.ScrapByOperationEntry> scrapByOperation = new ArrayList<>();
-        for (Map.Entry<String, BigDecimal[]> entry : opMap.entrySet()) {
-            BigDecimal scrap = entry.getValue()[0];
-            BigDecimal produced = entry.getValue()[1];
-            BigDecimal total = produced.add(scrap);
-            BigDecimal pct = BigDecimal.ZERO;
-            if (total.compareTo(BigDecimal.ZERO) > 0) {
-                pct = scrap.multiply(BigDecimal.valueOf(100)).divide(total, 2, RoundingMode.HALF_UP);
-            }
+        for (OperationTotals totals : loadOperationTotals(startDate, endDate)) {
+            totalScrap = totalScrap.add(totals.scrap);
             scrapByOperation.add(ReportAnalyticsDTO.ScrapByOperationEntry.builder()
-                    .operationType(entry.getKey())
-                    .scrapQty(scrap)
-                    .producedQty(produced)
-                    .scrapPercentage(pct)
+                    .operationType(totals.operationType)
+                    .scrapQty(totals.scrap)
+                    .producedQty(totals.produced)
+                    .scrapPercentage(percentage(totals.scrap, totals.produced.add(totals.scrap)))
                     .build());
         }
         scrapByOperation.sort((a, b) -> b.getScrapQty().compareTo(a.getScrapQty()));
@@ -296,45 +197,38 @@ public class ReportAnalyticsService {
     public ReportAnalyticsDTO.InventoryBalance getInventoryBalance() {
         log.info("Getting inventory balance");
 
-        List<Inventory> allInventory = inventoryRepository.findAll();
-
         BigDecimal totalQty = BigDecimal.ZERO;
 
         // Group by type
-        Map<String, List<Inventory>> byType = allInventory.stream()
-                .collect(Collectors.groupingBy(inv ->
-                        inv.getInventoryType() != null ? inv.getInventoryType() : "UNKNOWN"));
-
-        List<ReportAnalyticsDTO.InventoryByTypeEntry> typeEntries = new ArrayList<>();
-        for (Map.Entry<String, List<Inventory>> entry : byType.entrySet()) {
-            BigDecimal qty = entry.getValue().stream()
-                    .map(inv -> inv.getQuantity() != null ? inv.getQuantity() : BigDecimal.ZERO)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+        Map<String, ReportAnalyticsDTO.InventoryByTypeEntry> byType = new LinkedHashMap<>();
+        for (Object[] row : inventoryRepository.sumQuantityByType()) {
+            ReportAnalyticsDTO.InventoryByTypeEntry entry = byType.computeIfAbsent(labelOrUnknown(row[0]),
+                    k -> ReportAnalyticsDTO.InventoryByTypeEntry.builder()
+                            .inventoryType(k)
+                            .itemCount(0L)
+                            .totalQuantity(BigDecimal.ZERO)
+                            .build());
+            BigDecimal qty = toBigDecimal(row[2]);
+            entry.setItemCount(entry.getItemCount() + toLong(row[1]));
+            entry.setTotalQuantity(entry.getTotalQuantity().add(qty));
             totalQty = totalQty.add(qty);
-            typeEntries.add(ReportAnalyticsDTO.InventoryByTypeEntry.builder()
-                    .inventoryType(entry.getKey())
-                    .itemCount((long) entry.getValue().size())
-                    .totalQuantity(qty)
-                    .build());
         }
+        List<ReportAnalyticsDTO.InventoryByTypeEntry> typeEntries = new ArrayList<>(byType.values());
         typeEntries.sort((a, b) -> b.getTotalQuantity().compareTo(a.getTotalQuantity()));
 
         // Group by state
-        Map<String, List<Inventory>> byState = allInventory.stream()
-                .collect(Collectors.groupingBy(inv ->
-                        inv.getState() != null ? inv.getState() : "UNKNOWN"));
-
-        List<ReportAnalyticsDTO.InventoryByStateEntry> stateEntries = new ArrayList<>();
-        for (Map.Entry<String, List<Inventory>> entry : byState.entrySet()) {
-            BigDecimal qty = entry.getValue().stream()
-                    .map(inv -> inv.getQuantity() != null ? inv.getQuantity() : BigDecimal.ZERO)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            stateEntries.add(ReportAnalyticsDTO.InventoryByStateEntry.builder()
-                    .state(entry.getKey())
-                    .itemCount((long) entry.getValue().size())
-                    .totalQuantity(qty)
-                    .build());
+        Map<String, ReportAnalyticsDTO.InventoryByStateEntry> byState = new LinkedHashMap<>();
+        for (Object[] row : inventoryRepository.sumQuantityByState()) {
+            ReportAnalyticsDTO.InventoryByStateEntry entry = byState.computeIfAbsent(labelOrUnknown(row[0]),
+                    k -> ReportAnalyticsDTO.InventoryByStateEntry.builder()
+                            .state(k)
+                            .itemCount(0L)
+                            .totalQuantity(BigDecimal.ZERO)
+                            .build());
+            entry.setItemCount(entry.getItemCount() + toLong(row[1]));
+            entry.setTotalQuantity(entry.getTotalQuantity().add(toBigDecimal(row[2])));
         }
+        List<ReportAnalyticsDTO.InventoryByStateEntry> stateEntries = new ArrayList<>(byState.values());
         stateEntries.sort((a, b) -> b.getTotalQuantity().compareTo(a.getTotalQuantity()));
 
         return ReportAnalyticsDTO.InventoryBalance.builder()
@@ -352,41 +246,16 @@ public class ReportAnalyticsService {
     public ReportAnalyticsDTO.OperationCycleTimes getOperationCycleTimes(LocalDate startDate, LocalDate endDate) {
         log.info("Getting operation cycle times from {} to {}", startDate, endDate);
 
-        LocalDateTime startDateTime = startDate.atStartOfDay();
-        LocalDateTime endDateTime = endDate.plusDays(1).atStartOfDay();
-
-        List<ProductionConfirmation> confirmations = confirmationRepository.findByDateRange(startDateTime, endDateTime);
-
-        // Group by operation type, compute cycle times
-        Map<String, List<Long>> cycleTimesByType = new LinkedHashMap<>();
-
-        for (ProductionConfirmation pc : confirmations) {
-            if (pc.getStartTime() == null || pc.getEndTime() == null) continue;
-
-            String opType = "UNKNOWN";
-            if (pc.getOperation() != null && pc.getOperation().getOperationType() != null) {
-                opType = pc.getOperation().getOperationType();
-            }
-
-            long minutes = Duration.between(pc.getStartTime(), pc.getEndTime()).toMinutes();
-            cycleTimesByType.computeIfAbsent(opType, k -> new ArrayList<>()).add(minutes);
-        }
-
         List<ReportAnalyticsDTO.CycleTimeEntry> entries = new ArrayList<>();
-        for (Map.Entry<String, List<Long>> entry : cycleTimesByType.entrySet()) {
-            List<Long> times = entry.getValue();
-            long sum = times.stream().mapToLong(Long::longValue).sum();
-            long min = times.stream().mapToLong(Long::longValue).min().orElse(0);
-            long max = times.stream().mapToLong(Long::longValue).max().orElse(0);
-            BigDecimal avg = BigDecimal.valueOf(sum)
-                    .divide(BigDecimal.valueOf(times.size()), 2, RoundingMode.HALF_UP);
+        for (OperationTotals totals : loadOperationTotals(startDate, endDate)) {
+            if (totals.cycleCount == 0) continue;
 
             entries.add(ReportAnalyticsDTO.CycleTimeEntry.builder()
-                    .operationType(entry.getKey())
-                    .confirmationCount((long) times.size())
-                    .avgCycleTimeMinutes(avg)
-                    .minCycleTimeMinutes(BigDecimal.valueOf(min))
-                    .maxCycleTimeMinutes(BigDecimal.valueOf(max))
+                    .operationType(totals.operationType)
+                    .confirmationCount(totals.cycleCount)
+                    .avgCycleTimeMinutes(totals.avgCycleMinutes())
+                    .minCycleTimeMinutes(BigDecimal.valueOf(totals.minCycleMinutes))
+                    .maxCycleTimeMinutes(BigDecimal.valueOf(totals.maxCycleMinutes))
                     .build());
         }
         entries.sort((a, b) -> b.getAvgCycleTimeMinutes().compareTo(a.getAvgCycleTimeMinutes()));
@@ -406,45 +275,39 @@ public class ReportAnalyticsService {
     public ReportAnalyticsDTO.HoldAnalysis getHoldAnalysis() {
         log.info("Getting hold analysis");
 
-        List<HoldRecord> allHolds = holdRecordRepository.findAll();
-
-        long activeCount = allHolds.stream()
-                .filter(h -> HoldRecord.STATUS_ACTIVE.equals(h.getStatus()))
-                .count();
-        long releasedCount = allHolds.stream()
-                .filter(h -> HoldRecord.STATUS_RELEASED.equals(h.getStatus()))
-                .count();
-
-        // Group by entity type
-        Map<String, List<HoldRecord>> byEntityType = allHolds.stream()
-                .collect(Collectors.groupingBy(h ->
-                        h.getEntityType() != null ? h.getEntityType() : "UNKNOWN"));
-
-        List<ReportAnalyticsDTO.HoldByEntityTypeEntry> entityTypeEntries = new ArrayList<>();
-        for (Map.Entry<String, List<HoldRecord>> entry : byEntityType.entrySet()) {
-            List<HoldRecord> holds = entry.getValue();
-            long active = holds.stream().filter(h -> HoldRecord.STATUS_ACTIVE.equals(h.getStatus())).count();
-            long released = holds.stream().filter(h -> HoldRecord.STATUS_RELEASED.equals(h.getStatus())).count();
-            entityTypeEntries.add(ReportAnalyticsDTO.HoldByEntityTypeEntry.builder()
-                    .entityType(entry.getKey())
-                    .activeCount(active)
-                    .releasedCount(released)
-                    .totalCount((long) holds.size())
-                    .build());
+        long activeCount = 0;
+        long releasedCount = 0;
+
+        // Group by entity type; one row per (entity type, status)
+        Map<String, ReportAnalyticsDTO.HoldByEntityTypeEntry> byEntityType = new LinkedHashMap<>();
+        for (Object[] row : holdRecordRepository.countByEntityTypeAndStatus()) {
+            ReportAnalyticsDTO.HoldByEntityTypeEntry entry = byEntityType.computeIfAbsent(labelOrUnknown(row[0]),
+                    k -> ReportAnalyticsDTO.HoldByEntityTypeEntry.builder()
+                            .entityType(k)
+                            .activeCount(0L)
+                            .releasedCount(0L)
+                            .totalCount(0L)
+                            .build());
+            String status = (String) row[1];
+            long count = toLong(row[2]);
+            if (HoldRecord.STATUS_ACTIVE.equals(status)) {
+                entry.setActiveCount(entry.getActiveCount() + count);
+                activeCount += count;
+            } else if (HoldRecord.STATUS_RELEASED.equals(status)) {
+                entry.setReleasedCount(entry.getReleasedCount() + count);
+                releasedCount += count;
+            }
+            entry.setTotalCount(entry.getTotalCount() + count);
         }
+        List<ReportAnalyticsDTO.HoldByEntityTypeEntry> entityTypeEntries = new ArrayList<>(byEntityType.values());
         entityTypeEntries.sort((a, b) -> b.getTotalCount().compareTo(a.getTotalCount()));
 
         // Top reasons (across all holds)
-        Map<String, Long> reasonCounts = allHolds.stream()
-                .filter(h -> h.getReason() != null && !h.getReason().isBlank())
-                .collect(Collectors.groupingBy(HoldRecord::getReason, Collectors.counting()));
-
-        List<ReportAnalyticsDTO.HoldReasonEntry> topReasons = reasonCounts.entrySet().stream()
-                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
-                .limit(10)
-                .map(entry -> ReportAnalyticsDTO.HoldReasonEntry.builder()
-                        .reason(entry.getKey())
-                        .count(entry.getValue())
+        List<ReportAnalyticsDTO.HoldReasonEntry> topReasons = holdRecordRepository
+                .countByReason(PageRequest.of(0, TOP_REASON_LIMIT)).stream()
+                .map(row -> ReportAnalyticsDTO.HoldReasonEntry.builder()
+                        .reason((String) row[0])
+                        .count(toLong(row[1]))
                         .build())
                 .collect(Collectors.toList());
 
@@ -485,4 +348,106 @@ public class ReportAnalyticsService {
                 .topCycleTimes(topCycleTimes)
                 .build();
     }
+
+    /**
+     * Rollup status, and a background rebuild of the rollup for a date range.
+     */
+    public ReportAnalyticsDTO.RollupStatus getRollupStatus() {
+        return productionRollupService.getStatus();
+    }
+
+    public ReportAnalyticsDTO.RollupStatus rebuildRollup(LocalDate startDate, LocalDate endDate) {
+        log.info("Requesting production rollup rebuild from {} to {}", startDate, endDate);
+        return productionRollupService.requestRebuild(startDate, endDate);
+    }
+
+    /**
+     * Per-operation-type totals for confirmations created in the date range.
+     * Rows with a null operation type are folded into UNKNOWN.
+     */
+    private Collection<OperationTotals> loadOperationTotals(LocalDate startDate, LocalDate endDate) {
+        LocalDateTime startDateTime = startDate.atStartOfDay();
+        LocalDateTime endDateTime = endDate.plusDays(1).atStartOfDay();
+
+        List<Object[]> rows = productionRollupService.isReady()
+                ? productionRollupService.aggregateByOperationType(startDateTime, endDateTime)
+                : confirmationRepository.aggregateByOperationType(startDateTime, endDateTime);
+
+        Map<String, OperationTotals> byType = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            byType.computeIfAbsent(labelOrUnknown(row[0]), OperationTotals::new).add(row);
+        }
+        return byType.values();
+    }
+
+    /**
+     * part * 100 / total, scale 2; zero when total is zero.
+     */
+    private static BigDecimal percentage(BigDecimal part, BigDecimal total) {
+        if (total.compareTo(BigDecimal.ZERO) <= 0) {
+            return BigDecimal.ZERO;
+        }
+        return part.multiply(BigDecimal.valueOf(100)).divide(total, 2, RoundingMode.HALF_UP);
+    }
+
+    private static String labelOrUnknown(Object value) {
+        return value != null ? (String) value : UNKNOWN;
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value == null) return BigDecimal.ZERO;
+        if (value instanceof BigDecimal bd) return bd;
+        return new BigDecimal(value.toString());
+    }
+
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
+    /**
+     * Accumulates aggregate rows {operationType, count, produced, scrap, cycleSum, cycleMin, cycleMax}.
+     */
+    private static class OperationTotals {
+        private final String operationType;
+        private long count;
+        private BigDecimal produced = BigDecimal.ZERO;
+        private BigDecimal scrap = BigDecimal.ZERO;
+        private long cycleCount;
+        private long cycleMinutes;
+        private long minCycleMinutes = Long.MAX_VALUE;
+        private long maxCycleMinutes = Long.MIN_VALUE;
+
+        OperationTotals(String operationType) {
+            this.operationType = operationType;
+        }
+
+        void add(Object[] row) {
+            long rowCount = toLong(row[1]);
+            count += rowCount;
+            produced = produced.add(toBigDecimal(row[2]));
+            scrap = scrap.add(toBigDecimal(row[3]));
+            if (row[4] != null) {
+                // start_time and end_time are NOT NULL, so every confirmation has a cycle time
+                cycleCount += rowCount;
+                cycleMinutes += toLong(row[4]);
+                minCycleMinutes = Math.min(minCycleMinutes, toLong(row[5]));
+                maxCycleMinutes = Math.max(maxCycleMinutes, toLong(row[6]));
+            }
+        }
+
+        void add(OperationTotals other) {
+            count += other.count;
+            produced = produced.add(other.produced);
+            scrap = scrap.add(other.scrap);
+            cycleCount += other.cycleCount;
+            cycleMinutes += other.cycleMinutes;
+            minCycleMinutes = Math.min(minCycleMinutes, other.minCycleMinutes);
+            maxCycleMinutes = Math.max(maxCycleMinutes, other.maxCycleMinutes);
+        }
+
+        BigDecimal avgCycleMinutes() {
+            if (cycleCount == 0) return BigDecimal.ZERO;
+            return BigDecimal.valueOf(cycleMinutes).divide(BigDecimal.valueOf(cycleCount), 2, RoundingMode.HALF_UP);
+        }
+    }
 }
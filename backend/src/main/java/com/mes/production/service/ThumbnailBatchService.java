@@ -0,0 +1,262 @@
+package com.mes.production.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mes.production.dto.ThumbnailBatchDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Thumbnails for a set of uploaded images (e.g. the defect photos of a rejected batch) in one
+ * request. Images are processed in parallel on a dedicated, bounded ForkJoin pool and each
+ * thumbnail is written to the ZIP response as soon as it is ready; metadata.json with the
+ * dimensions and any per-image errors is written last.
+ *
+ * Each request has a memory budget: the number of images in flight is limited so that their
+ * worst-case decode buffers fit in it. Images still unfinished at the request deadline are
+ * cancelled and reported as timed out. The pool is what bounds batch work, so its tasks do not
+ * also wait for ImageProcessingService's permits, which single-image requests compete for.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ThumbnailBatchService {
+
+    public static final String METADATA_ENTRY = "metadata.json";
+
+    static final int MAX_THUMBNAIL_DIMENSION = 1024;
+
+    private final ImageProcessingService imageProcessingService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.reports.images.batch.parallelism:4}")
+    private int parallelism = 4;
+
+    @Value("${app.reports.images.batch.max-files:100}")
+    private int maxFiles = 100;
+
+    @Value("${app.reports.images.batch.max-upload-bytes:104857600}")
+    private long maxUploadBytes = 100L * 1024 * 1024;
+
+    @Value("${app.reports.images.batch.max-request-memory-bytes:268435456}")
+    private long maxRequestMemoryBytes = 256L * 1024 * 1024;
+
+    @Value("${app.reports.images.batch.max-request-time-ms:120000}")
+    private long maxRequestTimeMs = 120000;
+
+    private ForkJoinPool pool;
+
+    /**
+     * An uploaded image; MultipartFile is an InputStreamSource, so uploads are read from their spooled parts.
+     */
+    public record ImageUpload(String fileName, long sizeBytes, InputStreamSource content) {
+    }
+
+    private record Outcome(ThumbnailBatchDTO.Item item, byte[] thumbnail) {
+    }
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        ForkJoinPool.ForkJoinWorkerThreadFactory factory = forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("thumbnail-batch-" + threadCount.incrementAndGet());
+            return thread;
+        };
+        int size = Math.max(1, parallelism);
+        // Never grows past its parallelism, even while workers block on image I/O
+        pool = new ForkJoinPool(size, factory, null, true, 0, size, 1, forkJoinPool -> true, 60, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Reject a request before streaming starts; once the ZIP is committed the status can no longer change.
+     */
+    public void validate(List<ImageUpload> uploads, int maxDimension) {
+        if (uploads == null || uploads.isEmpty()) {
+            throw new RuntimeException("At least one image is required");
+        }
+        if (uploads.size() > maxFiles) {
+            throw new RuntimeException("Too many images: " + uploads.size() + " (maximum " + maxFiles + " per request)");
+        }
+        long totalBytes = uploads.stream().mapToLong(ImageUpload::sizeBytes).sum();
+        if (totalBytes > maxUploadBytes) {
+            throw new RuntimeException("Images too large: " + totalBytes + " bytes (maximum " + maxUploadBytes + " per request)");
+        }
+        if (maxDimension <= 0 || maxDimension > MAX_THUMBNAIL_DIMENSION) {
+            throw new RuntimeException("Thumbnail size must be between 1 and " + MAX_THUMBNAIL_DIMENSION);
+        }
+        if (estimateBytes(maxDimension) > maxRequestMemoryBytes) {
+            throw new RuntimeException("Thumbnail size " + maxDimension + " exceeds the per-request memory limit");
+        }
+    }
+
+    /**
+     * Working memory one thumbnail may need. The subsampled decode stays under four times the
+     * thumbnail per side at up to 4 bytes per pixel; the scaled copy and its PNG come on top.
+     */
+    static long estimateBytes(int maxDimension) {
+        long pixels = (long) maxDimension * maxDimension;
+        return 16 * pixels * 4 + 2 * pixels * 4;
+    }
+
+    /**
+     * Images processed at once for a request: the pool size, or fewer when the memory budget is smaller.
+     */
+    int window(int maxDimension) {
+        return (int) Math.max(1, Math.min(Math.max(1, parallelism), maxRequestMemoryBytes / estimateBytes(maxDimension)));
+    }
+
+    /**
+     * Write a ZIP with one PNG thumbnail per readable image, in completion order, then metadata.json.
+     */
+    public ThumbnailBatchDTO.Summary writeThumbnails(List<ImageUpload> uploads, int maxDimension, OutputStream out) throws IOException {
+        validate(uploads, maxDimension);
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.MILLISECONDS.toNanos(maxRequestTimeMs);
+        int window = window(maxDimension);
+
+        ThumbnailBatchDTO.Item[] items = new ThumbnailBatchDTO.Item[uploads.size()];
+        ExecutorCompletionService<Outcome> completion = new ExecutorCompletionService<>(pool);
+        List<Future<Outcome>> futures = new ArrayList<>();
+        ZipOutputStream zip = new ZipOutputStream(out);
+        zip.setLevel(Deflater.BEST_SPEED); // PNG is already compressed
+
+        int next = 0;
+        int pending = 0;
+        boolean timedOut = false;
+        try {
+            while (next < uploads.size() || pending > 0) {
+                // Keep the window full; a thumbnail counts against it until it has been written
+                while (next < uploads.size() && pending < window) {
+                    futures.add(completion.submit(task(next, uploads.get(next), maxDimension)));
+                    next++;
+                    pending++;
+                }
+                long remaining = deadline - System.nanoTime();
+                Future<Outcome> done = remaining > 0 ? completion.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                if (done == null) {
+                    timedOut = true;
+                    break;
+                }
+                pending--;
+                Outcome outcome = done.get();
+                items[outcome.item().getIndex()] = outcome.item();
+                if (outcome.thumbnail() != null) {
+                    zip.putNextEntry(new ZipEntry(outcome.item().getEntry()));
+                    zip.write(outcome.thumbnail());
+                    zip.closeEntry();
+                    zip.flush();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while generating thumbnails");
+        } catch (ExecutionException e) {
+            // Tasks report their own failures; this only happens on an unexpected error
+            throw new IOException("Thumbnail generation failed", e.getCause());
+        } finally {
+            // Skips images not started yet when timed out or the client went away; no-op once all are done
+            futures.forEach(future -> future.cancel(true));
+        }
+
+        if (timedOut) {
+            for (int i = 0; i < items.length; i++) {
+                if (items[i] == null) {
+                    items[i] = ThumbnailBatchDTO.Item.builder()
+                            .index(i)
+                            .fileName(uploads.get(i).fileName())
+                            .sizeBytes(uploads.get(i).sizeBytes())
+                            .error("Timed out after " + maxRequestTimeMs + " ms")
+                            .build();
+                }
+            }
+        }
+
+        int succeeded = (int) Arrays.stream(items).filter(item -> item.getError() == null).count();
+        ThumbnailBatchDTO.Summary summary = ThumbnailBatchDTO.Summary.builder()
+                .files(items.length)
+                .succeeded(succeeded)
+                .failed(items.length - succeeded)
+                .timedOut(timedOut)
+                .maxDimension(maxDimension)
+                .parallelism(window)
+                .elapsedMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started))
+                .items(List.of(items))
+                .build();
+        zip.putNextEntry(new ZipEntry(METADATA_ENTRY));
+        zip.write(objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(summary));
+        zip.closeEntry();
+        zip.finish();
+        out.flush();
+
+        log.info("Generated {} of {} thumbnails ({}px, {} in flight) in {} ms{}", succeeded, items.length,
+                maxDimension, window, summary.getElapsedMs(), timedOut ? " - timed out" : "");
+        return summary;
+    }
+
+    private Callable<Outcome> task(int index, ImageUpload upload, int maxDimension) {
+        return () -> {
+            long started = System.nanoTime();
+            ThumbnailBatchDTO.Item.ItemBuilder item = ThumbnailBatchDTO.Item.builder()
+                    .index(index)
+                    .fileName(upload.fileName())
+                    .sizeBytes(upload.sizeBytes());
+            try {
+                // One read of the upload yields both the thumbnail and the header metadata
+                ImageProcessingService.Thumbnail thumbnail;
+                try (InputStream in = upload.content().getInputStream()) {
+                    thumbnail = imageProcessingService.generateThumbnailWithMetadata(in, maxDimension, upload.sizeBytes());
+                }
+                ImageProcessingService.ImageMetadata metadata = thumbnail.metadata();
+                item.entry(entryName(index, upload.fileName()))
+                        .width(metadata.width())
+                        .height(metadata.height())
+                        .colorType(metadata.colorType())
+                        .backend(metadata.backend())
+                        .thumbnailBytes(thumbnail.png().length)
+                        .millis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+                return new Outcome(item.build(), thumbnail.png());
+            } catch (Exception e) {
+                log.warn("Thumbnail failed for {}: {}", upload.fileName(), e.getMessage());
+                item.error(e.getMessage())
+                        .millis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+                return new Outcome(item.build(), null);
+            }
+        };
+    }
+
+    /**
+     * ZIP entry for a thumbnail: upload position plus the file's base name, reduced to safe characters.
+     */
+    static String entryName(int index, String fileName) {
+        String base = fileName == null ? "" : fileName.substring(Math.max(fileName.lastIndexOf('/'), fileName.lastIndexOf('\\')) + 1);
+        int dot = base.lastIndexOf('.');
+        if (dot > 0) {
+            base = base.substring(0, dot);
+        }
+        base = base.replaceAll("[^A-Za-z0-9._-]", "_");
+        return String.format("%03d-%s.png", index + 1, base.isEmpty() ? "image" : base);
+    }
+}
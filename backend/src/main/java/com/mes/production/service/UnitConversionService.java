@@ -3,10 +3,18 @@ package com.mes.production.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.math.MathContext;
 import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -14,46 +22,170 @@ import java.util.Optional;
 /**
  * GAP-006: Unit Conversion Service
  * Provides unit of measure management and conversion capabilities.
+ *
+ * The active unit_of_measure and unit_conversion rows are loaded into an immutable
+ * ConversionGraph holding the factor for every convertible pair and each unit's precision,
+ * so a conversion is a map lookup and one multiply. The graph is reloaded every
+ * app.unit-conversion.refresh-interval-ms (or through reloadGraph() after a change) and
+ * swapped in whole; readers never see a half-built graph.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class UnitConversionService {
 
+    private static final int DEFAULT_PRECISION = 2;
+
     private final JdbcTemplate jdbcTemplate;
 
+    private volatile ConversionGraph graph;
+    private final Object loadLock = new Object();
+
+    /**
+     * Active units and conversions, with factors resolved for every pair that can be converted:
+     * the configured factor, else the inverse of the reverse factor, else through the base unit
+     * of the unit type.
+     */
+    private static final class ConversionGraph {
+
+        private final List<Map<String, Object>> units;
+        private final Map<String, Map<String, Object>> unitsByCode = new HashMap<>();
+        private final Map<String, List<Map<String, Object>>> unitsByType = new HashMap<>();
+        private final Map<String, String> baseUnitByType = new HashMap<>();
+        private final Map<String, Integer> precisionByCode = new HashMap<>();
+        /** Configured factors only, from unit -> to unit -> factor */
+        private final Map<String, Map<String, BigDecimal>> configuredFactors = new HashMap<>();
+        /** Resolved factors for all convertible pairs */
+        private final Map<String, Map<String, BigDecimal>> factors = new HashMap<>();
+
+        ConversionGraph(List<Map<String, Object>> unitRows, List<Map<String, Object>> conversionRows) {
+            List<Map<String, Object>> loaded = new ArrayList<>(unitRows.size());
+            for (Map<String, Object> row : unitRows) {
+                Map<String, Object> unit = Collections.unmodifiableMap(new LinkedHashMap<>(row));
+                String code = (String) unit.get("unit_code");
+                String type = (String) unit.get("unit_type");
+                loaded.add(unit);
+                unitsByCode.put(code, unit);
+                unitsByType.computeIfAbsent(type, t -> new ArrayList<>()).add(unit);
+                if (Boolean.TRUE.equals(unit.get("is_base_unit"))) {
+                    baseUnitByType.putIfAbsent(type, code);
+                }
+                Object precision = unit.get("decimal_precision");
+                precisionByCode.put(code, precision == null ? DEFAULT_PRECISION : ((Number) precision).intValue());
+            }
+            units = Collections.unmodifiableList(loaded);
+            unitsByType.replaceAll((type, list) -> Collections.unmodifiableList(list));
+
+            for (Map<String, Object> row : conversionRows) {
+                configuredFactors.computeIfAbsent((String) row.get("from_unit_code"), u -> new HashMap<>())
+                        .put((String) row.get("to_unit_code"), (BigDecimal) row.get("conversion_factor"));
+            }
+
+            // Configured pairs in both directions, including any between unit types
+            configuredFactors.forEach((from, targets) -> targets.keySet().forEach(to -> {
+                resolve(from, to);
+                resolve(to, from);
+            }));
+            // Every pair within a unit type
+            for (List<Map<String, Object>> sameType : unitsByType.values()) {
+                for (Map<String, Object> from : sameType) {
+                    for (Map<String, Object> to : sameType) {
+                        resolve((String) from.get("unit_code"), (String) to.get("unit_code"));
+                    }
+                }
+            }
+        }
+
+        private void resolve(String from, String to) {
+            if (from.equals(to) || factor(from, to) != null) {
+                return;
+            }
+            BigDecimal factor = directOrInverse(from, to);
+            if (factor == null) {
+                factor = throughBaseUnit(from, to);
+            }
+            if (factor != null) {
+                factors.computeIfAbsent(from, u -> new HashMap<>()).put(to, factor);
+            }
+        }
+
+        private BigDecimal directOrInverse(String from, String to) {
+            BigDecimal direct = configuredFactor(from, to);
+            if (direct != null) {
+                return direct;
+            }
+            BigDecimal reverse = configuredFactor(to, from);
+            if (reverse == null || reverse.signum() == 0) {
+                return null;
+            }
+            return BigDecimal.ONE.divide(reverse, MathContext.DECIMAL128);
+        }
+
+        private BigDecimal throughBaseUnit(String from, String to) {
+            Map<String, Object> fromUnit = unitsByCode.get(from);
+            Map<String, Object> toUnit = unitsByCode.get(to);
+            if (fromUnit == null || toUnit == null || !fromUnit.get("unit_type").equals(toUnit.get("unit_type"))) {
+                return null;
+            }
+            String baseUnit = baseUnitByType.get((String) fromUnit.get("unit_type"));
+            if (baseUnit == null) {
+                return null;
+            }
+            BigDecimal toBase = directOrInverse(from, baseUnit);
+            BigDecimal fromBase = directOrInverse(baseUnit, to);
+            if (toBase == null || fromBase == null) {
+                return null;
+            }
+            return toBase.multiply(fromBase, MathContext.DECIMAL128);
+        }
+
+        BigDecimal configuredFactor(String from, String to) {
+            Map<String, BigDecimal> targets = configuredFactors.get(from);
+            return targets == null ? null : targets.get(to);
+        }
+
+        BigDecimal factor(String from, String to) {
+            Map<String, BigDecimal> targets = factors.get(from);
+            return targets == null ? null : targets.get(to);
+        }
+
+        Map<String, Object> unit(String code) {
+            return unitsByCode.get(code);
+        }
+
+        int precision(String code) {
+            return precisionByCode.getOrDefault(code, DEFAULT_PRECISION);
+        }
+    }
+
     /**
      * Get all active units of measure
      */
     public List<Map<String, Object>> getAllUnits() {
-        String sql = "SELECT * FROM unit_of_measure WHERE is_active = true ORDER BY unit_type, unit_name";
-        return jdbcTemplate.queryForList(sql);
+        return graph().units;
     }
 
     /**
      * Get units by type (WEIGHT, LENGTH, VOLUME, PIECES, AREA)
      */
     public List<Map<String, Object>> getUnitsByType(String unitType) {
-        String sql = "SELECT * FROM unit_of_measure WHERE unit_type = ? AND is_active = true ORDER BY unit_name";
-        return jdbcTemplate.queryForList(sql, unitType);
+        return graph().unitsByType.getOrDefault(unitType, List.of());
     }
 
     /**
      * Get unit details by code
      */
     public Optional<Map<String, Object>> getUnit(String unitCode) {
-        String sql = "SELECT * FROM unit_of_measure WHERE unit_code = ? AND is_active = true";
-        List<Map<String, Object>> results = jdbcTemplate.queryForList(sql, unitCode);
-        return results.isEmpty() ? Optional.empty() : Optional.of(results.get(0));
+        return Optional.ofNullable(graph().unit(unitCode));
     }
 
     /**
      * Get the base unit for a given unit type
      */
     public Optional<Map<String, Object>> getBaseUnit(String unitType) {
-        String sql = "SELECT * FROM unit_of_measure WHERE unit_type = ? AND is_base_unit = true AND is_active = true";
-        List<Map<String, Object>> results = jdbcTemplate.queryForList(sql, unitType);
-        return results.isEmpty() ? Optional.empty() : Optional.of(results.get(0));
+        ConversionGraph current = graph();
+        String baseUnit = current.baseUnitByType.get(unitType);
+        return baseUnit == null ? Optional.empty() : Optional.of(current.unit(baseUnit));
     }
 
     /**
@@ -74,63 +206,21 @@ public class UnitConversionService {
             return Optional.of(quantity);
         }
 
-        // Try direct conversion
-        Optional<BigDecimal> directFactor = getConversionFactor(fromUnit, toUnit);
-        if (directFactor.isPresent()) {
-            BigDecimal result = quantity.multiply(directFactor.get());
-            return Optional.of(applyPrecision(result, toUnit));
+        ConversionGraph current = graph();
+        BigDecimal factor = current.factor(fromUnit, toUnit);
+        if (factor != null) {
+            return Optional.of(quantity.multiply(factor).setScale(current.precision(toUnit), RoundingMode.HALF_UP));
         }
 
-        // Try reverse conversion
-        Optional<BigDecimal> reverseFactor = getConversionFactor(toUnit, fromUnit);
-        if (reverseFactor.isPresent()) {
-            BigDecimal result = quantity.divide(reverseFactor.get(), 10, RoundingMode.HALF_UP);
-            return Optional.of(applyPrecision(result, toUnit));
-        }
-
-        // Try conversion through base unit
-        Optional<Map<String, Object>> fromUnitInfo = getUnit(fromUnit);
-        Optional<Map<String, Object>> toUnitInfo = getUnit(toUnit);
-
-        if (fromUnitInfo.isPresent() && toUnitInfo.isPresent()) {
-            String fromType = (String) fromUnitInfo.get().get("unit_type");
-            String toType = (String) toUnitInfo.get().get("unit_type");
-
-            // Can only convert within the same type
-            if (!fromType.equals(toType)) {
-                log.warn("Cannot convert between different unit types: {} ({}) to {} ({})",
-                        fromUnit, fromType, toUnit, toType);
-                return Optional.empty();
-            }
-
-            // Get base unit for the type
-            Optional<Map<String, Object>> baseUnitInfo = getBaseUnit(fromType);
-            if (baseUnitInfo.isPresent()) {
-                String baseUnit = (String) baseUnitInfo.get().get("unit_code");
-
-                // Convert from source to base
-                Optional<BigDecimal> toBaseFactor = getConversionFactor(fromUnit, baseUnit);
-                if (toBaseFactor.isEmpty()) {
-                    toBaseFactor = getConversionFactor(baseUnit, fromUnit)
-                            .map(f -> BigDecimal.ONE.divide(f, 10, RoundingMode.HALF_UP));
-                }
-
-                // Convert from base to target
-                Optional<BigDecimal> fromBaseFactor = getConversionFactor(baseUnit, toUnit);
-                if (fromBaseFactor.isEmpty()) {
-                    fromBaseFactor = getConversionFactor(toUnit, baseUnit)
-                            .map(f -> BigDecimal.ONE.divide(f, 10, RoundingMode.HALF_UP));
-                }
-
-                if (toBaseFactor.isPresent() && fromBaseFactor.isPresent()) {
-                    BigDecimal inBaseUnit = quantity.multiply(toBaseFactor.get());
-                    BigDecimal result = inBaseUnit.multiply(fromBaseFactor.get());
-                    return Optional.of(applyPrecision(result, toUnit));
-                }
-            }
+        Map<String, Object> fromUnitInfo = current.unit(fromUnit);
+        Map<String, Object> toUnitInfo = current.unit(toUnit);
+        if (fromUnitInfo != null && toUnitInfo != null
+                && !fromUnitInfo.get("unit_type").equals(toUnitInfo.get("unit_type"))) {
+            log.warn("Cannot convert between different unit types: {} ({}) to {} ({})",
+                    fromUnit, fromUnitInfo.get("unit_type"), toUnit, toUnitInfo.get("unit_type"));
+        } else {
+            log.warn("No conversion path found from {} to {}", fromUnit, toUnit);
         }
-
-        log.warn("No conversion path found from {} to {}", fromUnit, toUnit);
         return Optional.empty();
     }
 
@@ -138,12 +228,7 @@ public class UnitConversionService {
      * Get the conversion factor between two units
      */
     public Optional<BigDecimal> getConversionFactor(String fromUnit, String toUnit) {
-        String sql = "SELECT conversion_factor FROM unit_conversion WHERE from_unit_code = ? AND to_unit_code = ? AND is_active = true";
-        List<Map<String, Object>> results = jdbcTemplate.queryForList(sql, fromUnit, toUnit);
-        if (results.isEmpty()) {
-            return Optional.empty();
-        }
-        return Optional.of((BigDecimal) results.get(0).get("conversion_factor"));
+        return Optional.ofNullable(graph().configuredFactor(fromUnit, toUnit));
     }
 
     /**
@@ -157,34 +242,22 @@ public class UnitConversionService {
             return true;
         }
 
-        Optional<Map<String, Object>> unit1Info = getUnit(unit1);
-        Optional<Map<String, Object>> unit2Info = getUnit(unit2);
+        ConversionGraph current = graph();
+        Map<String, Object> unit1Info = current.unit(unit1);
+        Map<String, Object> unit2Info = current.unit(unit2);
 
-        if (unit1Info.isEmpty() || unit2Info.isEmpty()) {
+        if (unit1Info == null || unit2Info == null) {
             return false;
         }
 
-        return unit1Info.get().get("unit_type").equals(unit2Info.get().get("unit_type"));
+        return unit1Info.get("unit_type").equals(unit2Info.get("unit_type"));
     }
 
     /**
      * Get decimal precision for a unit
      */
     public int getDecimalPrecision(String unitCode) {
-        Optional<Map<String, Object>> unit = getUnit(unitCode);
-        if (unit.isEmpty()) {
-            return 2; // Default precision
-        }
-        Object precision = unit.get().get("decimal_precision");
-        return precision == null ? 2 : ((Number) precision).intValue();
-    }
-
-    /**
-     * Apply the appropriate decimal precision for the target unit
-     */
-    private BigDecimal applyPrecision(BigDecimal value, String unitCode) {
-        int precision = getDecimalPrecision(unitCode);
-        return value.setScale(precision, RoundingMode.HALF_UP);
+        return graph().precision(unitCode);
     }
 
     /**
@@ -205,4 +278,68 @@ public class UnitConversionService {
         BigDecimal rounded = quantity.setScale(precision, RoundingMode.HALF_UP);
         return String.format("%s %s", rounded.stripTrailingZeros().toPlainString(), unitCode);
     }
+
+    /**
+     * Reload the conversion graph, e.g. after changing unit_of_measure or unit_conversion.
+     * Inside a transaction it is reloaded again after commit, so other readers get the
+     * committed rows.
+     */
+    public void reloadGraph() {
+        reload();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload();
+                }
+            });
+        }
+    }
+
+    /**
+     * Pick up changes to the unit tables made outside this service (patches, other nodes).
+     * A failed reload keeps the current graph.
+     */
+    @Scheduled(fixedDelayString = "${app.unit-conversion.refresh-interval-ms:60000}",
+            initialDelayString = "${app.unit-conversion.refresh-interval-ms:60000}")
+    public void refreshGraph() {
+        if (graph == null) {
+            return; // Not used yet, loaded on first use
+        }
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.warn("Unit conversion graph reload failed, keeping the current one: {}", e.getMessage());
+        }
+    }
+
+    private ConversionGraph graph() {
+        ConversionGraph current = graph;
+        if (current == null) {
+            synchronized (loadLock) {
+                current = graph;
+                if (current == null) {
+                    current = load();
+                    graph = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private void reload() {
+        synchronized (loadLock) {
+            graph = load();
+        }
+    }
+
+    private ConversionGraph load() {
+        List<Map<String, Object>> units = jdbcTemplate.queryForList(
+                "SELECT * FROM unit_of_measure WHERE is_active = true ORDER BY unit_type, unit_name");
+        List<Map<String, Object>> conversions = jdbcTemplate.queryForList(
+                "SELECT from_unit_code, to_unit_code, conversion_factor FROM unit_conversion WHERE is_active = true");
+        ConversionGraph loaded = new ConversionGraph(units, conversions);
+        log.debug("Unit conversion graph loaded: {} units, {} conversions", units.size(), conversions.size());
+        return loaded;
+    }
 }
@@ -3,6 +3,7 @@ package com.mes.production.service;
 import com.mes.production.dto.UserDTO;
 import com.mes.production.entity.User;
 import com.mes.production.repository.UserRepository;
+import com.mes.production.security.JwtPrincipalCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -21,6 +22,7 @@ public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final AuditService auditService;
+    private final JwtPrincipalCache principalCache;
 
     /**
      * Get all users
@@ -122,6 +124,7 @@ public class UserService {
         }
         if (request.getStatus() != null) {
             user.setStatus(request.getStatus());
+            principalCache.invalidate(user.getEmail());
         }
         user.setUpdatedBy(currentUser);
 
@@ -147,6 +150,7 @@ public class UserService {
         user.setStatus("INACTIVE");
         user.setUpdatedBy(currentUser);
         userRepository.save(user);
+        principalCache.invalidate(user.getEmail());
 
         auditService.logStatusChange("USER", userId, oldStatus, "INACTIVE");
     }
@@ -167,6 +171,7 @@ public class UserService {
         user.setPasswordHash(passwordEncoder.encode(request.getNewPassword()));
         user.setUpdatedBy(email);
         userRepository.save(user);
+        principalCache.invalidate(user.getEmail());
 
         auditService.logUpdate("USER", user.getUserId(), "password", null, "Password changed");
     }
@@ -189,6 +194,7 @@ public class UserService {
         user.setPasswordHash(passwordEncoder.encode(request.getNewPassword()));
         user.setUpdatedBy(currentUser);
         userRepository.save(user);
+        principalCache.invalidate(user.getEmail());
 
         auditService.logUpdate("USER", userId, "password", null, "Password changed");
     }
@@ -206,6 +212,7 @@ public class UserService {
         user.setPasswordHash(passwordEncoder.encode(request.getNewPassword()));
         user.setUpdatedBy(currentUser);
         userRepository.save(user);
+        principalCache.invalidate(user.getEmail());
 
         auditService.logUpdate("USER", userId, "password", null, "Password reset by admin");
     }
@@ -224,6 +231,7 @@ public class UserService {
         user.setStatus("ACTIVE");
         user.setUpdatedBy(currentUser);
         User savedUser = userRepository.save(user);
+        principalCache.invalidate(user.getEmail());
 
         auditService.logStatusChange("USER", userId, oldStatus, "ACTIVE");
 
@@ -244,6 +252,7 @@ public class UserService {
         user.setStatus("INACTIVE");
         user.setUpdatedBy(currentUser);
         User savedUser = userRepository.save(user);
+        principalCache.invalidate(user.getEmail());
 
         auditService.logStatusChange("USER", userId, oldStatus, "INACTIVE");
 
@@ -803,7 +803,7 @@ INSERT INTO batches (batch_id, batch_number, material_id, material_name, quantit
 (54, 'B-WIP-004', 'WIP-ROLL',    'Strip on Hot Mill',     65, 'T',  'AVAILABLE', 'SYSTEM'),
 (55, 'B-WIP-005', 'WIP-PICKLE',  'Strip in Pickle Line',  45, 'T',  'AVAILABLE', 'SYSTEM'),
 (56, 'B-WIP-006', 'WIP-ROLL',    'Strip on Cold Mill',    55, 'T',  'AVAILABLE', 'SYSTEM');
-ALTER TABLE batches ALTER COLUMN batch_id RESTART WITH 57;
+ALTER SEQUENCE batches_seq RESTART WITH 57;
 
 -- Audit trail for batches
 INSERT INTO audit_trail (entity_type, entity_id, action, new_value, changed_by, timestamp) VALUES
@@ -893,7 +893,7 @@ INSERT INTO inventory (inventory_id, material_id, material_name, inventory_type,
 (49, 'RM-COAL',      'Coal (Contaminated)',  'RM', 'SCRAPPED',  25,   'T',  45, 'Disposal',        'SYSTEM'),
 -- Additional available
 (50, 'RM-SCRAP-A',   'Steel Scrap Grade A',  'RM', 'AVAILABLE', 280,  'T',  46, 'Scrap Yard A',    'SYSTEM');
-ALTER TABLE inventory ALTER COLUMN inventory_id RESTART WITH 51;
+ALTER SEQUENCE inventory_seq RESTART WITH 51;
 
 -- Audit trail for inventory
 INSERT INTO audit_trail (entity_type, entity_id, action, new_value, changed_by, timestamp) VALUES
@@ -953,7 +953,7 @@ INSERT INTO production_confirmation (confirmation_id, operation_id, produced_qty
 (34, 55, 125,  5,   '2026-02-07 10:00:00', '2026-02-07 14:00:00', 0,  NULL,              'First batch - 125T of 250T',           'CONFIRMED', 'OP-001'),
 -- Recent confirmation (today)
 (35, 29, 90,   2,   '2026-02-08 06:00:00', '2026-02-08 09:00:00', 0,  NULL,              'Pickling operation in progress',       'CONFIRMED', 'OP-005');
-ALTER TABLE production_confirmation ALTER COLUMN confirmation_id RESTART WITH 36;
+ALTER SEQUENCE production_confirmation_seq RESTART WITH 36;
 
 -- Confirmation Equipment links
 INSERT INTO confirmation_equipment (confirmation_id, equipment_id) VALUES
@@ -17,6 +17,14 @@ CREATE TABLE IF NOT EXISTS database_patches (
     error_message TEXT
 );
 
+-- Id sequences of the high-volume tables, read with the pooled-lo optimizer (see patch 057)
+CREATE SEQUENCE IF NOT EXISTS batches_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS inventory_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS inventory_movement_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS batch_relations_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS operation_equipment_usage_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS production_confirmation_seq START WITH 1 INCREMENT BY 50;
+
 -- 2. Users Table
 CREATE TABLE IF NOT EXISTS users (
     user_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -211,7 +219,7 @@ CREATE TABLE IF NOT EXISTS operators (
 
 -- 12. Operation Equipment Usage Table
 CREATE TABLE IF NOT EXISTS operation_equipment_usage (
-    usage_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    usage_id BIGINT DEFAULT NEXT VALUE FOR operation_equipment_usage_seq PRIMARY KEY,
     operation_id BIGINT NOT NULL REFERENCES operations(operation_id),
     equipment_id BIGINT NOT NULL REFERENCES equipment(equipment_id),
     start_time TIMESTAMP,
@@ -224,7 +232,7 @@ CREATE TABLE IF NOT EXISTS operation_equipment_usage (
 
 -- 13. Production Confirmation Table (use CLOB instead of JSONB for H2)
 CREATE TABLE IF NOT EXISTS production_confirmation (
-    confirmation_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    confirmation_id BIGINT DEFAULT NEXT VALUE FOR production_confirmation_seq PRIMARY KEY,
     operation_id BIGINT NOT NULL REFERENCES operations(operation_id),
     produced_qty DECIMAL(15,4) NOT NULL,
     scrap_qty DECIMAL(15,4) DEFAULT 0,
@@ -250,7 +258,7 @@ CREATE TABLE IF NOT EXISTS production_confirmation (
 
 -- 14. Batches Table
 CREATE TABLE IF NOT EXISTS batches (
-    batch_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    batch_id BIGINT DEFAULT NEXT VALUE FOR batches_seq PRIMARY KEY,
     batch_number VARCHAR(100) NOT NULL UNIQUE,
     material_id VARCHAR(100) NOT NULL,
     material_name VARCHAR(255),
@@ -278,7 +286,7 @@ CREATE TABLE IF NOT EXISTS batches (
 
 -- 15. Inventory Table
 CREATE TABLE IF NOT EXISTS inventory (
-    inventory_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    inventory_id BIGINT DEFAULT NEXT VALUE FOR inventory_seq PRIMARY KEY,
     material_id VARCHAR(100) NOT NULL,
     material_name VARCHAR(255),
     inventory_type VARCHAR(20) NOT NULL,
@@ -310,7 +318,7 @@ CREATE TABLE IF NOT EXISTS inventory (
 
 -- 16. Inventory Movement Table
 CREATE TABLE IF NOT EXISTS inventory_movement (
-    movement_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    movement_id BIGINT DEFAULT NEXT VALUE FOR inventory_movement_seq PRIMARY KEY,
     operation_id BIGINT REFERENCES operations(operation_id),
     inventory_id BIGINT NOT NULL REFERENCES inventory(inventory_id),
     movement_type VARCHAR(20) NOT NULL,
@@ -324,7 +332,7 @@ CREATE TABLE IF NOT EXISTS inventory_movement (
 
 -- 17. Batch Relations Table
 CREATE TABLE IF NOT EXISTS batch_relations (
-    relation_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    relation_id BIGINT DEFAULT NEXT VALUE FOR batch_relations_seq PRIMARY KEY,
     parent_batch_id BIGINT NOT NULL REFERENCES batches(batch_id),
     child_batch_id BIGINT NOT NULL REFERENCES batches(batch_id),
     operation_id BIGINT REFERENCES operations(operation_id),
@@ -509,6 +517,7 @@ CREATE TABLE IF NOT EXISTS batch_number_config (
     include_date BOOLEAN DEFAULT TRUE,
     sequence_length INTEGER NOT NULL DEFAULT 3,
     sequence_reset VARCHAR(20) DEFAULT 'DAILY',
+    sequence_block_size INTEGER NOT NULL DEFAULT 1,
     priority INTEGER DEFAULT 100,
     status VARCHAR(20) NOT NULL DEFAULT 'ACTIVE',
     created_on TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
@@ -526,6 +535,24 @@ CREATE TABLE IF NOT EXISTS batch_number_sequence (
     UNIQUE(config_id, sequence_key)
 );
 
+-- 31b. Hourly Production Rollup Table (Patch 054)
+CREATE TABLE IF NOT EXISTS production_hourly_rollup (
+    bucket_start TIMESTAMP NOT NULL,
+    operation_type VARCHAR(50) NOT NULL DEFAULT '',
+    product_sku VARCHAR(100) NOT NULL DEFAULT '',
+    shift_code VARCHAR(50) NOT NULL DEFAULT '',
+    equipment_id BIGINT NOT NULL DEFAULT 0,
+    product_name VARCHAR(255),
+    confirmation_count BIGINT NOT NULL DEFAULT 0,
+    produced_qty DECIMAL(19,4) NOT NULL DEFAULT 0,
+    scrap_qty DECIMAL(19,4) NOT NULL DEFAULT 0,
+    cycle_minutes_sum BIGINT NOT NULL DEFAULT 0,
+    cycle_minutes_min BIGINT,
+    cycle_minutes_max BIGINT,
+    updated_on TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (bucket_start, operation_type, product_sku, shift_code, equipment_id)
+);
+
 -- 32. Customers Table (Patch 014)
 CREATE TABLE IF NOT EXISTS customers (
     customer_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -608,8 +635,17 @@ CREATE INDEX IF NOT EXISTS idx_inventory_batch ON inventory(batch_id);
 CREATE INDEX IF NOT EXISTS idx_batches_status ON batches(status);
 CREATE INDEX IF NOT EXISTS idx_batches_material ON batches(material_id);
 CREATE INDEX IF NOT EXISTS idx_batches_confirmation_id ON batches(confirmation_id);
+CREATE INDEX IF NOT EXISTS idx_batch_relations_parent ON batch_relations(parent_batch_id, status);
+CREATE INDEX IF NOT EXISTS idx_batch_relations_child ON batch_relations(child_batch_id, status);
 CREATE INDEX IF NOT EXISTS idx_production_confirm_operation ON production_confirmation(confirmation_id);
+CREATE INDEX IF NOT EXISTS idx_production_confirmation_created_on ON production_confirmation(created_on);
 CREATE INDEX IF NOT EXISTS idx_audit_entity ON audit_trail(entity_type, entity_id);
+CREATE INDEX IF NOT EXISTS idx_batches_created_on_id ON batches(created_on, batch_id);
+CREATE INDEX IF NOT EXISTS idx_inventory_created_on_id ON inventory(created_on, inventory_id);
+CREATE INDEX IF NOT EXISTS idx_orders_order_date_id ON orders(order_date, order_id);
+CREATE INDEX IF NOT EXISTS idx_audit_trail_timestamp_id ON audit_trail(timestamp, audit_id);
+-- H2 has no trigram indexes (patch 056 on PostgreSQL); demo search scans the small demo tables
+CREATE INDEX IF NOT EXISTS idx_audit_trail_action ON audit_trail(action);
 CREATE INDEX IF NOT EXISTS idx_hold_entity ON hold_records(entity_type, entity_id);
 CREATE INDEX IF NOT EXISTS idx_batch_config_operation ON batch_number_config(operation_type);
 CREATE INDEX IF NOT EXISTS idx_batch_config_product ON batch_number_config(product_sku);
@@ -0,0 +1,14 @@
+-- Patch 052: Segmented batch number sequence allocation
+-- sequence_block_size = 1 keeps gap-free allocation (sequence row locked per number
+-- until the confirming transaction commits). Larger values let each application node
+-- reserve that many values at once and hand them out from memory; numbers stay unique
+-- but unused values in a block are skipped (gaps).
+
+ALTER TABLE batch_number_config
+ADD COLUMN IF NOT EXISTS sequence_block_size INTEGER NOT NULL DEFAULT 1;
+
+ALTER TABLE batch_number_config DROP CONSTRAINT IF EXISTS chk_batch_config_block_size;
+ALTER TABLE batch_number_config ADD CONSTRAINT chk_batch_config_block_size
+    CHECK (sequence_block_size >= 1);
+
+COMMENT ON COLUMN batch_number_config.sequence_block_size IS 'Sequence values reserved per node at a time. 1 = gap-free; above 1 allows gaps.';
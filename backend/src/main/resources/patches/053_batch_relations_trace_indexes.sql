@@ -0,0 +1,6 @@
+-- Patch 053: Indexes for recursive genealogy traces
+-- Each recursion step of the forward/backward trace looks up ACTIVE relations by parent
+-- or child batch; without these every level is a sequential scan of batch_relations.
+
+CREATE INDEX IF NOT EXISTS idx_batch_relations_parent ON batch_relations(parent_batch_id, status);
+CREATE INDEX IF NOT EXISTS idx_batch_relations_child ON batch_relations(child_batch_id, status);
@@ -0,0 +1,27 @@
+-- Patch 054: Hourly production rollup for report analytics
+-- One row per (hour, operation type, product SKU, shift, equipment) holding the totals of the
+-- confirmations created in that hour. Maintained in the confirming transactions, so month and
+-- year reports read a few thousand rollup rows instead of every confirmation. Rejections and
+-- reversals do not touch it: like the reports before it, the rollup counts confirmations of every
+-- status. Backfilled at startup when empty, and rebuilt for a date range on request.
+-- Missing dimensions are stored as '' (equipment as 0) so they can be part of the primary key.
+
+CREATE TABLE IF NOT EXISTS production_hourly_rollup (
+    bucket_start TIMESTAMP NOT NULL,
+    operation_type VARCHAR(50) NOT NULL DEFAULT '',
+    product_sku VARCHAR(100) NOT NULL DEFAULT '',
+    shift_code VARCHAR(50) NOT NULL DEFAULT '',
+    equipment_id BIGINT NOT NULL DEFAULT 0,
+    product_name VARCHAR(255),
+    confirmation_count BIGINT NOT NULL DEFAULT 0,
+    produced_qty DECIMAL(19,4) NOT NULL DEFAULT 0,
+    scrap_qty DECIMAL(19,4) NOT NULL DEFAULT 0,
+    cycle_minutes_sum BIGINT NOT NULL DEFAULT 0,
+    cycle_minutes_min BIGINT,
+    cycle_minutes_max BIGINT,
+    updated_on TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (bucket_start, operation_type, product_sku, shift_code, equipment_id)
+);
+
+-- Backfill and rebuilds read confirmations by creation time
+CREATE INDEX IF NOT EXISTS idx_production_confirmation_created_on ON production_confirmation(created_on);
@@ -0,0 +1,15 @@
+-- Patch 055: Indexes for keyset (cursor) paging of the list endpoints
+-- Cursor pages seek on (sort column, id) and read the next rows in index order, so a deep
+-- page costs the same as the first. The sort columns must be non-null for the seek to be
+-- exact; created_on is backfilled for rows inserted outside the application.
+
+UPDATE batches SET created_on = CURRENT_TIMESTAMP WHERE created_on IS NULL;
+ALTER TABLE batches ALTER COLUMN created_on SET NOT NULL;
+
+UPDATE inventory SET created_on = CURRENT_TIMESTAMP WHERE created_on IS NULL;
+ALTER TABLE inventory ALTER COLUMN created_on SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_batches_created_on_id ON batches(created_on, batch_id);
+CREATE INDEX IF NOT EXISTS idx_inventory_created_on_id ON inventory(created_on, inventory_id);
+CREATE INDEX IF NOT EXISTS idx_orders_order_date_id ON orders(order_date, order_id);
+CREATE INDEX IF NOT EXISTS idx_audit_trail_timestamp_id ON audit_trail(timestamp, audit_id);
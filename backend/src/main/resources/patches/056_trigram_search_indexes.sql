@@ -0,0 +1,22 @@
+-- Patch 056: Trigram indexes for list search
+-- List search filters with lower(column) LIKE '%term%'. A B-tree index cannot serve a
+-- leading wildcard, so every keystroke in a search box was a sequential scan. pg_trgm GIN
+-- indexes on lower(column) serve these predicates for terms of three or more characters
+-- (shorter terms match too many trigrams to narrow anything down).
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_batches_batch_number_trgm ON batches USING gin (lower(batch_number) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_batches_material_name_trgm ON batches USING gin (lower(material_name) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_inventory_material_id_trgm ON inventory USING gin (lower(material_id) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_inventory_material_name_trgm ON inventory USING gin (lower(material_name) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_orders_order_number_trgm ON orders USING gin (lower(order_number) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_orders_customer_name_trgm ON orders USING gin (lower(customer_name) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_audit_trail_changed_by_trgm ON audit_trail USING gin (lower(changed_by) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_audit_trail_new_value_trgm ON audit_trail USING gin (lower(new_value) gin_trgm_ops);
+
+-- The audit action filter is an equality predicate; entity_type already leads idx_audit_entity
+CREATE INDEX IF NOT EXISTS idx_audit_trail_action ON audit_trail(action);
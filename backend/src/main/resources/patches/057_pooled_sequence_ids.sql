@@ -0,0 +1,38 @@
+-- Patch 057: Pooled sequence ids for the high-volume tables
+-- IDENTITY ids are only known after each row's INSERT, so Hibernate cannot batch those
+-- inserts. These tables now draw ids from sequences that advance by 50; Hibernate's pooled-lo
+-- optimizer hands out the 50 ids after each value it reads (hibernate.id.optimizer.pooled.preferred)
+-- and sends the inserts in JDBC batches. The columns default to the same sequences, so SQL
+-- inserts keep working; each such row just skips the rest of its block.
+-- audit_trail keeps IDENTITY: its bulk inserts go through AuditBatchWriter's JDBC batches.
+
+DO $$
+DECLARE
+    t RECORD;
+    old_sequence TEXT;
+BEGIN
+    FOR t IN SELECT * FROM (VALUES
+        ('batches', 'batch_id', 'batches_seq'),
+        ('inventory', 'inventory_id', 'inventory_seq'),
+        ('inventory_movement', 'movement_id', 'inventory_movement_seq'),
+        ('batch_relations', 'relation_id', 'batch_relations_seq'),
+        ('operation_equipment_usage', 'usage_id', 'operation_equipment_usage_seq'),
+        ('production_confirmation', 'confirmation_id', 'production_confirmation_seq')
+    ) AS v(table_name, column_name, sequence_name)
+    LOOP
+        old_sequence := pg_get_serial_sequence(t.table_name, t.column_name);
+
+        EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I INCREMENT BY 50', t.sequence_name);
+        -- The next value handed out starts right after the existing rows
+        EXECUTE format('SELECT setval(%L, COALESCE((SELECT MAX(%I) FROM %I), 0) + 1, false)',
+                       t.sequence_name, t.column_name, t.table_name);
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN %I SET DEFAULT nextval(%L)',
+                       t.table_name, t.column_name, t.sequence_name);
+        EXECUTE format('ALTER SEQUENCE %I OWNED BY %I.%I', t.sequence_name, t.table_name, t.column_name);
+
+        -- The BIGSERIAL sequence is no longer used
+        IF old_sequence IS NOT NULL AND old_sequence <> ('public.' || t.sequence_name) THEN
+            EXECUTE 'DROP SEQUENCE IF EXISTS ' || old_sequence;
+        END IF;
+    END LOOP;
+END $$;
@@ -1,10 +1,12 @@
 package com.mes.production.config;
 
+import com.mes.production.service.ImageProcessingService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -135,6 +137,28 @@ class GlobalExceptionHandlerTest {
         assertNotNull(body.get("timestamp"));
     }
 
+    @Test
+    @DisplayName("Should return 503 with Retry-After when image processing is busy")
+    void should_return503WithRetryAfter_when_imageProcessingBusy() {
+        // GIVEN: No image processing permit freed up in time
+        ImageProcessingService.BusyException ex =
+                new ImageProcessingService.BusyException("Image processing is busy, please retry shortly", 5);
+
+        // WHEN: The exception handler processes it
+        ResponseEntity<Map<String, Object>> response = handler.handleImageProcessingBusy(ex);
+
+        // THEN: Returns 503 telling the client when to retry
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("5", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertNotNull(response.getBody());
+
+        Map<String, Object> body = response.getBody();
+        assertEquals(503, body.get("status"));
+        assertEquals("Service Unavailable", body.get("error"));
+        assertEquals("Image processing is busy, please retry shortly", body.get("message"));
+        assertNotNull(body.get("timestamp"));
+    }
+
     @Test
     @DisplayName("Should return 500 when unexpected exception occurs")
     void should_return500_when_unexpectedException() {
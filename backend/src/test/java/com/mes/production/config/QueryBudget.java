@@ -0,0 +1,26 @@
+package com.mes.production.config;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Fails the test when its body runs more SQL statements than the budget.
+ *
+ * Counting starts after the @BeforeEach methods and stops when the test method returns, on the
+ * test thread; statements a test leaves to a later flush (commit, rollback) are not seen, so
+ * tests of write paths should flush inside the test method.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(QueryBudgetExtension.class)
+public @interface QueryBudget {
+
+    /**
+     * Most statements the test may run.
+     */
+    int value();
+}
@@ -0,0 +1,37 @@
+package com.mes.production.config;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.opentest4j.AssertionFailedError;
+
+/**
+ * Records the statements of tests annotated with {@link QueryBudget} and checks them against it.
+ * Needs a Spring context with the query counting DataSource (app.query-count.enabled).
+ */
+public class QueryBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE =
+            ExtensionContext.Namespace.create(QueryBudgetExtension.class);
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        context.getStore(NAMESPACE).put(context.getUniqueId(), QueryCounter.start());
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        QueryCounter.Recording recording =
+                context.getStore(NAMESPACE).remove(context.getUniqueId(), QueryCounter.Recording.class);
+        if (recording == null) {
+            return;
+        }
+        recording.stop();
+        QueryBudget budget = context.getRequiredTestMethod().getAnnotation(QueryBudget.class);
+        if (budget != null && recording.statements() > budget.value() && context.getExecutionException().isEmpty()) {
+            throw new AssertionFailedError(context.getDisplayName() + " ran " + recording.statements()
+                    + " SQL statements, budget is " + budget.value() + "; by service method: "
+                    + recording.topMethods(10));
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.mes.production.config;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryCountFilterTest {
+
+    private static void runStatements(int count) {
+        for (int i = 0; i < count; i++) {
+            QueryCounter.increment();
+        }
+    }
+
+    @Test
+    @DisplayName("Should add the statement count headers before the body commits the response")
+    void doFilter_ExposeHeaders_AddsHeadersOnCommit() throws Exception {
+        QueryCountFilter filter = new QueryCountFilter(true, 50);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/orders"), response, (req, res) -> {
+            runStatements(3);
+            res.getWriter().write("[]");
+            res.flushBuffer();
+            // Statements after the commit are no longer reflected in the headers
+            runStatements(2);
+        });
+
+        assertEquals("3", response.getHeader(QueryCountFilter.QUERY_COUNT_HEADER));
+        assertTrue(response.getHeader(QueryCountFilter.SERVER_TIMING_HEADER).startsWith("db;desc=\"3 queries\", app;dur="));
+        assertFalse(QueryCounter.isRecording());
+    }
+
+    @Test
+    @DisplayName("Should add the headers to responses without a body")
+    void doFilter_NoBody_AddsHeaders() throws Exception {
+        QueryCountFilter filter = new QueryCountFilter(true, 50);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("DELETE", "/api/orders/1"), response,
+                (req, res) -> ((HttpServletResponse) res).setStatus(204));
+
+        assertEquals("0", response.getHeader(QueryCountFilter.QUERY_COUNT_HEADER));
+    }
+
+    @Test
+    @DisplayName("Should leave the headers off when not exposed")
+    void doFilter_HeadersDisabled_NoHeaders() throws Exception {
+        QueryCountFilter filter = new QueryCountFilter(false, 50);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/orders"), response, (req, res) -> runStatements(1));
+
+        assertNull(response.getHeader(QueryCountFilter.QUERY_COUNT_HEADER));
+        assertNull(response.getHeader(QueryCountFilter.SERVER_TIMING_HEADER));
+    }
+
+    @Test
+    @DisplayName("Should attribute statements to service methods, outer calls including nested ones")
+    void recording_TopMethods() {
+        try (QueryCounter.Recording recording = QueryCounter.start()) {
+            for (int i = 0; i < 3; i++) {
+                runStatements(1);
+                QueryCounter.recordMethod("BomService.findChildren", 1);
+            }
+            QueryCounter.recordMethod("BomService.getBomNode", 3);
+            QueryCounter.recordMethod("AuditService.log", 0);
+
+            assertEquals(3, recording.statements());
+            assertEquals(3, recording.methods().get("BomService.findChildren").calls());
+            assertEquals(List.of("BomService.findChildren=3 in 3 calls", "BomService.getBomNode=3 in 1 call"),
+                    recording.topMethods(5));
+        }
+        assertFalse(QueryCounter.isRecording());
+    }
+
+    @Test
+    @DisplayName("Should count nested recordings into the outer one")
+    void recording_Nested() {
+        QueryCounter.Recording outer = QueryCounter.start();
+        runStatements(1);
+        QueryCounter.Recording inner = QueryCounter.start();
+        runStatements(2);
+        QueryCounter.recordMethod("OrderService.getOrderById", 2);
+        inner.stop();
+        runStatements(1);
+        outer.stop();
+
+        assertEquals(2, inner.statements());
+        assertEquals(4, outer.statements());
+        assertEquals(2, outer.methods().get("OrderService.getOrderById").statements());
+        assertFalse(QueryCounter.isRecording());
+    }
+}
@@ -1,11 +1,14 @@
 package com.mes.production.controller;
 
+import com.mes.production.dto.PageRequestDTO;
 import com.mes.production.entity.AuditTrail;
 import com.mes.production.security.JwtService;
 import com.mes.production.service.AuditService;
+import com.mes.production.service.KeysetPaginator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -374,6 +377,28 @@ class AuditControllerTest {
         verify(auditService, times(1)).getPagedAudit(0, 20, "BATCH", "STATUS_CHANGE", "admin");
     }
 
+    @Test
+    @DisplayName("Should page audit entries by cursor when a cursor is given")
+    @WithMockUser(username = "admin@mes.com", roles = {"USER"})
+    void getPagedAudit_Cursor_ReturnsNextCursor() throws Exception {
+        when(auditService.getPagedAuditByCursor(
+                ArgumentMatchers.any(PageRequestDTO.class), ArgumentMatchers.isNull(), ArgumentMatchers.isNull()))
+                .thenReturn(new KeysetPaginator.KeysetPage<>(testEntries, "timestamp", "abc", null, "NONE"));
+
+        mockMvc.perform(get("/api/audit/paged")
+                        .param("cursor", "")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.nextCursor", is("abc")))
+                .andExpect(jsonPath("$.hasNext", is(true)))
+                .andExpect(jsonPath("$.totalElements", is(-1)))
+                .andExpect(jsonPath("$.totalMode", is("NONE")))
+                .andExpect(jsonPath("$.size", is(20)));
+
+        verify(auditService, never()).getPagedAudit(anyInt(), anyInt(), any(), any(), any());
+    }
+
     @Test
     @DisplayName("Should require authentication for paginated audit")
     void getPagedAudit_Unauthenticated_Returns401() throws Exception {
@@ -5,6 +5,8 @@ import com.mes.production.dto.BatchDTO;
 import com.mes.production.security.JwtService;
 import com.mes.production.service.BatchNumberService;
 import com.mes.production.service.BatchService;
+import com.mes.production.service.BatchTraceService;
+import com.mes.production.service.GenealogyIndexService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -25,6 +27,7 @@ import java.util.List;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -50,6 +53,12 @@ class BatchControllerTest {
     @MockBean
     private BatchNumberService batchNumberService;
 
+    @MockBean
+    private BatchTraceService batchTraceService;
+
+    @MockBean
+    private GenealogyIndexService genealogyIndexService;
+
     @MockBean
     private JwtService jwtService;
 
@@ -148,6 +157,98 @@ class BatchControllerTest {
         verify(batchService, times(1)).getBatchGenealogy(1L);
     }
 
+    @Test
+    @DisplayName("Should return forward trace graph with relation type filter")
+    @WithMockUser(username = "admin@mes.com")
+    void traceForward_WithFilters_ReturnsGraph() throws Exception {
+        BatchDTO.TraceGraph graph = BatchDTO.TraceGraph.builder()
+                .rootBatchId(1L)
+                .direction(BatchTraceService.FORWARD)
+                .maxDepth(5)
+                .nodes(List.of(
+                        BatchDTO.TraceNode.builder().batchId(1L).batchNumber("BATCH-001").depth(0).build(),
+                        BatchDTO.TraceNode.builder().batchId(3L).batchNumber("BATCH-003").depth(1).build()))
+                .edges(List.of(BatchDTO.TraceEdge.builder()
+                        .relationId(10L).parentBatchId(1L).childBatchId(3L).relationType("SPLIT").depth(1).build()))
+                .build();
+        when(batchTraceService.traceForward(1L, 5, List.of("SPLIT", "MERGE"))).thenReturn(graph);
+
+        mockMvc.perform(get("/api/batches/1/trace/forward")
+                        .param("maxDepth", "5")
+                        .param("relationTypes", "SPLIT", "MERGE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.direction").value("FORWARD"))
+                .andExpect(jsonPath("$.nodes.length()").value(2))
+                .andExpect(jsonPath("$.edges[0].childBatchId").value(3));
+
+        verify(batchTraceService).traceForward(1L, 5, List.of("SPLIT", "MERGE"));
+    }
+
+    @Test
+    @DisplayName("Should answer recall impact from the genealogy index")
+    @WithMockUser(username = "admin@mes.com")
+    void findDescendants_ReturnsIndexResult() throws Exception {
+        BatchDTO.GenealogyIndexRequest request = BatchDTO.GenealogyIndexRequest.builder()
+                .batchIds(List.of(1L, 2L))
+                .build();
+        when(genealogyIndexService.query(eq(GenealogyIndexService.DESCENDANTS), any(BatchDTO.GenealogyIndexRequest.class)))
+                .thenReturn(BatchDTO.GenealogyIndexResult.builder()
+                        .query(GenealogyIndexService.DESCENDANTS)
+                        .sourceBatchIds(List.of(1L, 2L))
+                        .batchIds(new long[]{3L, 4L, 5L})
+                        .count(3)
+                        .build());
+
+        mockMvc.perform(post("/api/batches/genealogy-index/descendants")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(3))
+                .andExpect(jsonPath("$.batchIds[2]").value(5));
+    }
+
+    @Test
+    @DisplayName("Should reject genealogy index query without batch IDs")
+    @WithMockUser(username = "admin@mes.com")
+    void findDescendants_NoBatchIds_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/batches/genealogy-index/descendants")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"batchIds\": []}"))
+                .andExpect(status().isBadRequest());
+
+        verify(genealogyIndexService, never()).query(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Should return genealogy index stats")
+    @WithMockUser(username = "admin@mes.com")
+    void getGenealogyIndexStats_ReturnsStats() throws Exception {
+        when(genealogyIndexService.getStats()).thenReturn(BatchDTO.GenealogyIndexStats.builder()
+                .enabled(true).ready(true).batchCount(7).relationCount(6).build());
+
+        mockMvc.perform(get("/api/batches/genealogy-index/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ready").value(true))
+                .andExpect(jsonPath("$.relationCount").value(6));
+    }
+
+    @Test
+    @DisplayName("Should return backward trace graph with default depth")
+    @WithMockUser(username = "admin@mes.com")
+    void traceBackward_Defaults_ReturnsGraph() throws Exception {
+        when(batchTraceService.traceBackward(3L, null, null)).thenReturn(BatchDTO.TraceGraph.builder()
+                .rootBatchId(3L)
+                .direction(BatchTraceService.BACKWARD)
+                .nodes(List.of())
+                .edges(List.of())
+                .build());
+
+        mockMvc.perform(get("/api/batches/3/trace/backward"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rootBatchId").value(3))
+                .andExpect(jsonPath("$.direction").value("BACKWARD"));
+    }
+
     @Test
     @DisplayName("Should get available batches")
     @WithMockUser(username = "admin@mes.com")
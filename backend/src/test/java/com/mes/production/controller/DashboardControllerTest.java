@@ -69,6 +69,18 @@ class DashboardControllerTest {
                 .build();
     }
 
+    @Test
+    @DisplayName("Should report the request's SQL statement count in the response headers")
+    @WithMockUser(username = "admin@mes.com")
+    void getDashboardSummary_ExposesQueryCount() throws Exception {
+        when(dashboardService.getDashboardSummary()).thenReturn(testSummary);
+
+        mockMvc.perform(get("/api/dashboard/summary"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Query-Count", "0"))
+                .andExpect(header().string("Server-Timing", org.hamcrest.Matchers.startsWith("db;desc=\"0 queries\"")));
+    }
+
     @Test
     @DisplayName("Should get dashboard summary")
     @WithMockUser(username = "admin@mes.com")
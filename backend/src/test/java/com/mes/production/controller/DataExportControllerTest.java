@@ -0,0 +1,103 @@
+package com.mes.production.controller;
+
+import com.mes.production.config.TestSecurityConfig;
+import com.mes.production.security.JwtService;
+import com.mes.production.service.DataExportService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class DataExportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private DataExportService dataExportService;
+
+    @MockBean
+    private JwtService jwtService;
+
+    @Test
+    @DisplayName("Should stream a CSV export with the requested filters")
+    @WithMockUser(username = "admin@mes.com")
+    void export_Csv_StreamsBody() throws Exception {
+        byte[] csv = "batchId,batchNumber\r\n1,B-1\r\n".getBytes(StandardCharsets.UTF_8);
+        when(dataExportService.getColumns("batches")).thenReturn(List.of("batchId", "batchNumber"));
+        when(dataExportService.normalizeFormat("csv")).thenReturn("csv");
+        when(dataExportService.export(eq("batches"), eq("csv"), any(), any(), any(), anyBoolean(), any()))
+                .thenAnswer(invocation -> {
+                    invocation.getArgument(6, OutputStream.class).write(csv);
+                    return 1L;
+                });
+
+        MvcResult result = mockMvc.perform(get("/api/export/batches")
+                        .param("from", "2026-03-01")
+                        .param("to", "2026-03-31")
+                        .param("status", "AVAILABLE"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=batches-export.csv"))
+                .andExpect(content().bytes(csv));
+
+        verify(dataExportService).export(eq("batches"), eq("csv"), eq(LocalDate.of(2026, 3, 1)),
+                eq(LocalDate.of(2026, 3, 31)), eq("AVAILABLE"), eq(false), any(OutputStream.class));
+    }
+
+    @Test
+    @DisplayName("Should name gzipped NDJSON exports accordingly")
+    @WithMockUser(username = "admin@mes.com")
+    void export_NdjsonGzip_SetsFilename() throws Exception {
+        when(dataExportService.getColumns("audit")).thenReturn(List.of("auditId"));
+        when(dataExportService.normalizeFormat("ndjson")).thenReturn("ndjson");
+
+        mockMvc.perform(get("/api/export/audit").param("format", "ndjson").param("gzip", "true"))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=audit-export.ndjson.gz"))
+                .andExpect(header().string("Content-Type", "application/gzip"));
+    }
+
+    @Test
+    @DisplayName("Should reject an unknown dataset before streaming")
+    @WithMockUser(username = "admin@mes.com")
+    void export_UnknownDataset_Returns400() throws Exception {
+        when(dataExportService.getColumns("orders")).thenThrow(new RuntimeException("Unknown export dataset: orders"));
+
+        mockMvc.perform(get("/api/export/orders"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unknown export dataset: orders"));
+    }
+
+    @Test
+    @DisplayName("Should require authentication for exports")
+    void export_NotAuthenticated_Returns401() throws Exception {
+        mockMvc.perform(get("/api/export/batches"))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,147 @@
+package com.mes.production.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mes.production.config.TestSecurityConfig;
+import com.mes.production.dto.ExportJobDTO;
+import com.mes.production.security.JwtService;
+import com.mes.production.service.ExportJobService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class ExportJobControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private ExportJobService exportJobService;
+
+    @MockBean
+    private JwtService jwtService;
+
+    @TempDir
+    Path tempDir;
+
+    private ExportJobDTO.Job job(String status) {
+        return ExportJobDTO.Job.builder()
+                .jobId("job-1")
+                .reportType("EXCEL_ORDERS")
+                .status(status)
+                .requestedBy("admin@mes.com")
+                .fileName("orders-export.xlsx")
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should queue a report and return 202 with the job")
+    @WithMockUser(username = "admin@mes.com")
+    void submit_ValidRequest_Returns202() throws Exception {
+        when(exportJobService.submit(any(ExportJobDTO.Request.class), eq("admin@mes.com")))
+                .thenReturn(job(ExportJobService.STATUS_QUEUED));
+
+        mockMvc.perform(post("/api/export-jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                ExportJobDTO.Request.builder().reportType("EXCEL_ORDERS").build())))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.jobId").value("job-1"))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+    }
+
+    @Test
+    @DisplayName("Should reject a submission without report type")
+    @WithMockUser(username = "admin@mes.com")
+    void submit_MissingReportType_Returns400() throws Exception {
+        mockMvc.perform(post("/api/export-jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+
+        verify(exportJobService, never()).submit(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should list the user's jobs and poll one")
+    @WithMockUser(username = "admin@mes.com")
+    void getJobs_ReturnsJobs() throws Exception {
+        when(exportJobService.getJobs("admin@mes.com")).thenReturn(List.of(job(ExportJobService.STATUS_RUNNING)));
+        when(exportJobService.getJob("job-1", "admin@mes.com")).thenReturn(job(ExportJobService.STATUS_RUNNING));
+
+        mockMvc.perform(get("/api/export-jobs"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].jobId").value("job-1"));
+
+        mockMvc.perform(get("/api/export-jobs/job-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("RUNNING"));
+    }
+
+    @Test
+    @DisplayName("Should download a completed job's file")
+    @WithMockUser(username = "admin@mes.com")
+    void download_CompletedJob_ReturnsFile() throws Exception {
+        Path file = Files.write(tempDir.resolve("job-1.out"), new byte[]{0x50, 0x4B, 0x03, 0x04});
+        when(exportJobService.getFile("job-1", "admin@mes.com")).thenReturn(new ExportJobService.ExportFile(
+                file, "orders-export.xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
+
+        mockMvc.perform(get("/api/export-jobs/job-1/download"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=orders-export.xlsx"))
+                .andExpect(content().bytes(new byte[]{0x50, 0x4B, 0x03, 0x04}));
+    }
+
+    @Test
+    @DisplayName("Should return 400 when the job has no file yet")
+    @WithMockUser(username = "admin@mes.com")
+    void download_RunningJob_Returns400() throws Exception {
+        when(exportJobService.getFile("job-1", "admin@mes.com"))
+                .thenThrow(new RuntimeException("Export job job-1 has no file to download (status RUNNING)"));
+
+        mockMvc.perform(get("/api/export-jobs/job-1/download"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should cancel a job")
+    @WithMockUser(username = "admin@mes.com")
+    void cancel_ReturnsCancelledJob() throws Exception {
+        when(exportJobService.cancel("job-1", "admin@mes.com")).thenReturn(job(ExportJobService.STATUS_CANCELLED));
+
+        mockMvc.perform(delete("/api/export-jobs/job-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CANCELLED"));
+    }
+
+    @Test
+    @DisplayName("Should require authentication for export jobs")
+    void getJobs_NotAuthenticated_Returns401() throws Exception {
+        mockMvc.perform(get("/api/export-jobs"))
+                .andExpect(status().isUnauthorized());
+    }
+}
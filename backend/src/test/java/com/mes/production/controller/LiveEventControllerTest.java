@@ -0,0 +1,75 @@
+package com.mes.production.controller;
+
+import com.mes.production.config.TestSecurityConfig;
+import com.mes.production.dto.LiveEventDTO;
+import com.mes.production.security.JwtService;
+import com.mes.production.service.LiveEventService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class LiveEventControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private LiveEventService liveEventService;
+
+    @MockBean
+    private JwtService jwtService;
+
+    @Test
+    @DisplayName("Should open a live stream for the requested topics, resuming after Last-Event-ID")
+    @WithMockUser(username = "admin@mes.com")
+    void stream_WithTopicsAndLastEventId_Subscribes() throws Exception {
+        when(liveEventService.subscribe(anyList(), anyString(), anyString())).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/live/stream")
+                        .param("topics", "operations", "holds")
+                        .param("operationType", "FURNACE")
+                        .header("Last-Event-ID", "5f3a9c1e-42"))
+                .andExpect(request().asyncStarted());
+
+        verify(liveEventService).subscribe(List.of("operations", "holds"), "FURNACE", "5f3a9c1e-42");
+    }
+
+    @Test
+    @DisplayName("Should get live stream stats")
+    @WithMockUser(username = "admin@mes.com")
+    void getStats_ReturnsStats() throws Exception {
+        when(liveEventService.getStats()).thenReturn(LiveEventDTO.StreamStats.builder()
+                .subscribers(3).lastSequence(120L).retainedEvents(120).build());
+
+        mockMvc.perform(get("/api/live/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.subscribers").value(3))
+                .andExpect(jsonPath("$.lastSequence").value(120));
+    }
+
+    @Test
+    @DisplayName("Should require authentication for the live stream")
+    void stream_NotAuthenticated_Returns401() throws Exception {
+        mockMvc.perform(get("/api/live/stream"))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mes.production.dto.ProductionConfirmationDTO;
 import com.mes.production.entity.*;
 import com.mes.production.security.JwtService;
+import com.mes.production.service.BulkProductionService;
 import com.mes.production.service.ProductionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -44,6 +45,9 @@ class ProductionControllerTest {
     @MockBean
     private ProductionService productionService;
 
+    @MockBean
+    private BulkProductionService bulkProductionService;
+
     @MockBean
     private JwtService jwtService;
 
@@ -103,6 +107,36 @@ class ProductionControllerTest {
         verify(productionService, times(1)).confirmProduction(any());
     }
 
+    @Test
+    @DisplayName("Should confirm production in bulk with per-item results")
+    @WithMockUser(username = "admin@mes.com")
+    void confirmProductionBulk_ReturnsPerItemResults() throws Exception {
+        when(bulkProductionService.confirmAll(anyList()))
+                .thenReturn(ProductionConfirmationDTO.BulkResponse.builder()
+                        .total(2)
+                        .succeeded(1)
+                        .failed(1)
+                        .results(List.of(
+                                ProductionConfirmationDTO.BulkItemResult.builder()
+                                        .index(0).operationId(1L).success(true).confirmation(testResponse).build(),
+                                ProductionConfirmationDTO.BulkItemResult.builder()
+                                        .index(1).operationId(2L).success(false)
+                                        .error("Operation is on hold and cannot be confirmed").build()))
+                        .build());
+
+        mockMvc.perform(post("/api/production/confirm/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(testRequest, testRequest))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.results[0].confirmation.confirmationId").value(1))
+                .andExpect(jsonPath("$.results[1].success").value(false))
+                .andExpect(jsonPath("$.results[1].error").value("Operation is on hold and cannot be confirmed"));
+
+        verify(bulkProductionService, times(1)).confirmAll(argThat(list -> list.size() == 2));
+    }
+
     @Test
     @DisplayName("Should return 401 when not authenticated")
     void confirmProduction_NotAuthenticated_Returns401() throws Exception {
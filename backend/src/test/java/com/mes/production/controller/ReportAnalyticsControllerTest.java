@@ -376,4 +376,36 @@ class ReportAnalyticsControllerTest {
         mockMvc.perform(get("/api/reports/analytics/executive/dashboard"))
                 .andExpect(status().isUnauthorized());
     }
+
+    // ========== Production Rollup ==========
+
+    @Test
+    @DisplayName("Should get production rollup status")
+    @WithMockUser(username = "admin@mes.com")
+    void getRollupStatus_ReturnsStatus() throws Exception {
+        when(reportAnalyticsService.getRollupStatus()).thenReturn(ReportAnalyticsDTO.RollupStatus.builder()
+                .enabled(true).ready(true).rebuilding(false).rowCount(1200L).build());
+
+        mockMvc.perform(get("/api/reports/analytics/rollup/status"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ready").value(true))
+                .andExpect(jsonPath("$.rowCount").value(1200));
+    }
+
+    @Test
+    @DisplayName("Should accept a production rollup rebuild for a date range")
+    @WithMockUser(username = "admin@mes.com")
+    void rebuildRollup_WithDates_ReturnsAccepted() throws Exception {
+        when(reportAnalyticsService.rebuildRollup(any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(ReportAnalyticsDTO.RollupStatus.builder()
+                        .enabled(true).ready(true).rebuilding(true).rowCount(0L).build());
+
+        mockMvc.perform(post("/api/reports/analytics/rollup/rebuild")
+                        .param("startDate", "2026-01-01")
+                        .param("endDate", "2026-01-31"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.rebuilding").value(true));
+
+        verify(reportAnalyticsService).rebuildRollup(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31));
+    }
 }
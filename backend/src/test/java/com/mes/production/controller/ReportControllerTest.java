@@ -6,6 +6,7 @@ import com.mes.production.service.ChartService;
 import com.mes.production.service.ExcelExportService;
 import com.mes.production.service.ImageProcessingService;
 import com.mes.production.service.PdfReportService;
+import com.mes.production.service.ThumbnailBatchService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -19,10 +20,21 @@ import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.OutputStream;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -48,6 +60,9 @@ class ReportControllerTest {
     @MockBean
     private ImageProcessingService imageProcessingService;
 
+    @MockBean
+    private ThumbnailBatchService thumbnailBatchService;
+
     @MockBean
     private JwtService jwtService;
 
@@ -91,11 +106,19 @@ class ReportControllerTest {
         @WithMockUser(username = "admin@mes.com")
         void exportOrdersExcel_ReturnsXlsx() throws Exception {
             byte[] fakeExcel = new byte[]{0x50, 0x4B, 0x03, 0x04}; // ZIP magic bytes (xlsx is a zip)
-            when(excelExportService.exportOrders()).thenReturn(fakeExcel);
+            when(excelExportService.writeOrders(any())).thenAnswer(invocation -> {
+                invocation.getArgument(0, OutputStream.class).write(fakeExcel);
+                return 1;
+            });
 
-            mockMvc.perform(get("/api/reports/excel/orders"))
+            MvcResult result = mockMvc.perform(get("/api/reports/excel/orders"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(result))
                     .andExpect(status().isOk())
-                    .andExpect(header().string("Content-Disposition", "attachment; filename=orders-export.xlsx"));
+                    .andExpect(header().string("Content-Disposition", "attachment; filename=orders-export.xlsx"))
+                    .andExpect(content().bytes(fakeExcel));
         }
 
         @Test
@@ -103,11 +126,19 @@ class ReportControllerTest {
         @WithMockUser(username = "admin@mes.com")
         void exportInventoryExcel_ReturnsXlsx() throws Exception {
             byte[] fakeExcel = new byte[]{0x50, 0x4B, 0x03, 0x04};
-            when(excelExportService.exportInventory()).thenReturn(fakeExcel);
+            when(excelExportService.writeInventory(any())).thenAnswer(invocation -> {
+                invocation.getArgument(0, OutputStream.class).write(fakeExcel);
+                return 1;
+            });
+
+            MvcResult result = mockMvc.perform(get("/api/reports/excel/inventory"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
 
-            mockMvc.perform(get("/api/reports/excel/inventory"))
+            mockMvc.perform(asyncDispatch(result))
                     .andExpect(status().isOk())
-                    .andExpect(header().string("Content-Disposition", "attachment; filename=inventory-export.xlsx"));
+                    .andExpect(header().string("Content-Disposition", "attachment; filename=inventory-export.xlsx"))
+                    .andExpect(content().bytes(fakeExcel));
         }
     }
 
@@ -115,24 +146,32 @@ class ReportControllerTest {
     @DisplayName("Charts")
     class Charts {
 
+        private static final String PNG_ETAG = "\"order-status-600x400-png-1a2b\"";
+
+        private ChartService.RenderedChart chart(String contentType, String etag) {
+            return new ChartService.RenderedChart(new byte[]{(byte) 0x89, 0x50, 0x4E, 0x47}, contentType, etag);
+        }
+
         @Test
         @DisplayName("Should generate order status chart")
         @WithMockUser(username = "admin@mes.com")
         void orderStatusChart_ReturnsPng() throws Exception {
-            byte[] fakeChart = new byte[]{(byte) 0x89, 0x50, 0x4E, 0x47}; // PNG magic bytes
-            when(chartService.generateOrderStatusChart(anyInt(), anyInt())).thenReturn(fakeChart);
+            when(chartService.getChartETag("order-status", 600, 400, "png")).thenReturn(PNG_ETAG);
+            when(chartService.getChart("order-status", 600, 400, "png")).thenReturn(chart("image/png", PNG_ETAG));
 
             mockMvc.perform(get("/api/reports/charts/order-status"))
                     .andExpect(status().isOk())
-                    .andExpect(content().contentType(MediaType.IMAGE_PNG));
+                    .andExpect(content().contentType(MediaType.IMAGE_PNG))
+                    .andExpect(header().string("ETag", PNG_ETAG));
         }
 
         @Test
         @DisplayName("Should generate order status chart with custom dimensions")
         @WithMockUser(username = "admin@mes.com")
         void orderStatusChart_CustomDimensions_ReturnsPng() throws Exception {
-            byte[] fakeChart = new byte[]{(byte) 0x89, 0x50, 0x4E, 0x47};
-            when(chartService.generateOrderStatusChart(800, 600)).thenReturn(fakeChart);
+            String etag = "\"order-status-800x600-png-1a2b\"";
+            when(chartService.getChartETag("order-status", 800, 600, "png")).thenReturn(etag);
+            when(chartService.getChart("order-status", 800, 600, "png")).thenReturn(chart("image/png", etag));
 
             mockMvc.perform(get("/api/reports/charts/order-status")
                             .param("width", "800")
@@ -141,23 +180,38 @@ class ReportControllerTest {
         }
 
         @Test
-        @DisplayName("Should generate inventory type chart")
+        @DisplayName("Should return 304 without rendering when the chart is unchanged")
         @WithMockUser(username = "admin@mes.com")
-        void inventoryTypeChart_ReturnsPng() throws Exception {
-            byte[] fakeChart = new byte[]{(byte) 0x89, 0x50, 0x4E, 0x47};
-            when(chartService.generateInventoryTypeChart(anyInt(), anyInt())).thenReturn(fakeChart);
+        void orderStatusChart_MatchingETag_Returns304() throws Exception {
+            when(chartService.getChartETag("order-status", 600, 400, "png")).thenReturn(PNG_ETAG);
 
-            mockMvc.perform(get("/api/reports/charts/inventory-type"))
+            mockMvc.perform(get("/api/reports/charts/order-status").header("If-None-Match", PNG_ETAG))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string("ETag", PNG_ETAG));
+
+            verify(chartService, never()).getChart(anyString(), anyInt(), anyInt(), anyString());
+        }
+
+        @Test
+        @DisplayName("Should generate inventory type chart as SVG")
+        @WithMockUser(username = "admin@mes.com")
+        void inventoryTypeChart_Svg_ReturnsSvg() throws Exception {
+            String etag = "\"inventory-type-600x400-svg-1a2b\"";
+            when(chartService.getChartETag("inventory-type", 600, 400, "svg")).thenReturn(etag);
+            when(chartService.getChart("inventory-type", 600, 400, "svg")).thenReturn(chart("image/svg+xml", etag));
+
+            mockMvc.perform(get("/api/reports/charts/inventory-type").param("format", "SVG"))
                     .andExpect(status().isOk())
-                    .andExpect(content().contentType(MediaType.IMAGE_PNG));
+                    .andExpect(content().contentType("image/svg+xml"));
         }
 
         @Test
         @DisplayName("Should generate inventory state chart")
         @WithMockUser(username = "admin@mes.com")
         void inventoryStateChart_ReturnsPng() throws Exception {
-            byte[] fakeChart = new byte[]{(byte) 0x89, 0x50, 0x4E, 0x47};
-            when(chartService.generateInventoryStateChart(anyInt(), anyInt())).thenReturn(fakeChart);
+            String etag = "\"inventory-state-600x400-png-1a2b\"";
+            when(chartService.getChartETag("inventory-state", 600, 400, "png")).thenReturn(etag);
+            when(chartService.getChart("inventory-state", 600, 400, "png")).thenReturn(chart("image/png", etag));
 
             mockMvc.perform(get("/api/reports/charts/inventory-state"))
                     .andExpect(status().isOk())
@@ -217,8 +271,8 @@ class ReportControllerTest {
         @DisplayName("Should get image metadata")
         @WithMockUser(username = "admin@mes.com")
         void getImageMetadata_ReturnsMetadata() throws Exception {
-            when(imageProcessingService.getImageMetadata(any()))
-                    .thenReturn(new ImageProcessingService.ImageMetadata(200, 150, 5, 1024));
+            when(imageProcessingService.getImageMetadata(any(), anyLong()))
+                    .thenReturn(new ImageProcessingService.ImageMetadata(200, 150, 5, 1024, "opencv"));
 
             MockMultipartFile file = new MockMultipartFile("file", "test.png", MediaType.IMAGE_PNG_VALUE, new byte[]{1, 2, 3});
 
@@ -226,7 +280,78 @@ class ReportControllerTest {
                     .andExpect(status().isOk())
                     .andExpect(jsonPath("$.width").value(200))
                     .andExpect(jsonPath("$.height").value(150))
-                    .andExpect(jsonPath("$.sizeBytes").value(1024));
+                    .andExpect(jsonPath("$.sizeBytes").value(1024))
+                    .andExpect(jsonPath("$.backend").value("opencv"));
+        }
+
+        @Test
+        @DisplayName("Should stream thumbnails for many images as a ZIP")
+        @WithMockUser(username = "admin@mes.com")
+        void generateThumbnails_ReturnsZip() throws Exception {
+            byte[] fakeZip = new byte[]{0x50, 0x4B, 0x05, 0x06};
+            when(thumbnailBatchService.writeThumbnails(anyList(), eq(120), any(OutputStream.class))).thenAnswer(invocation -> {
+                invocation.getArgument(2, OutputStream.class).write(fakeZip);
+                return null;
+            });
+
+            MvcResult result = mockMvc.perform(multipart("/api/reports/image/thumbnails")
+                            .file(new MockMultipartFile("files", "a.png", MediaType.IMAGE_PNG_VALUE, new byte[]{1, 2, 3}))
+                            .file(new MockMultipartFile("files", "b.png", MediaType.IMAGE_PNG_VALUE, new byte[]{4, 5, 6}))
+                            .param("maxDimension", "120"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Content-Disposition", "attachment; filename=thumbnails.zip"))
+                    .andExpect(content().bytes(fakeZip));
+            verify(thumbnailBatchService).validate(anyList(), eq(120));
+        }
+
+        @Test
+        @DisplayName("Should reject a thumbnail batch before streaming")
+        @WithMockUser(username = "admin@mes.com")
+        void generateThumbnails_TooManyFiles_Returns400() throws Exception {
+            doThrow(new RuntimeException("Too many images: 2 (maximum 1 per request)"))
+                    .when(thumbnailBatchService).validate(anyList(), anyInt());
+
+            mockMvc.perform(multipart("/api/reports/image/thumbnails")
+                            .file(new MockMultipartFile("files", "a.png", MediaType.IMAGE_PNG_VALUE, new byte[]{1}))
+                            .file(new MockMultipartFile("files", "b.png", MediaType.IMAGE_PNG_VALUE, new byte[]{2})))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.message").value("Too many images: 2 (maximum 1 per request)"));
+            verify(thumbnailBatchService, never()).writeThumbnails(anyList(), anyInt(), any());
+        }
+
+        @Test
+        @DisplayName("Should return 503 with Retry-After when image processing is saturated")
+        @WithMockUser(username = "admin@mes.com")
+        void generateThumbnail_Busy_Returns503() throws Exception {
+            when(imageProcessingService.generateThumbnail(any(), anyInt()))
+                    .thenThrow(new ImageProcessingService.BusyException("Image processing is busy, please retry shortly", 10));
+
+            MockMultipartFile file = new MockMultipartFile("file", "test.png", MediaType.IMAGE_PNG_VALUE, new byte[]{1, 2, 3});
+
+            mockMvc.perform(multipart("/api/reports/image/thumbnail").file(file))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "10"))
+                    .andExpect(jsonPath("$.message").value("Image processing is busy, please retry shortly"));
+        }
+
+        @Test
+        @DisplayName("Should return 400 with the reason for an invalid image")
+        @WithMockUser(username = "admin@mes.com")
+        void resizeImage_InvalidImage_Returns400() throws Exception {
+            when(imageProcessingService.resizeImage(any(), anyInt(), anyInt()))
+                    .thenThrow(new IllegalArgumentException("Image too large: 20000x20000"));
+
+            MockMultipartFile file = new MockMultipartFile("file", "test.png", MediaType.IMAGE_PNG_VALUE, new byte[]{1, 2, 3});
+
+            mockMvc.perform(multipart("/api/reports/image/resize").file(file)
+                            .param("width", "100")
+                            .param("height", "100"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.message").value("Image too large: 20000x20000"));
         }
     }
 
@@ -0,0 +1,35 @@
+package com.mes.production.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the SQL Hibernate prepares on the current thread, so tests can check the statements
+ * repositories actually emit. Enabled per test through hibernate.session_factory.statement_inspector.
+ */
+public class CapturingStatementInspector implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.get().add(sql);
+        return sql;
+    }
+
+    static void clear() {
+        STATEMENTS.get().clear();
+    }
+
+    /**
+     * First captured SELECT reading from the given table
+     */
+    static String selectFrom(String table) {
+        return STATEMENTS.get().stream()
+                .filter(sql -> sql.startsWith("select") && sql.contains(" from " + table + " "))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No select from " + table + " in " + STATEMENTS.get()));
+    }
+}
@@ -0,0 +1,88 @@
+package com.mes.production.repository;
+
+import com.mes.production.config.TestSecurityConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The export streams against the test database: only the filters given reach the SQL.
+ */
+@SpringBootTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.mes.production.repository.CapturingStatementInspector")
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+@Transactional
+class ExportQueryRepositoryTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2026, 3, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2026, 4, 1, 0, 0);
+
+    @Autowired
+    private ExportQueryRepository exportQueryRepository;
+
+    @BeforeEach
+    void setUp() {
+        CapturingStatementInspector.clear();
+    }
+
+    private static List<Object[]> drain(Stream<Object[]> rows) {
+        try (rows) {
+            return rows.toList();
+        }
+    }
+
+    @Test
+    @DisplayName("Should emit no WHERE clause when no filter is given")
+    void streamBatches_NoFilters_NoWhereClause() {
+        drain(exportQueryRepository.streamBatches(null, null, null));
+
+        String sql = CapturingStatementInspector.selectFrom("batches");
+        assertFalse(sql.contains(" where "), sql);
+        assertFalse(sql.contains(" is null"), sql);
+    }
+
+    @Test
+    @DisplayName("Should emit only the status predicate when only a status is given")
+    void streamInventory_StatusOnly_OnlyStatusPredicate() {
+        drain(exportQueryRepository.streamInventory(null, null, "AVAILABLE"));
+
+        String sql = CapturingStatementInspector.selectFrom("inventory");
+        assertTrue(sql.contains(".state=?"), sql);
+        assertFalse(sql.contains(".created_on>=?"), sql);
+        assertFalse(sql.contains(" is null"), sql);
+    }
+
+    @Test
+    @DisplayName("Should emit a half-open time range when both bounds are given")
+    void streamAudit_DateRange_HalfOpenRange() {
+        drain(exportQueryRepository.streamAudit(FROM, TO, null));
+
+        String sql = CapturingStatementInspector.selectFrom("audit_trail");
+        assertTrue(sql.contains(".timestamp>=?"), sql);
+        assertTrue(sql.contains(".timestamp<?"), sql);
+        assertFalse(sql.contains(".action=?"), sql);
+        assertFalse(sql.contains(" is null"), sql);
+    }
+
+    @Test
+    @DisplayName("Should return one row per movement with the selected columns")
+    void streamInventoryMovements_ReturnsExportColumns() {
+        List<Object[]> rows = drain(exportQueryRepository.streamInventoryMovements(FROM, TO, "EXECUTED"));
+
+        rows.forEach(row -> assertEquals(11, row.length));
+        String sql = CapturingStatementInspector.selectFrom("inventory_movement");
+        assertTrue(sql.contains(" order by "), sql);
+    }
+}
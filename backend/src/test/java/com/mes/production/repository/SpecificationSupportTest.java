@@ -0,0 +1,29 @@
+package com.mes.production.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpecificationSupportTest {
+
+    @Test
+    @DisplayName("Should build a trimmed, lowercased contains pattern")
+    void containsPattern_LowercasesAndTrims() {
+        assertEquals("%stl-001%", SpecificationSupport.containsPattern("  STL-001 "));
+    }
+
+    @Test
+    @DisplayName("Should escape LIKE wildcards typed into the search box")
+    void containsPattern_EscapesWildcards() {
+        assertEquals("%50\\%\\_off\\\\x%", SpecificationSupport.containsPattern("50%_off\\x"));
+    }
+
+    @Test
+    @DisplayName("Should treat null and blank filter values as not set")
+    void isSet_BlankIsNotSet() {
+        assertFalse(SpecificationSupport.isSet(null));
+        assertFalse(SpecificationSupport.isSet("  "));
+        assertTrue(SpecificationSupport.isSet("AVAILABLE"));
+    }
+}
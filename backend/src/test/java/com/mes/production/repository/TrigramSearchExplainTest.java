@@ -0,0 +1,138 @@
+package com.mes.production.repository;
+
+import com.mes.production.config.TestSecurityConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.regex.Matcher;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks on the PostgreSQL test database that the SQL the list Specifications produce is
+ * served by the patch 056 trigram indexes.
+ *
+ * The statements are captured from Hibernate (CapturingStatementInspector), with criteria
+ * values rendered inline so they can be explained as they are. The test tables are tiny, so
+ * sequential scans are disabled for the transaction; the plan can then only avoid them through
+ * indexes that actually match the predicates.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.mes.production.repository.CapturingStatementInspector",
+        "spring.jpa.properties.hibernate.criteria.value_handling_mode=inline"
+})
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+@Transactional
+class TrigramSearchExplainTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BatchRepository batchRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private AuditTrailRepository auditTrailRepository;
+
+    @BeforeEach
+    void setUp() {
+        String database = jdbcTemplate.queryForObject("SELECT version()", String.class);
+        assumeTrue(database != null && database.startsWith("PostgreSQL"), "EXPLAIN checks need PostgreSQL");
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+        CapturingStatementInspector.clear();
+    }
+
+    private String explain(String sql) {
+        List<String> lines = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class);
+        return String.join("\n", lines);
+    }
+
+    /**
+     * Substitute bind parameters in order, for statements with JPQL parameters
+     */
+    private static String bind(String sql, Object... values) {
+        String bound = sql;
+        for (Object value : values) {
+            String literal = value instanceof String text ? "'" + text.replace("'", "''") + "'" : String.valueOf(value);
+            bound = bound.replaceFirst("\\?", Matcher.quoteReplacement(literal));
+        }
+        assertFalse(bound.contains("?"), bound);
+        return bound;
+    }
+
+    @Test
+    @DisplayName("Batch search should use the trigram indexes on batch number and material name")
+    void batchSearch_UsesTrigramIndexes() {
+        batchRepository.findAll(BatchSpecifications.withFilters(null, "stl-0"));
+
+        String plan = explain(CapturingStatementInspector.selectFrom("batches"));
+
+        assertTrue(plan.contains("idx_batches_batch_number_trgm"), plan);
+        assertTrue(plan.contains("idx_batches_material_name_trgm"), plan);
+        assertFalse(plan.contains("Seq Scan on batches"), plan);
+    }
+
+    @Test
+    @DisplayName("Inventory search should combine the material trigram indexes and the batch index in one BitmapOr")
+    void inventorySearch_UsesTrigramIndexes() {
+        jdbcTemplate.update("INSERT INTO batches (batch_number, material_id, quantity, unit, status, created_on, created_by) "
+                + "VALUES ('TRGM-SEARCH-1', 'TRGM-MAT', 1, 'KG', 'AVAILABLE', CURRENT_TIMESTAMP, 'test')");
+
+        List<Long> batchIds = InventorySpecifications.batchIdsMatching(batchRepository, "trgm-search");
+        assertEquals(1, batchIds.size());
+        String lookupPlan = explain(bind(CapturingStatementInspector.selectFrom("batches"),
+                "%trgm-search%", InventorySpecifications.MAX_LISTED_BATCH_IDS + 1));
+
+        inventoryRepository.findAll(InventorySpecifications.withFilters(null, null, "trgm-search", batchIds));
+        String sql = CapturingStatementInspector.selectFrom("inventory");
+        String plan = explain(sql);
+
+        assertTrue(lookupPlan.contains("idx_batches_batch_number_trgm"), lookupPlan);
+        assertFalse(sql.contains("batches"), sql);
+        assertTrue(plan.contains("BitmapOr"), plan);
+        assertTrue(plan.contains("idx_inventory_material_id_trgm"), plan);
+        assertTrue(plan.contains("idx_inventory_material_name_trgm"), plan);
+        assertTrue(plan.contains("idx_inventory_batch"), plan);
+        assertFalse(plan.contains("Seq Scan on inventory"), plan);
+    }
+
+    @Test
+    @DisplayName("Order search should use the trigram indexes on order number and customer name")
+    void orderSearch_UsesTrigramIndexes() {
+        orderRepository.findAll(OrderSpecifications.withFilters(null, "ord-1"));
+
+        String plan = explain(CapturingStatementInspector.selectFrom("orders"));
+
+        assertTrue(plan.contains("idx_orders_order_number_trgm"), plan);
+        assertTrue(plan.contains("idx_orders_customer_name_trgm"), plan);
+        assertFalse(plan.contains("Seq Scan on orders"), plan);
+    }
+
+    @Test
+    @DisplayName("Audit search should use the trigram indexes on user and new value")
+    void auditSearch_UsesTrigramIndexes() {
+        auditTrailRepository.findAll(AuditTrailSpecifications.withFilters(null, null, "admin"));
+
+        String plan = explain(CapturingStatementInspector.selectFrom("audit_trail"));
+
+        assertTrue(plan.contains("idx_audit_trail_changed_by_trgm"), plan);
+        assertTrue(plan.contains("idx_audit_trail_new_value_trgm"), plan);
+        assertFalse(plan.contains("Seq Scan on audit_trail"), plan);
+    }
+}
@@ -0,0 +1,132 @@
+package com.mes.production.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JwtPrincipalCacheTest {
+
+    private UserDetailsService userDetailsService;
+    private SimpleMeterRegistry meterRegistry;
+    private JwtPrincipalCache principalCache;
+
+    private final UserDetails admin = new User("admin@mes.com", "hash",
+            List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+
+    @BeforeEach
+    void setUp() {
+        userDetailsService = mock(UserDetailsService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        principalCache = new JwtPrincipalCache(userDetailsService, meterRegistry);
+        principalCache.init();
+        when(userDetailsService.loadUserByUsername("admin@mes.com")).thenReturn(admin);
+    }
+
+    private Claims claims(String subject, String tokenId) {
+        return Jwts.claims()
+                .subject(subject)
+                .id(tokenId)
+                .expiration(new Date(System.currentTimeMillis() + 3_600_000))
+                .build();
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("mes.auth.principal.cache").tag("result", result).counter().count();
+    }
+
+    @Test
+    @DisplayName("Should load a principal once per token and count hits and misses")
+    void getPrincipal_RepeatedToken_LoadsOnce() {
+        Claims token = claims("admin@mes.com", "t1");
+
+        assertSame(admin, principalCache.getPrincipal(token));
+        assertSame(admin, principalCache.getPrincipal(token));
+        assertSame(admin, principalCache.getPrincipal(token));
+
+        verify(userDetailsService, times(1)).loadUserByUsername("admin@mes.com");
+        assertEquals(2.0, count("hit"));
+        assertEquals(1.0, count("miss"));
+        assertEquals(1.0, meterRegistry.get("mes.auth.principal.cache.size").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should reload after the user is invalidated")
+    void invalidate_DropsEveryTokenOfTheUser() {
+        principalCache.getPrincipal(claims("admin@mes.com", "t1"));
+        principalCache.getPrincipal(claims("admin@mes.com", "t2"));
+        assertEquals(2, principalCache.size());
+
+        principalCache.invalidate("admin@mes.com");
+
+        assertEquals(0, principalCache.size());
+        principalCache.getPrincipal(claims("admin@mes.com", "t1"));
+        verify(userDetailsService, times(3)).loadUserByUsername("admin@mes.com");
+    }
+
+    @Test
+    @DisplayName("Should reload once the TTL has passed and stay within the entry bound")
+    void getPrincipal_ExpiredOrEvicted_Reloads() {
+        ReflectionTestUtils.setField(principalCache, "ttlMs", 0L);
+        principalCache.getPrincipal(claims("admin@mes.com", "t1"));
+        principalCache.getPrincipal(claims("admin@mes.com", "t1"));
+        verify(userDetailsService, times(2)).loadUserByUsername("admin@mes.com");
+
+        ReflectionTestUtils.setField(principalCache, "ttlMs", 60_000L);
+        ReflectionTestUtils.setField(principalCache, "maxEntries", 2);
+        for (int i = 0; i < 5; i++) {
+            principalCache.getPrincipal(claims("admin@mes.com", "bulk-" + i));
+        }
+        assertEquals(2, principalCache.size());
+    }
+
+    @Test
+    @DisplayName("Should build the principal from signed claims in stateless mode")
+    void getPrincipal_StatelessMode_NoLookup() {
+        ReflectionTestUtils.setField(principalCache, "stateless", true);
+        Claims token = Jwts.claims()
+                .subject("operator@mes.com")
+                .id("t1")
+                .add(JwtService.ROLES_CLAIM, List.of("ROLE_ADMIN"))
+                .build();
+
+        UserDetails principal = principalCache.getPrincipal(token);
+
+        assertEquals("operator@mes.com", principal.getUsername());
+        assertTrue(principal.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+        assertEquals(1.0, count("stateless"));
+
+        // Tokens issued without the roles claim still use the cache
+        principalCache.getPrincipal(claims("admin@mes.com", "t2"));
+        verify(userDetailsService).loadUserByUsername("admin@mes.com");
+    }
+
+    @Test
+    @DisplayName("Should issue tokens with an id and roles that parse in one pass")
+    void jwtService_TokenCarriesIdAndRoles() {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "jwtSecret",
+                "TUVTX1Rlc3RfSldUX1NlY3JldF9LZXlfMjAyNl9Gb3JfVGVzdGluZ19Pbmx5IQ==");
+        ReflectionTestUtils.setField(jwtService, "jwtExpirationMs", 60_000L);
+
+        Claims claims = jwtService.parseClaims(jwtService.generateToken(admin));
+
+        assertEquals("admin@mes.com", claims.getSubject());
+        assertNotNull(claims.getId());
+        assertEquals(List.of("ROLE_ADMIN"), claims.get(JwtService.ROLES_CLAIM));
+    }
+}
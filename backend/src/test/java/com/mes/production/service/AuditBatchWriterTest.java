@@ -0,0 +1,289 @@
+package com.mes.production.service;
+
+import com.mes.production.entity.AuditTrail;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.Savepoint;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AuditBatchWriterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private Savepoint savepoint;
+
+    private MeterRegistry meterRegistry;
+    private AuditBatchWriter writer;
+    private List<Integer> batchSizes;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        writer = new AuditBatchWriter(jdbcTemplate, meterRegistry);
+        ReflectionTestUtils.setField(writer, "batchSize", 3);
+        ReflectionTestUtils.setField(writer, "queueCapacity", 100);
+        writer.init();
+
+        batchSizes = new ArrayList<>();
+        when(jdbcTemplate.batchUpdate(eq(AuditBatchWriter.INSERT_SQL), anyList(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(i -> {
+                    batchSizes.add(((List<AuditTrail>) i.getArgument(1)).size());
+                    return new int[0][];
+                });
+        // Writes inside a transaction run on its connection
+        when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+                .thenAnswer(i -> ((ConnectionCallback<?>) i.getArgument(0)).doInConnection(connection));
+        when(connection.setSavepoint()).thenReturn(savepoint);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    private AuditTrail entry(long entityId) {
+        return AuditTrail.builder()
+                .entityType("BATCH")
+                .entityId(entityId)
+                .action(AuditTrail.ACTION_CREATE)
+                .changedBy("tester")
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    private void beginTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+
+    private void completeTransaction(int status) {
+        List<TransactionSynchronization> syncs = TransactionSynchronizationManager.getSynchronizations();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            syncs.forEach(s -> s.beforeCommit(false));
+            syncs.forEach(TransactionSynchronization::afterCommit);
+        }
+        syncs.forEach(s -> s.afterCompletion(status));
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+
+    @Test
+    @DisplayName("Should write transactional entries in the transaction just before it commits")
+    void submit_InTransaction_WrittenBeforeCommit() throws Exception {
+        beginTransaction();
+        writer.submit(entry(1L));
+        writer.submit(entry(2L));
+
+        assertEquals(0, writer.getQueueDepth());
+
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        // Durable with the business change, nothing left in memory
+        assertEquals(List.of(2), batchSizes);
+        assertEquals(0, writer.getQueueDepth());
+        verify(connection).releaseSavepoint(savepoint);
+        assertEquals(2.0, counter("mes.audit.entries.written"));
+    }
+
+    @Test
+    @DisplayName("Should drop transactional entries when the transaction rolls back")
+    void submit_InTransaction_RollbackDiscardsEntries() {
+        beginTransaction();
+        writer.submit(entry(1L));
+        writer.submit(entry(2L));
+
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        verifyNoInteractions(jdbcTemplate);
+        assertEquals(2.0, counter("mes.audit.entries.discarded"));
+        assertEquals(0.0, counter("mes.audit.entries.written"));
+    }
+
+    @Test
+    @DisplayName("Should write nothing before commit, then in batches of the batch size")
+    void submit_InTransaction_BatchedAtCommit() {
+        beginTransaction();
+        for (long i = 1; i <= 4; i++) {
+            writer.submit(entry(i));
+        }
+
+        verifyNoInteractions(jdbcTemplate);
+
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(List.of(3, 1), batchSizes);
+        assertEquals(4.0, counter("mes.audit.entries.written"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("Should let the business transaction commit when its audit insert fails")
+    void submit_InTransaction_InsertFailureDoesNotAffectCommit() throws Exception {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataIntegrityViolationException("value too long"));
+        beginTransaction();
+        writer.submit(entry(1L));
+
+        assertDoesNotThrow(() -> completeTransaction(TransactionSynchronization.STATUS_COMMITTED));
+
+        // The batch, then the row on its own, each rolled back to its savepoint
+        verify(connection, times(2)).rollback(savepoint);
+        assertEquals(0, writer.getQueueDepth());
+        assertEquals(1.0, counter("mes.audit.entries.failed"));
+        assertEquals(0.0, counter("mes.audit.entries.discarded"));
+    }
+
+    @Test
+    @DisplayName("Should register one buffer per transaction")
+    void submit_InTransaction_SingleSynchronization() {
+        beginTransaction();
+        writer.submit(entry(1L));
+        writer.submit(entry(2L));
+
+        assertEquals(1, TransactionSynchronizationManager.getSynchronizations().size());
+    }
+
+    @Test
+    @DisplayName("Should queue entries logged outside a transaction and drain them in batches")
+    void submit_NoTransaction_QueuedAndFlushed() {
+        writer.submit(entry(1L));
+        writer.submit(entry(2L));
+
+        assertEquals(2, writer.getQueueDepth());
+        assertEquals(2.0, meterRegistry.get("mes.audit.queue.depth").gauge().value());
+
+        writer.flushQueued();
+
+        assertEquals(List.of(2), batchSizes);
+        assertEquals(0, writer.getQueueDepth());
+        assertEquals(1, meterRegistry.get("mes.audit.flush").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should queue entries logged inside a read-only transaction")
+    void submit_ReadOnlyTransaction_Queued() {
+        beginTransaction();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        writer.submit(entry(1L));
+
+        assertTrue(TransactionSynchronizationManager.getSynchronizations().isEmpty());
+        assertEquals(1, writer.getQueueDepth());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("Should keep queued entries for retry when the database is unavailable")
+    void flushQueued_ConnectionFailure_RequeuesBatch() {
+        writer.submit(entry(1L));
+        writer.submit(entry(2L));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+        writer.flushQueued();
+
+        assertEquals(2, writer.getQueueDepth());
+        assertEquals(0.0, counter("mes.audit.entries.written"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("Should keep a failed batch for retry even when the queue has filled up meanwhile")
+    void flushQueued_ConnectionFailureWithFullQueue_KeepsEveryEntry() {
+        ReflectionTestUtils.setField(writer, "queueCapacity", 2);
+        writer.init();
+        writer.submit(entry(1L));
+        writer.submit(entry(2L));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"))
+                .thenAnswer(i -> {
+                    batchSizes.add(((List<AuditTrail>) i.getArgument(1)).size());
+                    return new int[0][];
+                });
+
+        writer.flushQueued();
+        writer.submit(entry(3L));
+        writer.submit(entry(4L));
+        // Queue full and the synchronous write fails too: kept with the retry batch
+        writer.submit(entry(5L));
+
+        assertEquals(5, writer.getQueueDepth());
+
+        writer.flushQueued();
+
+        assertEquals(0, writer.getQueueDepth());
+        assertEquals(5.0, counter("mes.audit.entries.written"));
+        assertEquals(0.0, counter("mes.audit.entries.failed"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("Should fall back to row-by-row when a batch violates a constraint")
+    void flushQueued_ConstraintViolation_SkipsOnlyBadEntry() {
+        writer.submit(entry(1L));
+        writer.submit(entry(2L));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataIntegrityViolationException("bad row"))
+                .thenThrow(new DataIntegrityViolationException("bad row"))
+                .thenReturn(new int[0][]);
+
+        writer.flushQueued();
+
+        assertEquals(0, writer.getQueueDepth());
+        assertEquals(1.0, counter("mes.audit.entries.written"));
+        assertEquals(1.0, counter("mes.audit.entries.failed"));
+    }
+
+    @Test
+    @DisplayName("Should skip entries missing required columns")
+    void submit_IncompleteEntry_Skipped() {
+        AuditTrail incomplete = entry(1L);
+        incomplete.setEntityId(null);
+
+        writer.submit(incomplete);
+
+        assertEquals(0, writer.getQueueDepth());
+        assertEquals(1.0, counter("mes.audit.entries.failed"));
+    }
+}
@@ -1,5 +1,6 @@
 package com.mes.production.service;
 
+import com.mes.production.dto.PageRequestDTO;
 import com.mes.production.entity.AuditTrail;
 import com.mes.production.repository.AuditTrailRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,6 +15,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 
@@ -31,6 +33,12 @@ class AuditServiceTest {
     @Mock
     private AuditTrailRepository auditTrailRepository;
 
+    @Mock
+    private AuditBatchWriter auditBatchWriter;
+
+    @Mock
+    private KeysetPaginator keysetPaginator;
+
     @InjectMocks
     private AuditService auditService;
 
@@ -45,15 +53,12 @@ class AuditServiceTest {
     @Test
     @DisplayName("Should create audit entry for CREATE action")
     void logCreate_CreatesAuditEntry() {
-        // Arrange
-        when(auditTrailRepository.save(any(AuditTrail.class))).thenAnswer(i -> i.getArgument(0));
-
         // Act
         auditService.logCreate("BATCH", 1L, "Created new batch");
 
         // Assert
         ArgumentCaptor<AuditTrail> captor = ArgumentCaptor.forClass(AuditTrail.class);
-        verify(auditTrailRepository).save(captor.capture());
+        verify(auditBatchWriter).submit(captor.capture());
 
         AuditTrail captured = captor.getValue();
         assertEquals("BATCH", captured.getEntityType());
@@ -66,15 +71,12 @@ class AuditServiceTest {
     @Test
     @DisplayName("Should create audit entry for STATUS_CHANGE action")
     void logStatusChange_CreatesAuditEntry() {
-        // Arrange
-        when(auditTrailRepository.save(any(AuditTrail.class))).thenAnswer(i -> i.getArgument(0));
-
         // Act
         auditService.logStatusChange("OPERATION", 2L, "READY", "CONFIRMED");
 
         // Assert
         ArgumentCaptor<AuditTrail> captor = ArgumentCaptor.forClass(AuditTrail.class);
-        verify(auditTrailRepository).save(captor.capture());
+        verify(auditBatchWriter).submit(captor.capture());
 
         AuditTrail captured = captor.getValue();
         assertEquals("OPERATION", captured.getEntityType());
@@ -88,15 +90,12 @@ class AuditServiceTest {
     @Test
     @DisplayName("Should create audit entry for CONSUME action")
     void logConsume_CreatesAuditEntry() {
-        // Arrange
-        when(auditTrailRepository.save(any(AuditTrail.class))).thenAnswer(i -> i.getArgument(0));
-
         // Act
         auditService.logConsume("INVENTORY", 3L, "Consumed 100 units");
 
         // Assert
         ArgumentCaptor<AuditTrail> captor = ArgumentCaptor.forClass(AuditTrail.class);
-        verify(auditTrailRepository).save(captor.capture());
+        verify(auditBatchWriter).submit(captor.capture());
 
         AuditTrail captured = captor.getValue();
         assertEquals("INVENTORY", captured.getEntityType());
@@ -106,15 +105,12 @@ class AuditServiceTest {
     @Test
     @DisplayName("Should create audit entry for PRODUCE action")
     void logProduce_CreatesAuditEntry() {
-        // Arrange
-        when(auditTrailRepository.save(any(AuditTrail.class))).thenAnswer(i -> i.getArgument(0));
-
         // Act
         auditService.logProduce("BATCH", 4L, "Produced 500 units");
 
         // Assert
         ArgumentCaptor<AuditTrail> captor = ArgumentCaptor.forClass(AuditTrail.class);
-        verify(auditTrailRepository).save(captor.capture());
+        verify(auditBatchWriter).submit(captor.capture());
 
         AuditTrail captured = captor.getValue();
         assertEquals("BATCH", captured.getEntityType());
@@ -124,15 +120,12 @@ class AuditServiceTest {
     @Test
     @DisplayName("Should create audit entry for HOLD action")
     void logHold_CreatesAuditEntry() {
-        // Arrange
-        when(auditTrailRepository.save(any(AuditTrail.class))).thenAnswer(i -> i.getArgument(0));
-
         // Act
         auditService.logHold("BATCH", 5L, "Quality issue");
 
         // Assert
         ArgumentCaptor<AuditTrail> captor = ArgumentCaptor.forClass(AuditTrail.class);
-        verify(auditTrailRepository).save(captor.capture());
+        verify(auditBatchWriter).submit(captor.capture());
 
         AuditTrail captured = captor.getValue();
         assertEquals("BATCH", captured.getEntityType());
@@ -142,15 +135,12 @@ class AuditServiceTest {
     @Test
     @DisplayName("Should create audit entry for RELEASE action")
     void logRelease_CreatesAuditEntry() {
-        // Arrange
-        when(auditTrailRepository.save(any(AuditTrail.class))).thenAnswer(i -> i.getArgument(0));
-
         // Act
         auditService.logRelease("BATCH", 6L, "Issue resolved");
 
         // Assert
         ArgumentCaptor<AuditTrail> captor = ArgumentCaptor.forClass(AuditTrail.class);
-        verify(auditTrailRepository).save(captor.capture());
+        verify(auditBatchWriter).submit(captor.capture());
 
         AuditTrail captured = captor.getValue();
         assertEquals("BATCH", captured.getEntityType());
@@ -211,24 +201,23 @@ class AuditServiceTest {
     void logCreate_NoAuthContext_UsesSystemUser() {
         // Arrange
         SecurityContextHolder.clearContext();
-        when(auditTrailRepository.save(any(AuditTrail.class))).thenAnswer(i -> i.getArgument(0));
 
         // Act
         auditService.logCreate("BATCH", 1L, "System action");
 
         // Assert
         ArgumentCaptor<AuditTrail> captor = ArgumentCaptor.forClass(AuditTrail.class);
-        verify(auditTrailRepository).save(captor.capture());
+        verify(auditBatchWriter).submit(captor.capture());
 
         AuditTrail captured = captor.getValue();
         assertEquals("SYSTEM", captured.getChangedBy());
     }
 
     @Test
-    @DisplayName("Should handle repository exception gracefully")
-    void logCreate_RepositoryException_LogsError() {
+    @DisplayName("Should handle writer exception gracefully")
+    void logCreate_WriterException_LogsError() {
         // Arrange
-        when(auditTrailRepository.save(any(AuditTrail.class))).thenThrow(new RuntimeException("DB error"));
+        doThrow(new RuntimeException("DB error")).when(auditBatchWriter).submit(any(AuditTrail.class));
 
         // Act - should not throw
         assertDoesNotThrow(() -> auditService.logCreate("BATCH", 1L, "Test"));
@@ -262,14 +251,14 @@ class AuditServiceTest {
                 AuditTrail.builder().auditId(1L).entityType("BATCH").action("CREATE").build()
         );
         Page<AuditTrail> mockPage = new PageImpl<>(entries, PageRequest.of(0, 20), 1);
-        when(auditTrailRepository.findByFilters(eq("BATCH"), isNull(), isNull(), any(Pageable.class))).thenReturn(mockPage);
+        when(auditTrailRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(mockPage);
 
         // Act
         Page<AuditTrail> result = auditService.getPagedAudit(0, 20, "BATCH", null, null);
 
         // Assert
         assertEquals(1, result.getTotalElements());
-        verify(auditTrailRepository).findByFilters(eq("BATCH"), isNull(), isNull(), any(Pageable.class));
+        verify(auditTrailRepository).findAll(any(Specification.class), any(Pageable.class));
     }
 
     @Test
@@ -280,14 +269,14 @@ class AuditServiceTest {
                 AuditTrail.builder().auditId(1L).entityType("BATCH").action("CREATE").build()
         );
         Page<AuditTrail> mockPage = new PageImpl<>(entries, PageRequest.of(0, 20), 1);
-        when(auditTrailRepository.findByFilters(isNull(), eq("CREATE"), isNull(), any(Pageable.class))).thenReturn(mockPage);
+        when(auditTrailRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(mockPage);
 
         // Act
         Page<AuditTrail> result = auditService.getPagedAudit(0, 20, null, "CREATE", null);
 
         // Assert
         assertEquals(1, result.getTotalElements());
-        verify(auditTrailRepository).findByFilters(isNull(), eq("CREATE"), isNull(), any(Pageable.class));
+        verify(auditTrailRepository).findAll(any(Specification.class), any(Pageable.class));
     }
 
     @Test
@@ -298,14 +287,14 @@ class AuditServiceTest {
                 AuditTrail.builder().auditId(1L).entityType("BATCH").action("CREATE").changedBy("admin").build()
         );
         Page<AuditTrail> mockPage = new PageImpl<>(entries, PageRequest.of(0, 20), 1);
-        when(auditTrailRepository.findByFilters(isNull(), isNull(), eq("admin"), any(Pageable.class))).thenReturn(mockPage);
+        when(auditTrailRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(mockPage);
 
         // Act
         Page<AuditTrail> result = auditService.getPagedAudit(0, 20, null, null, "admin");
 
         // Assert
         assertEquals(1, result.getTotalElements());
-        verify(auditTrailRepository).findByFilters(isNull(), isNull(), eq("admin"), any(Pageable.class));
+        verify(auditTrailRepository).findAll(any(Specification.class), any(Pageable.class));
     }
 
     @Test
@@ -316,14 +305,14 @@ class AuditServiceTest {
                 AuditTrail.builder().auditId(1L).entityType("BATCH").action("CREATE").changedBy("admin").build()
         );
         Page<AuditTrail> mockPage = new PageImpl<>(entries, PageRequest.of(0, 20), 1);
-        when(auditTrailRepository.findByFilters(eq("BATCH"), eq("CREATE"), eq("admin"), any(Pageable.class))).thenReturn(mockPage);
+        when(auditTrailRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(mockPage);
 
         // Act
         Page<AuditTrail> result = auditService.getPagedAudit(0, 20, "BATCH", "CREATE", "admin");
 
         // Assert
         assertEquals(1, result.getTotalElements());
-        verify(auditTrailRepository).findByFilters(eq("BATCH"), eq("CREATE"), eq("admin"), any(Pageable.class));
+        verify(auditTrailRepository).findAll(any(Specification.class), any(Pageable.class));
     }
 
     @Test
@@ -341,4 +330,45 @@ class AuditServiceTest {
         verify(auditTrailRepository).findAllByOrderByTimestampDesc(captor.capture());
         assertEquals(100, captor.getValue().getPageSize());
     }
+
+    @Test
+    @DisplayName("Should page audit entries by cursor, newest first, without counting by default")
+    void getPagedAuditByCursor_SeeksNewestFirst() {
+        // Arrange
+        KeysetPaginator.KeysetPage<AuditTrail> page = new KeysetPaginator.KeysetPage<>(
+                List.of(AuditTrail.builder().auditId(9L).build()), "timestamp", "next", null, PageRequestDTO.TOTAL_NONE);
+        when(keysetPaginator.fetch(eq(AuditService.KEYSET), isNull(), any(PageRequestDTO.class))).thenReturn(page);
+
+        // Act
+        KeysetPaginator.KeysetPage<AuditTrail> result = auditService.getPagedAuditByCursor(
+                PageRequestDTO.builder().cursor("").size(500).build(), null, null);
+
+        // Assert
+        assertSame(page, result);
+        ArgumentCaptor<PageRequestDTO> captor = ArgumentCaptor.forClass(PageRequestDTO.class);
+        verify(keysetPaginator).fetch(eq(AuditService.KEYSET), isNull(), captor.capture());
+        assertEquals("timestamp", captor.getValue().getSortBy());
+        assertEquals("DESC", captor.getValue().getSortDirection());
+        assertEquals("", captor.getValue().getCursor());
+        assertEquals(100, captor.getValue().getSize());
+        assertEquals(PageRequestDTO.TOTAL_NONE, captor.getValue().getTotal());
+        verifyNoInteractions(auditTrailRepository);
+    }
+
+    @Test
+    @DisplayName("Should pass active audit filters to the cursor query")
+    void getPagedAuditByCursor_WithFilters_PassesSpecification() {
+        // Arrange
+        when(keysetPaginator.fetch(eq(AuditService.KEYSET), notNull(), any(PageRequestDTO.class)))
+                .thenReturn(new KeysetPaginator.KeysetPage<>(List.of(), "timestamp", null, 0L, PageRequestDTO.TOTAL_EXACT));
+
+        // Act
+        KeysetPaginator.KeysetPage<AuditTrail> result =
+                auditService.getPagedAuditByCursor(
+                        PageRequestDTO.builder().cursor("").size(20).total("exact").build(), "BATCH", null);
+
+        // Assert
+        assertNull(result.nextCursor());
+        assertEquals(0L, result.total());
+    }
 }
@@ -0,0 +1,94 @@
+package com.mes.production.service;
+
+import com.mes.production.config.TestSecurityConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Audit writes against the test database with real commits: entries are written with the
+ * business transaction, and a failing audit insert must not touch the change it was logged in.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class AuditTransactionIsolationTest {
+
+    private static final String BATCH_NUMBER = "AUDIT-ISOLATION-1";
+
+    @Autowired
+    private AuditService auditService;
+
+    @Autowired
+    private AuditBatchWriter auditBatchWriter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM batches WHERE batch_number = ?", BATCH_NUMBER);
+    }
+
+    @Test
+    @DisplayName("Should commit the business change when its audit entry cannot be inserted")
+    void failingAuditInsert_BusinessTransactionCommits() {
+        double failedBefore = meterRegistry.get("mes.audit.entries.failed").counter().count();
+
+        Long batchId = new TransactionTemplate(transactionManager).execute(status -> {
+            Long id = jdbcTemplate.queryForObject("INSERT INTO batches "
+                    + "(batch_number, material_id, quantity, unit, status, created_on, created_by) "
+                    + "VALUES (?, 'AUDIT-MAT', 1, 'KG', 'AVAILABLE', CURRENT_TIMESTAMP, 'test') RETURNING batch_id",
+                    Long.class, BATCH_NUMBER);
+            // action is VARCHAR(30): this row is rejected by the database
+            auditService.createAuditEntry("BATCH", id, null, null, "created", "X".repeat(40));
+            return id;
+        });
+
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM batches WHERE batch_id = ?", Integer.class, batchId));
+
+        assertDoesNotThrow(() -> auditBatchWriter.flushQueued());
+        assertEquals(failedBefore + 1, meterRegistry.get("mes.audit.entries.failed").counter().count());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM audit_trail WHERE entity_type = 'BATCH' AND entity_id = ?", Integer.class, batchId));
+    }
+
+    @Test
+    @DisplayName("Should have the audit entries in audit_trail as soon as the business transaction commits")
+    void committedTransaction_AuditRowsWrittenWithIt() {
+        Long batchId = new TransactionTemplate(transactionManager).execute(status -> {
+            Long id = jdbcTemplate.queryForObject("INSERT INTO batches "
+                    + "(batch_number, material_id, quantity, unit, status, created_on, created_by) "
+                    + "VALUES (?, 'AUDIT-MAT', 1, 'KG', 'AVAILABLE', CURRENT_TIMESTAMP, 'test') RETURNING batch_id",
+                    Long.class, BATCH_NUMBER);
+            auditService.createAuditEntry("BATCH", id, null, null, "created", "CREATE");
+            auditService.createAuditEntry("BATCH", id, "status", null, "AVAILABLE", "X".repeat(40));
+            return id;
+        });
+
+        try {
+            // No flush needed: the valid entry committed with the batch, the rejected one alone was skipped
+            assertEquals(1, jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM audit_trail WHERE entity_type = 'BATCH' AND entity_id = ?", Integer.class, batchId));
+        } finally {
+            jdbcTemplate.update("DELETE FROM audit_trail WHERE entity_type = 'BATCH' AND entity_id = ?", batchId);
+        }
+    }
+}
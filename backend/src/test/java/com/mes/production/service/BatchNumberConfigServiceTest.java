@@ -41,6 +41,9 @@ class BatchNumberConfigServiceTest {
     @Mock
     private AuditTrailRepository auditTrailRepository;
 
+    @Mock
+    private BatchNumberService batchNumberService;
+
     @InjectMocks
     private BatchNumberConfigService service;
 
@@ -182,6 +185,7 @@ class BatchNumberConfigServiceTest {
             assertEquals("FURNACE_OPERATION", result.getConfigName());
             verify(repository).save(any(BatchNumberConfig.class));
             verify(auditTrailRepository).save(any());
+            verify(batchNumberService).invalidateConfigCache();
         }
 
         @Test
@@ -195,6 +199,7 @@ class BatchNumberConfigServiceTest {
 
             assertTrue(exception.getMessage().contains("already exists"));
             verify(repository, never()).save(any(BatchNumberConfig.class));
+            verify(batchNumberService, never()).invalidateConfigCache();
         }
     }
 
@@ -216,6 +221,7 @@ class BatchNumberConfigServiceTest {
             assertNotNull(result);
             assertEquals("FRN", result.getPrefix());
             verify(repository).save(any(BatchNumberConfig.class));
+            verify(batchNumberService).invalidateConfigCache();
         }
 
         @Test
@@ -263,6 +269,7 @@ class BatchNumberConfigServiceTest {
                     BatchNumberConfig.STATUS_INACTIVE.equals(config.getStatus())
             ));
             verify(auditTrailRepository).save(any());
+            verify(batchNumberService).invalidateConfigCache();
         }
 
         @Test
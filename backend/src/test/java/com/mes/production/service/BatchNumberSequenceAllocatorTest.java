@@ -0,0 +1,177 @@
+package com.mes.production.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BatchNumberSequenceAllocatorTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BatchNumberSequenceAllocator allocator;
+
+    /** Simulated batch_number_sequence.current_value for one key */
+    private final AtomicLong currentValue = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        allocator = new BatchNumberSequenceAllocator(jdbcTemplate, transactionManager);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        // UPDATE ... SET current_value = current_value + ? -> 0 rows until the INSERT happened
+        when(jdbcTemplate.update(contains("UPDATE batch_number_sequence"), anyInt(), anyLong(), anyString()))
+                .thenAnswer(i -> {
+                    if (currentValue.get() == 0) return 0;
+                    currentValue.addAndGet(i.<Integer>getArgument(1));
+                    return 1;
+                });
+        when(jdbcTemplate.update(contains("INSERT INTO batch_number_sequence"), anyLong(), anyString(), anyInt()))
+                .thenAnswer(i -> {
+                    currentValue.set(i.<Integer>getArgument(3));
+                    return 1;
+                });
+        when(jdbcTemplate.queryForObject(contains("SELECT current_value"), eq(Long.class), anyLong(), anyString()))
+                .thenAnswer(i -> currentValue.get());
+    }
+
+    @Test
+    @DisplayName("Should reserve a block once and serve later numbers from memory")
+    void allocate_WithinBlock_NoFurtherDatabaseCalls() {
+        assertEquals(1, allocator.allocate(1L, "BATCH-20260101", 10, 1));
+        assertEquals(2, allocator.allocate(1L, "BATCH-20260101", 10, 1));
+        assertEquals(3, allocator.allocate(1L, "BATCH-20260101", 10, 1));
+
+        verify(jdbcTemplate, times(1)).update(contains("INSERT INTO batch_number_sequence"), anyLong(), anyString(), anyInt());
+        verify(transactionManager, times(1)).getTransaction(any());
+        assertEquals(10, currentValue.get());
+    }
+
+    @Test
+    @DisplayName("Should reserve the next block when the current one is used up")
+    void allocate_BlockExhausted_ReservesNextBlock() {
+        for (int i = 1; i <= 10; i++) {
+            assertEquals(i, allocator.allocate(1L, "KEY", 10, 1));
+        }
+
+        assertEquals(11, allocator.allocate(1L, "KEY", 10, 1));
+        assertEquals(20, currentValue.get());
+        verify(transactionManager, times(2)).getTransaction(any());
+    }
+
+    @Test
+    @DisplayName("Should hand out N consecutive numbers in one call")
+    void allocate_MultipleNumbers_Consecutive() {
+        assertEquals(1, allocator.allocate(1L, "KEY", 10, 4));
+        assertEquals(5, allocator.allocate(1L, "KEY", 10, 4));
+        // Only 2 left in the block: skip them (gap) and take from a fresh block
+        assertEquals(11, allocator.allocate(1L, "KEY", 10, 4));
+    }
+
+    @Test
+    @DisplayName("Should reserve a larger block when more numbers are requested than the block size")
+    void allocate_CountAboveBlockSize_ReservesEnough() {
+        assertEquals(1, allocator.allocate(1L, "KEY", 5, 8));
+        assertEquals(8, currentValue.get());
+    }
+
+    @Test
+    @DisplayName("Should start a new sequence when the reset period rolls over, keeping the previous key's block")
+    void allocate_NewSequenceKey_StartsFromOne() {
+        allocator.allocate(1L, "BATCH-20260101", 10, 1);
+        currentValue.set(0);
+
+        assertEquals(1, allocator.allocate(1L, "BATCH-20260102", 10, 1));
+        assertEquals(2, allocator.peek(1L, "BATCH-20260102").getAsLong());
+        // A back-dated receipt still draws from the older key's block
+        assertEquals(2, allocator.allocate(1L, "BATCH-20260101", 10, 1));
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used key beyond the per-config limit and return its unused values")
+    void allocate_TooManyKeys_EvictsLeastRecentlyUsedAndReturnsRange() {
+        when(jdbcTemplate.update(contains("AND current_value = ?"), anyLong(), anyLong(), anyString(), anyLong()))
+                .thenReturn(1);
+        for (int day = 1; day <= BatchNumberSequenceAllocator.MAX_KEYS_PER_CONFIG; day++) {
+            currentValue.set(0);
+            allocator.allocate(1L, "RM-202601" + day, 10, 1);
+        }
+        // Keep the first key in use so the second is the least recently used
+        allocator.allocate(1L, "RM-2026011", 10, 1);
+
+        currentValue.set(0);
+        allocator.allocate(1L, "RM-2026019", 10, 1);
+
+        assertTrue(allocator.peek(1L, "RM-2026012").isEmpty());
+        assertEquals(3, allocator.peek(1L, "RM-2026011").getAsLong());
+        // Values 2..10 of the evicted block go back if the sequence still ends at 10
+        verify(jdbcTemplate).update(contains("AND current_value = ?"), eq(1L), eq(1L), eq("RM-2026012"), eq(10L));
+        // Other configs keep their own keys
+        allocator.allocate(2L, "RM-2026011", 10, 1);
+        assertEquals(3, allocator.peek(1L, "RM-2026011").getAsLong());
+    }
+
+    @Test
+    @DisplayName("Should retry when another node creates the sequence row first")
+    void allocate_ConcurrentInsert_RetriesWithUpdate() {
+        when(jdbcTemplate.update(contains("INSERT INTO batch_number_sequence"), anyLong(), anyString(), anyInt()))
+                .thenAnswer(i -> {
+                    // The other node inserted its block of 10 first
+                    currentValue.set(10);
+                    throw new DuplicateKeyException("duplicate key");
+                });
+
+        assertEquals(11, allocator.allocate(1L, "KEY", 10, 1));
+        assertEquals(20, currentValue.get());
+    }
+
+    @Test
+    @DisplayName("Should never hand out the same number twice under concurrency")
+    void allocate_Concurrent_AllUnique() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+        try {
+            List<Future<?>> futures = new java.util.ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 250; i++) {
+                        assertTrue(seen.add(allocator.allocate(1L, "KEY", 16, 1)));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(2000, seen.size());
+    }
+}
@@ -10,6 +10,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -28,6 +29,9 @@ class BatchNumberServiceTest {
     @Mock
     private JdbcTemplate jdbcTemplate;
 
+    @Mock
+    private BatchNumberSequenceAllocator sequenceAllocator;
+
     @InjectMocks
     private BatchNumberService batchNumberService;
 
@@ -461,4 +465,149 @@ class BatchNumberServiceTest {
         assertTrue(result.contains("VERYLONGSUPPLIE")); // First 15 chars only
         assertFalse(result.contains("RLOTNUM")); // Rest truncated
     }
+
+    @Test
+    @DisplayName("Should take several gap-free sequence numbers with one row update")
+    void generateBatchNumbers_GapFree_SingleUpdateForAllNumbers() {
+        // Arrange
+        Map<String, Object> existingSeq = new HashMap<>();
+        existingSeq.put("current_value", 5);
+        doReturn(configList).when(jdbcTemplate).queryForList(anyString(), eq("FURNACE"), isNull(), eq("STEEL-001"));
+        doReturn(List.of(existingSeq)).when(jdbcTemplate).queryForList(anyString(), eq(1L), anyString());
+
+        // Act
+        List<String> result = batchNumberService.generateBatchNumbers("FURNACE", "STEEL-001", 3);
+
+        // Assert
+        assertEquals(3, result.size());
+        assertTrue(result.get(0).endsWith("-0006"));
+        assertTrue(result.get(1).endsWith("-0007"));
+        assertTrue(result.get(2).endsWith("-0008"));
+        verify(jdbcTemplate, times(1)).update(anyString(), eq(8), eq(1L), anyString());
+        verifyNoInteractions(sequenceAllocator);
+    }
+
+    @Test
+    @DisplayName("Should serve numbers from the node's reserved block when the config allows gaps")
+    void generateBatchNumbers_BlockSizeConfigured_UsesAllocator() {
+        // Arrange
+        testConfig.put("sequence_block_size", 50);
+        doReturn(configList).when(jdbcTemplate).queryForList(anyString(), eq("FURNACE"), isNull(), eq("STEEL-001"));
+        String expectedKey = "BATCH-" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
+        when(sequenceAllocator.allocate(1L, expectedKey, 50, 2)).thenReturn(41L);
+
+        // Act
+        List<String> result = batchNumberService.generateBatchNumbers("FURNACE", "STEEL-001", 2);
+
+        // Assert
+        assertTrue(result.get(0).endsWith("-0041"));
+        assertTrue(result.get(1).endsWith("-0042"));
+        verify(jdbcTemplate, never()).queryForList(contains("FOR UPDATE"), any(), any());
+        verify(jdbcTemplate, never()).update(anyString(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should generate fallback split numbers for the requested indexes")
+    void generateSplitBatchNumbers_NoConfig_ReturnsFallbacks() {
+        // Act
+        List<String> result = batchNumberService.generateSplitBatchNumbers("BATCH-001", List.of(1, 3));
+
+        // Assert
+        assertEquals(List.of("BATCH-001-S01", "BATCH-001-S03"), result);
+    }
+
+    @Test
+    @DisplayName("Should generate configured split numbers with one sequence allocation")
+    void generateSplitBatchNumbers_WithConfig_AllocatesOnce() {
+        // Arrange
+        doReturn(configList).when(jdbcTemplate).queryForList(anyString(), eq("SPLIT"), isNull(), isNull());
+        doReturn(List.of()).when(jdbcTemplate).queryForList(anyString(), eq(1L), anyString());
+
+        // Act
+        List<String> result = batchNumberService.generateSplitBatchNumbers("BATCH-001", List.of(1, 2));
+
+        // Assert
+        assertEquals(2, result.size());
+        assertTrue(result.get(0).endsWith("-0001-01"));
+        assertTrue(result.get(1).endsWith("-0002-02"));
+        verify(jdbcTemplate, times(1)).queryForList(contains("FOR UPDATE"), eq(1L), anyString());
+    }
+
+    @Test
+    @DisplayName("Should read the matching config once and reuse the compiled plan")
+    void generateBatchNumber_RepeatedCalls_ConfigQueriedOnce() {
+        // Arrange
+        doReturn(configList).when(jdbcTemplate).queryForList(contains("FROM batch_number_config"), eq("FURNACE"), isNull(), eq("STEEL-001"));
+        doReturn(List.of()).when(jdbcTemplate).queryForList(anyString(), eq(1L), anyString());
+
+        // Act
+        batchNumberService.generateBatchNumber("FURNACE", "STEEL-001");
+        batchNumberService.generateBatchNumber("FURNACE", "STEEL-001");
+        batchNumberService.previewBatchNumber("FURNACE", "STEEL-001");
+
+        // Assert
+        verify(jdbcTemplate, times(1)).queryForList(contains("FROM batch_number_config"), eq("FURNACE"), isNull(), eq("STEEL-001"));
+        verify(jdbcTemplate, times(2)).queryForList(contains("FOR UPDATE"), eq(1L), anyString());
+    }
+
+    @Test
+    @DisplayName("Should remember that no config matches and keep using the fallback")
+    void generateBatchNumber_NoConfig_MissCached() {
+        // Act
+        batchNumberService.generateBatchNumber("ROLLING", "STEEL-001");
+        String result = batchNumberService.generateBatchNumber("ROLLING", "STEEL-001");
+
+        // Assert
+        assertTrue(result.startsWith("BATCH-RO-"));
+        verify(jdbcTemplate, times(1)).queryForList(contains("FROM batch_number_config"), eq("ROLLING"), isNull(), eq("STEEL-001"));
+    }
+
+    @Test
+    @DisplayName("Should pick up a changed config after the cache is invalidated")
+    void invalidateConfigCache_ReloadsChangedConfig() {
+        // Arrange
+        doReturn(configList).when(jdbcTemplate).queryForList(contains("FROM batch_number_config"), eq("FURNACE"), isNull(), eq("STEEL-001"));
+        doReturn(List.of()).when(jdbcTemplate).queryForList(anyString(), eq(1L), anyString());
+        assertTrue(batchNumberService.generateBatchNumber("FURNACE", "STEEL-001").startsWith("BATCH-FUR-"));
+
+        Map<String, Object> changed = new HashMap<>(testConfig);
+        changed.put("prefix", "HEAT");
+        doReturn(List.of(changed)).when(jdbcTemplate).queryForList(contains("FROM batch_number_config"), eq("FURNACE"), isNull(), eq("STEEL-001"));
+
+        // Act
+        String cached = batchNumberService.generateBatchNumber("FURNACE", "STEEL-001");
+        batchNumberService.invalidateConfigCache();
+        String reloaded = batchNumberService.generateBatchNumber("FURNACE", "STEEL-001");
+
+        // Assert
+        assertTrue(cached.startsWith("BATCH-FUR-"));
+        assertTrue(reloaded.startsWith("HEAT-FUR-"));
+    }
+
+    @Test
+    @DisplayName("Should re-read configs once the cache TTL has passed")
+    void generateBatchNumber_CacheExpired_ReloadsConfig() {
+        // Arrange
+        ReflectionTestUtils.setField(batchNumberService, "configCacheTtlMs", 1L);
+        ReflectionTestUtils.setField(batchNumberService, "cacheStartedAt", 0L);
+
+        // Act
+        batchNumberService.generateBatchNumber("ROLLING", "STEEL-001");
+        ReflectionTestUtils.setField(batchNumberService, "cacheStartedAt", 0L);
+        batchNumberService.generateBatchNumber("ROLLING", "STEEL-001");
+
+        // Assert
+        verify(jdbcTemplate, times(2)).queryForList(contains("FROM batch_number_config"), eq("ROLLING"), isNull(), eq("STEEL-001"));
+    }
+
+    @Test
+    @DisplayName("Should zero-pad sequences like the %0Nd format")
+    void formatPlan_PadSequence_MatchesStringFormat() {
+        BatchNumberService.FormatPlan plan = new BatchNumberService.FormatPlan(1L, "Test", "B", false, 0, "-",
+                null, 4, "DAILY", 1);
+
+        assertEquals("0007", plan.padSequence(7));
+        assertEquals("1234", plan.padSequence(1234));
+        assertEquals("12345", plan.padSequence(12345));
+    }
 }
@@ -78,6 +78,15 @@ class BatchServiceComprehensiveTest {
     @Mock
     private BatchNumberService batchNumberService;
 
+    @Mock
+    private GenealogyIndexService genealogyIndexService;
+
+    @Mock
+    private DashboardService dashboardService;
+
+    @Mock
+    private LiveEventService liveEventService;
+
     @InjectMocks
     private BatchService batchService;
 
@@ -97,6 +106,11 @@ class BatchServiceComprehensiveTest {
                 .createdOn(LocalDateTime.now())
                 .build();
 
+        when(batchNumberService.generateSplitBatchNumbers(any(), anyList())).thenAnswer(i -> {
+            List<Integer> indexes = i.getArgument(1);
+            return indexes.stream().map(idx -> String.format("SPLIT-%02d", idx)).toList();
+        });
+
         mockSecurityContext();
     }
 
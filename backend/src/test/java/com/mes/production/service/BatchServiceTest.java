@@ -48,6 +48,15 @@ class BatchServiceTest {
     @Mock
     private BatchNumberService batchNumberService;
 
+    @Mock
+    private GenealogyIndexService genealogyIndexService;
+
+    @Mock
+    private DashboardService dashboardService;
+
+    @Mock
+    private LiveEventService liveEventService;
+
     @InjectMocks
     private BatchService batchService;
 
@@ -358,6 +367,7 @@ class BatchServiceTest {
 
         verify(batchRepository, times(3)).save(any(Batch.class)); // 2 new + 1 update
         verify(batchRelationRepository, times(2)).save(any(BatchRelation.class));
+        verify(genealogyIndexService, times(2)).relationsCreated(anyList());
     }
 
     @Test
@@ -478,6 +488,7 @@ class BatchServiceTest {
 
         verify(batchRepository, times(3)).save(any(Batch.class)); // 1 merged + 2 source updates
         verify(batchRelationRepository, times(2)).save(any(BatchRelation.class));
+        verify(genealogyIndexService, times(2)).relationsCreated(anyList());
     }
 
     @Test
@@ -49,6 +49,17 @@ class BatchSizeServiceTest {
 
     // ========== calculateBatchSizes Tests ==========
 
+    @Test
+    @DisplayName("Should split using a preloaded config without querying")
+    void should_splitWithPreloadedConfig_when_configPassedIn() {
+        BatchSizeService.BatchSizeResult result = batchSizeService.calculateBatchSizes(
+                new BigDecimal("250"), Optional.of(defaultConfig));
+
+        assertEquals(3, result.batchCount());
+        assertEquals(defaultConfig, result.configUsed());
+        verifyNoInteractions(configRepository);
+    }
+
     @Test
     @DisplayName("Should return single batch when no config is found")
     void should_returnSingleBatch_when_noConfigFound() {
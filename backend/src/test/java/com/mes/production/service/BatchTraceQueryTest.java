@@ -0,0 +1,94 @@
+package com.mes.production.service;
+
+import com.mes.production.config.TestSecurityConfig;
+import com.mes.production.dto.BatchDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The trace query against the test database, on genealogies where the number of paths
+ * explodes but the number of relations does not.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+@Transactional
+class BatchTraceQueryTest {
+
+    private static final int LEVELS = 40;
+
+    @Autowired
+    private BatchTraceService batchTraceService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long insertBatch(String batchNumber) {
+        return jdbcTemplate.queryForObject("INSERT INTO batches "
+                + "(batch_number, material_id, material_name, quantity, unit, status, created_on, created_by) "
+                + "VALUES (?, 'TRACE-MAT', 'Trace Material', 100, 'KG', 'AVAILABLE', CURRENT_TIMESTAMP, 'test') "
+                + "RETURNING batch_id", Long.class, batchNumber);
+    }
+
+    private void relate(long parentId, long childId) {
+        jdbcTemplate.update("INSERT INTO batch_relations (parent_batch_id, child_batch_id, relation_type, "
+                + "quantity_consumed, status) VALUES (?, ?, 'MERGE', 10, 'ACTIVE')", parentId, childId);
+    }
+
+    @Test
+    @DisplayName("Should trace a deep MERGE/SPLIT diamond ladder without expanding every path")
+    @Timeout(30)
+    void traceForward_DiamondLadder_ExpandsEachRelationOnce() {
+        // Both batches of each level feed both batches of the next: 2^40 paths, 158 relations
+        long root = insertBatch("TRACE-DIAMOND-0");
+        List<Long> previous = List.of(root);
+        for (int level = 1; level <= LEVELS; level++) {
+            long left = insertBatch("TRACE-DIAMOND-" + level + "-A");
+            long right = insertBatch("TRACE-DIAMOND-" + level + "-B");
+            for (Long parent : previous) {
+                relate(parent, left);
+                relate(parent, right);
+            }
+            previous = List.of(left, right);
+        }
+
+        BatchDTO.TraceGraph forward = batchTraceService.traceForward(root, BatchTraceService.MAX_DEPTH_LIMIT, null);
+
+        assertFalse(forward.isTruncated());
+        assertEquals(1 + 2 * LEVELS, forward.getNodes().size());
+        assertEquals(2 + 4 * (LEVELS - 1), forward.getEdges().size());
+        BatchDTO.TraceNode deepest = forward.getNodes().get(forward.getNodes().size() - 1);
+        assertEquals(LEVELS, deepest.getDepth());
+        assertEquals(0, new BigDecimal("10").compareTo(deepest.getTracedQuantity()));
+
+        BatchDTO.TraceGraph backward = batchTraceService.traceBackward(previous.get(0), BatchTraceService.MAX_DEPTH_LIMIT, null);
+
+        assertEquals(1 + 2 * (LEVELS - 1) + 1, backward.getNodes().size());
+    }
+
+    @Test
+    @DisplayName("Should not walk back through the root when relations form a cycle")
+    void traceForward_Cycle_StopsAtRoot() {
+        long first = insertBatch("TRACE-CYCLE-1");
+        long second = insertBatch("TRACE-CYCLE-2");
+        relate(first, second);
+        relate(second, first);
+
+        BatchDTO.TraceGraph graph = batchTraceService.traceForward(first, 10, null);
+
+        assertEquals(List.of(first, second), graph.getNodes().stream().map(BatchDTO.TraceNode::getBatchId).toList());
+        assertEquals(1, graph.getEdges().size());
+    }
+}
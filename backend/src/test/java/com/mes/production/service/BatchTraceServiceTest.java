@@ -0,0 +1,203 @@
+package com.mes.production.service;
+
+import com.mes.production.dto.BatchDTO;
+import com.mes.production.entity.Batch;
+import com.mes.production.repository.BatchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BatchTraceServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private BatchRepository batchRepository;
+
+    @InjectMocks
+    private BatchTraceService batchTraceService;
+
+    private List<Map<String, Object>> rows;
+
+    @BeforeEach
+    void setUp() {
+        Batch root = Batch.builder()
+                .batchId(1L)
+                .batchNumber("RM-IRON-001")
+                .materialId("RM-IRON")
+                .materialName("Iron Ore")
+                .quantity(new BigDecimal("1000.0000"))
+                .unit("KG")
+                .status("CONSUMED")
+                .build();
+        when(batchRepository.findById(1L)).thenReturn(Optional.of(root));
+
+        rows = new ArrayList<>();
+        when(jdbcTemplate.queryForList(anyString(), any(Object[].class))).thenReturn(rows);
+    }
+
+    private Map<String, Object> row(long relationId, long parentId, long childId, long batchId, int depth,
+                                    String quantityConsumed) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("relation_id", relationId);
+        row.put("parent_batch_id", parentId);
+        row.put("child_batch_id", childId);
+        row.put("operation_id", 7L);
+        row.put("relation_type", "MERGE");
+        row.put("quantity_consumed", new BigDecimal(quantityConsumed));
+        row.put("depth", depth);
+        row.put("batch_id", batchId);
+        row.put("batch_number", "B-" + batchId);
+        row.put("material_id", "MAT");
+        row.put("material_name", "Material");
+        row.put("quantity", new BigDecimal("100"));
+        row.put("unit", "KG");
+        row.put("status", "AVAILABLE");
+        return row;
+    }
+
+    @Test
+    @DisplayName("Should return root, descendants and relations as a flat graph")
+    void traceForward_MultiLevel_ReturnsFlatGraph() {
+        rows.add(row(10L, 1L, 2L, 2L, 1, "400"));
+        rows.add(row(11L, 2L, 3L, 3L, 2, "250"));
+
+        BatchDTO.TraceGraph graph = batchTraceService.traceForward(1L, null, null);
+
+        assertEquals(BatchTraceService.FORWARD, graph.getDirection());
+        assertEquals(BatchTraceService.DEFAULT_MAX_DEPTH, graph.getMaxDepth());
+        assertEquals(List.of(1L, 2L, 3L), graph.getNodes().stream().map(BatchDTO.TraceNode::getBatchId).toList());
+        assertEquals(0, graph.getNodes().get(0).getDepth());
+        assertNull(graph.getNodes().get(0).getTracedQuantity());
+        assertEquals(new BigDecimal("250"), graph.getNodes().get(2).getTracedQuantity());
+        assertEquals(2, graph.getEdges().size());
+        assertFalse(graph.isTruncated());
+        verify(jdbcTemplate, times(1)).queryForList(anyString(), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("Should collapse batches reached over several paths into one node")
+    void traceForward_Diamond_DeduplicatesNodes() {
+        // 1 -> 2 -> 4 and 1 -> 3 -> 4
+        rows.add(row(10L, 1L, 2L, 2L, 1, "400"));
+        rows.add(row(11L, 1L, 3L, 3L, 1, "600"));
+        rows.add(row(12L, 2L, 4L, 4L, 2, "150"));
+        rows.add(row(13L, 3L, 4L, 4L, 2, "300"));
+
+        BatchDTO.TraceGraph graph = batchTraceService.traceForward(1L, 5, null);
+
+        assertEquals(4, graph.getNodes().size());
+        assertEquals(4, graph.getEdges().size());
+        BatchDTO.TraceNode node4 = graph.getNodes().get(3);
+        assertEquals(4L, node4.getBatchId());
+        assertEquals(2, node4.getDepth());
+        assertEquals(new BigDecimal("300"), node4.getTracedQuantity());
+    }
+
+    @Test
+    @DisplayName("Should walk parent links and bind relation type filters for backward traces")
+    void traceBackward_WithRelationTypes_BindsFilter() {
+        rows.add(row(10L, 5L, 1L, 5L, 1, "80"));
+
+        BatchDTO.TraceGraph graph = batchTraceService.traceBackward(1L, 3, List.of("split", "MERGE"));
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> params = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).queryForList(sql.capture(), params.capture());
+        assertTrue(sql.getValue().contains("WHERE r.child_batch_id = ?"));
+        assertTrue(sql.getValue().contains("JOIN batches b ON b.batch_id = t.parent_batch_id"));
+        assertTrue(sql.getValue().contains("r.relation_type IN (?, ?)"));
+        assertArrayEquals(new Object[]{1L, "SPLIT", "MERGE", 3, 1L, "SPLIT", "MERGE", BatchTraceService.MAX_TRACE_ROWS + 1},
+                params.getValue());
+        assertEquals(List.of("SPLIT", "MERGE"), graph.getRelationTypes());
+        assertEquals(5L, graph.getNodes().get(1).getBatchId());
+    }
+
+    @Test
+    @DisplayName("Should expand each relation once per depth, cap rows inside the recursion and follow only active relations")
+    void buildTraceSql_HasDedupLimitAndStatusGuards() {
+        String sql = BatchTraceService.buildTraceSql(true, 0);
+
+        assertTrue(sql.contains("WITH RECURSIVE"));
+        assertTrue(sql.contains("UNION\n"));
+        assertFalse(sql.contains("UNION ALL"));
+        assertTrue(sql.contains("r.child_batch_id <> ?"));
+        assertTrue(sql.contains("FROM (SELECT * FROM trace LIMIT ?) t"));
+        assertTrue(sql.contains("t.depth < ?"));
+        assertTrue(sql.contains("r.status = 'ACTIVE'"));
+        assertFalse(sql.contains("relation_type IN"));
+    }
+
+    @Test
+    @DisplayName("Should carry the best path's smallest quantity through a diamond, within the depth limit")
+    void tracedQuantities_Diamond_BestBottleneck() {
+        // 1 -> 2 (400) -> 4 (150) -> 5 (500) and 1 -> 3 (600) -> 4 (300), plus a cycle 5 -> 1
+        List<BatchDTO.TraceEdge> edges = List.of(
+                edge(10L, 1L, 2L, "400"), edge(11L, 1L, 3L, "600"),
+                edge(12L, 2L, 4L, "150"), edge(13L, 3L, 4L, "300"),
+                edge(14L, 4L, 5L, "500"), edge(15L, 5L, 1L, "900"));
+
+        Map<Long, BigDecimal> traced = BatchTraceService.tracedQuantities(1L, edges, true, 10);
+
+        assertEquals(Map.of(2L, new BigDecimal("400"), 3L, new BigDecimal("600"),
+                4L, new BigDecimal("300"), 5L, new BigDecimal("300")), traced);
+        assertFalse(BatchTraceService.tracedQuantities(1L, edges, true, 2).containsKey(5L));
+        assertEquals(new BigDecimal("300"), BatchTraceService.tracedQuantities(4L, edges, false, 2).get(1L));
+    }
+
+    private static BatchDTO.TraceEdge edge(long relationId, long parentId, long childId, String quantityConsumed) {
+        return BatchDTO.TraceEdge.builder()
+                .relationId(relationId)
+                .parentBatchId(parentId)
+                .childBatchId(childId)
+                .quantityConsumed(new BigDecimal(quantityConsumed))
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should flag the graph as truncated when the row limit is hit")
+    void traceForward_RowLimit_Truncated() {
+        for (int i = 0; i <= BatchTraceService.MAX_TRACE_ROWS; i++) {
+            rows.add(row(100L + i, 1L, 1000L + i, 1000L + i, 1, "1"));
+        }
+
+        BatchDTO.TraceGraph graph = batchTraceService.traceForward(1L, 1, null);
+
+        assertTrue(graph.isTruncated());
+        assertEquals(BatchTraceService.MAX_TRACE_ROWS, graph.getEdges().size());
+    }
+
+    @Test
+    @DisplayName("Should reject unknown batches and out-of-range depths")
+    void trace_InvalidInput_ThrowsException() {
+        when(batchRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> batchTraceService.traceForward(99L, null, null));
+        assertThrows(RuntimeException.class, () -> batchTraceService.traceForward(1L, 0, null));
+        assertThrows(RuntimeException.class,
+                () -> batchTraceService.traceBackward(1L, BatchTraceService.MAX_DEPTH_LIMIT + 1, null));
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -277,4 +277,24 @@ class BomValidationServiceTest {
         assertTrue(result.isValid());
         assertEquals(new BigDecimal("100.00"), result.getRequirementChecks().get(0).getActualQuantity());
     }
+
+    @Test
+    @DisplayName("Should validate consumption against preloaded BOM lines without querying")
+    void validateConsumption_PreloadedBom_NoRepositoryCall() {
+        BomDTO.BomValidationRequest request = BomDTO.BomValidationRequest.builder()
+                .productSku("STEEL-001")
+                .materialsConsumed(List.of(
+                        BomDTO.MaterialConsumption.builder()
+                                .materialId("RM-001")
+                                .quantity(new BigDecimal("50.00"))
+                                .build()
+                ))
+                .build();
+
+        BomDTO.BomValidationResult result = bomValidationService.validateConsumption(request, List.of(testBom));
+
+        assertFalse(result.isValid());
+        assertEquals("INSUFFICIENT", result.getRequirementChecks().get(0).getStatus());
+        verifyNoInteractions(bomRepository);
+    }
 }
@@ -0,0 +1,168 @@
+package com.mes.production.service;
+
+import com.mes.production.dto.ProductionConfirmationDTO;
+import com.mes.production.entity.Equipment;
+import com.mes.production.entity.Operator;
+import com.mes.production.repository.EquipmentRepository;
+import com.mes.production.repository.OperatorRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Path;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BulkProductionServiceTest {
+
+    @Mock
+    private ProductionService productionService;
+
+    @Mock
+    private EquipmentRepository equipmentRepository;
+
+    @Mock
+    private OperatorRepository operatorRepository;
+
+    @Mock
+    private Validator validator;
+
+    @InjectMocks
+    private BulkProductionService bulkProductionService;
+
+    @BeforeEach
+    void setUp() {
+        when(validator.validate(any())).thenReturn(Collections.emptySet());
+        when(equipmentRepository.findAllById(anyIterable())).thenReturn(List.of(
+                Equipment.builder().equipmentId(1L).build(),
+                Equipment.builder().equipmentId(2L).build()));
+        when(operatorRepository.findAllById(anyIterable())).thenReturn(List.of(
+                Operator.builder().operatorId(1L).build()));
+    }
+
+    private ProductionConfirmationDTO.Request request(Long operationId, Long equipmentId) {
+        return ProductionConfirmationDTO.Request.builder()
+                .operationId(operationId)
+                .materialsConsumed(List.of(ProductionConfirmationDTO.MaterialConsumption.builder()
+                        .batchId(operationId).inventoryId(operationId).quantity(BigDecimal.TEN).build()))
+                .producedQty(BigDecimal.TEN)
+                .startTime(LocalDateTime.now().minusHours(1))
+                .endTime(LocalDateTime.now())
+                .equipmentIds(List.of(equipmentId))
+                .operatorIds(List.of(1L))
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should confirm every item and report per-item success")
+    void confirmAll_AllValid_AllSucceed() {
+        when(productionService.confirmProduction(any(ProductionConfirmationDTO.Request.class), any(ProductionLookups.class)))
+                .thenAnswer(i -> ProductionConfirmationDTO.Response.builder()
+                        .operationId(((ProductionConfirmationDTO.Request) i.getArgument(0)).getOperationId())
+                        .status("CONFIRMED")
+                        .build());
+
+        ProductionConfirmationDTO.BulkResponse response = bulkProductionService.confirmAll(
+                List.of(request(1L, 1L), request(2L, 2L), request(3L, 1L)));
+
+        assertEquals(3, response.getTotal());
+        assertEquals(3, response.getSucceeded());
+        assertEquals(0, response.getFailed());
+        assertEquals(2L, response.getResults().get(1).getConfirmation().getOperationId());
+        assertTrue(response.getResults().stream().allMatch(ProductionConfirmationDTO.BulkItemResult::getSuccess));
+    }
+
+    @Test
+    @DisplayName("Should keep going when one item fails and report its error")
+    void confirmAll_OneItemFails_OthersStillConfirmed() {
+        when(productionService.confirmProduction(argThat(r -> r != null && r.getOperationId() == 2L), any(ProductionLookups.class)))
+                .thenThrow(new RuntimeException("Operation is on hold and cannot be confirmed"));
+        when(productionService.confirmProduction(argThat(r -> r != null && r.getOperationId() != 2L), any(ProductionLookups.class)))
+                .thenReturn(ProductionConfirmationDTO.Response.builder().status("CONFIRMED").build());
+
+        ProductionConfirmationDTO.BulkResponse response = bulkProductionService.confirmAll(
+                List.of(request(1L, 1L), request(2L, 1L), request(3L, 1L)));
+
+        assertEquals(2, response.getSucceeded());
+        assertEquals(1, response.getFailed());
+        ProductionConfirmationDTO.BulkItemResult failed = response.getResults().get(1);
+        assertFalse(failed.getSuccess());
+        assertEquals(1, failed.getIndex());
+        assertEquals(2L, failed.getOperationId());
+        assertTrue(failed.getError().contains("on hold"));
+        verify(productionService, times(3)).confirmProduction(any(), any(ProductionLookups.class));
+    }
+
+    @Test
+    @DisplayName("Should load equipment and operators once and share one lookup across items")
+    void confirmAll_SharesLookupsAcrossItems() {
+        List<ProductionLookups> seen = new ArrayList<>();
+        when(productionService.confirmProduction(any(ProductionConfirmationDTO.Request.class), any(ProductionLookups.class)))
+                .thenAnswer(i -> {
+                    seen.add(i.getArgument(1));
+                    return ProductionConfirmationDTO.Response.builder().build();
+                });
+
+        bulkProductionService.confirmAll(List.of(request(1L, 1L), request(2L, 2L), request(3L, 1L)));
+
+        verify(equipmentRepository, times(1)).findAllById(anyIterable());
+        verify(operatorRepository, times(1)).findAllById(anyIterable());
+        assertEquals(3, seen.size());
+        assertSame(seen.get(0), seen.get(2));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("Should report validation errors per item without calling the pipeline")
+    void confirmAll_InvalidItem_ReportedAsFailure() {
+        ProductionConfirmationDTO.Request invalid = request(9L, 1L);
+        invalid.setProducedQty(null);
+
+        ConstraintViolation<ProductionConfirmationDTO.Request> violation = mock(ConstraintViolation.class);
+        Path path = mock(Path.class);
+        when(path.toString()).thenReturn("producedQty");
+        when(violation.getPropertyPath()).thenReturn(path);
+        when(violation.getMessage()).thenReturn("Produced quantity is required");
+        when(validator.validate(same(invalid))).thenReturn(Set.of(violation));
+        when(productionService.confirmProduction(any(ProductionConfirmationDTO.Request.class), any(ProductionLookups.class)))
+                .thenReturn(ProductionConfirmationDTO.Response.builder().build());
+
+        ProductionConfirmationDTO.BulkResponse response = bulkProductionService.confirmAll(
+                List.of(request(1L, 1L), invalid));
+
+        assertEquals(1, response.getFailed());
+        assertEquals("producedQty: Produced quantity is required", response.getResults().get(1).getError());
+        verify(productionService, never()).confirmProduction(same(invalid), any(ProductionLookups.class));
+    }
+
+    @Test
+    @DisplayName("Should reject empty and oversized bulk requests")
+    void confirmAll_EmptyOrTooLarge_ThrowsException() {
+        assertThrows(RuntimeException.class, () -> bulkProductionService.confirmAll(List.of()));
+
+        List<ProductionConfirmationDTO.Request> tooMany = new ArrayList<>();
+        for (int i = 0; i <= BulkProductionService.MAX_BULK_SIZE; i++) {
+            tooMany.add(request((long) i + 1, 1L));
+        }
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> bulkProductionService.confirmAll(tooMany));
+        assertTrue(ex.getMessage().contains("limited to"));
+    }
+}
@@ -1,26 +1,25 @@
 package com.mes.production.service;
 
-import com.mes.production.entity.Inventory;
-import com.mes.production.entity.Order;
 import com.mes.production.repository.InventoryRepository;
 import com.mes.production.repository.OrderRepository;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class ChartServiceTest {
@@ -34,36 +33,15 @@ class ChartServiceTest {
     @InjectMocks
     private ChartService chartService;
 
-    private Order testOrder1;
-    private Order testOrder2;
-    private Inventory testInventory1;
-    private Inventory testInventory2;
-
-    @BeforeEach
-    void setUp() {
-        testOrder1 = new Order();
-        testOrder1.setOrderId(1L);
-        testOrder1.setStatus("IN_PROGRESS");
-
-        testOrder2 = new Order();
-        testOrder2.setOrderId(2L);
-        testOrder2.setStatus("COMPLETED");
-
-        testInventory1 = new Inventory();
-        testInventory1.setInventoryId(1L);
-        testInventory1.setInventoryType("RM");
-        testInventory1.setState("AVAILABLE");
-
-        testInventory2 = new Inventory();
-        testInventory2.setInventoryId(2L);
-        testInventory2.setInventoryType("FG");
-        testInventory2.setState("BLOCKED");
+    private List<Object[]> rows(Object[]... rows) {
+        return List.of(rows);
     }
 
     @Test
     @DisplayName("Should generate order status pie chart")
     void generateOrderStatusChart_WithData_ReturnsPng() throws Exception {
-        when(orderRepository.findAll()).thenReturn(List.of(testOrder1, testOrder2));
+        when(orderRepository.countGroupedByStatus()).thenReturn(rows(
+                new Object[]{"IN_PROGRESS", 1L}, new Object[]{"COMPLETED", 1L}));
 
         byte[] result = chartService.generateOrderStatusChart(600, 400);
 
@@ -80,7 +58,7 @@ class ChartServiceTest {
     @Test
     @DisplayName("Should generate order status chart with empty data")
     void generateOrderStatusChart_EmptyData_ReturnsPng() throws Exception {
-        when(orderRepository.findAll()).thenReturn(Collections.emptyList());
+        when(orderRepository.countGroupedByStatus()).thenReturn(Collections.emptyList());
 
         byte[] result = chartService.generateOrderStatusChart(400, 300);
 
@@ -91,7 +69,8 @@ class ChartServiceTest {
     @Test
     @DisplayName("Should generate inventory type bar chart")
     void generateInventoryTypeChart_WithData_ReturnsPng() throws Exception {
-        when(inventoryRepository.findAll()).thenReturn(List.of(testInventory1, testInventory2));
+        when(inventoryRepository.sumQuantityByType()).thenReturn(rows(
+                new Object[]{"RM", 1L, BigDecimal.TEN}, new Object[]{"FG", 1L, BigDecimal.ONE}));
 
         byte[] result = chartService.generateInventoryTypeChart(600, 400);
 
@@ -104,7 +83,8 @@ class ChartServiceTest {
     @Test
     @DisplayName("Should generate inventory state pie chart")
     void generateInventoryStateChart_WithData_ReturnsPng() throws Exception {
-        when(inventoryRepository.findAll()).thenReturn(List.of(testInventory1, testInventory2));
+        when(inventoryRepository.sumQuantityByState()).thenReturn(rows(
+                new Object[]{"AVAILABLE", 1L, BigDecimal.TEN}, new Object[]{"BLOCKED", 1L, BigDecimal.ONE}));
 
         byte[] result = chartService.generateInventoryStateChart(500, 400);
 
@@ -117,9 +97,7 @@ class ChartServiceTest {
     @Test
     @DisplayName("Should handle null status values in orders")
     void generateOrderStatusChart_NullStatus_UsesUnknown() throws Exception {
-        Order nullStatusOrder = new Order();
-        nullStatusOrder.setOrderId(3L);
-        when(orderRepository.findAll()).thenReturn(List.of(nullStatusOrder));
+        when(orderRepository.countGroupedByStatus()).thenReturn(rows(new Object[]{null, 1L}));
 
         byte[] result = chartService.generateOrderStatusChart(400, 300);
 
@@ -130,9 +108,7 @@ class ChartServiceTest {
     @Test
     @DisplayName("Should handle null type values in inventory")
     void generateInventoryTypeChart_NullType_UsesUnknown() throws Exception {
-        Inventory nullTypeInv = new Inventory();
-        nullTypeInv.setInventoryId(3L);
-        when(inventoryRepository.findAll()).thenReturn(List.of(nullTypeInv));
+        when(inventoryRepository.sumQuantityByType()).thenReturn(rows(new Object[]{null, 1L, BigDecimal.ZERO}));
 
         byte[] result = chartService.generateInventoryTypeChart(400, 300);
 
@@ -143,7 +119,7 @@ class ChartServiceTest {
     @Test
     @DisplayName("Should respect custom chart dimensions")
     void generateOrderStatusChart_CustomDimensions_MatchesSize() throws Exception {
-        when(orderRepository.findAll()).thenReturn(List.of(testOrder1));
+        when(orderRepository.countGroupedByStatus()).thenReturn(rows(new Object[]{"IN_PROGRESS", 1L}));
 
         byte[] result = chartService.generateOrderStatusChart(800, 600);
 
@@ -151,4 +127,70 @@ class ChartServiceTest {
         assertEquals(800, image.getWidth());
         assertEquals(600, image.getHeight());
     }
+
+    @Test
+    @DisplayName("Should render SVG charts")
+    void getChart_Svg_ReturnsSvgDocument() {
+        when(orderRepository.countGroupedByStatus()).thenReturn(rows(new Object[]{"IN_PROGRESS", 3L}));
+
+        ChartService.RenderedChart chart = chartService.getChart(ChartService.ORDER_STATUS, 600, 400, ChartService.FORMAT_SVG);
+
+        assertEquals("image/svg+xml", chart.contentType());
+        String svg = new String(chart.content(), StandardCharsets.UTF_8);
+        assertTrue(svg.contains("<svg"));
+        assertTrue(svg.contains("Order Status Distribution"));
+    }
+
+    @Test
+    @DisplayName("Should serve an unchanged chart from the cache and re-render when the data changes")
+    void getChart_CachedUntilDataChanges() {
+        ReflectionTestUtils.setField(chartService, "dataTtlMs", 0L);
+        when(orderRepository.countGroupedByStatus())
+                .thenReturn(rows(new Object[]{"IN_PROGRESS", 1L}))
+                .thenReturn(rows(new Object[]{"IN_PROGRESS", 1L}))
+                .thenReturn(rows(new Object[]{"IN_PROGRESS", 2L}));
+
+        ChartService.RenderedChart first = chartService.getChart(ChartService.ORDER_STATUS, 600, 400, ChartService.FORMAT_PNG);
+        ChartService.RenderedChart second = chartService.getChart(ChartService.ORDER_STATUS, 600, 400, ChartService.FORMAT_PNG);
+        ChartService.RenderedChart changed = chartService.getChart(ChartService.ORDER_STATUS, 600, 400, ChartService.FORMAT_PNG);
+
+        assertSame(first, second);
+        assertNotSame(first, changed);
+        assertNotEquals(first.etag(), changed.etag());
+    }
+
+    @Test
+    @DisplayName("Should reuse grouped counts within the data TTL and derive the ETag from them")
+    void getChartETag_WithinDataTtl_QueriesOnce() {
+        when(orderRepository.countGroupedByStatus()).thenReturn(rows(new Object[]{"IN_PROGRESS", 1L}));
+
+        String etag = chartService.getChartETag(ChartService.ORDER_STATUS, 600, 400, ChartService.FORMAT_PNG);
+        ChartService.RenderedChart chart = chartService.getChart(ChartService.ORDER_STATUS, 600, 400, ChartService.FORMAT_PNG);
+
+        assertEquals(etag, chart.etag());
+        assertTrue(etag.startsWith("\"order-status-600x400-png-"));
+        verify(orderRepository, times(1)).countGroupedByStatus();
+    }
+
+    @Test
+    @DisplayName("Should evict least recently used charts beyond the byte budget")
+    void getChart_OverByteBudget_EvictsOldest() {
+        when(orderRepository.countGroupedByStatus()).thenReturn(rows(new Object[]{"IN_PROGRESS", 1L}));
+        ChartService.RenderedChart small = chartService.getChart(ChartService.ORDER_STATUS, 200, 200, ChartService.FORMAT_PNG);
+        ReflectionTestUtils.setField(chartService, "cacheMaxBytes", (long) small.content().length);
+
+        chartService.getChart(ChartService.ORDER_STATUS, 300, 300, ChartService.FORMAT_PNG);
+
+        assertNotSame(small, chartService.getChart(ChartService.ORDER_STATUS, 200, 200, ChartService.FORMAT_PNG));
+    }
+
+    @Test
+    @DisplayName("Should reject unknown chart formats and oversized dimensions")
+    void getChart_InvalidRequest_ThrowsException() {
+        assertThrows(RuntimeException.class,
+                () -> chartService.getChart(ChartService.ORDER_STATUS, 600, 400, "gif"));
+        assertThrows(RuntimeException.class,
+                () -> chartService.getChart(ChartService.ORDER_STATUS, 100000, 400, ChartService.FORMAT_PNG));
+        verifyNoInteractions(orderRepository);
+    }
 }
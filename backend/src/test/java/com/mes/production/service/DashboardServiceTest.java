@@ -15,6 +15,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -48,6 +49,9 @@ class DashboardServiceTest {
     @Mock
     private AuditService auditService;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private DashboardService dashboardService;
 
@@ -264,4 +268,46 @@ class DashboardServiceTest {
         assertTrue(result.get(0).getDescription().contains("hold"));
         assertTrue(result.get(1).getDescription().contains("Released"));
     }
+
+    @Test
+    @DisplayName("Should serve repeated summary requests from the shared snapshot")
+    void getDashboardSummary_RepeatedCalls_ComputedOnce() {
+        when(orderRepository.count()).thenReturn(10L);
+
+        DashboardDTO.Summary first = dashboardService.getDashboardSummary();
+        DashboardDTO.Summary second = dashboardService.getDashboardSummary();
+
+        assertEquals(10L, second.getTotalOrders());
+        assertEquals(first.getGeneratedAt(), second.getGeneratedAt());
+        assertNotNull(second.getSnapshotAgeMs());
+        verify(orderRepository, times(1)).count();
+    }
+
+    @Test
+    @DisplayName("Should recompute a dirty snapshot on the scheduled refresh")
+    void refreshIfDirty_AfterChange_Recomputes() {
+        when(orderRepository.count()).thenReturn(10L, 11L);
+        dashboardService.getDashboardSummary();
+
+        // Nothing changed: no recomputation
+        dashboardService.refreshIfDirty();
+        verify(orderRepository, times(1)).count();
+
+        dashboardService.markSummaryDirty();
+        dashboardService.markSummaryDirty();
+        dashboardService.refreshIfDirty();
+        dashboardService.refreshIfDirty();
+
+        assertEquals(11L, dashboardService.getDashboardSummary().getTotalOrders());
+        verify(orderRepository, times(2)).count();
+    }
+
+    @Test
+    @DisplayName("Should not compute a snapshot nobody has asked for")
+    void refreshIfDirty_NoSnapshot_DoesNothing() {
+        dashboardService.markSummaryDirty();
+        dashboardService.refreshIfDirty();
+
+        verify(orderRepository, never()).count();
+    }
 }
@@ -0,0 +1,126 @@
+package com.mes.production.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mes.production.repository.ExportQueryRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DataExportServiceTest {
+
+    @Mock
+    private ExportQueryRepository exportQueryRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private DataExportService dataExportService;
+
+    private static final LocalDateTime CREATED_ON = LocalDateTime.of(2026, 3, 2, 8, 30);
+
+    private Object[] auditRow(long id, String newValue) {
+        return new Object[]{id, "BATCH", 7L, "status", "QUALITY_PENDING", newValue, "STATUS_CHANGE", "admin", CREATED_ON};
+    }
+
+    @Test
+    @DisplayName("Should write CSV with a header row and quote values that need it")
+    void export_Csv_WritesHeaderAndEscapedRows() throws Exception {
+        when(exportQueryRepository.streamAudit(isNull(), isNull(), isNull()))
+                .thenReturn(Stream.of(auditRow(1L, "AVAILABLE"), auditRow(2L, "Held, \"pending\" review")));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = dataExportService.export(DataExportService.AUDIT, "csv", null, null, null, false, out);
+
+        assertEquals(2, count);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(3, lines.length);
+        assertEquals("auditId,entityType,entityId,fieldName,oldValue,newValue,action,changedBy,timestamp", lines[0]);
+        assertEquals("1,BATCH,7,status,QUALITY_PENDING,AVAILABLE,STATUS_CHANGE,admin,2026-03-02T08:30", lines[1]);
+        assertTrue(lines[2].contains(",\"Held, \"\"pending\"\" review\","));
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    @DisplayName("Should write one JSON object per line for NDJSON")
+    void export_Ndjson_WritesObjectPerLine() throws Exception {
+        when(exportQueryRepository.streamBatches(any(), any(), eq("AVAILABLE"))).thenReturn(Stream.<Object[]>of(
+                new Object[]{10L, "B-10", "STEEL", "Steel", new BigDecimal("12.500"), "T", "AVAILABLE",
+                        "PRODUCTION", 3L, null, LocalDate.of(2026, 9, 1), "qa", CREATED_ON, CREATED_ON, "op1"}));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        dataExportService.export(DataExportService.BATCHES, "NDJSON", null, null, "AVAILABLE", false, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(1, lines.length);
+        JsonNode row = objectMapper.readTree(lines[0]);
+        assertEquals("B-10", row.get("batchNumber").asText());
+        assertEquals(12.5, row.get("quantity").asDouble());
+        assertTrue(row.get("supplierBatchNumber").isNull());
+        assertEquals("2026-09-01", row.get("expiryDate").asText());
+    }
+
+    @Test
+    @DisplayName("Should gzip the output when asked")
+    void export_Gzip_CompressesOutput() throws Exception {
+        when(exportQueryRepository.streamInventory(any(), any(), any())).thenReturn(Stream.empty());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        dataExportService.export(DataExportService.INVENTORY, "csv", null, null, null, true, out);
+
+        byte[] unzipped = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())).readAllBytes();
+        assertTrue(new String(unzipped, StandardCharsets.UTF_8).startsWith("inventoryId,materialId,"));
+    }
+
+    @Test
+    @DisplayName("Should pass inclusive date bounds and treat a blank status as no filter")
+    void export_DateRange_ConvertsToHalfOpenInterval() throws Exception {
+        when(exportQueryRepository.streamInventoryMovements(any(), any(), any())).thenReturn(Stream.empty());
+
+        dataExportService.export(DataExportService.INVENTORY_MOVEMENTS, "csv",
+                LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 31), " ", false, new ByteArrayOutputStream());
+
+        verify(exportQueryRepository).streamInventoryMovements(
+                LocalDateTime.of(2026, 3, 1, 0, 0), LocalDateTime.of(2026, 4, 1, 0, 0), null);
+    }
+
+    @Test
+    @DisplayName("Should reject unknown datasets and formats")
+    void export_InvalidDatasetOrFormat_ThrowsException() {
+        RuntimeException dataset = assertThrows(RuntimeException.class,
+                () -> dataExportService.export("orders", "csv", null, null, null, false, new ByteArrayOutputStream()));
+        assertTrue(dataset.getMessage().contains("orders"));
+
+        RuntimeException format = assertThrows(RuntimeException.class,
+                () -> dataExportService.normalizeFormat("xml"));
+        assertTrue(format.getMessage().contains("xml"));
+        verifyNoInteractions(exportQueryRepository, transactionManager);
+    }
+}
@@ -4,6 +4,7 @@ import com.mes.production.entity.Inventory;
 import com.mes.production.entity.Order;
 import com.mes.production.repository.InventoryRepository;
 import com.mes.production.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
@@ -14,15 +15,20 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class ExcelExportServiceTest {
@@ -33,6 +39,9 @@ class ExcelExportServiceTest {
     @Mock
     private InventoryRepository inventoryRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private ExcelExportService excelExportService;
 
@@ -60,12 +69,31 @@ class ExcelExportServiceTest {
         // Batch number is accessed via batch relationship, not a direct field
     }
 
+    private byte[] exportOrders() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        excelExportService.writeOrders(out);
+        return out.toByteArray();
+    }
+
+    private byte[] exportInventory() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        excelExportService.writeInventory(out);
+        return out.toByteArray();
+    }
+
+    private Order order(long id) {
+        Order order = new Order();
+        order.setOrderId(id);
+        order.setOrderNumber("ORD-00" + id);
+        return order;
+    }
+
     @Test
     @DisplayName("Should export orders to Excel with data")
     void exportOrders_WithData_ReturnsXlsx() throws Exception {
-        when(orderRepository.findAll()).thenReturn(List.of(testOrder));
+        when(orderRepository.findByOrderIdGreaterThanOrderByOrderIdAsc(eq(0L), any(Pageable.class))).thenReturn(List.of(testOrder));
 
-        byte[] result = excelExportService.exportOrders();
+        byte[] result = exportOrders();
 
         assertNotNull(result);
         assertTrue(result.length > 0);
@@ -94,9 +122,9 @@ class ExcelExportServiceTest {
     @Test
     @DisplayName("Should export orders with empty data")
     void exportOrders_EmptyData_ReturnsHeaderOnly() throws Exception {
-        when(orderRepository.findAll()).thenReturn(Collections.emptyList());
+        when(orderRepository.findByOrderIdGreaterThanOrderByOrderIdAsc(eq(0L), any(Pageable.class))).thenReturn(Collections.emptyList());
 
-        byte[] result = excelExportService.exportOrders();
+        byte[] result = exportOrders();
 
         try (Workbook wb = new XSSFWorkbook(new ByteArrayInputStream(result))) {
             Sheet sheet = wb.getSheet("Orders");
@@ -108,9 +136,9 @@ class ExcelExportServiceTest {
     @Test
     @DisplayName("Should export inventory to Excel with data")
     void exportInventory_WithData_ReturnsXlsx() throws Exception {
-        when(inventoryRepository.findAll()).thenReturn(List.of(testInventory));
+        when(inventoryRepository.findExportPage(eq(0L), any(Pageable.class))).thenReturn(List.of(testInventory));
 
-        byte[] result = excelExportService.exportInventory();
+        byte[] result = exportInventory();
 
         try (Workbook wb = new XSSFWorkbook(new ByteArrayInputStream(result))) {
             Sheet sheet = wb.getSheet("Inventory");
@@ -129,9 +157,9 @@ class ExcelExportServiceTest {
     @Test
     @DisplayName("Should export inventory with empty data")
     void exportInventory_EmptyData_ReturnsHeaderOnly() throws Exception {
-        when(inventoryRepository.findAll()).thenReturn(Collections.emptyList());
+        when(inventoryRepository.findExportPage(eq(0L), any(Pageable.class))).thenReturn(Collections.emptyList());
 
-        byte[] result = excelExportService.exportInventory();
+        byte[] result = exportInventory();
 
         try (Workbook wb = new XSSFWorkbook(new ByteArrayInputStream(result))) {
             Sheet sheet = wb.getSheet("Inventory");
@@ -145,9 +173,9 @@ class ExcelExportServiceTest {
     void exportOrders_NullFields_HandlesGracefully() throws Exception {
         Order orderWithNulls = new Order();
         orderWithNulls.setOrderId(2L);
-        when(orderRepository.findAll()).thenReturn(List.of(orderWithNulls));
+        when(orderRepository.findByOrderIdGreaterThanOrderByOrderIdAsc(eq(0L), any(Pageable.class))).thenReturn(List.of(orderWithNulls));
 
-        byte[] result = excelExportService.exportOrders();
+        byte[] result = exportOrders();
 
         try (Workbook wb = new XSSFWorkbook(new ByteArrayInputStream(result))) {
             Sheet sheet = wb.getSheet("Orders");
@@ -161,9 +189,9 @@ class ExcelExportServiceTest {
     void exportInventory_NullFields_HandlesGracefully() throws Exception {
         Inventory invWithNulls = new Inventory();
         invWithNulls.setInventoryId(2L);
-        when(inventoryRepository.findAll()).thenReturn(List.of(invWithNulls));
+        when(inventoryRepository.findExportPage(eq(0L), any(Pageable.class))).thenReturn(List.of(invWithNulls));
 
-        byte[] result = excelExportService.exportInventory();
+        byte[] result = exportInventory();
 
         try (Workbook wb = new XSSFWorkbook(new ByteArrayInputStream(result))) {
             Sheet sheet = wb.getSheet("Inventory");
@@ -174,9 +202,9 @@ class ExcelExportServiceTest {
     @Test
     @DisplayName("Should include metadata sheet with record count")
     void exportOrders_VerifyMetadata_ContainsRecordCount() throws Exception {
-        when(orderRepository.findAll()).thenReturn(List.of(testOrder, testOrder));
+        when(orderRepository.findByOrderIdGreaterThanOrderByOrderIdAsc(eq(0L), any(Pageable.class))).thenReturn(List.of(testOrder, testOrder));
 
-        byte[] result = excelExportService.exportOrders();
+        byte[] result = exportOrders();
 
         try (Workbook wb = new XSSFWorkbook(new ByteArrayInputStream(result))) {
             Sheet meta = wb.getSheet("_Metadata");
@@ -184,4 +212,38 @@ class ExcelExportServiceTest {
             assertEquals(2.0, meta.getRow(2).getCell(1).getNumericCellValue());
         }
     }
+
+    @Test
+    @DisplayName("Should read orders in keyset pages and clear the persistence context after each")
+    void writeOrders_MultiplePages_ReadsAfterLastId() throws Exception {
+        ReflectionTestUtils.setField(excelExportService, "pageSize", 2);
+        when(orderRepository.findByOrderIdGreaterThanOrderByOrderIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(order(1L), order(2L)));
+        when(orderRepository.findByOrderIdGreaterThanOrderByOrderIdAsc(eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(order(3L)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int count = excelExportService.writeOrders(out);
+
+        assertEquals(3, count);
+        verify(entityManager, times(2)).clear();
+        try (Workbook wb = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = wb.getSheet("Orders");
+            assertEquals(3, sheet.getLastRowNum());
+            assertEquals("ORD-003", sheet.getRow(3).getCell(1).getStringCellValue());
+        }
+    }
+
+    @Test
+    @DisplayName("Should size columns from sampled values without exceeding the cap")
+    void writeInventory_LongValues_CapsColumnWidth() throws Exception {
+        testInventory.setMaterialName("X".repeat(200));
+        when(inventoryRepository.findExportPage(eq(0L), any(Pageable.class))).thenReturn(List.of(testInventory));
+
+        try (Workbook wb = new XSSFWorkbook(new ByteArrayInputStream(exportInventory()))) {
+            Sheet sheet = wb.getSheet("Inventory");
+            assertEquals((ExcelExportService.MAX_COLUMN_CHARS + 2) * 256, sheet.getColumnWidth(2));
+            assertEquals(("Material ID".length() + 2) * 256, sheet.getColumnWidth(1));
+        }
+    }
 }
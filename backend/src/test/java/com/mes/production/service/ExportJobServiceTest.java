@@ -0,0 +1,212 @@
+package com.mes.production.service;
+
+import com.mes.production.dto.ExportJobDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ExportJobServiceTest {
+
+    @TempDir
+    Path spoolDir;
+
+    private PdfReportService pdfReportService;
+    private ExcelExportService excelExportService;
+    private DataExportService dataExportService;
+    private ExportJobService exportJobService;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        pdfReportService = mock(PdfReportService.class);
+        excelExportService = mock(ExcelExportService.class);
+        dataExportService = mock(DataExportService.class);
+        exportJobService = new ExportJobService(pdfReportService, excelExportService, dataExportService);
+        ReflectionTestUtils.setField(exportJobService, "spoolDirectory", spoolDir.toString());
+        ReflectionTestUtils.setField(exportJobService, "workerCount", 1);
+        ReflectionTestUtils.setField(exportJobService, "maxActivePerUser", 1);
+        exportJobService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        exportJobService.shutdown();
+    }
+
+    private ExportJobDTO.Request request(String reportType) {
+        return ExportJobDTO.Request.builder().reportType(reportType).build();
+    }
+
+    private void blockPdfUntilReleased() {
+        when(pdfReportService.writeOrderReport(any(OutputStream.class))).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            invocation.getArgument(0, OutputStream.class).write(new byte[]{1, 2, 3});
+            return 1;
+        });
+    }
+
+    private void stubOrderReport(byte[] content) {
+        when(pdfReportService.writeOrderReport(any(OutputStream.class))).thenAnswer(invocation -> {
+            invocation.getArgument(0, OutputStream.class).write(content);
+            return 1;
+        });
+    }
+
+    private ExportJobDTO.Job awaitFinished(String jobId, String username) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            ExportJobDTO.Job job = exportJobService.getJob(jobId, username);
+            if (!ExportJobService.STATUS_QUEUED.equals(job.getStatus()) && !ExportJobService.STATUS_RUNNING.equals(job.getStatus())) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        fail("Export job did not finish");
+        return null;
+    }
+
+    @Test
+    @DisplayName("Should generate a report to the spool directory and serve it for download")
+    void submit_PdfReport_CompletesWithFile() throws Exception {
+        stubOrderReport(new byte[]{37, 80, 68, 70});
+
+        ExportJobDTO.Job queued = exportJobService.submit(request("pdf_orders"), "alice");
+        ExportJobDTO.Job done = awaitFinished(queued.getJobId(), "alice");
+
+        assertEquals(ExportJobService.STATUS_COMPLETED, done.getStatus());
+        assertEquals(4L, done.getBytesWritten());
+        assertNotNull(done.getExpiresAt());
+        ExportJobService.ExportFile file = exportJobService.getFile(queued.getJobId(), "alice");
+        assertEquals("orders-report.pdf", file.fileName());
+        assertEquals("application/pdf", file.contentType());
+        assertArrayEquals(new byte[]{37, 80, 68, 70}, Files.readAllBytes(file.path()));
+        assertTrue(file.path().startsWith(spoolDir));
+    }
+
+    @Test
+    @DisplayName("Should share an identical report already in progress instead of generating it twice")
+    void submit_IdenticalRequest_Deduplicated() throws Exception {
+        blockPdfUntilReleased();
+
+        ExportJobDTO.Job first = exportJobService.submit(request("PDF_ORDERS"), "alice");
+        ExportJobDTO.Job second = exportJobService.submit(request("PDF_ORDERS"), "bob");
+
+        assertEquals(first.getJobId(), second.getJobId());
+        assertFalse(first.isDeduplicated());
+        assertTrue(second.isDeduplicated());
+        assertEquals(1, exportJobService.getJobs("bob").size());
+
+        release.countDown();
+        assertEquals(ExportJobService.STATUS_COMPLETED, awaitFinished(first.getJobId(), "bob").getStatus());
+        verify(pdfReportService, times(1)).writeOrderReport(any(OutputStream.class));
+    }
+
+    @Test
+    @DisplayName("Should limit how many jobs one user can have in flight")
+    void submit_OverUserLimit_ThrowsException() throws Exception {
+        blockPdfUntilReleased();
+        exportJobService.submit(request("PDF_ORDERS"), "alice");
+
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> exportJobService.submit(request("EXCEL_ORDERS"), "alice"));
+        assertTrue(ex.getMessage().contains("Too many export jobs"));
+
+        // Other users are not affected
+        assertEquals(ExportJobService.STATUS_QUEUED,
+                exportJobService.submit(request("EXCEL_INVENTORY"), "bob").getStatus());
+    }
+
+    @Test
+    @DisplayName("Should cancel a queued job so it is never generated")
+    void cancel_QueuedJob_NotGenerated() throws Exception {
+        blockPdfUntilReleased();
+        exportJobService.submit(request("PDF_ORDERS"), "alice");
+        ExportJobDTO.Job queued = exportJobService.submit(request("EXCEL_ORDERS"), "bob");
+
+        ExportJobDTO.Job cancelled = exportJobService.cancel(queued.getJobId(), "bob");
+        release.countDown();
+
+        assertEquals(ExportJobService.STATUS_CANCELLED, cancelled.getStatus());
+        assertTrue(exportJobService.getJobs("bob").isEmpty());
+        Thread.sleep(100);
+        verify(excelExportService, never()).writeOrders(any(OutputStream.class));
+    }
+
+    @Test
+    @DisplayName("Should record failures and leave no partial file behind")
+    void run_GenerationFails_MarksFailed() throws Exception {
+        when(pdfReportService.writeInventoryReport(any(OutputStream.class))).thenThrow(new RuntimeException("Failed to generate PDF report"));
+
+        ExportJobDTO.Job queued = exportJobService.submit(request("PDF_INVENTORY"), "alice");
+        ExportJobDTO.Job failed = awaitFinished(queued.getJobId(), "alice");
+
+        assertEquals(ExportJobService.STATUS_FAILED, failed.getStatus());
+        assertEquals("Failed to generate PDF report", failed.getErrorMessage());
+        assertThrows(RuntimeException.class, () -> exportJobService.getFile(queued.getJobId(), "alice"));
+        try (var files = Files.list(spoolDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Should remove finished jobs and their files after the retention period")
+    void cleanupExpired_RemovesOldJobsAndFiles() throws Exception {
+        ReflectionTestUtils.setField(exportJobService, "ttlMs", 0L);
+        stubOrderReport(new byte[]{1});
+        ExportJobDTO.Job queued = exportJobService.submit(request("PDF_ORDERS"), "alice");
+        awaitFinished(queued.getJobId(), "alice");
+        Thread.sleep(5);
+
+        exportJobService.cleanupExpired();
+
+        assertThrows(RuntimeException.class, () -> exportJobService.getJob(queued.getJobId(), "alice"));
+        try (var files = Files.list(spoolDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject unknown report types and hide jobs from other users")
+    void submit_UnknownTypeOrOtherUser_ThrowsException() throws Exception {
+        assertThrows(RuntimeException.class, () -> exportJobService.submit(request("WORD_ORDERS"), "alice"));
+
+        blockPdfUntilReleased();
+        ExportJobDTO.Job job = exportJobService.submit(request("PDF_ORDERS"), "alice");
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> exportJobService.getJob(job.getJobId(), "mallory"));
+        assertTrue(ex.getMessage().contains("not found"));
+    }
+
+    @Test
+    @DisplayName("Should remove only orphaned job files from the spool directory at startup")
+    void init_LeftoverFiles_RemovesOnlyJobFiles() throws Exception {
+        Path orphanPart = Files.writeString(spoolDir.resolve(UUID.randomUUID() + ".part"), "partial");
+        Path orphanOut = Files.writeString(spoolDir.resolve(UUID.randomUUID() + ".out"), "done");
+        Path unrelated = Files.writeString(spoolDir.resolve("report.out"), "keep");
+        Path other = Files.writeString(spoolDir.resolve(UUID.randomUUID() + ".csv"), "keep");
+
+        ExportJobService restarted = new ExportJobService(pdfReportService, excelExportService, dataExportService);
+        ReflectionTestUtils.setField(restarted, "spoolDirectory", spoolDir.toString());
+        restarted.init();
+        restarted.shutdown();
+
+        assertFalse(Files.exists(orphanPart));
+        assertFalse(Files.exists(orphanOut));
+        assertTrue(Files.exists(unrelated));
+        assertTrue(Files.exists(other));
+    }
+}
@@ -0,0 +1,173 @@
+package com.mes.production.service;
+
+import com.mes.production.dto.BatchDTO;
+import com.mes.production.entity.Batch;
+import com.mes.production.entity.BatchRelation;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class GenealogyIndexServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private MeterRegistry meterRegistry;
+    private GenealogyIndexService indexService;
+
+    /** Relations returned by the load query: {relationId, parentBatchId, childBatchId} */
+    private List<long[]> activeRelations;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        indexService = new GenealogyIndexService(jdbcTemplate, meterRegistry);
+        indexService.init();
+
+        // RM 1 -> 3, RM 2 -> 3, 3 -> 4 (split) and 3 -> 5 (split), 5 -> 6
+        activeRelations = new ArrayList<>(List.of(
+                new long[]{100, 1, 3},
+                new long[]{101, 2, 3},
+                new long[]{102, 3, 4},
+                new long[]{103, 3, 5},
+                new long[]{104, 5, 6}));
+
+        doAnswer(i -> {
+            RowCallbackHandler handler = i.getArgument(1);
+            for (long[] relation : activeRelations) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong(1)).thenReturn(relation[0]);
+                when(rs.getLong(2)).thenReturn(relation[1]);
+                when(rs.getLong(3)).thenReturn(relation[2]);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        indexService.shutdown();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private BatchRelation relation(long relationId, long parentId, long childId) {
+        return BatchRelation.builder()
+                .relationId(relationId)
+                .parentBatch(Batch.builder().batchId(parentId).build())
+                .childBatch(Batch.builder().batchId(childId).build())
+                .status("ACTIVE")
+                .build();
+    }
+
+    private static long[] sorted(long[] values) {
+        long[] copy = values.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    @Test
+    @DisplayName("Should find all descendants of a raw material batch across levels")
+    void findDescendants_MultiLevel_ReturnsAll() {
+        indexService.rebuild();
+
+        assertArrayEquals(new long[]{3, 4, 5, 6}, sorted(indexService.findDescendants(List.of(1L), null)));
+        assertArrayEquals(new long[]{3}, indexService.findDescendants(List.of(1L), 1));
+        assertArrayEquals(new long[0], indexService.findDescendants(List.of(6L), null));
+    }
+
+    @Test
+    @DisplayName("Should find ancestors and common ancestors")
+    void findAncestors_AndCommonAncestors() {
+        indexService.rebuild();
+
+        assertArrayEquals(new long[]{1, 2, 3, 5}, sorted(indexService.findAncestors(List.of(6L), null)));
+        assertArrayEquals(new long[]{1, 2, 3}, sorted(indexService.findCommonAncestors(List.of(4L, 6L))));
+        assertArrayEquals(new long[0], indexService.findCommonAncestors(List.of(1L, 2L)));
+    }
+
+    @Test
+    @DisplayName("Should apply new and reversed relations after commit without reloading")
+    void relationChanges_AppliedAfterCommit() {
+        indexService.rebuild();
+        TransactionSynchronizationManager.initSynchronization();
+
+        indexService.relationsCreated(List.of(relation(200L, 6L, 7L)));
+        indexService.relationsRemoved(List.of(relation(103L, 3L, 5L)));
+
+        // Not visible before commit
+        assertArrayEquals(new long[]{3, 4, 5, 6}, sorted(indexService.findDescendants(List.of(1L), null)));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertArrayEquals(new long[]{3, 4}, sorted(indexService.findDescendants(List.of(1L), null)));
+        assertArrayEquals(new long[]{7}, indexService.findDescendants(List.of(6L), null));
+        assertArrayEquals(new long[]{5, 6}, sorted(indexService.findAncestors(List.of(7L), null)));
+        assertEquals(2, indexService.getStats().getPendingChanges());
+        verify(jdbcTemplate, times(1)).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    @DisplayName("Should fold pending changes into the snapshot on rebuild")
+    void rebuild_ClearsOverlay() {
+        indexService.rebuild();
+        indexService.relationsCreated(List.of(relation(200L, 6L, 7L)));
+        activeRelations.add(new long[]{200, 6, 7});
+
+        indexService.rebuild();
+
+        BatchDTO.GenealogyIndexStats stats = indexService.getStats();
+        assertTrue(stats.isReady());
+        assertEquals(7, stats.getBatchCount());
+        assertEquals(6, stats.getRelationCount());
+        assertEquals(0, stats.getPendingChanges());
+        assertEquals(6.0, meterRegistry.get("mes.genealogy.index.relations").gauge().value());
+        assertEquals(2, meterRegistry.get("mes.genealogy.index.rebuild").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should wrap query results with count and timing")
+    void query_Descendants_ReturnsResult() {
+        indexService.rebuild();
+
+        BatchDTO.GenealogyIndexResult result = indexService.query(GenealogyIndexService.DESCENDANTS,
+                BatchDTO.GenealogyIndexRequest.builder().batchIds(List.of(1L, 2L)).build());
+
+        assertEquals(GenealogyIndexService.DESCENDANTS, result.getQuery());
+        assertEquals(4, result.getCount());
+    }
+
+    @Test
+    @DisplayName("Should refuse queries until the index has loaded")
+    void query_NotLoaded_ThrowsException() {
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> indexService.findDescendants(List.of(1L), null));
+        assertTrue(ex.getMessage().contains("loading"));
+    }
+}
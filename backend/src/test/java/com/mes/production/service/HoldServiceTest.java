@@ -53,6 +53,12 @@ class HoldServiceTest {
     @Mock
     private EquipmentRepository equipmentRepository;
 
+    @Mock
+    private DashboardService dashboardService;
+
+    @Mock
+    private LiveEventService liveEventService;
+
     @InjectMocks
     private HoldService holdService;
 
@@ -111,6 +117,8 @@ class HoldServiceTest {
 
         verify(holdRecordRepository, times(1)).save(any(HoldRecord.class));
         verify(operationRepository, times(1)).save(any(Operation.class));
+        verify(liveEventService).holdChanged(any(HoldRecord.class));
+        verify(liveEventService).operationStatusChanged(eq(testOperation), any());
     }
 
     @Test
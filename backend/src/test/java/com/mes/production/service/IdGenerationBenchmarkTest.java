@@ -0,0 +1,129 @@
+package com.mes.production.service;
+
+import com.mes.production.config.QueryCounter;
+import com.mes.production.config.TestSecurityConfig;
+import com.mes.production.entity.Batch;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Insert throughput of the batches table with IDENTITY ids (before patch 057) and with the
+ * pooled-lo sequence Hibernate uses now, on the PostgreSQL test database.
+ *
+ * The IDENTITY path is replayed the way Hibernate ran it: one INSERT per row, reading the
+ * generated key back before the next. The sequence path persists Batch entities through the
+ * EntityManager, so it also carries Hibernate's own overhead. Prints rows per second and
+ * statements for both.
+ *
+ * Not part of the normal test run: ./gradlew benchmark [-Dmes.benchmark.rows=20000]
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+@EnabledIfSystemProperty(named = "mes.benchmark", matches = "true")
+@Transactional
+class IdGenerationBenchmarkTest {
+
+    private static final String IDENTITY_INSERT = "INSERT INTO batches " +
+            "(batch_number, material_id, material_name, quantity, unit, status, created_on, created_by) " +
+            "VALUES (?, 'BENCH-MAT', 'Benchmark Material', ?, 'T', 'AVAILABLE', ?, 'benchmark')";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    @DisplayName("Pooled-lo sequence ids vs IDENTITY inserts")
+    void batchInserts_SequenceVsIdentity() {
+        int rows = Integer.getInteger("mes.benchmark.rows", 10_000);
+
+        // Warm up both paths
+        insertWithIdentity("WARM-I-", 500);
+        insertWithSequence("WARM-S-", 500);
+
+        Result identity = measure("identity", rows, () -> insertWithIdentity("BENCH-I-", rows));
+        Result sequence = measure("pooled-lo", rows, () -> insertWithSequence("BENCH-S-", rows));
+
+        System.out.printf("%nBatch insert benchmark (%,d rows)%n", rows);
+        System.out.printf("%-10s %10s %12s %12s%n", "ids", "ms", "rows/s", "statements");
+        for (Result result : new Result[]{identity, sequence}) {
+            System.out.printf("%-10s %10d %12d %12d%n", result.name, result.millis,
+                    result.millis > 0 ? rows * 1000L / result.millis : rows, result.statements);
+        }
+
+        Long inserted = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM batches WHERE batch_number LIKE 'BENCH-S-%'", Long.class);
+        assertEquals(rows, inserted);
+        // One INSERT per row before; now one per JDBC batch of 50 plus a sequence read per 50 ids
+        assertTrue(identity.statements >= rows);
+        assertTrue(sequence.statements <= rows / 25 + 10, "pooled-lo ran " + sequence.statements + " statements");
+    }
+
+    private void insertWithIdentity(String prefix, int rows) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int i = 0; i < rows; i++) {
+            String batchNumber = prefix + i;
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(IDENTITY_INSERT, new String[]{"batch_id"});
+                ps.setString(1, batchNumber);
+                ps.setBigDecimal(2, BigDecimal.TEN);
+                ps.setTimestamp(3, now);
+                return ps;
+            }, keyHolder);
+            assertNotNull(keyHolder.getKey());
+        }
+    }
+
+    private void insertWithSequence(String prefix, int rows) {
+        for (int i = 0; i < rows; i++) {
+            entityManager.persist(Batch.builder()
+                    .batchNumber(prefix + i)
+                    .materialId("BENCH-MAT")
+                    .materialName("Benchmark Material")
+                    .quantity(BigDecimal.TEN)
+                    .unit("T")
+                    .status(Batch.STATUS_AVAILABLE)
+                    .createdBy("benchmark")
+                    .build());
+            if ((i + 1) % 1000 == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Result measure(String name, int rows, Runnable work) {
+        try (QueryCounter.Recording recording = QueryCounter.start()) {
+            long started = System.nanoTime();
+            work.run();
+            long millis = (System.nanoTime() - started) / 1_000_000;
+            recording.stop();
+            return new Result(name, millis, recording.statements());
+        }
+    }
+
+    private record Result(String name, long millis, long statements) {
+    }
+}
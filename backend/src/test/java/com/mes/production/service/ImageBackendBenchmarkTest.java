@@ -0,0 +1,86 @@
+package com.mes.production.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the AWT and OpenCV image backends on generated photos of several sizes: thumbnail,
+ * resize to 1024x768 and grayscale. Timings cover the pixel work only; decoding and PNG
+ * encoding are the same for both backends. The OpenCV rows are skipped when its natives do
+ * not load on this platform.
+ *
+ * Not part of the normal test run: ./gradlew benchmark --tests '*ImageBackendBenchmarkTest'
+ */
+@EnabledIfSystemProperty(named = "mes.benchmark", matches = "true")
+class ImageBackendBenchmarkTest {
+
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = 10;
+
+    private static final int[][] SIZES = {{1280, 960}, {4000, 3000}, {6000, 4000}};
+
+    @Test
+    @DisplayName("AWT vs OpenCV backend across image sizes")
+    void backends_AcrossImageSizes() {
+        List<ImageBackend> backends = new ArrayList<>();
+        backends.add(new AwtImageBackend());
+        try {
+            backends.add(OpenCvImageBackend.load());
+        } catch (Exception | LinkageError e) {
+            System.out.println("OpenCV natives unavailable, benchmarking AWT only: " + e);
+        }
+
+        System.out.printf("%nImage backend benchmark (avg of %d runs after %d warm-up runs)%n", ITERATIONS, WARMUP);
+        System.out.printf("%-8s %-11s %12s %12s %12s%n", "backend", "source", "thumb ms", "resize ms", "gray ms");
+        for (int[] size : SIZES) {
+            BufferedImage source = photo(size[0], size[1]);
+            int thumbHeight = 150 * size[1] / size[0];
+            for (ImageBackend backend : backends) {
+                double thumb = measure(() -> backend.resize(source, 150, thumbHeight), 150, thumbHeight);
+                double resize = measure(() -> backend.resize(source, 1024, 768), 1024, 768);
+                double gray = measure(() -> backend.grayscale(source), size[0], size[1]);
+                System.out.printf("%-8s %-11s %12.1f %12.1f %12.1f%n",
+                        backend.name(), size[0] + "x" + size[1], thumb, resize, gray);
+            }
+        }
+    }
+
+    private double measure(Supplier<BufferedImage> work, int expectedWidth, int expectedHeight) {
+        for (int i = 0; i < WARMUP; i++) {
+            work.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            BufferedImage result = work.get();
+            assertEquals(expectedWidth, result.getWidth());
+            assertEquals(expectedHeight, result.getHeight());
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+    }
+
+    /**
+     * Gradients plus noise, so neither backend benefits from flat regions.
+     */
+    private BufferedImage photo(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+        Graphics2D g = image.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, Color.DARK_GRAY, width, height, Color.ORANGE));
+        g.fillRect(0, 0, width, height);
+        g.dispose();
+        Random random = new Random(42);
+        for (int i = 0; i < width * height / 20; i++) {
+            image.setRGB(random.nextInt(width), random.nextInt(height), random.nextInt(0xFFFFFF));
+        }
+        return image;
+    }
+}
@@ -3,14 +3,18 @@ package com.mes.production.service;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.concurrent.Semaphore;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 class ImageProcessingServiceTest {
 
@@ -20,6 +24,8 @@ class ImageProcessingServiceTest {
     @BeforeEach
     void setUp() throws Exception {
         imageProcessingService = new ImageProcessingService();
+        ReflectionTestUtils.setField(imageProcessingService, "backendName", "awt");
+        imageProcessingService.init();
 
         // Create a simple test image
         BufferedImage testImage = new BufferedImage(200, 150, BufferedImage.TYPE_INT_RGB);
@@ -35,10 +41,14 @@ class ImageProcessingServiceTest {
         testImageData = baos.toByteArray();
     }
 
+    private InputStream stream(byte[] data) {
+        return new ByteArrayInputStream(data);
+    }
+
     @Test
     @DisplayName("Should convert image to grayscale")
     void convertToGrayscale_ValidImage_ReturnsGrayscale() throws Exception {
-        byte[] result = imageProcessingService.convertToGrayscale(testImageData);
+        byte[] result = imageProcessingService.convertToGrayscale(stream(testImageData));
 
         assertNotNull(result);
         assertTrue(result.length > 0);
@@ -52,7 +62,7 @@ class ImageProcessingServiceTest {
     @Test
     @DisplayName("Should resize image to target dimensions")
     void resizeImage_ValidDimensions_ReturnsResized() throws Exception {
-        byte[] result = imageProcessingService.resizeImage(testImageData, 100, 75);
+        byte[] result = imageProcessingService.resizeImage(stream(testImageData), 100, 75);
 
         BufferedImage resized = ImageIO.read(new ByteArrayInputStream(result));
         assertNotNull(resized);
@@ -63,7 +73,7 @@ class ImageProcessingServiceTest {
     @Test
     @DisplayName("Should generate thumbnail maintaining aspect ratio - landscape")
     void generateThumbnail_LandscapeImage_MaintainsRatio() throws Exception {
-        byte[] result = imageProcessingService.generateThumbnail(testImageData, 100);
+        byte[] result = imageProcessingService.generateThumbnail(stream(testImageData), 100);
 
         BufferedImage thumbnail = ImageIO.read(new ByteArrayInputStream(result));
         assertNotNull(thumbnail);
@@ -83,7 +93,7 @@ class ImageProcessingServiceTest {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         ImageIO.write(portrait, "png", baos);
 
-        byte[] result = imageProcessingService.generateThumbnail(baos.toByteArray(), 100);
+        byte[] result = imageProcessingService.generateThumbnail(stream(baos.toByteArray()), 100);
 
         BufferedImage thumbnail = ImageIO.read(new ByteArrayInputStream(result));
         assertNotNull(thumbnail);
@@ -94,32 +104,122 @@ class ImageProcessingServiceTest {
     @Test
     @DisplayName("Should get image metadata")
     void getImageMetadata_ValidImage_ReturnsMetadata() {
-        ImageProcessingService.ImageMetadata metadata = imageProcessingService.getImageMetadata(testImageData);
+        ImageProcessingService.ImageMetadata metadata = imageProcessingService.getImageMetadata(stream(testImageData), testImageData.length);
 
         assertNotNull(metadata);
         assertEquals(200, metadata.width());
         assertEquals(150, metadata.height());
-        assertTrue(metadata.sizeBytes() > 0);
+        assertEquals(testImageData.length, metadata.sizeBytes());
+        assertEquals(BufferedImage.TYPE_3BYTE_BGR, metadata.colorType());
+        assertEquals("awt", metadata.backend());
     }
 
     @Test
     @DisplayName("Should throw for invalid image data on grayscale")
     void convertToGrayscale_InvalidData_ThrowsException() {
         byte[] invalidData = "not an image".getBytes();
-        assertThrows(RuntimeException.class, () -> imageProcessingService.convertToGrayscale(invalidData));
+        // Invalid input stays an IllegalArgumentException so it is reported as a bad request
+        assertThrows(IllegalArgumentException.class, () -> imageProcessingService.convertToGrayscale(stream(invalidData)));
     }
 
     @Test
     @DisplayName("Should throw for invalid image data on resize")
     void resizeImage_InvalidData_ThrowsException() {
         byte[] invalidData = "not an image".getBytes();
-        assertThrows(RuntimeException.class, () -> imageProcessingService.resizeImage(invalidData, 100, 100));
+        assertThrows(RuntimeException.class, () -> imageProcessingService.resizeImage(stream(invalidData), 100, 100));
     }
 
     @Test
     @DisplayName("Should throw for invalid image data on metadata")
     void getImageMetadata_InvalidData_ThrowsException() {
         byte[] invalidData = "not an image".getBytes();
-        assertThrows(RuntimeException.class, () -> imageProcessingService.getImageMetadata(invalidData));
+        assertThrows(RuntimeException.class, () -> imageProcessingService.getImageMetadata(stream(invalidData), invalidData.length));
+    }
+
+    @Test
+    @DisplayName("Should thumbnail a large image from a subsampled decode")
+    void generateThumbnail_LargeImage_ReturnsExactSize() throws Exception {
+        BufferedImage large = new BufferedImage(4000, 3000, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = large.createGraphics();
+        g.setColor(Color.ORANGE);
+        g.fillRect(0, 0, 4000, 3000);
+        g.dispose();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ImageIO.write(large, "png", baos);
+
+        byte[] result = imageProcessingService.generateThumbnail(stream(baos.toByteArray()), 150);
+
+        BufferedImage thumbnail = ImageIO.read(new ByteArrayInputStream(result));
+        assertEquals(150, thumbnail.getWidth());
+        assertEquals(112, thumbnail.getHeight());
+        assertEquals(Color.ORANGE.getRGB(), thumbnail.getRGB(75, 56));
+    }
+
+    @Test
+    @DisplayName("Should subsample to about twice the target size")
+    void subsampling_ScalesWithTarget() {
+        assertEquals(13, ImageProcessingService.subsampling(4000, 3000, 150, 112));
+        assertEquals(13, ImageProcessingService.subsampling(4000, 3000, -150, -150));
+        assertEquals(1, ImageProcessingService.subsampling(200, 150, 100, 75));
+        assertEquals(1, ImageProcessingService.subsampling(200, 150, 400, 300));
+        assertEquals(1, ImageProcessingService.subsampling(200, 150, 0, 0));
+    }
+
+    @Test
+    @DisplayName("Should reject work when all processing permits stay taken")
+    void resizeImage_Saturated_ThrowsBusy() {
+        Semaphore permits = new Semaphore(0);
+        ReflectionTestUtils.setField(imageProcessingService, "permits", permits);
+        ReflectionTestUtils.setField(imageProcessingService, "acquireTimeoutMs", 10L);
+
+        ImageProcessingService.BusyException ex = assertThrows(ImageProcessingService.BusyException.class,
+                () -> imageProcessingService.resizeImage(stream(testImageData), 100, 75));
+        assertTrue(ex.getMessage().contains("busy"));
+        assertEquals(1, ex.getRetryAfterSeconds());
+        assertEquals(0, permits.availablePermits());
+    }
+
+    @Test
+    @DisplayName("Should reject invalid target sizes")
+    void resizeImage_InvalidTarget_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> imageProcessingService.resizeImage(stream(testImageData), 0, 75));
+        assertThrows(IllegalArgumentException.class, () -> imageProcessingService.resizeImage(stream(testImageData), 20000, 20000));
+    }
+
+    @Test
+    @DisplayName("Should fall back to AWT unless OpenCV is required")
+    void selectBackend_ByConfiguration() {
+        assertEquals("awt", ImageProcessingService.selectBackend("awt").name());
+
+        // auto never fails: OpenCV when the natives load on this platform, AWT otherwise
+        String auto = ImageProcessingService.selectBackend("auto").name();
+        assertTrue(auto.equals("opencv") || auto.equals("awt"));
+    }
+
+    @Test
+    @DisplayName("Should resize and convert with the OpenCV backend when its natives load")
+    void openCvBackend_MatchesAwtDimensions() {
+        ImageBackend openCv;
+        try {
+            openCv = OpenCvImageBackend.load();
+        } catch (Exception | LinkageError e) {
+            openCv = null;
+        }
+        assumeTrue(openCv != null, "OpenCV natives not available on this platform");
+
+        BufferedImage source = new BufferedImage(200, 150, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = source.createGraphics();
+        g.setColor(Color.RED);
+        g.fillRect(0, 0, 200, 150);
+        g.dispose();
+
+        BufferedImage resized = openCv.resize(source, 100, 75);
+        assertEquals(100, resized.getWidth());
+        assertEquals(75, resized.getHeight());
+        assertEquals(Color.RED.getRGB(), resized.getRGB(50, 37));
+
+        BufferedImage gray = openCv.grayscale(source);
+        assertEquals(BufferedImage.TYPE_BYTE_GRAY, gray.getType());
+        assertEquals(200, gray.getWidth());
     }
 }
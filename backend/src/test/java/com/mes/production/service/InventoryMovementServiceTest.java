@@ -323,4 +323,39 @@ class InventoryMovementServiceTest {
 
         assertTrue(exception.getMessage().contains("not in PENDING status"));
     }
+
+    @Test
+    @DisplayName("Should record movements for loaded inventory in one batched save")
+    void recordMovements_SavesAllInOneCall() {
+        Inventory second = Inventory.builder().inventoryId(2L).materialId("RM-002").build();
+        when(movementRepository.saveAll(anyList())).thenAnswer(i -> {
+            List<InventoryMovement> movements = i.getArgument(0);
+            long id = 10L;
+            for (InventoryMovement m : movements) {
+                m.setMovementId(id++);
+            }
+            return movements;
+        });
+
+        List<InventoryMovement> result = movementService.recordMovements(testOperation, InventoryMovement.TYPE_CONSUME,
+                List.of(new InventoryMovementService.MovementLine(testInventory, new BigDecimal("5"), "Production confirmation"),
+                        new InventoryMovementService.MovementLine(second, new BigDecimal("7"), "Production confirmation")));
+
+        assertEquals(2, result.size());
+        assertEquals(testOperation, result.get(0).getOperation());
+        assertEquals(InventoryMovement.TYPE_CONSUME, result.get(1).getMovementType());
+        verify(movementRepository, times(1)).saveAll(anyList());
+        verify(inventoryRepository, never()).findById(anyLong());
+        verify(operationRepository, never()).findById(anyLong());
+        verify(auditService, times(2)).logCreate(eq("INVENTORY_MOVEMENT"), anyLong(), anyString());
+    }
+
+    @Test
+    @DisplayName("Should skip save when there are no movement lines")
+    void recordMovements_EmptyLines_NoSave() {
+        List<InventoryMovement> result = movementService.recordMovements(testOperation, InventoryMovement.TYPE_PRODUCE, List.of());
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(movementRepository);
+    }
 }
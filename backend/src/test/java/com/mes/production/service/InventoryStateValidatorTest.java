@@ -12,9 +12,11 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -228,6 +230,50 @@ class InventoryStateValidatorTest {
             );
             assertTrue(ex.getMessage().contains("reserved for order 100"));
         }
+
+        @Test
+        @DisplayName("Prefetched holds: inventory on hold cannot be consumed, no hold queries issued")
+        void prefetchedHolds_InventoryOnHold_CannotBeConsumed() {
+            Inventory inventory = createInventory(1L, Inventory.STATE_AVAILABLE);
+
+            IllegalStateException ex = assertThrows(IllegalStateException.class, () ->
+                validator.validateConsumption(inventory, null, Set.of(1L), Set.of())
+            );
+            assertTrue(ex.getMessage().contains("active hold"));
+            verifyNoInteractions(holdRecordRepository);
+        }
+
+        @Test
+        @DisplayName("Prefetched holds: batch on hold blocks consumption")
+        void prefetchedHolds_BatchOnHold_CannotBeConsumed() {
+            Inventory inventory = createInventory(1L, Inventory.STATE_AVAILABLE);
+            inventory.setBatch(Batch.builder().batchId(100L).build());
+
+            IllegalStateException ex = assertThrows(IllegalStateException.class, () ->
+                validator.validateConsumption(inventory, null, Set.of(), Set.of(100L))
+            );
+            assertTrue(ex.getMessage().contains("Batch 100"));
+        }
+
+        @Test
+        @DisplayName("Prefetched holds: state rules still apply")
+        void prefetchedHolds_ConsumedInventory_CannotBeConsumed() {
+            Inventory inventory = createInventory(1L, Inventory.STATE_CONSUMED);
+
+            assertThrows(IllegalStateException.class, () ->
+                validator.validateConsumption(inventory, null, Set.of(), Set.of())
+            );
+        }
+
+        @Test
+        @DisplayName("Prefetched holds: AVAILABLE inventory without holds can be consumed")
+        void prefetchedHolds_AvailableInventory_CanBeConsumed() {
+            Inventory inventory = createInventory(1L, Inventory.STATE_AVAILABLE);
+            inventory.setBatch(Batch.builder().batchId(100L).build());
+
+            assertDoesNotThrow(() -> validator.validateConsumption(inventory, null, Set.of(2L), Set.of(200L)));
+            verifyNoInteractions(holdRecordRepository);
+        }
     }
 
     @Nested
@@ -0,0 +1,129 @@
+package com.mes.production.service;
+
+import com.mes.production.dto.PageRequestDTO;
+import com.mes.production.dto.PagedResponseDTO;
+import com.mes.production.entity.Batch;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class KeysetPaginatorTest {
+
+    private EntityManager entityManager;
+    private KeysetPaginator keysetPaginator;
+
+    @BeforeEach
+    void setUp() {
+        entityManager = mock(EntityManager.class);
+        keysetPaginator = new KeysetPaginator(entityManager, mock(JdbcTemplate.class));
+    }
+
+    private PageRequestDTO request(String cursor, String sortBy, String direction) {
+        return PageRequestDTO.builder().cursor(cursor).sortBy(sortBy).sortDirection(direction).build();
+    }
+
+    @Test
+    @DisplayName("Should round-trip the sort, direction and last row key through the cursor")
+    void cursor_RoundTrip() {
+        LocalDateTime createdOn = LocalDateTime.of(2026, 3, 1, 8, 30, 15, 123_000_000);
+        String cursor = KeysetPaginator.encodeCursor("createdOn", "DESC", 42L, createdOn);
+
+        assertTrue(cursor.matches("[A-Za-z0-9_-]+"), "cursor must be URL safe: " + cursor);
+        KeysetPaginator.Cursor decoded = KeysetPaginator.decodeCursor(cursor);
+        assertEquals("createdOn", decoded.sortBy());
+        assertEquals("DESC", decoded.direction());
+        assertEquals(42L, KeysetPaginator.parse(Long.class, decoded.id()));
+        assertEquals(createdOn, KeysetPaginator.parse(LocalDateTime.class, decoded.value()));
+    }
+
+    @Test
+    @DisplayName("Should keep sort values that contain the separator")
+    void cursor_ValueWithSeparator() {
+        String cursor = KeysetPaginator.encodeCursor("batchNumber", "ASC", 7L, "B|2026|001");
+
+        assertEquals("B|2026|001", KeysetPaginator.decodeCursor(cursor).value());
+    }
+
+    @Test
+    @DisplayName("Should treat an empty cursor as the first page and reject tampered cursors")
+    void decodeCursor_EmptyOrInvalid() {
+        assertNull(KeysetPaginator.decodeCursor(""));
+        assertNull(KeysetPaginator.decodeCursor(null));
+        assertThrows(RuntimeException.class, () -> KeysetPaginator.decodeCursor("not a cursor!"));
+        assertThrows(RuntimeException.class, () -> KeysetPaginator.decodeCursor("djJ8b25seQ"));
+    }
+
+    @Test
+    @DisplayName("Should parse cursor values by the attribute type")
+    void parse_SupportedTypes() {
+        assertEquals(LocalDate.of(2026, 1, 31), KeysetPaginator.parse(LocalDate.class, "2026-01-31"));
+        assertEquals(5, KeysetPaginator.parse(Integer.class, "5"));
+        assertEquals(new BigDecimal("12.50"), KeysetPaginator.parse(BigDecimal.class, "12.50"));
+        assertEquals("ORD-1", KeysetPaginator.parse(String.class, "ORD-1"));
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> KeysetPaginator.parse(LocalDateTime.class, "yesterday"));
+        assertEquals("Invalid page cursor", ex.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should reject sorting by a field without a keyset index")
+    void fetch_UnsupportedSort_ThrowsException() {
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> keysetPaginator.fetch(BatchService.KEYSET, null, request("", "materialName", "ASC")));
+
+        assertTrue(ex.getMessage().contains("materialName"));
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    @DisplayName("Should reject a cursor issued for a different sort order")
+    void fetch_CursorForOtherSort_ThrowsException() {
+        String cursor = KeysetPaginator.encodeCursor("createdOn", "DESC", 42L, LocalDateTime.now());
+
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> keysetPaginator.fetch(BatchService.KEYSET, null, request(cursor, "createdOn", "ASC")));
+
+        assertTrue(ex.getMessage().contains("different sort order"));
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    @DisplayName("Should default to no total for cursor requests and exact totals for offset requests")
+    void normalize_TotalDefaults() {
+        PageRequestDTO keyset = request("", null, "DESC");
+        keyset.normalize();
+        assertEquals(PageRequestDTO.TOTAL_NONE, keyset.getTotal());
+
+        PageRequestDTO offset = request(null, null, "DESC");
+        offset.normalize();
+        assertEquals(PageRequestDTO.TOTAL_EXACT, offset.getTotal());
+    }
+
+    @Test
+    @DisplayName("Should report unknown totals as -1 with the next cursor")
+    void fromKeyset_WithoutTotal() {
+        PageRequestDTO pageRequest = request("", "createdOn", "DESC");
+        pageRequest.normalize();
+
+        PagedResponseDTO<Batch> response = PagedResponseDTO.fromKeyset(
+                List.of(new Batch()), pageRequest, "createdOn", "abc", null, PageRequestDTO.TOTAL_NONE);
+
+        assertEquals(-1, response.getTotalElements());
+        assertEquals(-1, response.getTotalPages());
+        assertEquals("abc", response.getNextCursor());
+        assertTrue(response.isFirst());
+        assertTrue(response.isHasNext());
+        assertFalse(response.isLast());
+        assertEquals(PageRequestDTO.TOTAL_NONE, response.getTotalMode());
+    }
+}
@@ -0,0 +1,102 @@
+package com.mes.production.service;
+
+import com.mes.production.config.QueryBudget;
+import com.mes.production.config.TestSecurityConfig;
+import com.mes.production.dto.PageRequestDTO;
+import com.mes.production.dto.PagedResponseDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Statement budgets for the list endpoints against the seeded test database: the number of
+ * SQL statements a page costs must not grow with the page size (no per-row lazy loading), so
+ * small and large pages share the same budget.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+@Transactional
+class ListQueryCountTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OperationService operationService;
+
+    private PageRequestDTO page(int size) {
+        return PageRequestDTO.builder().page(0).size(size).build();
+    }
+
+    private PageRequestDTO firstCursorPage(int size) {
+        return PageRequestDTO.builder().size(size).cursor("").build();
+    }
+
+    @Test
+    @DisplayName("A small order page should cost page, count, line and operation queries")
+    @QueryBudget(4)
+    void ordersPaged_SmallPage_WithinBudget() {
+        assertNotNull(orderService.getOrdersPaged(page(2)));
+    }
+
+    @Test
+    @DisplayName("A large order page should cost the same queries as a small one")
+    @QueryBudget(4)
+    void ordersPaged_LargePage_WithinBudget() {
+        assertNotNull(orderService.getOrdersPaged(page(50)));
+    }
+
+    @Test
+    @DisplayName("Order cursor pages should not load lines per order")
+    @QueryBudget(3)
+    void ordersKeyset_WithinBudget() {
+        PagedResponseDTO<?> orders = orderService.getOrdersPaged(firstCursorPage(50));
+
+        assertFalse(orders.getContent().isEmpty());
+    }
+
+    @Test
+    @DisplayName("The available-orders list should not load lines per order")
+    @QueryBudget(3)
+    void availableOrders_WithinBudget() {
+        assertNotNull(orderService.getAvailableOrders());
+    }
+
+    @Test
+    @DisplayName("A small inventory page should fetch batches with the rows")
+    @QueryBudget(2)
+    void inventoryPaged_SmallPage_WithinBudget() {
+        assertNotNull(inventoryService.getInventoryPaged(page(2)));
+    }
+
+    @Test
+    @DisplayName("A large inventory page should cost the same queries as a small one")
+    @QueryBudget(2)
+    void inventoryPaged_LargePage_WithinBudget() {
+        assertNotNull(inventoryService.getInventoryPaged(page(50)));
+    }
+
+    @Test
+    @DisplayName("An inventory cursor page should be a single query")
+    @QueryBudget(1)
+    void inventoryKeyset_WithinBudget() {
+        assertNotNull(inventoryService.getInventoryPaged(firstCursorPage(50)));
+    }
+
+    @Test
+    @DisplayName("Operation pages should fetch their associations with the rows")
+    @QueryBudget(2)
+    void operationsPaged_WithinBudget() {
+        assertNotNull(operationService.getOperationsPaged(page(50)));
+    }
+}
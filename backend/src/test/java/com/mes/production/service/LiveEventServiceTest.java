@@ -0,0 +1,212 @@
+package com.mes.production.service;
+
+import com.mes.production.dto.LiveEventDTO;
+import com.mes.production.entity.Batch;
+import com.mes.production.entity.HoldRecord;
+import com.mes.production.entity.Operation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class LiveEventServiceTest {
+
+    private LiveEventService liveEventService;
+
+    @BeforeEach
+    void setUp() {
+        // Not started: the tests drive dispatch and flushing themselves
+        liveEventService = new LiveEventService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(liveEventService, "clientBufferSize", 3);
+        ReflectionTestUtils.setField(liveEventService, "historySize", 5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private Operation operation(long id, String type, String status) {
+        return Operation.builder().operationId(id).operationType(type).status(status).build();
+    }
+
+    private LiveEventService.Subscriber subscribe(List<String> topics, String operationType, String lastEventId) {
+        return liveEventService.register(mock(SseEmitter.class), topics, operationType, lastEventId);
+    }
+
+    @Test
+    @DisplayName("Should deliver only the topics and operation type a client subscribed to")
+    void dispatch_FiltersByTopicAndOperationType() {
+        LiveEventService.Subscriber furnaceBoard = subscribe(List.of("operations", "holds"), "FURNACE", null);
+
+        liveEventService.operationStatusChanged(operation(1L, "FURNACE", "IN_PROGRESS"), "READY");
+        liveEventService.operationStatusChanged(operation(2L, "CASTER", "IN_PROGRESS"), "READY");
+        liveEventService.holdChanged(HoldRecord.builder().holdId(9L).entityType("BATCH").entityId(4L).status("ACTIVE").build());
+        liveEventService.batchStatusChanged(Batch.builder().batchId(4L).status("AVAILABLE").build(),
+                LiveEventService.BATCH_APPROVED, "QUALITY_PENDING");
+
+        List<LiveEventDTO.Event> events = furnaceBoard.takePending();
+        assertEquals(2, events.size());
+        assertEquals(1L, events.get(0).getEntityId());
+        assertEquals(LiveEventService.HOLD_APPLIED, events.get(1).getType());
+    }
+
+    @Test
+    @DisplayName("Should coalesce changes to the same entity between flushes")
+    void dispatch_SameEntity_KeepsLatest() {
+        LiveEventService.Subscriber subscriber = subscribe(null, null, null);
+
+        liveEventService.operationStatusChanged(operation(1L, "FURNACE", "IN_PROGRESS"), "READY");
+        liveEventService.operationStatusChanged(operation(2L, "FURNACE", "READY"), "NOT_STARTED");
+        liveEventService.operationStatusChanged(operation(1L, "FURNACE", "CONFIRMED"), "IN_PROGRESS");
+
+        List<LiveEventDTO.Event> events = subscriber.takePending();
+        assertEquals(2, events.size());
+        assertEquals(2L, events.get(0).getEntityId());
+        assertEquals("CONFIRMED", events.get(1).getStatus());
+        assertEquals(3L, events.get(1).getSequence());
+    }
+
+    @Test
+    @DisplayName("Should replace an overflowing client buffer with a resync")
+    void dispatch_BufferOverflow_RequestsResync() {
+        LiveEventService.Subscriber subscriber = subscribe(null, null, null);
+        assertTrue(subscriber.takeSync(0L).isResyncRequired());
+
+        for (long id = 1; id <= 4; id++) {
+            liveEventService.operationStatusChanged(operation(id, "FURNACE", "READY"), "NOT_STARTED");
+        }
+
+        assertTrue(subscriber.takePending().isEmpty());
+        LiveEventDTO.Sync sync = subscriber.takeSync(4L);
+        assertTrue(sync.isResyncRequired());
+        assertEquals(4L, sync.getSequence());
+        assertEquals(1, liveEventService.getStats().getDroppedBuffers());
+
+        // Back to normal once the resync has gone out
+        liveEventService.operationStatusChanged(operation(1L, "FURNACE", "IN_PROGRESS"), "READY");
+        assertEquals(1, subscriber.takePending().size());
+    }
+
+    @Test
+    @DisplayName("Should replay missed events on reconnect, or ask for a resync once they are gone")
+    void register_WithLastEventId_ReplaysOrResyncs() {
+        for (long id = 1; id <= 7; id++) {
+            liveEventService.operationStatusChanged(operation(id, "FURNACE", "READY"), "NOT_STARTED");
+        }
+
+        // History keeps 3..7
+        LiveEventService.Subscriber resumed = subscribe(null, null, liveEventService.eventId(5L));
+        LiveEventDTO.Sync sync = resumed.takeSync(7L);
+        assertFalse(sync.isResyncRequired());
+        assertEquals(5L, sync.getSequence());
+        assertEquals(List.of(6L, 7L), resumed.takePending().stream().map(LiveEventDTO.Event::getSequence).toList());
+
+        LiveEventService.Subscriber tooOld = subscribe(null, null, liveEventService.eventId(1L));
+        sync = tooOld.takeSync(7L);
+        assertTrue(sync.isResyncRequired());
+        assertEquals(7L, sync.getSequence());
+        assertTrue(tooOld.takePending().isEmpty());
+
+        // Ahead of this process's sequence
+        assertTrue(subscribe(null, null, liveEventService.eventId(50L)).takeSync(7L).isResyncRequired());
+    }
+
+    @Test
+    @DisplayName("Should ask for a resync when the Last-Event-ID was issued by another process")
+    void register_ForeignEpoch_RequestsResync() {
+        for (long id = 1; id <= 4; id++) {
+            liveEventService.operationStatusChanged(operation(id, "FURNACE", "READY"), "NOT_STARTED");
+        }
+        String ownId = liveEventService.eventId(3L);
+        // Same sequence, but from before a restart or from another node
+        String foreignId = "0" + ownId;
+
+        assertEquals(Long.valueOf(3L), liveEventService.resumeSequence(ownId));
+        assertNull(liveEventService.resumeSequence(foreignId));
+        assertNull(liveEventService.resumeSequence("3"));
+
+        LiveEventService.Subscriber subscriber = subscribe(null, null, foreignId);
+        LiveEventDTO.Sync sync = subscriber.takeSync(4L);
+        assertTrue(sync.isResyncRequired());
+        assertEquals(4L, sync.getSequence());
+        assertTrue(subscriber.takePending().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should publish only after the transaction commits")
+    void publish_InTransaction_DispatchedAfterCommit() {
+        LiveEventService.Subscriber subscriber = subscribe(null, null, null);
+        TransactionSynchronizationManager.initSynchronization();
+
+        liveEventService.operationStatusChanged(operation(1L, "FURNACE", "IN_PROGRESS"), "READY");
+        assertTrue(subscriber.takePending().isEmpty());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(1, subscriber.takePending().size());
+    }
+
+    @Test
+    @DisplayName("Should reject unknown topics")
+    void register_UnknownTopic_ThrowsException() {
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> subscribe(List.of("orders"), null, null));
+        assertTrue(ex.getMessage().contains("orders"));
+    }
+
+    @Test
+    @DisplayName("Should send queued events and drop clients that went away")
+    void flushAll_SendsAndDropsBrokenClients() throws Exception {
+        SseEmitter healthy = mock(SseEmitter.class);
+        SseEmitter broken = mock(SseEmitter.class);
+        doThrow(new IOException("Broken pipe")).when(broken).send(any(SseEmitter.SseEventBuilder.class));
+        liveEventService.register(healthy, null, null, null);
+        liveEventService.register(broken, null, null, null);
+        liveEventService.operationStatusChanged(operation(1L, "FURNACE", "IN_PROGRESS"), "READY");
+
+        liveEventService.flushAll();
+
+        // Sync, then the event
+        verify(healthy, times(2)).send(any(SseEmitter.SseEventBuilder.class));
+        assertEquals(1, liveEventService.getStats().getSubscribers());
+    }
+
+    @Test
+    @DisplayName("Should skip a client still sending, then drop it once it stalls past the send timeout")
+    void flushAll_SlowClient_SkippedThenDropped() throws Exception {
+        List<Runnable> sends = new ArrayList<>();
+        ReflectionTestUtils.setField(liveEventService, "senders", (Executor) sends::add);
+        SseEmitter slow = mock(SseEmitter.class);
+        liveEventService.register(slow, null, null, null);
+
+        liveEventService.flushAll();
+        liveEventService.flushAll();
+
+        // The first flush has not finished, so no second one is queued
+        assertEquals(1, sends.size());
+        assertEquals(1, liveEventService.getStats().getSubscribers());
+
+        ReflectionTestUtils.setField(liveEventService, "sendTimeoutMs", 0L);
+        liveEventService.flushAll();
+        assertEquals(0, liveEventService.getStats().getSubscribers());
+
+        // The stuck send returns; the dropped stream is closed so the client reconnects
+        sends.get(0).run();
+        verify(slow).complete();
+    }
+}
@@ -33,6 +33,9 @@ class OperationServiceTest {
     @Mock
     private AuditService auditService;
 
+    @Mock
+    private LiveEventService liveEventService;
+
     @InjectMocks
     private OperationService operationService;
 
@@ -112,6 +115,7 @@ class OperationServiceTest {
 
             verify(operationRepository, times(1)).save(any(Operation.class));
             verify(auditService, times(1)).logStatusChange("OPERATION", 1L, "READY", "BLOCKED");
+            verify(liveEventService).operationStatusChanged(testOperation, "READY");
         }
 
         @Test
@@ -3,6 +3,8 @@ package com.mes.production.service;
 import com.mes.production.dto.OrderDTO;
 import com.mes.production.dto.order.CreateOrderRequest;
 import com.mes.production.dto.order.LineItemRequest;
+import com.mes.production.dto.order.OrderLineView;
+import com.mes.production.dto.order.OrderOperationView;
 import com.mes.production.dto.order.UpdateOrderRequest;
 import com.mes.production.entity.Order;
 import com.mes.production.entity.OrderLineItem;
@@ -53,6 +55,12 @@ class OrderServiceTest {
     @Mock
     private AuditTrailRepository auditTrailRepository;
 
+    @Mock
+    private DashboardService dashboardService;
+
+    @Mock
+    private KeysetPaginator keysetPaginator;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -188,11 +196,24 @@ class OrderServiceTest {
         verify(orderRepository, times(1)).findActiveOrders();
     }
 
+    private OrderLineView lineView(Long lineId, Long orderId) {
+        return new OrderLineView(lineId, orderId, "STEEL-001", "Steel Coil", BigDecimal.valueOf(100), "T",
+                null, "IN_PROGRESS");
+    }
+
+    private OrderOperationView operationView(Long operationId, Long lineId, int sequence, String status) {
+        return new OrderOperationView(operationId, lineId, "Melting", "MELT001", "MELTING", sequence, status,
+                1L, "Melting Stage");
+    }
+
     @Test
     @DisplayName("Should include operations in order line item response")
     void getOrderById_IncludesOperations() {
         // Arrange
         when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+        when(orderLineItemRepository.findViewsByOrderIds(List.of(1L))).thenReturn(List.of(lineView(1L, 1L)));
+        when(operationRepository.findOrderViewsByOrderLineIds(List.of(1L)))
+                .thenReturn(List.of(operationView(1L, 1L, 1, "READY")));
 
         // Act
         OrderDTO result = orderService.getOrderById(1L);
@@ -206,6 +227,34 @@ class OrderServiceTest {
         assertFalse(result.getLineItems().get(0).getOperations().isEmpty());
     }
 
+    @Test
+    @DisplayName("Should load lines and operations of all listed orders with one query each")
+    void getActiveOrders_LoadsLinesAndOperationsInBulk() {
+        // Arrange
+        Order second = Order.builder().orderId(2L).customerName("Second Customer").status("CREATED").build();
+        when(orderRepository.findActiveOrders()).thenReturn(List.of(testOrder, second));
+        when(orderLineItemRepository.findViewsByOrderIds(List.of(1L, 2L)))
+                .thenReturn(List.of(lineView(1L, 1L), lineView(2L, 2L), lineView(3L, 2L)));
+        when(operationRepository.findOrderViewsByOrderLineIds(List.of(1L, 2L, 3L)))
+                .thenReturn(List.of(operationView(10L, 1L, 1, "CONFIRMED"), operationView(11L, 1L, 2, "READY"),
+                        operationView(20L, 3L, 1, "NOT_STARTED")));
+
+        // Act
+        List<OrderDTO> result = orderService.getActiveOrders();
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals(1, result.get(0).getLineItems().size());
+        assertEquals(2, result.get(0).getLineItems().get(0).getOperations().size());
+        assertEquals(11L, result.get(0).getLineItems().get(0).getCurrentOperation().getOperationId());
+        assertEquals(2, result.get(1).getLineItems().size());
+        assertTrue(result.get(1).getLineItems().get(0).getOperations().isEmpty());
+        assertEquals(1, result.get(1).getLineItems().get(1).getOperations().size());
+
+        verify(orderLineItemRepository, times(1)).findViewsByOrderIds(any());
+        verify(operationRepository, times(1)).findOrderViewsByOrderLineIds(any());
+    }
+
     @Nested
     @DisplayName("Create Order Tests")
     class CreateOrderTests {
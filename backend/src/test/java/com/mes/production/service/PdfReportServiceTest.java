@@ -12,10 +12,14 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
@@ -129,4 +133,23 @@ class PdfReportServiceTest {
         assertNotNull(result);
         assertTrue(result.length > 0);
     }
+
+    @Test
+    @DisplayName("Should write the inventory PDF report to the caller's stream and leave it open")
+    void writeInventoryReport_WritesToStreamWithoutClosing() throws Exception {
+        when(inventoryRepository.findAll()).thenReturn(List.of(testInventory));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AtomicBoolean closed = new AtomicBoolean();
+
+        int count = pdfReportService.writeInventoryReport(new FilterOutputStream(out) {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        });
+
+        assertEquals(1, count);
+        assertFalse(closed.get());
+        assertTrue(out.toString(StandardCharsets.ISO_8859_1).startsWith("%PDF"));
+    }
 }
@@ -0,0 +1,81 @@
+package com.mes.production.service;
+
+import com.mes.production.config.TestSecurityConfig;
+import com.mes.production.repository.ProductionConfirmationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * The hourly rollup and the raw aggregate queries it replaces must report the same figures:
+ * the same half-open date range and the same confirmation statuses.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+@Transactional
+class ProductionRollupConsistencyTest {
+
+    /** A day no seeded confirmation falls on */
+    private static final LocalDateTime START = LocalDateTime.of(2031, 1, 1, 0, 0);
+    private static final LocalDateTime END = START.plusDays(1);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductionConfirmationRepository confirmationRepository;
+
+    @Autowired
+    private ProductionRollupService rollupService;
+
+    private Long operationId;
+
+    @BeforeEach
+    void setUp() {
+        List<Long> operations = jdbcTemplate.queryForList(
+                "SELECT operation_id FROM operations ORDER BY operation_id LIMIT 1", Long.class);
+        assumeTrue(!operations.isEmpty(), "Needs a seeded operation");
+        operationId = operations.get(0);
+    }
+
+    private void insertConfirmation(LocalDateTime createdOn, String status, String producedQty) {
+        jdbcTemplate.update("INSERT INTO production_confirmation (operation_id, produced_qty, scrap_qty, " +
+                        "start_time, end_time, status, created_on) VALUES (?, ?, 0, ?, ?, ?, ?)",
+                operationId, new BigDecimal(producedQty), Timestamp.valueOf(createdOn.minusMinutes(30)),
+                Timestamp.valueOf(createdOn), status, Timestamp.valueOf(createdOn));
+    }
+
+    private static void assertTotals(List<Object[]> rows, long count, String produced) {
+        assertEquals(1, rows.size());
+        assertEquals(count, ((Number) rows.get(0)[1]).longValue());
+        assertEquals(0, new BigDecimal(produced).compareTo(new BigDecimal(rows.get(0)[2].toString())));
+    }
+
+    @Test
+    @DisplayName("Should count rejected confirmations and leave out the end instant on both paths")
+    void aggregateByOperationType_RollupMatchesRawQuery() {
+        insertConfirmation(START.plusHours(3), "CONFIRMED", "10");
+        insertConfirmation(START.plusHours(5), "REJECTED", "20");
+        // First instant of the next day: outside [START, END)
+        insertConfirmation(END, "CONFIRMED", "40");
+        rollupService.rebuildWindow(START, END.plusDays(1));
+
+        assertTotals(confirmationRepository.aggregateByOperationType(START, END), 2, "30");
+        assertTotals(rollupService.aggregateByOperationType(START, END), 2, "30");
+    }
+}
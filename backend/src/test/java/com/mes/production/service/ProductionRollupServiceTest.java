@@ -0,0 +1,203 @@
+package com.mes.production.service;
+
+import com.mes.production.entity.Equipment;
+import com.mes.production.entity.Operation;
+import com.mes.production.entity.OrderLineItem;
+import com.mes.production.entity.ProductionConfirmation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ProductionRollupServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ProductionRollupService rollupService;
+
+    private final LocalDateTime createdOn = LocalDateTime.of(2026, 3, 10, 14, 25);
+    private final LocalDateTime hour = LocalDateTime.of(2026, 3, 10, 14, 0);
+
+    @BeforeEach
+    void setUp() {
+        rollupService = new ProductionRollupService(jdbcTemplate, transactionManager);
+        rollupService.init();
+
+        when(jdbcTemplate.query(startsWith("SELECT shift_code"), any(RowMapper.class))).thenReturn(List.of(
+                new ProductionRollupService.ShiftWindow("DAY", LocalTime.of(6, 0), LocalTime.of(14, 0)),
+                new ProductionRollupService.ShiftWindow("EVENING", LocalTime.of(14, 0), LocalTime.of(22, 0)),
+                new ProductionRollupService.ShiftWindow("NIGHT", LocalTime.of(22, 0), LocalTime.of(6, 0))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        rollupService.shutdown();
+    }
+
+    private ProductionConfirmation confirmation() {
+        return ProductionConfirmation.builder()
+                .confirmationId(42L)
+                .operation(Operation.builder()
+                        .operationId(7L)
+                        .operationType("FURNACE")
+                        .orderLineItem(OrderLineItem.builder().productSku("STEEL-001").productName("Steel Plate").build())
+                        .build())
+                .producedQty(new BigDecimal("100"))
+                .scrapQty(new BigDecimal("5"))
+                .startTime(createdOn.minusMinutes(90))
+                .endTime(createdOn)
+                .equipment(Set.of(Equipment.builder().equipmentId(12L).build(), Equipment.builder().equipmentId(3L).build()))
+                .status("CONFIRMED")
+                .createdOn(createdOn)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should resolve the shift of an hour, including a shift past midnight")
+    void shiftFor_ResolvesDayAndOvernightShifts() {
+        assertEquals("DAY", rollupService.shiftFor(LocalTime.of(6, 0)));
+        assertEquals("EVENING", rollupService.shiftFor(LocalTime.of(14, 0)));
+        assertEquals("NIGHT", rollupService.shiftFor(LocalTime.of(23, 0)));
+        assertEquals("NIGHT", rollupService.shiftFor(LocalTime.of(2, 0)));
+
+        // Shifts are loaded once and cached
+        verify(jdbcTemplate, times(1)).query(startsWith("SELECT shift_code"), any(RowMapper.class));
+    }
+
+    @Test
+    @DisplayName("Should insert the rollup row for the first confirmation of a key")
+    void confirmationRecorded_NewKey_InsertsRow() {
+        when(jdbcTemplate.update(eq(ProductionRollupService.INCREMENT_SQL), any(Object[].class))).thenReturn(0);
+        when(jdbcTemplate.update(startsWith(ProductionRollupService.INSERT_SQL), any(Object[].class))).thenReturn(1);
+
+        rollupService.confirmationRecorded(confirmation());
+
+        ArgumentCaptor<Object[]> params = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).update(eq(ProductionRollupService.INSERT_SQL + " ON CONFLICT DO NOTHING"), params.capture());
+        Object[] row = params.getValue();
+        assertEquals(Timestamp.valueOf(hour), row[0]);
+        assertEquals("FURNACE", row[1]);
+        assertEquals("STEEL-001", row[2]);
+        assertEquals("EVENING", row[3]);
+        assertEquals(3L, row[4]);
+        assertEquals(1L, row[6]);
+        assertEquals(new BigDecimal("100"), row[7]);
+        assertEquals(90L, row[9]);
+        verify(jdbcTemplate, times(1)).update(eq(ProductionRollupService.INCREMENT_SQL), any(Object[].class));
+        // Shared, so confirmations only wait for a running rebuild
+        verify(jdbcTemplate).queryForList("SELECT pg_advisory_xact_lock_shared(?)", ProductionRollupService.LOCK_KEY);
+    }
+
+    @Test
+    @DisplayName("Should update the existing rollup row without inserting")
+    void confirmationRecorded_ExistingKey_IncrementsRow() {
+        when(jdbcTemplate.update(eq(ProductionRollupService.INCREMENT_SQL), any(Object[].class))).thenReturn(1);
+
+        rollupService.confirmationRecorded(confirmation());
+
+        verify(jdbcTemplate, times(1)).update(eq(ProductionRollupService.INCREMENT_SQL), any(Object[].class));
+        verify(jdbcTemplate, never()).update(startsWith(ProductionRollupService.INSERT_SQL), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("Should fall back to an update when a concurrent insert wins")
+    void confirmationRecorded_ConcurrentInsert_IncrementsAgain() {
+        when(jdbcTemplate.update(eq(ProductionRollupService.INCREMENT_SQL), any(Object[].class))).thenReturn(0, 1);
+        when(jdbcTemplate.update(startsWith(ProductionRollupService.INSERT_SQL), any(Object[].class))).thenReturn(0);
+
+        rollupService.confirmationRecorded(confirmation());
+
+        verify(jdbcTemplate, times(2)).update(eq(ProductionRollupService.INCREMENT_SQL), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("Should recompute a window from every confirmation created in it")
+    void rebuildWindow_ReplacesRowsOfWindow() throws Exception {
+        Timestamp from = Timestamp.valueOf(hour);
+        Timestamp to = Timestamp.valueOf(hour.plusHours(1));
+        doAnswer(i -> {
+            RowCallbackHandler handler = i.getArgument(1);
+            for (int n = 0; n < 2; n++) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong("equipment_id")).thenReturn(3L);
+                when(rs.getTimestamp("created_on")).thenReturn(Timestamp.valueOf(createdOn.minusMinutes(n)));
+                when(rs.getTimestamp("start_time")).thenReturn(Timestamp.valueOf(createdOn.minusMinutes(30 + n * 30)));
+                when(rs.getTimestamp("end_time")).thenReturn(Timestamp.valueOf(createdOn));
+                when(rs.getString("operation_type")).thenReturn("FURNACE");
+                when(rs.getString("product_sku")).thenReturn("STEEL-001");
+                when(rs.getBigDecimal("produced_qty")).thenReturn(new BigDecimal("50"));
+                when(rs.getBigDecimal("scrap_qty")).thenReturn(BigDecimal.ONE);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(eq(ProductionRollupService.SOURCE_SQL), any(RowCallbackHandler.class),
+                eq(from), eq(to));
+
+        assertEquals(1, rollupService.rebuildWindow(hour, hour.plusHours(1)));
+
+        // The exclusive lock is taken before the rows are deleted
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).queryForList("SELECT pg_advisory_xact_lock(?)", ProductionRollupService.LOCK_KEY);
+        order.verify(jdbcTemplate).update(startsWith("DELETE FROM production_hourly_rollup"), eq(from), eq(to));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(ProductionRollupService.INSERT_SQL), rows.capture());
+        assertEquals(1, rows.getValue().size());
+        Object[] row = rows.getValue().get(0);
+        assertEquals(2L, row[6]);
+        assertEquals(new BigDecimal("100"), row[7]);
+        assertEquals(90L, row[9]);
+        assertEquals(30L, row[10]);
+        assertEquals(60L, row[11]);
+    }
+
+    @Test
+    @DisplayName("Should read the same half-open window and statuses as the raw report queries")
+    void sourceSql_HalfOpenRangeWithoutStatusFilter() {
+        assertTrue(ProductionRollupService.SOURCE_SQL.contains("pc.created_on >= ? AND pc.created_on < ?"));
+        assertFalse(ProductionRollupService.SOURCE_SQL.contains("status"));
+        assertTrue(ProductionRollupService.BY_OPERATION_SQL.contains("bucket_start >= ? AND bucket_start < ?"));
+    }
+
+    @Test
+    @DisplayName("Should stay on the raw queries until the startup check")
+    void isReady_BeforeStartupCheck_False() {
+        assertFalse(rollupService.isReady());
+
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COUNT(*)"), eq(Long.class))).thenReturn(500L);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT MIN(created_on)"), eq(LocalDateTime.class)))
+                .thenReturn(createdOn);
+        rollupService.checkOnStartup();
+
+        assertTrue(rollupService.isReady());
+    }
+}
@@ -21,6 +21,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -75,6 +76,12 @@ class ProductionServiceTest {
     @Mock
     private BatchNumberService batchNumberService;
 
+    @Mock
+    private GenealogyIndexService genealogyIndexService;
+
+    @Mock
+    private ProductionRollupService productionRollupService;
+
     @Mock
     private InventoryStateValidator inventoryStateValidator;
 
@@ -87,6 +94,12 @@ class ProductionServiceTest {
     @Mock
     private BomValidationService bomValidationService;
 
+    @Mock
+    private DashboardService dashboardService;
+
+    @Mock
+    private LiveEventService liveEventService;
+
     @InjectMocks
     private ProductionService productionService;
 
@@ -161,7 +174,7 @@ class ProductionServiceTest {
                 .build();
 
         // Default batch size service mock - returns single batch (backward compatible)
-        when(batchSizeService.calculateBatchSizes(any(), any(), any(), any(), any()))
+        when(batchSizeService.calculateBatchSizes(any(), any()))
                 .thenAnswer(invocation -> {
                     BigDecimal qty = invocation.getArgument(0);
                     if (qty == null) qty = BigDecimal.ZERO;
@@ -179,7 +192,7 @@ class ProductionServiceTest {
                 .thenReturn(Optional.empty());
 
         // Default BOM validation mock - returns valid result (R-02)
-        when(bomValidationService.validateConsumption(any(BomDTO.BomValidationRequest.class)))
+        when(bomValidationService.validateConsumption(any(BomDTO.BomValidationRequest.class), anyList()))
                 .thenReturn(BomDTO.BomValidationResult.builder()
                         .valid(true)
                         .productSku("TEST-SKU")
@@ -216,7 +229,7 @@ class ProductionServiceTest {
         when(operationRepository.findByIdWithDetails(1L)).thenReturn(Optional.of(testOperation));
         when(holdRecordRepository.existsByEntityTypeAndEntityIdAndStatus("OPERATION", 1L, "ACTIVE")).thenReturn(false);
         when(holdRecordRepository.existsByEntityTypeAndEntityIdAndStatus("PROCESS", 1L, "ACTIVE")).thenReturn(false);
-        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(testInventory));
+        when(inventoryRepository.findAllByIdWithBatch(anyCollection())).thenReturn(List.of(testInventory));
         when(holdRecordRepository.existsByEntityTypeAndEntityIdAndStatus("INVENTORY", 1L, "ACTIVE")).thenReturn(false);
         when(holdRecordRepository.existsByEntityTypeAndEntityIdAndStatus("BATCH", 1L, "ACTIVE")).thenReturn(false);
         when(batchRepository.findMaxSequenceByPrefix(anyString())).thenReturn(Optional.of(0));
@@ -226,7 +239,7 @@ class ProductionServiceTest {
             return b;
         });
         when(inventoryRepository.save(any(Inventory.class))).thenAnswer(i -> i.getArgument(0));
-        when(batchRepository.findById(1L)).thenReturn(Optional.of(testBatch));
+        when(batchRepository.findAllById(anyIterable())).thenReturn(List.of(testBatch));
         when(batchRelationRepository.save(any(BatchRelation.class))).thenAnswer(i -> i.getArgument(0));
         when(confirmationRepository.save(any(ProductionConfirmation.class))).thenAnswer(i -> {
             ProductionConfirmation pc = i.getArgument(0);
@@ -239,7 +252,8 @@ class ProductionServiceTest {
         when(processRepository.save(any(Process.class))).thenAnswer(i -> i.getArgument(0));
         when(equipmentRepository.findAllById(anyList())).thenReturn(List.of());
         when(operatorRepository.findAllById(anyList())).thenReturn(List.of());
-        when(batchNumberService.generateBatchNumber(anyString(), anyString())).thenReturn("BATCH-TEST-001");
+        when(batchNumberService.generateBatchNumbers(anyString(), anyString(), anyInt()))
+                .thenAnswer(i -> Collections.nCopies(i.<Integer>getArgument(2), "BATCH-TEST-001"));
 
         // Act
         ProductionConfirmationDTO.Response response = productionService.confirmProduction(request);
@@ -252,6 +266,8 @@ class ProductionServiceTest {
 
         verify(confirmationRepository, times(1)).save(any(ProductionConfirmation.class));
         verify(operationRepository, times(1)).save(any(Operation.class));
+        verify(productionRollupService, times(1)).confirmationRecorded(any(ProductionConfirmation.class));
+        verify(liveEventService, times(1)).confirmationCreated(any(ProductionConfirmation.class));
     }
 
     @Test
@@ -306,9 +322,9 @@ class ProductionServiceTest {
         when(operationRepository.findByIdWithDetails(1L)).thenReturn(Optional.of(testOperation));
         when(holdRecordRepository.existsByEntityTypeAndEntityIdAndStatus("OPERATION", 1L, "ACTIVE")).thenReturn(false);
         when(holdRecordRepository.existsByEntityTypeAndEntityIdAndStatus("PROCESS", 1L, "ACTIVE")).thenReturn(false);
-        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(testInventory));
+        when(inventoryRepository.findAllByIdWithBatch(anyCollection())).thenReturn(List.of(testInventory));
         doThrow(new IllegalStateException("Inventory is not available for consumption"))
-                .when(inventoryStateValidator).validateConsumption(any(Inventory.class), any());
+                .when(inventoryStateValidator).validateConsumption(any(Inventory.class), any(), anySet(), anySet());
 
         ProductionConfirmationDTO.Request request = ProductionConfirmationDTO.Request.builder()
                 .operationId(1L)
@@ -416,6 +432,8 @@ class ProductionServiceTest {
         verify(confirmationRepository, times(1)).save(any(ProductionConfirmation.class));
         verify(auditService, times(1)).logStatusChange(eq("PRODUCTION_CONFIRMATION"), eq(1L),
                 eq(ProductionConfirmation.STATUS_CONFIRMED), eq(ProductionConfirmation.STATUS_REJECTED));
+        // A rejected confirmation still counts in the production reports
+        verifyNoInteractions(productionRollupService);
     }
 
     @Test
@@ -439,6 +457,7 @@ class ProductionServiceTest {
                 () -> productionService.rejectConfirmation(request));
 
         assertTrue(exception.getMessage().contains("already rejected"));
+        verifyNoInteractions(productionRollupService);
     }
 
     @Test
@@ -540,7 +559,7 @@ class ProductionServiceTest {
 
         when(operationRepository.findByIdWithDetails(1L)).thenReturn(Optional.of(testOperation));
         when(holdRecordRepository.existsByEntityTypeAndEntityIdAndStatus(anyString(), anyLong(), anyString())).thenReturn(false);
-        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(testInventory));
+        when(inventoryRepository.findAllByIdWithBatch(anyCollection())).thenReturn(List.of(testInventory));
         when(batchRepository.findMaxSequenceByPrefix(anyString())).thenReturn(Optional.of(0));
         when(batchRepository.save(any(Batch.class))).thenAnswer(i -> {
             Batch b = i.getArgument(0);
@@ -548,7 +567,7 @@ class ProductionServiceTest {
             return b;
         });
         when(inventoryRepository.save(any(Inventory.class))).thenAnswer(i -> i.getArgument(0));
-        when(batchRepository.findById(1L)).thenReturn(Optional.of(testBatch));
+        when(batchRepository.findAllById(anyIterable())).thenReturn(List.of(testBatch));
         when(batchRelationRepository.save(any(BatchRelation.class))).thenAnswer(i -> i.getArgument(0));
         when(confirmationRepository.save(any(ProductionConfirmation.class))).thenAnswer(i -> {
             ProductionConfirmation pc = i.getArgument(0);
@@ -559,7 +578,8 @@ class ProductionServiceTest {
         when(operationRepository.save(any(Operation.class))).thenAnswer(i -> i.getArgument(0));
         when(equipmentRepository.findAllById(anyList())).thenReturn(List.of());
         when(operatorRepository.findAllById(anyList())).thenReturn(List.of());
-        when(batchNumberService.generateBatchNumber(anyString(), anyString())).thenReturn("BATCH-TEST-001");
+        when(batchNumberService.generateBatchNumbers(anyString(), anyString(), anyInt()))
+                .thenAnswer(i -> Collections.nCopies(i.<Integer>getArgument(2), "BATCH-TEST-001"));
 
         // Act
         ProductionConfirmationDTO.Response response = productionService.confirmProduction(request);
@@ -599,7 +619,7 @@ class ProductionServiceTest {
 
         when(operationRepository.findByIdWithDetails(1L)).thenReturn(Optional.of(testOperation));
         when(holdRecordRepository.existsByEntityTypeAndEntityIdAndStatus(anyString(), anyLong(), anyString())).thenReturn(false);
-        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(testInventory));
+        when(inventoryRepository.findAllByIdWithBatch(anyCollection())).thenReturn(List.of(testInventory));
         when(batchRepository.findMaxSequenceByPrefix(anyString())).thenReturn(Optional.of(0));
         when(batchRepository.save(any(Batch.class))).thenAnswer(i -> {
             Batch b = i.getArgument(0);
@@ -607,7 +627,7 @@ class ProductionServiceTest {
             return b;
         });
         when(inventoryRepository.save(any(Inventory.class))).thenAnswer(i -> i.getArgument(0));
-        when(batchRepository.findById(1L)).thenReturn(Optional.of(testBatch));
+        when(batchRepository.findAllById(anyIterable())).thenReturn(List.of(testBatch));
         when(batchRelationRepository.save(any(BatchRelation.class))).thenAnswer(i -> i.getArgument(0));
         when(confirmationRepository.save(any(ProductionConfirmation.class))).thenAnswer(i -> {
             ProductionConfirmation pc = i.getArgument(0);
@@ -620,7 +640,8 @@ class ProductionServiceTest {
         when(processRepository.save(any(Process.class))).thenAnswer(i -> i.getArgument(0));
         when(equipmentRepository.findAllById(anyList())).thenReturn(List.of());
         when(operatorRepository.findAllById(anyList())).thenReturn(List.of());
-        when(batchNumberService.generateBatchNumber(anyString(), anyString())).thenReturn("BATCH-TEST-001");
+        when(batchNumberService.generateBatchNumbers(anyString(), anyString(), anyInt()))
+                .thenAnswer(i -> Collections.nCopies(i.<Integer>getArgument(2), "BATCH-TEST-001"));
 
         // Act
         ProductionConfirmationDTO.Response response = productionService.confirmProduction(request);
@@ -674,7 +695,7 @@ class ProductionServiceTest {
 
         when(operationRepository.findByIdWithDetails(1L)).thenReturn(Optional.of(testOperation));
         when(holdRecordRepository.existsByEntityTypeAndEntityIdAndStatus(anyString(), anyLong(), anyString())).thenReturn(false);
-        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(testInventory));
+        when(inventoryRepository.findAllByIdWithBatch(anyCollection())).thenReturn(List.of(testInventory));
         when(batchRepository.findMaxSequenceByPrefix(anyString())).thenReturn(Optional.of(0));
         when(batchRepository.save(any(Batch.class))).thenAnswer(i -> {
             Batch b = i.getArgument(0);
@@ -682,7 +703,7 @@ class ProductionServiceTest {
             return b;
         });
         when(inventoryRepository.save(any(Inventory.class))).thenAnswer(i -> i.getArgument(0));
-        when(batchRepository.findById(1L)).thenReturn(Optional.of(testBatch));
+        when(batchRepository.findAllById(anyIterable())).thenReturn(List.of(testBatch));
         when(batchRelationRepository.save(any(BatchRelation.class))).thenAnswer(i -> i.getArgument(0));
         when(confirmationRepository.save(any(ProductionConfirmation.class))).thenAnswer(i -> {
             ProductionConfirmation pc = i.getArgument(0);
@@ -694,7 +715,8 @@ class ProductionServiceTest {
         when(processRepository.save(any(Process.class))).thenAnswer(i -> i.getArgument(0));
         when(equipmentRepository.findAllById(anyList())).thenReturn(List.of());
         when(operatorRepository.findAllById(anyList())).thenReturn(List.of());
-        when(batchNumberService.generateBatchNumber(anyString(), anyString())).thenReturn("BATCH-TEST-001");
+        when(batchNumberService.generateBatchNumbers(anyString(), anyString(), anyInt()))
+                .thenAnswer(i -> Collections.nCopies(i.<Integer>getArgument(2), "BATCH-TEST-001"));
 
         // WHEN: findNextOperation is called with orderLineId (1L), it returns the next operation
         when(operationRepository.findNextOperation(eq(1L), eq(1))).thenReturn(Optional.of(nextOperation));
@@ -740,7 +762,7 @@ class ProductionServiceTest {
 
         when(operationRepository.findByIdWithDetails(1L)).thenReturn(Optional.of(testOperation));
         when(holdRecordRepository.existsByEntityTypeAndEntityIdAndStatus(anyString(), anyLong(), anyString())).thenReturn(false);
-        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(testInventory));
+        when(inventoryRepository.findAllByIdWithBatch(anyCollection())).thenReturn(List.of(testInventory));
         when(batchRepository.findMaxSequenceByPrefix(anyString())).thenReturn(Optional.of(0));
         when(batchRepository.save(any(Batch.class))).thenAnswer(i -> {
             Batch b = i.getArgument(0);
@@ -748,7 +770,7 @@ class ProductionServiceTest {
             return b;
         });
         when(inventoryRepository.save(any(Inventory.class))).thenAnswer(i -> i.getArgument(0));
-        when(batchRepository.findById(1L)).thenReturn(Optional.of(testBatch));
+        when(batchRepository.findAllById(anyIterable())).thenReturn(List.of(testBatch));
         when(batchRelationRepository.save(any(BatchRelation.class))).thenAnswer(i -> i.getArgument(0));
         when(confirmationRepository.save(any(ProductionConfirmation.class))).thenAnswer(i -> {
             ProductionConfirmation pc = i.getArgument(0);
@@ -759,7 +781,8 @@ class ProductionServiceTest {
         when(operationRepository.save(any(Operation.class))).thenAnswer(i -> i.getArgument(0));
         when(equipmentRepository.findAllById(anyList())).thenReturn(List.of());
         when(operatorRepository.findAllById(anyList())).thenReturn(List.of());
-        when(batchNumberService.generateBatchNumber(anyString(), anyString())).thenReturn("BATCH-TEST-001");
+        when(batchNumberService.generateBatchNumbers(anyString(), anyString(), anyInt()))
+                .thenAnswer(i -> Collections.nCopies(i.<Integer>getArgument(2), "BATCH-TEST-001"));
 
         // WHEN: Partial confirmation is processed
         ProductionConfirmationDTO.Response response = productionService.confirmProduction(request);
@@ -798,7 +821,7 @@ class ProductionServiceTest {
 
         when(operationRepository.findByIdWithDetails(1L)).thenReturn(Optional.of(testOperation));
         when(holdRecordRepository.existsByEntityTypeAndEntityIdAndStatus(anyString(), anyLong(), anyString())).thenReturn(false);
-        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(testInventory));
+        when(inventoryRepository.findAllByIdWithBatch(anyCollection())).thenReturn(List.of(testInventory));
         when(batchRepository.findMaxSequenceByPrefix(anyString())).thenReturn(Optional.of(0));
         when(batchRepository.save(any(Batch.class))).thenAnswer(i -> {
             Batch b = i.getArgument(0);
@@ -806,7 +829,7 @@ class ProductionServiceTest {
             return b;
         });
         when(inventoryRepository.save(any(Inventory.class))).thenAnswer(i -> i.getArgument(0));
-        when(batchRepository.findById(1L)).thenReturn(Optional.of(testBatch));
+        when(batchRepository.findAllById(anyIterable())).thenReturn(List.of(testBatch));
         when(batchRelationRepository.save(any(BatchRelation.class))).thenAnswer(i -> i.getArgument(0));
         when(confirmationRepository.save(any(ProductionConfirmation.class))).thenAnswer(i -> {
             ProductionConfirmation pc = i.getArgument(0);
@@ -818,7 +841,8 @@ class ProductionServiceTest {
         when(processRepository.save(any(Process.class))).thenAnswer(i -> i.getArgument(0));
         when(equipmentRepository.findAllById(anyList())).thenReturn(List.of());
         when(operatorRepository.findAllById(anyList())).thenReturn(List.of());
-        when(batchNumberService.generateBatchNumber(anyString(), anyString())).thenReturn("BATCH-TEST-001");
+        when(batchNumberService.generateBatchNumbers(anyString(), anyString(), anyInt()))
+                .thenAnswer(i -> Collections.nCopies(i.<Integer>getArgument(2), "BATCH-TEST-001"));
 
         // findNextOperation returns empty - no next operation
         when(operationRepository.findNextOperation(eq(1L), eq(1))).thenReturn(Optional.empty());
@@ -868,7 +892,7 @@ class ProductionServiceTest {
 
         when(operationRepository.findByIdWithDetails(1L)).thenReturn(Optional.of(testOperation));
         when(holdRecordRepository.existsByEntityTypeAndEntityIdAndStatus(anyString(), anyLong(), anyString())).thenReturn(false);
-        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(testInventory));
+        when(inventoryRepository.findAllByIdWithBatch(anyCollection())).thenReturn(List.of(testInventory));
         when(batchRepository.findMaxSequenceByPrefix(anyString())).thenReturn(Optional.of(0));
         when(batchRepository.save(any(Batch.class))).thenAnswer(i -> {
             Batch b = i.getArgument(0);
@@ -876,14 +900,15 @@ class ProductionServiceTest {
             return b;
         });
         when(inventoryRepository.save(any(Inventory.class))).thenAnswer(i -> i.getArgument(0));
-        when(batchRepository.findById(1L)).thenReturn(Optional.of(testBatch));
+        when(batchRepository.findAllById(anyIterable())).thenReturn(List.of(testBatch));
         when(batchRelationRepository.save(any(BatchRelation.class))).thenAnswer(i -> i.getArgument(0));
         when(operationRepository.save(any(Operation.class))).thenAnswer(i -> i.getArgument(0));
         when(operationRepository.findNextOperation(anyLong(), anyInt())).thenReturn(Optional.empty());
         when(processRepository.save(any(Process.class))).thenAnswer(i -> i.getArgument(0));
         when(equipmentRepository.findAllById(anyList())).thenReturn(List.of());
         when(operatorRepository.findAllById(anyList())).thenReturn(List.of());
-        when(batchNumberService.generateBatchNumber(anyString(), anyString())).thenReturn("BATCH-TEST-001");
+        when(batchNumberService.generateBatchNumbers(anyString(), anyString(), anyInt()))
+                .thenAnswer(i -> Collections.nCopies(i.<Integer>getArgument(2), "BATCH-TEST-001"));
 
         // Mock process parameter validation to return valid result
         ProcessParameterService.ValidationResult validationResult = new ProcessParameterService.ValidationResult();
@@ -1077,14 +1102,14 @@ class ProductionServiceTest {
 
         when(operationRepository.findByIdWithDetails(1L)).thenReturn(Optional.of(testOperation));
         when(holdRecordRepository.existsByEntityTypeAndEntityIdAndStatus(anyString(), anyLong(), anyString())).thenReturn(false);
-        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(testInventory));
+        when(inventoryRepository.findAllByIdWithBatch(anyCollection())).thenReturn(List.of(testInventory));
         when(batchRepository.save(any(Batch.class))).thenAnswer(i -> {
             Batch b = i.getArgument(0);
             b.setBatchId(2L);
             return b;
         });
         when(inventoryRepository.save(any(Inventory.class))).thenAnswer(i -> i.getArgument(0));
-        when(batchRepository.findById(1L)).thenReturn(Optional.of(testBatch));
+        when(batchRepository.findAllById(anyIterable())).thenReturn(List.of(testBatch));
         when(batchRelationRepository.save(any(BatchRelation.class))).thenAnswer(i -> i.getArgument(0));
         when(confirmationRepository.save(any(ProductionConfirmation.class))).thenAnswer(i -> {
             ProductionConfirmation pc = i.getArgument(0);
@@ -1096,7 +1121,8 @@ class ProductionServiceTest {
         when(operationRepository.findNextOperation(anyLong(), anyInt())).thenReturn(Optional.empty());
         when(equipmentRepository.findAllById(anyList())).thenReturn(List.of());
         when(operatorRepository.findAllById(anyList())).thenReturn(List.of());
-        when(batchNumberService.generateBatchNumber(anyString(), anyString())).thenReturn("BATCH-TEST-001");
+        when(batchNumberService.generateBatchNumbers(anyString(), anyString(), anyInt()))
+                .thenAnswer(i -> Collections.nCopies(i.<Integer>getArgument(2), "BATCH-TEST-001"));
 
         // WHEN: Production is confirmed with qty below minimum
         ProductionConfirmationDTO.Response response = productionService.confirmProduction(request);
@@ -1143,14 +1169,14 @@ class ProductionServiceTest {
 
         when(operationRepository.findByIdWithDetails(1L)).thenReturn(Optional.of(testOperation));
         when(holdRecordRepository.existsByEntityTypeAndEntityIdAndStatus(anyString(), anyLong(), anyString())).thenReturn(false);
-        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(testInventory));
+        when(inventoryRepository.findAllByIdWithBatch(anyCollection())).thenReturn(List.of(testInventory));
         when(batchRepository.save(any(Batch.class))).thenAnswer(i -> {
             Batch b = i.getArgument(0);
             b.setBatchId(2L);
             return b;
         });
         when(inventoryRepository.save(any(Inventory.class))).thenAnswer(i -> i.getArgument(0));
-        when(batchRepository.findById(1L)).thenReturn(Optional.of(testBatch));
+        when(batchRepository.findAllById(anyIterable())).thenReturn(List.of(testBatch));
         when(batchRelationRepository.save(any(BatchRelation.class))).thenAnswer(i -> i.getArgument(0));
         when(confirmationRepository.save(any(ProductionConfirmation.class))).thenAnswer(i -> {
             ProductionConfirmation pc = i.getArgument(0);
@@ -1162,7 +1188,8 @@ class ProductionServiceTest {
         when(operationRepository.findNextOperation(anyLong(), anyInt())).thenReturn(Optional.empty());
         when(equipmentRepository.findAllById(anyList())).thenReturn(List.of());
         when(operatorRepository.findAllById(anyList())).thenReturn(List.of());
-        when(batchNumberService.generateBatchNumber(anyString(), anyString())).thenReturn("BATCH-TEST-001");
+        when(batchNumberService.generateBatchNumbers(anyString(), anyString(), anyInt()))
+                .thenAnswer(i -> Collections.nCopies(i.<Integer>getArgument(2), "BATCH-TEST-001"));
 
         // WHEN: Production is confirmed with qty within range
         ProductionConfirmationDTO.Response response = productionService.confirmProduction(request);
@@ -1181,7 +1208,7 @@ class ProductionServiceTest {
         testOperation.setTargetQty(BigDecimal.valueOf(100));
         testOperation.setConfirmedQty(BigDecimal.ZERO);
 
-        when(batchSizeService.calculateBatchSizes(any(), any(), any(), any(), any()))
+        when(batchSizeService.calculateBatchSizes(any(), any()))
                 .thenReturn(new BatchSizeService.BatchSizeResult(
                         List.of(BigDecimal.valueOf(60), BigDecimal.valueOf(40)),
                         2,
@@ -1207,7 +1234,7 @@ class ProductionServiceTest {
 
         when(operationRepository.findByIdWithDetails(1L)).thenReturn(Optional.of(testOperation));
         when(holdRecordRepository.existsByEntityTypeAndEntityIdAndStatus(anyString(), anyLong(), anyString())).thenReturn(false);
-        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(testInventory));
+        when(inventoryRepository.findAllByIdWithBatch(anyCollection())).thenReturn(List.of(testInventory));
 
         // Mock batch saves - track how many batches are created
         java.util.concurrent.atomic.AtomicLong batchIdCounter = new java.util.concurrent.atomic.AtomicLong(10L);
@@ -1225,7 +1252,7 @@ class ProductionServiceTest {
             }
             return inv;
         });
-        when(batchRepository.findById(1L)).thenReturn(Optional.of(testBatch));
+        when(batchRepository.findAllById(anyIterable())).thenReturn(List.of(testBatch));
         when(batchRelationRepository.save(any(BatchRelation.class))).thenAnswer(i -> i.getArgument(0));
         when(confirmationRepository.save(any(ProductionConfirmation.class))).thenAnswer(i -> {
             ProductionConfirmation pc = i.getArgument(0);
@@ -1237,7 +1264,8 @@ class ProductionServiceTest {
         when(operationRepository.findNextOperation(anyLong(), anyInt())).thenReturn(Optional.empty());
         when(equipmentRepository.findAllById(anyList())).thenReturn(List.of());
         when(operatorRepository.findAllById(anyList())).thenReturn(List.of());
-        when(batchNumberService.generateBatchNumber(anyString(), anyString())).thenReturn("BATCH-MULTI-001");
+        when(batchNumberService.generateBatchNumbers(anyString(), anyString(), anyInt()))
+                .thenAnswer(i -> Collections.nCopies(i.<Integer>getArgument(2), "BATCH-MULTI-001"));
 
         // WHEN
         ProductionConfirmationDTO.Response response = productionService.confirmProduction(request);
@@ -1250,4 +1278,143 @@ class ProductionServiceTest {
         // Verify batch save was called for 2 output batches (plus possible input batch saves)
         verify(batchRepository, atLeast(2)).save(any(Batch.class));
     }
+
+    // ===== Set-based consumption =====
+
+    @Test
+    @DisplayName("Should prefetch inventory, batches and holds once for all consumption lines")
+    void should_prefetchConsumptionInBulk_when_multipleLinesConsumed() {
+        // GIVEN: three consumption lines from three RM lots
+        List<Inventory> inventories = new java.util.ArrayList<>();
+        List<Batch> batches = new java.util.ArrayList<>();
+        List<ProductionConfirmationDTO.MaterialConsumption> lines = new java.util.ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            Batch batch = Batch.builder().batchId(id).batchNumber("RM-" + id).materialId("RM-001")
+                    .quantity(BigDecimal.TEN).status("AVAILABLE").build();
+            batches.add(batch);
+            inventories.add(Inventory.builder().inventoryId(id).materialId("RM-001").inventoryType("RM")
+                    .state("AVAILABLE").quantity(BigDecimal.TEN).batch(batch).build());
+            lines.add(ProductionConfirmationDTO.MaterialConsumption.builder()
+                    .batchId(id).inventoryId(id).quantity(BigDecimal.valueOf(5)).build());
+        }
+
+        ProductionConfirmationDTO.Request request = ProductionConfirmationDTO.Request.builder()
+                .operationId(1L)
+                .materialsConsumed(lines)
+                .producedQty(BigDecimal.valueOf(15))
+                .startTime(LocalDateTime.now().minusHours(1))
+                .endTime(LocalDateTime.now())
+                .build();
+
+        when(operationRepository.findByIdWithDetails(1L)).thenReturn(Optional.of(testOperation));
+        when(inventoryRepository.findAllByIdWithBatch(anyCollection())).thenReturn(inventories);
+        when(batchRepository.findAllById(anyIterable())).thenReturn(batches);
+        when(holdRecordRepository.findActiveHoldEntityIds(anyString(), anyCollection())).thenReturn(List.of());
+        when(batchRepository.save(any(Batch.class))).thenAnswer(i -> {
+            Batch b = i.getArgument(0);
+            b.setBatchId(10L);
+            return b;
+        });
+        when(inventoryRepository.save(any(Inventory.class))).thenAnswer(i -> i.getArgument(0));
+        when(batchRelationRepository.saveAll(anyList())).thenAnswer(i -> i.getArgument(0));
+        when(confirmationRepository.save(any(ProductionConfirmation.class))).thenAnswer(i -> {
+            ProductionConfirmation pc = i.getArgument(0);
+            pc.setConfirmationId(1L);
+            return pc;
+        });
+        when(operationRepository.findNextOperation(anyLong(), anyInt())).thenReturn(Optional.empty());
+        when(batchNumberService.generateBatchNumbers(anyString(), anyString(), anyInt()))
+                .thenAnswer(i -> Collections.nCopies(i.<Integer>getArgument(2), "BATCH-SET-001"));
+
+        // WHEN
+        ProductionConfirmationDTO.Response response = productionService.confirmProduction(request);
+
+        // THEN: one bulk read each, no per-line lookups
+        assertEquals(3, response.getMaterialsConsumed().size());
+        verify(inventoryRepository, times(1)).findAllByIdWithBatch(anyCollection());
+        verify(batchRepository, times(1)).findAllById(anyIterable());
+        verify(holdRecordRepository, times(1)).findActiveHoldEntityIds(eq("INVENTORY"), anyCollection());
+        verify(holdRecordRepository, times(1)).findActiveHoldEntityIds(eq("BATCH"), anyCollection());
+        verify(inventoryRepository, never()).findById(anyLong());
+        verify(batchRepository, never()).findById(anyLong());
+        verify(inventoryStateValidator, never()).validateConsumption(any(Inventory.class), any());
+        verify(inventoryStateValidator, times(3)).validateConsumption(any(Inventory.class), any(), anySet(), anySet());
+
+        // AND: writes go out as batches
+        verify(inventoryRepository, times(1)).saveAll(argThat(list -> ((java.util.Collection<?>) list).size() == 3));
+        verify(batchRelationRepository, times(1)).saveAll(argThat(list -> ((java.util.Collection<?>) list).size() == 3));
+        verify(genealogyIndexService, times(1)).relationsCreated(argThat(list -> list.size() == 3));
+        verify(inventoryMovementService).recordMovements(eq(testOperation), eq(InventoryMovement.TYPE_CONSUME),
+                argThat(list -> list.size() == 3));
+        assertTrue(inventories.stream().allMatch(inv -> "CONSUMED".equals(inv.getState())));
+        assertTrue(batches.stream().allMatch(b -> "CONSUMED".equals(b.getStatus())));
+    }
+
+    @Test
+    @DisplayName("Should reject confirmation listing the same inventory twice")
+    void should_throwException_when_inventoryListedTwice() {
+        when(operationRepository.findByIdWithDetails(1L)).thenReturn(Optional.of(testOperation));
+
+        ProductionConfirmationDTO.MaterialConsumption line = ProductionConfirmationDTO.MaterialConsumption.builder()
+                .batchId(1L)
+                .inventoryId(1L)
+                .quantity(BigDecimal.valueOf(5))
+                .build();
+        ProductionConfirmationDTO.Request request = ProductionConfirmationDTO.Request.builder()
+                .operationId(1L)
+                .materialsConsumed(List.of(line, line))
+                .producedQty(BigDecimal.TEN)
+                .startTime(LocalDateTime.now())
+                .endTime(LocalDateTime.now())
+                .build();
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> productionService.confirmProduction(request));
+
+        assertTrue(exception.getMessage().contains("more than once"));
+        verify(inventoryRepository, never()).saveAll(any());
+    }
+
+    // ===== Shared lookups (bulk confirmation) =====
+
+    @Test
+    @DisplayName("Should resolve BOM, batch size config and equipment once when lookups are shared")
+    void should_reuseLookups_when_sameLookupsPassedToSeveralConfirmations() {
+        ProductionLookups lookups = new ProductionLookups();
+
+        when(operationRepository.findByIdWithDetails(1L)).thenReturn(Optional.of(testOperation));
+        when(inventoryRepository.findAllByIdWithBatch(anyCollection())).thenAnswer(i -> List.of(Inventory.builder()
+                .inventoryId(1L).materialId("RM-001").inventoryType("RM").state("AVAILABLE")
+                .quantity(BigDecimal.valueOf(50)).batch(testBatch).build()));
+        when(batchRepository.findAllById(anyIterable())).thenReturn(List.of(testBatch));
+        when(batchRepository.save(any(Batch.class))).thenAnswer(i -> i.getArgument(0));
+        when(inventoryRepository.save(any(Inventory.class))).thenAnswer(i -> i.getArgument(0));
+        when(confirmationRepository.save(any(ProductionConfirmation.class))).thenAnswer(i -> i.getArgument(0));
+        when(operationRepository.findNextOperation(anyLong(), anyInt())).thenReturn(Optional.empty());
+        when(equipmentRepository.findAllById(anyList())).thenReturn(List.of(
+                Equipment.builder().equipmentId(1L).equipmentCode("EQ-1").name("Furnace").build()));
+        when(batchNumberService.generateBatchNumbers(anyString(), anyString(), anyInt()))
+                .thenAnswer(i -> Collections.nCopies(i.<Integer>getArgument(2), "BATCH-LOOKUP-001"));
+
+        for (int i = 0; i < 2; i++) {
+            testOperation.setStatus("READY");
+            ProductionConfirmationDTO.Request request = ProductionConfirmationDTO.Request.builder()
+                    .operationId(1L)
+                    .materialsConsumed(List.of(ProductionConfirmationDTO.MaterialConsumption.builder()
+                            .batchId(1L).inventoryId(1L).quantity(BigDecimal.TEN).build()))
+                    .producedQty(BigDecimal.TEN)
+                    .startTime(LocalDateTime.now().minusHours(1))
+                    .endTime(LocalDateTime.now())
+                    .equipmentIds(List.of(1L))
+                    .build();
+
+            ProductionConfirmationDTO.Response response = productionService.confirmProduction(request, lookups);
+            assertEquals(1, response.getEquipment().size());
+        }
+
+        verify(bomValidationService, times(1)).getActiveBom("TEST-SKU");
+        verify(batchSizeService, times(1)).findApplicableConfig(any(), any(), any(), any());
+        verify(equipmentRepository, times(1)).findAllById(anyList());
+        verify(bomValidationService, times(2)).validateConsumption(any(BomDTO.BomValidationRequest.class), anyList());
+    }
 }
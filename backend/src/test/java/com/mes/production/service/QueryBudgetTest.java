@@ -0,0 +1,143 @@
+package com.mes.production.service;
+
+import com.mes.production.config.QueryBudget;
+import com.mes.production.config.TestSecurityConfig;
+import com.mes.production.dto.BatchDTO;
+import com.mes.production.dto.BomDTO;
+import com.mes.production.dto.DashboardDTO;
+import com.mes.production.dto.ProductionConfirmationDTO;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+/**
+ * SQL statement budgets for the key service methods, against the seeded test database.
+ *
+ * Budgets are the statement counts of the current implementations; a change that adds a
+ * query per row (an N+1) breaks them. Test data is looked up with JdbcTemplate before the
+ * service call and counts toward the budget, so each lookup is listed in the budget comment.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+@Transactional
+class QueryBudgetTest {
+
+    @Autowired
+    private BomService bomService;
+
+    @Autowired
+    private BatchService batchService;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private ProductionService productionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private <T> T first(String sql, Class<T> type) {
+        List<T> rows = jdbcTemplate.queryForList(sql, type);
+        assumeFalse(rows.isEmpty(), "no seeded row for: " + sql);
+        return rows.get(0);
+    }
+
+    @Test
+    @DisplayName("BOM tree should be built from one query whatever its depth")
+    @QueryBudget(2) // product lookup + the BOM rows
+    void getBomTree_WithinBudget() {
+        String productSku = first("SELECT product_sku FROM bill_of_material WHERE status = 'ACTIVE' "
+                + "GROUP BY product_sku ORDER BY count(*) DESC", String.class);
+
+        BomDTO.BomTreeFullResponse tree = bomService.getBomTree(productSku);
+
+        assertTrue(tree.getTotalNodes() > 0);
+    }
+
+    @Test
+    @DisplayName("Batch genealogy should load relations with their batches fetched")
+    @QueryBudget(5) // batch lookup + batch, parent relations, child relations, producing operation
+    void getBatchGenealogy_WithinBudget() {
+        Long batchId = first("SELECT child_batch_id FROM batch_relations ORDER BY relation_id", Long.class);
+
+        BatchDTO.Genealogy genealogy = batchService.getBatchGenealogy(batchId);
+
+        assertFalse(genealogy.getParentBatches().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Dashboard summary should cost a fixed set of counts and two recent-activity reads")
+    @QueryBudget(9) // seven counts, recent confirmations, recent audit entries
+    void getDashboardSummary_WithinBudget() {
+        // Drop the cached snapshot so the summary is computed
+        ReflectionTestUtils.setField(dashboardService, "snapshot", null);
+
+        DashboardDTO.Summary summary = dashboardService.getDashboardSummary();
+
+        assertNotNull(summary.getTotalOrders());
+    }
+
+    @Test
+    @DisplayName("Production confirmation should stay within its statement budget")
+    @WithMockUser(username = "admin@mes.com")
+    @QueryBudget(60) // 4 lookups + validation, consumption, output batch, relations, confirmation, order progress
+    void confirmProduction_WithinBudget() {
+        Long operationId = first("SELECT o.operation_id FROM operations o "
+                + "JOIN processes p ON p.process_id = o.process_id "
+                + "WHERE o.status = 'READY' AND p.status = 'ACTIVE' AND NOT EXISTS ("
+                + "  SELECT 1 FROM hold_records h WHERE h.status = 'ACTIVE' AND ("
+                + "    (h.entity_type = 'OPERATION' AND h.entity_id = o.operation_id) OR "
+                + "    (h.entity_type = 'PROCESS' AND h.entity_id = p.process_id))) "
+                + "ORDER BY o.operation_id", Long.class);
+        Map<String, Object> inventory = jdbcTemplate.queryForList("SELECT i.inventory_id, i.batch_id FROM inventory i "
+                + "WHERE i.state = 'AVAILABLE' AND i.batch_id IS NOT NULL AND i.quantity >= 1 AND NOT EXISTS ("
+                + "  SELECT 1 FROM hold_records h WHERE h.status = 'ACTIVE' AND ("
+                + "    (h.entity_type = 'INVENTORY' AND h.entity_id = i.inventory_id) OR "
+                + "    (h.entity_type = 'BATCH' AND h.entity_id = i.batch_id))) "
+                + "ORDER BY i.inventory_id LIMIT 1").stream().findFirst().orElse(null);
+        assumeFalse(inventory == null, "no available inventory seeded");
+        Long equipmentId = first("SELECT equipment_id FROM equipment ORDER BY equipment_id", Long.class);
+        Long operatorId = first("SELECT operator_id FROM operators ORDER BY operator_id", Long.class);
+
+        ProductionConfirmationDTO.Request request = ProductionConfirmationDTO.Request.builder()
+                .operationId(operationId)
+                .materialsConsumed(List.of(ProductionConfirmationDTO.MaterialConsumption.builder()
+                        .batchId(((Number) inventory.get("batch_id")).longValue())
+                        .inventoryId(((Number) inventory.get("inventory_id")).longValue())
+                        .quantity(BigDecimal.ONE)
+                        .build()))
+                .producedQty(BigDecimal.ONE)
+                .startTime(LocalDateTime.now().minusHours(1))
+                .endTime(LocalDateTime.now())
+                .equipmentIds(List.of(equipmentId))
+                .operatorIds(List.of(operatorId))
+                .build();
+
+        ProductionConfirmationDTO.Response response = productionService.confirmProduction(request);
+        // Pending updates are part of the cost
+        entityManager.flush();
+
+        assertNotNull(response.getConfirmationId());
+    }
+}
@@ -0,0 +1,197 @@
+package com.mes.production.service;
+
+import com.mes.production.dto.ReportAnalyticsDTO;
+import com.mes.production.entity.HoldRecord;
+import com.mes.production.entity.Inventory;
+import com.mes.production.entity.ProductionConfirmation;
+import com.mes.production.repository.HoldRecordRepository;
+import com.mes.production.repository.InventoryRepository;
+import com.mes.production.repository.ProductionConfirmationRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the old report path (load every confirmation, inventory row and hold into memory)
+ * with the GROUP BY queries ReportAnalyticsService uses now, on a generated dataset in the
+ * H2 demo database. Prints elapsed time and retained heap for both.
+ *
+ * Not part of the normal test run: ./gradlew benchmark [-Dmes.benchmark.rows=500000]
+ */
+@SpringBootTest
+@ActiveProfiles("demo")
+@EnabledIfSystemProperty(named = "mes.benchmark", matches = "true")
+@Transactional
+class ReportAnalyticsBenchmarkTest {
+
+    private static final int ITERATIONS = 3;
+
+    @Autowired
+    private ReportAnalyticsService reportAnalyticsService;
+
+    @Autowired
+    private ProductionConfirmationRepository confirmationRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private HoldRecordRepository holdRecordRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    @DisplayName("Aggregate report queries vs loading every row")
+    void reportAggregates_VsInMemoryGrouping() {
+        int rows = Integer.getInteger("mes.benchmark.rows", 200_000);
+        generateDataset(rows);
+
+        LocalDate endDate = LocalDate.now();
+        LocalDate startDate = endDate.minusDays(30);
+        LocalDateTime start = startDate.atStartOfDay();
+        LocalDateTime end = endDate.plusDays(1).atStartOfDay();
+
+        // Old path: the entity lists the service used to build its reports from
+        List<ProductionConfirmation> confirmations = confirmationRepository.findByDateRange(start, end);
+        List<Inventory> inventory = inventoryRepository.findAll();
+        List<HoldRecord> holds = holdRecordRepository.findAll();
+        BigDecimal expectedProduced = confirmations.stream()
+                .map(ProductionConfirmation::getProducedQty).reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal expectedInventory = inventory.stream()
+                .map(Inventory::getQuantity).reduce(BigDecimal.ZERO, BigDecimal::add);
+        long expectedActiveHolds = holds.stream().filter(h -> HoldRecord.STATUS_ACTIVE.equals(h.getStatus())).count();
+        int expectedConfirmations = confirmations.size();
+        confirmations = null;
+        inventory = null;
+        holds = null;
+        entityManager.clear();
+
+        Result legacy = measure("in-memory", () -> {
+            List<Object> loaded = new ArrayList<>();
+            loaded.addAll(confirmationRepository.findByDateRange(start, end));
+            loaded.addAll(inventoryRepository.findAll());
+            loaded.addAll(holdRecordRepository.findAll());
+            return loaded;
+        });
+
+        Result aggregate = measure("aggregate", () -> List.of(
+                reportAnalyticsService.getProductionSummary(startDate, endDate),
+                reportAnalyticsService.getScrapAnalysis(startDate, endDate),
+                reportAnalyticsService.getOperationCycleTimes(startDate, endDate),
+                reportAnalyticsService.getInventoryBalance(),
+                reportAnalyticsService.getHoldAnalysis()));
+
+        System.out.printf("%nReport analytics benchmark (%,d generated confirmations)%n", rows);
+        System.out.printf("%-12s %12s %16s%n", "path", "avg ms", "retained KB");
+        for (Result result : List.of(legacy, aggregate)) {
+            System.out.printf("%-12s %12d %16d%n", result.name, result.avgMillis, result.retainedBytes / 1024);
+        }
+
+        // Same answers from far less memory
+        ReportAnalyticsDTO.ProductionSummary summary = reportAnalyticsService.getProductionSummary(startDate, endDate);
+        assertEquals((long) expectedConfirmations, summary.getConfirmationCount());
+        assertEquals(0, expectedProduced.compareTo(summary.getTotalProduced()));
+        assertEquals(0, expectedInventory.compareTo(reportAnalyticsService.getInventoryBalance().getTotalQuantity()));
+        assertEquals(expectedActiveHolds, reportAnalyticsService.getHoldAnalysis().getTotalActiveHolds());
+        assertTrue(aggregate.retainedBytes < legacy.retainedBytes);
+    }
+
+    private Result measure(String name, Supplier<List<?>> work) {
+        work.get();
+        entityManager.clear();
+
+        long totalNanos = 0;
+        long retained = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long before = usedHeap();
+            long started = System.nanoTime();
+            List<?> result = work.get();
+            totalNanos += System.nanoTime() - started;
+            retained = Math.max(retained, usedHeap() - before);
+            assertNotNull(result);
+            entityManager.clear();
+        }
+        return new Result(name, totalNanos / ITERATIONS / 1_000_000, Math.max(retained, 0));
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private void generateDataset(int rows) {
+        List<Long> operationIds = jdbcTemplate.queryForList("SELECT operation_id FROM operations", Long.class);
+        assertFalse(operationIds.isEmpty(), "Demo data should contain operations");
+
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Object[]> confirmations = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            LocalDateTime startTime = now.minusMinutes(random.nextInt(60 * 24 * 60));
+            LocalDateTime endTime = startTime.plusMinutes(10 + random.nextInt(240));
+            confirmations.add(new Object[]{
+                    operationIds.get(random.nextInt(operationIds.size())),
+                    BigDecimal.valueOf(50 + random.nextInt(500)),
+                    BigDecimal.valueOf(random.nextInt(20)),
+                    Timestamp.valueOf(startTime),
+                    Timestamp.valueOf(endTime),
+                    Timestamp.valueOf(endTime)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO production_confirmation " +
+                "(operation_id, produced_qty, scrap_qty, start_time, end_time, status, created_on, created_by) " +
+                "VALUES (?, ?, ?, ?, ?, 'CONFIRMED', ?, 'benchmark')", confirmations);
+
+        String[] types = {"RM", "IM", "FG", "WIP"};
+        String[] states = {"AVAILABLE", "CONSUMED", "BLOCKED", "ON_HOLD"};
+        List<Object[]> inventory = new ArrayList<>(rows / 4);
+        for (int i = 0; i < rows / 4; i++) {
+            inventory.add(new Object[]{
+                    "BENCH-" + (i % 200),
+                    types[random.nextInt(types.length)],
+                    states[random.nextInt(states.length)],
+                    BigDecimal.valueOf(1 + random.nextInt(1000))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO inventory (material_id, inventory_type, state, quantity, unit) " +
+                "VALUES (?, ?, ?, ?, 'T')", inventory);
+
+        String[] entityTypes = {"BATCH", "INVENTORY", "OPERATION", "ORDER"};
+        List<Object[]> holds = new ArrayList<>(rows / 4);
+        for (int i = 0; i < rows / 4; i++) {
+            holds.add(new Object[]{
+                    entityTypes[random.nextInt(entityTypes.length)],
+                    (long) i,
+                    "Reason " + random.nextInt(25),
+                    random.nextInt(3) == 0 ? HoldRecord.STATUS_ACTIVE : HoldRecord.STATUS_RELEASED});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO hold_records (entity_type, entity_id, reason, applied_by, status) " +
+                "VALUES (?, ?, ?, 'benchmark', ?)", holds);
+    }
+
+    private record Result(String name, long avgMillis, long retainedBytes) {
+    }
+}
@@ -7,9 +7,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -38,64 +40,43 @@ class ReportAnalyticsServiceTest {
     @Mock
     private OperationRepository operationRepository;
 
+    @Mock
+    private ProductionRollupService productionRollupService;
+
     @InjectMocks
     private ReportAnalyticsService reportAnalyticsService;
 
     private LocalDate startDate;
     private LocalDate endDate;
-    private Operation meltingOperation;
-    private Operation castingOperation;
-    private ProductionConfirmation confirmation1;
-    private ProductionConfirmation confirmation2;
-    private OrderLineItem lineItem;
+
+    /** Aggregate rows: {operationType, count, produced, scrap, cycleMinutesSum, cycleMinutesMin, cycleMinutesMax} */
+    private Object[] furnaceRow;
+    private Object[] casterRow;
 
     @BeforeEach
     void setUp() {
         startDate = LocalDate.of(2026, 1, 1);
         endDate = LocalDate.of(2026, 1, 31);
 
-        lineItem = OrderLineItem.builder()
-                .orderLineId(1L)
-                .productSku("STEEL-001")
-                .productName("Steel Rod")
-                .deliveryDate(LocalDate.of(2026, 2, 15))
-                .build();
-
-        meltingOperation = Operation.builder()
-                .operationId(1L)
-                .operationName("Melting")
-                .operationType("FURNACE")
-                .orderLineItem(lineItem)
-                .build();
+        // FURNACE: 100 produced, 5 scrap, 8:00 to 10:30 = 150 minutes
+        furnaceRow = operationRow("FURNACE", 1, "100.00", "5.00", 150, 150, 150);
+        // CASTER: 90 produced, 10 scrap, 9:00 to 12:00 = 180 minutes
+        casterRow = operationRow("CASTER", 1, "90.00", "10.00", 180, 180, 180);
+    }
 
-        castingOperation = Operation.builder()
-                .operationId(2L)
-                .operationName("Casting")
-                .operationType("CASTER")
-                .orderLineItem(lineItem)
-                .build();
+    private static Object[] operationRow(String type, long count, String produced, String scrap,
+                                         long cycleSum, long cycleMin, long cycleMax) {
+        return new Object[]{type, count, new BigDecimal(produced), new BigDecimal(scrap), cycleSum, cycleMin, cycleMax};
+    }
 
-        confirmation1 = ProductionConfirmation.builder()
-                .confirmationId(1L)
-                .operation(meltingOperation)
-                .producedQty(new BigDecimal("100.00"))
-                .scrapQty(new BigDecimal("5.00"))
-                .startTime(LocalDateTime.of(2026, 1, 15, 8, 0))
-                .endTime(LocalDateTime.of(2026, 1, 15, 10, 30))
-                .status("CONFIRMED")
-                .createdOn(LocalDateTime.of(2026, 1, 15, 10, 30))
-                .build();
+    private void givenOperationRows(Object[]... rows) {
+        when(confirmationRepository.aggregateByOperationType(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(rows));
+    }
 
-        confirmation2 = ProductionConfirmation.builder()
-                .confirmationId(2L)
-                .operation(castingOperation)
-                .producedQty(new BigDecimal("90.00"))
-                .scrapQty(new BigDecimal("10.00"))
-                .startTime(LocalDateTime.of(2026, 1, 16, 9, 0))
-                .endTime(LocalDateTime.of(2026, 1, 16, 12, 0))
-                .status("CONFIRMED")
-                .createdOn(LocalDateTime.of(2026, 1, 16, 12, 0))
-                .build();
+    private void givenProductRows(Object[]... rows) {
+        when(confirmationRepository.aggregateScrapByProduct(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(rows));
     }
 
     // ========== getProductionSummary ==========
@@ -103,8 +84,7 @@ class ReportAnalyticsServiceTest {
     @Test
     @DisplayName("Should return production summary with correct totals")
     void getProductionSummary_WithData_ReturnsCorrectTotals() {
-        when(confirmationRepository.findByDateRange(any(LocalDateTime.class), any(LocalDateTime.class)))
-                .thenReturn(List.of(confirmation1, confirmation2));
+        givenOperationRows(furnaceRow, casterRow);
 
         ReportAnalyticsDTO.ProductionSummary result = reportAnalyticsService.getProductionSummary(startDate, endDate);
 
@@ -116,14 +96,31 @@ class ReportAnalyticsServiceTest {
         assertEquals(2L, result.getConfirmationCount());
         // Yield = 190 / (190+15) * 100 = 92.68%
         assertTrue(result.getYieldPercentage().compareTo(BigDecimal.ZERO) > 0);
-        assertTrue(result.getAvgCycleTimeMinutes().compareTo(BigDecimal.ZERO) > 0);
+        // (150 + 180) / 2 = 165 minutes
+        assertEquals(0, new BigDecimal("165.00").compareTo(result.getAvgCycleTimeMinutes()));
+        verify(confirmationRepository, never()).findByDateRange(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should read production figures from the hourly rollup once it is ready")
+    void getProductionSummary_RollupReady_UsesRollup() {
+        when(productionRollupService.isReady()).thenReturn(true);
+        when(productionRollupService.aggregateByOperationType(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(furnaceRow, casterRow));
+
+        ReportAnalyticsDTO.ProductionSummary result = reportAnalyticsService.getProductionSummary(startDate, endDate);
+
+        assertEquals(new BigDecimal("190.00"), result.getTotalProduced());
+        assertEquals(2L, result.getConfirmationCount());
+        verify(productionRollupService).aggregateByOperationType(
+                LocalDateTime.of(2026, 1, 1, 0, 0), LocalDateTime.of(2026, 2, 1, 0, 0));
+        verify(confirmationRepository, never()).aggregateByOperationType(any(), any());
     }
 
     @Test
     @DisplayName("Should return zero production summary when no confirmations")
     void getProductionSummary_NoData_ReturnsZeros() {
-        when(confirmationRepository.findByDateRange(any(LocalDateTime.class), any(LocalDateTime.class)))
-                .thenReturn(List.of());
+        givenOperationRows();
 
         ReportAnalyticsDTO.ProductionSummary result = reportAnalyticsService.getProductionSummary(startDate, endDate);
 
@@ -139,8 +136,7 @@ class ReportAnalyticsServiceTest {
     @DisplayName("Should calculate yield percentage correctly")
     void getProductionSummary_CalculatesYieldCorrectly() {
         // 100 produced + 5 scrap = 105 total input -> yield = 100/105 * 100 = 95.24%
-        when(confirmationRepository.findByDateRange(any(LocalDateTime.class), any(LocalDateTime.class)))
-                .thenReturn(List.of(confirmation1));
+        givenOperationRows(furnaceRow);
 
         ReportAnalyticsDTO.ProductionSummary result = reportAnalyticsService.getProductionSummary(startDate, endDate);
 
@@ -153,8 +149,7 @@ class ReportAnalyticsServiceTest {
     @Test
     @DisplayName("Should return production grouped by operation type")
     void getProductionByOperation_WithData_ReturnsGrouped() {
-        when(confirmationRepository.findByDateRange(any(LocalDateTime.class), any(LocalDateTime.class)))
-                .thenReturn(List.of(confirmation1, confirmation2));
+        givenOperationRows(furnaceRow, casterRow);
 
         ReportAnalyticsDTO.ProductionByOperation result =
                 reportAnalyticsService.getProductionByOperation(startDate, endDate);
@@ -182,8 +177,7 @@ class ReportAnalyticsServiceTest {
     @Test
     @DisplayName("Should return empty entries when no confirmations")
     void getProductionByOperation_NoData_ReturnsEmpty() {
-        when(confirmationRepository.findByDateRange(any(LocalDateTime.class), any(LocalDateTime.class)))
-                .thenReturn(List.of());
+        givenOperationRows();
 
         ReportAnalyticsDTO.ProductionByOperation result =
                 reportAnalyticsService.getProductionByOperation(startDate, endDate);
@@ -195,24 +189,17 @@ class ReportAnalyticsServiceTest {
     @Test
     @DisplayName("Should group confirmations with null operation type as UNKNOWN")
     void getProductionByOperation_NullOperationType_GroupsAsUnknown() {
-        Operation unknownOp = Operation.builder().operationId(99L).operationName("Test").build();
-        ProductionConfirmation pc = ProductionConfirmation.builder()
-                .confirmationId(99L)
-                .operation(unknownOp)
-                .producedQty(new BigDecimal("50.00"))
-                .scrapQty(BigDecimal.ZERO)
-                .startTime(LocalDateTime.of(2026, 1, 20, 8, 0))
-                .endTime(LocalDateTime.of(2026, 1, 20, 10, 0))
-                .build();
-
-        when(confirmationRepository.findByDateRange(any(LocalDateTime.class), any(LocalDateTime.class)))
-                .thenReturn(List.of(pc));
+        // A null type and a literal UNKNOWN type end up in the same entry
+        givenOperationRows(operationRow(null, 1, "50.00", "0", 120, 120, 120),
+                operationRow("UNKNOWN", 2, "30.00", "0", 60, 20, 40));
 
         ReportAnalyticsDTO.ProductionByOperation result =
                 reportAnalyticsService.getProductionByOperation(startDate, endDate);
 
         assertEquals(1, result.getEntries().size());
         assertEquals("UNKNOWN", result.getEntries().get(0).getOperationType());
+        assertEquals(3L, result.getEntries().get(0).getConfirmationCount());
+        assertEquals(new BigDecimal("80.00"), result.getEntries().get(0).getTotalProduced());
     }
 
     // ========== getScrapAnalysis ==========
@@ -220,8 +207,8 @@ class ReportAnalyticsServiceTest {
     @Test
     @DisplayName("Should return scrap analysis with product and operation breakdowns")
     void getScrapAnalysis_WithData_ReturnsBreakdowns() {
-        when(confirmationRepository.findByDateRange(any(LocalDateTime.class), any(LocalDateTime.class)))
-                .thenReturn(List.of(confirmation1, confirmation2));
+        givenOperationRows(furnaceRow, casterRow);
+        givenProductRows(new Object[]{"STEEL-001", "Steel Rod", new BigDecimal("15.00"), new BigDecimal("190.00")});
 
         ReportAnalyticsDTO.ScrapAnalysis result = reportAnalyticsService.getScrapAnalysis(startDate, endDate);
 
@@ -233,6 +220,9 @@ class ReportAnalyticsServiceTest {
         // Both confirmations share same product SKU
         assertEquals(1, result.getScrapByProduct().size());
         assertEquals("STEEL-001", result.getScrapByProduct().get(0).getProductSku());
+        assertEquals("Steel Rod", result.getScrapByProduct().get(0).getProductName());
+        // 15 / (190 + 15) * 100 = 7.32%
+        assertEquals(0, new BigDecimal("7.32").compareTo(result.getScrapByProduct().get(0).getScrapPercentage()));
 
         // Two different operation types
         assertEquals(2, result.getScrapByOperation().size());
@@ -241,8 +231,8 @@ class ReportAnalyticsServiceTest {
     @Test
     @DisplayName("Should return empty scrap analysis when no confirmations")
     void getScrapAnalysis_NoData_ReturnsEmpty() {
-        when(confirmationRepository.findByDateRange(any(LocalDateTime.class), any(LocalDateTime.class)))
-                .thenReturn(List.of());
+        givenOperationRows();
+        givenProductRows();
 
         ReportAnalyticsDTO.ScrapAnalysis result = reportAnalyticsService.getScrapAnalysis(startDate, endDate);
 
@@ -255,8 +245,8 @@ class ReportAnalyticsServiceTest {
     @Test
     @DisplayName("Should calculate scrap percentage correctly")
     void getScrapAnalysis_CalculatesPercentageCorrectly() {
-        when(confirmationRepository.findByDateRange(any(LocalDateTime.class), any(LocalDateTime.class)))
-                .thenReturn(List.of(confirmation1));
+        givenOperationRows(furnaceRow);
+        givenProductRows();
 
         ReportAnalyticsDTO.ScrapAnalysis result = reportAnalyticsService.getScrapAnalysis(startDate, endDate);
 
@@ -268,6 +258,23 @@ class ReportAnalyticsServiceTest {
         assertEquals(0, new BigDecimal("4.76").compareTo(furnaceScrap.getScrapPercentage()));
     }
 
+    @Test
+    @DisplayName("Should fall back to UNKNOWN product and SKU as name")
+    void getScrapAnalysis_MissingProductInfo_UsesFallbacks() {
+        givenOperationRows(furnaceRow);
+        givenProductRows(
+                new Object[]{null, null, new BigDecimal("2.00"), new BigDecimal("20.00")},
+                new Object[]{"BAR-002", null, new BigDecimal("3.00"), new BigDecimal("30.00")});
+
+        ReportAnalyticsDTO.ScrapAnalysis result = reportAnalyticsService.getScrapAnalysis(startDate, endDate);
+
+        assertEquals(2, result.getScrapByProduct().size());
+        assertEquals("BAR-002", result.getScrapByProduct().get(0).getProductSku());
+        assertEquals("BAR-002", result.getScrapByProduct().get(0).getProductName());
+        assertEquals("UNKNOWN", result.getScrapByProduct().get(1).getProductSku());
+        assertEquals("Unknown Product", result.getScrapByProduct().get(1).getProductName());
+    }
+
     // ========== getOrderFulfillment ==========
 
     @Test
@@ -332,17 +339,12 @@ class ReportAnalyticsServiceTest {
     @Test
     @DisplayName("Should return inventory balance grouped by type and state")
     void getInventoryBalance_WithData_ReturnsGrouped() {
-        Inventory inv1 = Inventory.builder()
-                .inventoryId(1L).materialId("MAT-001").inventoryType("RM")
-                .state("AVAILABLE").quantity(new BigDecimal("500.00")).unit("T").build();
-        Inventory inv2 = Inventory.builder()
-                .inventoryId(2L).materialId("MAT-002").inventoryType("RM")
-                .state("BLOCKED").quantity(new BigDecimal("100.00")).unit("T").build();
-        Inventory inv3 = Inventory.builder()
-                .inventoryId(3L).materialId("MAT-003").inventoryType("FG")
-                .state("AVAILABLE").quantity(new BigDecimal("200.00")).unit("T").build();
-
-        when(inventoryRepository.findAll()).thenReturn(List.of(inv1, inv2, inv3));
+        when(inventoryRepository.sumQuantityByType()).thenReturn(List.of(
+                new Object[]{"RM", 2L, new BigDecimal("600.00")},
+                new Object[]{"FG", 1L, new BigDecimal("200.00")}));
+        when(inventoryRepository.sumQuantityByState()).thenReturn(List.of(
+                new Object[]{"AVAILABLE", 2L, new BigDecimal("700.00")},
+                new Object[]{"BLOCKED", 1L, new BigDecimal("100.00")}));
 
         ReportAnalyticsDTO.InventoryBalance result = reportAnalyticsService.getInventoryBalance();
 
@@ -361,12 +363,14 @@ class ReportAnalyticsServiceTest {
         assertNotNull(rmEntry);
         assertEquals(2L, rmEntry.getItemCount());
         assertEquals(new BigDecimal("600.00"), rmEntry.getTotalQuantity());
+        verify(inventoryRepository, never()).findAll();
     }
 
     @Test
     @DisplayName("Should return empty inventory balance when no items")
     void getInventoryBalance_NoData_ReturnsEmpty() {
-        when(inventoryRepository.findAll()).thenReturn(List.of());
+        when(inventoryRepository.sumQuantityByType()).thenReturn(List.of());
+        when(inventoryRepository.sumQuantityByState()).thenReturn(List.of());
 
         ReportAnalyticsDTO.InventoryBalance result = reportAnalyticsService.getInventoryBalance();
 
@@ -381,8 +385,7 @@ class ReportAnalyticsServiceTest {
     @Test
     @DisplayName("Should return cycle times grouped by operation type")
     void getOperationCycleTimes_WithData_ReturnsGrouped() {
-        when(confirmationRepository.findByDateRange(any(LocalDateTime.class), any(LocalDateTime.class)))
-                .thenReturn(List.of(confirmation1, confirmation2));
+        givenOperationRows(furnaceRow, casterRow);
 
         ReportAnalyticsDTO.OperationCycleTimes result =
                 reportAnalyticsService.getOperationCycleTimes(startDate, endDate);
@@ -411,17 +414,7 @@ class ReportAnalyticsServiceTest {
     @Test
     @DisplayName("Should skip confirmations without start or end time")
     void getOperationCycleTimes_MissingTimes_SkipsEntry() {
-        ProductionConfirmation noTimePc = ProductionConfirmation.builder()
-                .confirmationId(99L)
-                .operation(meltingOperation)
-                .producedQty(new BigDecimal("50.00"))
-                .scrapQty(BigDecimal.ZERO)
-                .startTime(null) // No start time
-                .endTime(null)   // No end time
-                .build();
-
-        when(confirmationRepository.findByDateRange(any(LocalDateTime.class), any(LocalDateTime.class)))
-                .thenReturn(List.of(noTimePc));
+        givenOperationRows(new Object[]{"FURNACE", 1L, new BigDecimal("50.00"), BigDecimal.ZERO, null, null, null});
 
         ReportAnalyticsDTO.OperationCycleTimes result =
                 reportAnalyticsService.getOperationCycleTimes(startDate, endDate);
@@ -433,8 +426,7 @@ class ReportAnalyticsServiceTest {
     @Test
     @DisplayName("Should return empty cycle times when no confirmations")
     void getOperationCycleTimes_NoData_ReturnsEmpty() {
-        when(confirmationRepository.findByDateRange(any(LocalDateTime.class), any(LocalDateTime.class)))
-                .thenReturn(List.of());
+        givenOperationRows();
 
         ReportAnalyticsDTO.OperationCycleTimes result =
                 reportAnalyticsService.getOperationCycleTimes(startDate, endDate);
@@ -448,20 +440,13 @@ class ReportAnalyticsServiceTest {
     @Test
     @DisplayName("Should return hold analysis with entity type and reason breakdowns")
     void getHoldAnalysis_WithData_ReturnsBreakdowns() {
-        HoldRecord hold1 = HoldRecord.builder()
-                .holdId(1L).entityType("BATCH").entityId(1L)
-                .reason("Quality Issue").status("ACTIVE")
-                .appliedBy("admin").appliedOn(LocalDateTime.now()).build();
-        HoldRecord hold2 = HoldRecord.builder()
-                .holdId(2L).entityType("BATCH").entityId(2L)
-                .reason("Quality Issue").status("RELEASED")
-                .appliedBy("admin").appliedOn(LocalDateTime.now()).build();
-        HoldRecord hold3 = HoldRecord.builder()
-                .holdId(3L).entityType("INVENTORY").entityId(5L)
-                .reason("Contamination").status("ACTIVE")
-                .appliedBy("admin").appliedOn(LocalDateTime.now()).build();
-
-        when(holdRecordRepository.findAll()).thenReturn(List.of(hold1, hold2, hold3));
+        when(holdRecordRepository.countByEntityTypeAndStatus()).thenReturn(List.of(
+                new Object[]{"BATCH", "ACTIVE", 1L},
+                new Object[]{"BATCH", "RELEASED", 1L},
+                new Object[]{"INVENTORY", "ACTIVE", 1L}));
+        when(holdRecordRepository.countByReason(any(Pageable.class))).thenReturn(List.of(
+                new Object[]{"Quality Issue", 2L},
+                new Object[]{"Contamination", 1L}));
 
         ReportAnalyticsDTO.HoldAnalysis result = reportAnalyticsService.getHoldAnalysis();
 
@@ -492,7 +477,8 @@ class ReportAnalyticsServiceTest {
     @Test
     @DisplayName("Should return empty hold analysis when no holds")
     void getHoldAnalysis_NoData_ReturnsEmpty() {
-        when(holdRecordRepository.findAll()).thenReturn(List.of());
+        when(holdRecordRepository.countByEntityTypeAndStatus()).thenReturn(List.of());
+        when(holdRecordRepository.countByReason(any(Pageable.class))).thenReturn(List.of());
 
         ReportAnalyticsDTO.HoldAnalysis result = reportAnalyticsService.getHoldAnalysis();
 
@@ -506,19 +492,14 @@ class ReportAnalyticsServiceTest {
     @Test
     @DisplayName("Should limit top reasons to 10")
     void getHoldAnalysis_ManyReasons_LimitsToTen() {
-        List<HoldRecord> holds = new java.util.ArrayList<>();
-        for (int i = 0; i < 15; i++) {
-            holds.add(HoldRecord.builder()
-                    .holdId((long) i).entityType("BATCH").entityId((long) i)
-                    .reason("Reason " + i).status("ACTIVE")
-                    .appliedBy("admin").appliedOn(LocalDateTime.now()).build());
-        }
-
-        when(holdRecordRepository.findAll()).thenReturn(holds);
+        when(holdRecordRepository.countByEntityTypeAndStatus()).thenReturn(List.of());
+        when(holdRecordRepository.countByReason(any(Pageable.class))).thenReturn(List.of());
 
         ReportAnalyticsDTO.HoldAnalysis result = reportAnalyticsService.getHoldAnalysis();
 
-        assertTrue(result.getTopReasons().size() <= 10);
+        ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+        verify(holdRecordRepository).countByReason(page.capture());
+        assertEquals(10, page.getValue().getPageSize());
     }
 
     // ========== getExecutiveDashboard ==========
@@ -527,8 +508,7 @@ class ReportAnalyticsServiceTest {
     @DisplayName("Should return executive dashboard with all sections populated")
     void getExecutiveDashboard_ReturnsAllSections() {
         // Mock confirmations for production summary and cycle times
-        when(confirmationRepository.findByDateRange(any(LocalDateTime.class), any(LocalDateTime.class)))
-                .thenReturn(List.of(confirmation1, confirmation2));
+        givenOperationRows(furnaceRow, casterRow);
 
         // Mock orders for fulfillment
         when(orderRepository.count()).thenReturn(10L);
@@ -537,17 +517,16 @@ class ReportAnalyticsServiceTest {
         when(orderRepository.findActiveOrders()).thenReturn(List.of());
 
         // Mock inventory
-        Inventory inv = Inventory.builder()
-                .inventoryId(1L).materialId("MAT-001").inventoryType("RM")
-                .state("AVAILABLE").quantity(new BigDecimal("500.00")).unit("T").build();
-        when(inventoryRepository.findAll()).thenReturn(List.of(inv));
+        when(inventoryRepository.sumQuantityByType()).thenReturn(List.<Object[]>of(
+                new Object[]{"RM", 1L, new BigDecimal("500.00")}));
+        when(inventoryRepository.sumQuantityByState()).thenReturn(List.<Object[]>of(
+                new Object[]{"AVAILABLE", 1L, new BigDecimal("500.00")}));
 
         // Mock holds
-        HoldRecord hold = HoldRecord.builder()
-                .holdId(1L).entityType("BATCH").entityId(1L)
-                .reason("Quality Issue").status("ACTIVE")
-                .appliedBy("admin").appliedOn(LocalDateTime.now()).build();
-        when(holdRecordRepository.findAll()).thenReturn(List.of(hold));
+        when(holdRecordRepository.countByEntityTypeAndStatus()).thenReturn(List.<Object[]>of(
+                new Object[]{"BATCH", "ACTIVE", 1L}));
+        when(holdRecordRepository.countByReason(any(Pageable.class))).thenReturn(List.<Object[]>of(
+                new Object[]{"Quality Issue", 1L}));
 
         ReportAnalyticsDTO.ExecutiveDashboard result = reportAnalyticsService.getExecutiveDashboard();
 
@@ -567,14 +546,15 @@ class ReportAnalyticsServiceTest {
     @Test
     @DisplayName("Should limit top cycle times to 5 in executive dashboard")
     void getExecutiveDashboard_LimitsCycleTimesToFive() {
-        when(confirmationRepository.findByDateRange(any(LocalDateTime.class), any(LocalDateTime.class)))
-                .thenReturn(List.of(confirmation1, confirmation2));
+        givenOperationRows(furnaceRow, casterRow);
         when(orderRepository.count()).thenReturn(0L);
         when(orderRepository.countByStatus("COMPLETED")).thenReturn(0L);
         when(orderRepository.countByStatusIn(anyList())).thenReturn(0L);
         when(orderRepository.findActiveOrders()).thenReturn(List.of());
-        when(inventoryRepository.findAll()).thenReturn(List.of());
-        when(holdRecordRepository.findAll()).thenReturn(List.of());
+        when(inventoryRepository.sumQuantityByType()).thenReturn(List.of());
+        when(inventoryRepository.sumQuantityByState()).thenReturn(List.of());
+        when(holdRecordRepository.countByEntityTypeAndStatus()).thenReturn(List.of());
+        when(holdRecordRepository.countByReason(any(Pageable.class))).thenReturn(List.of());
 
         ReportAnalyticsDTO.ExecutiveDashboard result = reportAnalyticsService.getExecutiveDashboard();
 
@@ -587,17 +567,8 @@ class ReportAnalyticsServiceTest {
     @Test
     @DisplayName("Should handle null scrap qty in production summary")
     void getProductionSummary_NullScrap_DefaultsToZero() {
-        ProductionConfirmation pcNoScrap = ProductionConfirmation.builder()
-                .confirmationId(10L)
-                .operation(meltingOperation)
-                .producedQty(new BigDecimal("200.00"))
-                .scrapQty(null) // null scrap
-                .startTime(LocalDateTime.of(2026, 1, 20, 8, 0))
-                .endTime(LocalDateTime.of(2026, 1, 20, 10, 0))
-                .build();
-
-        when(confirmationRepository.findByDateRange(any(LocalDateTime.class), any(LocalDateTime.class)))
-                .thenReturn(List.of(pcNoScrap));
+        // COALESCE(SUM(scrap_qty), 0) when every scrap_qty is null
+        givenOperationRows(new Object[]{"FURNACE", 1L, new BigDecimal("200.00"), 0, 120L, 120L, 120L});
 
         ReportAnalyticsDTO.ProductionSummary result = reportAnalyticsService.getProductionSummary(startDate, endDate);
 
@@ -610,17 +581,7 @@ class ReportAnalyticsServiceTest {
     @Test
     @DisplayName("Should handle null produced qty in production summary")
     void getProductionSummary_NullProduced_DefaultsToZero() {
-        ProductionConfirmation pcNoProduced = ProductionConfirmation.builder()
-                .confirmationId(10L)
-                .operation(meltingOperation)
-                .producedQty(null) // null produced
-                .scrapQty(new BigDecimal("5.00"))
-                .startTime(LocalDateTime.of(2026, 1, 20, 8, 0))
-                .endTime(LocalDateTime.of(2026, 1, 20, 10, 0))
-                .build();
-
-        when(confirmationRepository.findByDateRange(any(LocalDateTime.class), any(LocalDateTime.class)))
-                .thenReturn(List.of(pcNoProduced));
+        givenOperationRows(new Object[]{"FURNACE", 1L, 0, new BigDecimal("5.00"), 120L, 120L, 120L});
 
         ReportAnalyticsDTO.ProductionSummary result = reportAnalyticsService.getProductionSummary(startDate, endDate);
 
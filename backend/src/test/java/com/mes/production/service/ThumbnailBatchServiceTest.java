@@ -0,0 +1,184 @@
+package com.mes.production.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mes.production.dto.ThumbnailBatchDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThumbnailBatchServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ImageProcessingService imageProcessingService;
+    private ThumbnailBatchService thumbnailBatchService;
+
+    @BeforeEach
+    void setUp() {
+        imageProcessingService = new ImageProcessingService();
+        ReflectionTestUtils.setField(imageProcessingService, "backendName", "awt");
+        imageProcessingService.init();
+        thumbnailBatchService = new ThumbnailBatchService(imageProcessingService, objectMapper);
+        ReflectionTestUtils.setField(thumbnailBatchService, "parallelism", 2);
+        ReflectionTestUtils.setField(thumbnailBatchService, "maxFiles", 5);
+        thumbnailBatchService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        thumbnailBatchService.shutdown();
+    }
+
+    private ThumbnailBatchService.ImageUpload upload(String name, int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.GRAY);
+        g.fillRect(0, 0, width, height);
+        g.dispose();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", baos);
+        return upload(name, baos.toByteArray());
+    }
+
+    private ThumbnailBatchService.ImageUpload upload(String name, byte[] content) {
+        return new ThumbnailBatchService.ImageUpload(name, content.length,
+                new MockMultipartFile("files", name, "image/png", content));
+    }
+
+    private Map<String, byte[]> unzip(byte[] zip) throws Exception {
+        Map<String, byte[]> entries = new HashMap<>();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                entries.put(entry.getName(), in.readAllBytes());
+            }
+        }
+        return entries;
+    }
+
+    @Test
+    @DisplayName("Should zip a thumbnail per image with metadata, reporting unreadable files")
+    void writeThumbnails_MixedUploads_ZipsThumbnailsAndMetadata() throws Exception {
+        List<ThumbnailBatchService.ImageUpload> uploads = List.of(
+                upload("line-1/defect.png", 400, 300),
+                upload("scratch.png", 300, 600),
+                upload("notes.txt", "not an image".getBytes()));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        ThumbnailBatchDTO.Summary summary = thumbnailBatchService.writeThumbnails(uploads, 100, out);
+
+        assertEquals(3, summary.getFiles());
+        assertEquals(2, summary.getSucceeded());
+        assertEquals(1, summary.getFailed());
+        assertFalse(summary.isTimedOut());
+
+        Map<String, byte[]> entries = unzip(out.toByteArray());
+        assertEquals(3, entries.size());
+        BufferedImage first = ImageIO.read(new ByteArrayInputStream(entries.get("001-defect.png")));
+        assertEquals(100, first.getWidth());
+        assertEquals(75, first.getHeight());
+        BufferedImage second = ImageIO.read(new ByteArrayInputStream(entries.get("002-scratch.png")));
+        assertEquals(50, second.getWidth());
+        assertEquals(100, second.getHeight());
+
+        JsonNode metadata = objectMapper.readTree(entries.get(ThumbnailBatchService.METADATA_ENTRY));
+        assertEquals(400, metadata.get("items").get(0).get("width").asInt());
+        assertEquals("awt", metadata.get("items").get(0).get("backend").asText());
+        assertEquals("notes.txt", metadata.get("items").get(2).get("fileName").asText());
+        assertFalse(metadata.get("items").get(2).get("error").isNull());
+        assertTrue(metadata.get("items").get(2).get("entry").isNull());
+    }
+
+    @Test
+    @DisplayName("Should report every unfinished image once the request deadline passes")
+    void writeThumbnails_DeadlinePassed_ReportsTimedOut() throws Exception {
+        ReflectionTestUtils.setField(thumbnailBatchService, "maxRequestTimeMs", 0L);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        ThumbnailBatchDTO.Summary summary = thumbnailBatchService.writeThumbnails(
+                List.of(upload("a.png", 200, 200), upload("b.png", 200, 200)), 50, out);
+
+        assertTrue(summary.isTimedOut());
+        assertEquals(2, summary.getFailed());
+        assertTrue(summary.getItems().get(0).getError().startsWith("Timed out"));
+        assertEquals(1, unzip(out.toByteArray()).size());
+    }
+
+    @Test
+    @DisplayName("Should limit images in flight to the per-request memory budget")
+    void window_BoundedByMemoryBudget() {
+        assertEquals(2, thumbnailBatchService.window(150));
+
+        ReflectionTestUtils.setField(thumbnailBatchService, "maxRequestMemoryBytes",
+                ThumbnailBatchService.estimateBytes(500));
+        assertEquals(1, thumbnailBatchService.window(500));
+        assertEquals(2, thumbnailBatchService.window(150));
+    }
+
+    @Test
+    @DisplayName("Should reject empty, oversized and over-budget requests")
+    void validate_InvalidRequests_ThrowException() throws Exception {
+        List<ThumbnailBatchService.ImageUpload> tooMany = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            tooMany.add(upload(i + ".png", new byte[]{1}));
+        }
+        List<ThumbnailBatchService.ImageUpload> one = List.of(upload("a.png", new byte[]{1}));
+
+        assertThrows(RuntimeException.class, () -> thumbnailBatchService.validate(List.of(), 150));
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> thumbnailBatchService.validate(tooMany, 150));
+        assertTrue(ex.getMessage().contains("Too many images"));
+        assertThrows(RuntimeException.class, () -> thumbnailBatchService.validate(one, 2000));
+
+        ReflectionTestUtils.setField(thumbnailBatchService, "maxRequestMemoryBytes", 1024L);
+        ex = assertThrows(RuntimeException.class, () -> thumbnailBatchService.validate(one, 150));
+        assertTrue(ex.getMessage().contains("memory limit"));
+
+        ReflectionTestUtils.setField(thumbnailBatchService, "maxUploadBytes", 1L);
+        List<ThumbnailBatchService.ImageUpload> two = List.of(upload("a.png", new byte[]{1}), upload("b.png", new byte[]{1}));
+        ex = assertThrows(RuntimeException.class, () -> thumbnailBatchService.validate(two, 150));
+        assertTrue(ex.getMessage().contains("too large"));
+    }
+
+    @Test
+    @DisplayName("Should not fail batch images as busy while single-image requests hold every permit")
+    void writeThumbnails_GlobalPermitsTaken_StillProcessed() throws Exception {
+        Semaphore permits = (Semaphore) ReflectionTestUtils.getField(imageProcessingService, "permits");
+        ReflectionTestUtils.setField(imageProcessingService, "acquireTimeoutMs", 10L);
+        int taken = permits.drainPermits();
+        try {
+            ThumbnailBatchDTO.Summary summary = thumbnailBatchService.writeThumbnails(
+                    List.of(upload("a.png", 200, 100), upload("b.png", 100, 200)), 50, new ByteArrayOutputStream());
+
+            assertEquals(2, summary.getSucceeded());
+            assertEquals(200, summary.getItems().get(0).getWidth().intValue());
+        } finally {
+            permits.release(taken);
+        }
+    }
+
+    @Test
+    @DisplayName("Should build safe, unique ZIP entry names")
+    void entryName_SanitizesPathAndExtension() {
+        assertEquals("001-defect.png", ThumbnailBatchService.entryName(0, "C:\\photos\\defect.jpg"));
+        assertEquals("012-crack_1_.png", ThumbnailBatchService.entryName(11, "../crack(1).png"));
+        assertEquals("003-image.png", ThumbnailBatchService.entryName(2, null));
+    }
+}
@@ -13,7 +13,7 @@ import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class UnitConversionServiceTest {
@@ -60,11 +60,18 @@ class UnitConversionServiceTest {
         meterUnit.put("is_base_unit", true);
     }
 
+    @SafeVarargs
+    private void givenUnits(Map<String, Object>... units) {
+        when(jdbcTemplate.queryForList(contains("FROM unit_of_measure"))).thenReturn(List.of(units));
+    }
+
+    private static Map<String, Object> conversion(String from, String to, String factor) {
+        return Map.of("from_unit_code", from, "to_unit_code", to, "conversion_factor", new BigDecimal(factor));
+    }
+
     @Test
     void getAllUnits_shouldReturnAllActiveUnits() {
-        List<Map<String, Object>> units = Arrays.asList(kgUnit, tonsUnit, meterUnit);
-        when(jdbcTemplate.queryForList(contains("FROM unit_of_measure")))
-                .thenReturn(units);
+        givenUnits(kgUnit, tonsUnit, meterUnit);
 
         List<Map<String, Object>> result = unitConversionService.getAllUnits();
 
@@ -73,9 +80,7 @@ class UnitConversionServiceTest {
 
     @Test
     void getUnitsByType_shouldReturnUnitsOfType() {
-        List<Map<String, Object>> weightUnits = Arrays.asList(kgUnit, tonsUnit);
-        when(jdbcTemplate.queryForList(contains("unit_type = ?"), eq("WEIGHT")))
-                .thenReturn(weightUnits);
+        givenUnits(kgUnit, tonsUnit, meterUnit);
 
         List<Map<String, Object>> result = unitConversionService.getUnitsByType("WEIGHT");
 
@@ -84,8 +89,7 @@ class UnitConversionServiceTest {
 
     @Test
     void getUnit_shouldReturnUnitWhenFound() {
-        when(jdbcTemplate.queryForList(contains("unit_code = ?"), eq("KG")))
-                .thenReturn(Collections.singletonList(kgUnit));
+        givenUnits(kgUnit);
 
         Optional<Map<String, Object>> result = unitConversionService.getUnit("KG");
 
@@ -95,8 +99,7 @@ class UnitConversionServiceTest {
 
     @Test
     void getUnit_shouldReturnEmptyWhenNotFound() {
-        when(jdbcTemplate.queryForList(contains("unit_code = ?"), eq("UNKNOWN")))
-                .thenReturn(Collections.emptyList());
+        givenUnits(kgUnit);
 
         Optional<Map<String, Object>> result = unitConversionService.getUnit("UNKNOWN");
 
@@ -105,8 +108,7 @@ class UnitConversionServiceTest {
 
     @Test
     void getBaseUnit_shouldReturnBaseUnitForType() {
-        when(jdbcTemplate.queryForList(contains("is_base_unit = true"), eq("WEIGHT")))
-                .thenReturn(Collections.singletonList(kgUnit));
+        givenUnits(kgUnit, tonsUnit, meterUnit);
 
         Optional<Map<String, Object>> result = unitConversionService.getBaseUnit("WEIGHT");
 
@@ -126,17 +128,9 @@ class UnitConversionServiceTest {
 
     @Test
     void convert_shouldConvertWithDirectFactor() {
-        Map<String, Object> conversionFactor = new HashMap<>();
-        conversionFactor.put("conversion_factor", new BigDecimal("1000"));
-
-        when(jdbcTemplate.queryForList(
-                contains("from_unit_code = ?"),
-                eq("TONS"),
-                eq("KG")))
-                .thenReturn(Collections.singletonList(conversionFactor));
-
-        when(jdbcTemplate.queryForList(contains("unit_code = ?"), eq("KG")))
-                .thenReturn(Collections.singletonList(kgUnit));
+        givenUnits(kgUnit, tonsUnit);
+        when(jdbcTemplate.queryForList(contains("FROM unit_conversion")))
+                .thenReturn(List.of(conversion("TONS", "KG", "1000")));
 
         Optional<BigDecimal> result = unitConversionService.convert(
                 new BigDecimal("5"), "TONS", "KG");
@@ -147,24 +141,10 @@ class UnitConversionServiceTest {
 
     @Test
     void convert_shouldConvertWithReverseFactor() {
-        // Direct factor not found
-        when(jdbcTemplate.queryForList(
-                contains("from_unit_code = ?"),
-                eq("KG"),
-                eq("TONS")))
-                .thenReturn(Collections.emptyList());
-
-        // Reverse factor found
-        Map<String, Object> conversionFactor = new HashMap<>();
-        conversionFactor.put("conversion_factor", new BigDecimal("1000"));
-        when(jdbcTemplate.queryForList(
-                contains("from_unit_code = ?"),
-                eq("TONS"),
-                eq("KG")))
-                .thenReturn(Collections.singletonList(conversionFactor));
-
-        when(jdbcTemplate.queryForList(contains("unit_code = ?"), eq("TONS")))
-                .thenReturn(Collections.singletonList(tonsUnit));
+        // Only TONS -> KG is configured
+        givenUnits(kgUnit, tonsUnit);
+        when(jdbcTemplate.queryForList(contains("FROM unit_conversion")))
+                .thenReturn(List.of(conversion("TONS", "KG", "1000")));
 
         Optional<BigDecimal> result = unitConversionService.convert(
                 new BigDecimal("5000"), "KG", "TONS");
@@ -173,6 +153,40 @@ class UnitConversionServiceTest {
         assertEquals(new BigDecimal("5.000"), result.get());
     }
 
+    @Test
+    void convert_shouldConvertThroughBaseUnit() {
+        givenUnits(kgUnit, tonsUnit, lbUnit);
+        when(jdbcTemplate.queryForList(contains("FROM unit_conversion")))
+                .thenReturn(List.of(conversion("LB", "KG", "0.453592"), conversion("TONS", "KG", "1000")));
+
+        assertEquals(new BigDecimal("0.454"),
+                unitConversionService.convert(new BigDecimal("1000"), "LB", "TONS").orElseThrow());
+        assertEquals(new BigDecimal("2204.62"),
+                unitConversionService.convert(BigDecimal.ONE, "TONS", "LB").orElseThrow());
+    }
+
+    @Test
+    void convert_shouldReturnEmptyForDifferentUnitTypes() {
+        givenUnits(kgUnit, meterUnit);
+
+        assertTrue(unitConversionService.convert(BigDecimal.ONE, "KG", "M").isEmpty());
+    }
+
+    @Test
+    void convert_shouldLoadTablesOnceForManyConversions() {
+        givenUnits(kgUnit, tonsUnit, lbUnit);
+        when(jdbcTemplate.queryForList(contains("FROM unit_conversion")))
+                .thenReturn(List.of(conversion("LB", "KG", "0.453592"), conversion("TONS", "KG", "1000")));
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(unitConversionService.convert(BigDecimal.valueOf(i), "LB", "TONS").isPresent());
+            unitConversionService.getDecimalPrecision("TONS");
+        }
+
+        verify(jdbcTemplate, times(1)).queryForList(contains("FROM unit_of_measure"));
+        verify(jdbcTemplate, times(1)).queryForList(contains("FROM unit_conversion"));
+    }
+
     @Test
     void convert_shouldReturnEmptyForNullInputs() {
         assertTrue(unitConversionService.convert(null, "KG", "TONS").isEmpty());
@@ -182,14 +196,8 @@ class UnitConversionServiceTest {
 
     @Test
     void getConversionFactor_shouldReturnFactorWhenFound() {
-        Map<String, Object> conversionFactor = new HashMap<>();
-        conversionFactor.put("conversion_factor", new BigDecimal("1000"));
-
-        when(jdbcTemplate.queryForList(
-                contains("from_unit_code = ?"),
-                eq("TONS"),
-                eq("KG")))
-                .thenReturn(Collections.singletonList(conversionFactor));
+        when(jdbcTemplate.queryForList(contains("FROM unit_conversion")))
+                .thenReturn(List.of(conversion("TONS", "KG", "1000")));
 
         Optional<BigDecimal> result = unitConversionService.getConversionFactor("TONS", "KG");
 
@@ -199,11 +207,8 @@ class UnitConversionServiceTest {
 
     @Test
     void getConversionFactor_shouldReturnEmptyWhenNotFound() {
-        when(jdbcTemplate.queryForList(
-                contains("from_unit_code = ?"),
-                eq("UNKNOWN1"),
-                eq("UNKNOWN2")))
-                .thenReturn(Collections.emptyList());
+        when(jdbcTemplate.queryForList(contains("FROM unit_conversion")))
+                .thenReturn(List.of(conversion("TONS", "KG", "1000")));
 
         Optional<BigDecimal> result = unitConversionService.getConversionFactor("UNKNOWN1", "UNKNOWN2");
 
@@ -217,20 +222,14 @@ class UnitConversionServiceTest {
 
     @Test
     void areUnitsCompatible_shouldReturnTrueForSameType() {
-        when(jdbcTemplate.queryForList(contains("unit_code = ?"), eq("KG")))
-                .thenReturn(Collections.singletonList(kgUnit));
-        when(jdbcTemplate.queryForList(contains("unit_code = ?"), eq("TONS")))
-                .thenReturn(Collections.singletonList(tonsUnit));
+        givenUnits(kgUnit, tonsUnit);
 
         assertTrue(unitConversionService.areUnitsCompatible("KG", "TONS"));
     }
 
     @Test
     void areUnitsCompatible_shouldReturnFalseForDifferentTypes() {
-        when(jdbcTemplate.queryForList(contains("unit_code = ?"), eq("KG")))
-                .thenReturn(Collections.singletonList(kgUnit));
-        when(jdbcTemplate.queryForList(contains("unit_code = ?"), eq("M")))
-                .thenReturn(Collections.singletonList(meterUnit));
+        givenUnits(kgUnit, meterUnit);
 
         assertFalse(unitConversionService.areUnitsCompatible("KG", "M"));
     }
@@ -243,8 +242,7 @@ class UnitConversionServiceTest {
 
     @Test
     void getDecimalPrecision_shouldReturnConfiguredPrecision() {
-        when(jdbcTemplate.queryForList(contains("unit_code = ?"), eq("TONS")))
-                .thenReturn(Collections.singletonList(tonsUnit));
+        givenUnits(kgUnit, tonsUnit);
 
         int result = unitConversionService.getDecimalPrecision("TONS");
 
@@ -253,14 +251,49 @@ class UnitConversionServiceTest {
 
     @Test
     void getDecimalPrecision_shouldReturnDefaultForUnknownUnit() {
-        when(jdbcTemplate.queryForList(contains("unit_code = ?"), eq("UNKNOWN")))
-                .thenReturn(Collections.emptyList());
+        givenUnits(kgUnit);
 
         int result = unitConversionService.getDecimalPrecision("UNKNOWN");
 
         assertEquals(2, result); // Default
     }
 
+    @Test
+    void reloadGraph_shouldPickUpChangedConversions() {
+        givenUnits(kgUnit, tonsUnit);
+        when(jdbcTemplate.queryForList(contains("FROM unit_conversion")))
+                .thenReturn(List.of(conversion("TONS", "KG", "1000")))
+                .thenReturn(List.of(conversion("TONS", "KG", "907.185")));
+        assertEquals(new BigDecimal("1000.00"),
+                unitConversionService.convert(BigDecimal.ONE, "TONS", "KG").orElseThrow());
+
+        unitConversionService.reloadGraph();
+
+        assertEquals(new BigDecimal("907.19"),
+                unitConversionService.convert(BigDecimal.ONE, "TONS", "KG").orElseThrow());
+    }
+
+    @Test
+    void refreshGraph_shouldKeepCurrentGraphWhenReloadFails() {
+        givenUnits(kgUnit, tonsUnit);
+        when(jdbcTemplate.queryForList(contains("FROM unit_conversion")))
+                .thenReturn(List.of(conversion("TONS", "KG", "1000")))
+                .thenThrow(new RuntimeException("connection refused"));
+        unitConversionService.getUnit("KG");
+
+        unitConversionService.refreshGraph();
+
+        assertEquals(new BigDecimal("1000.00"),
+                unitConversionService.convert(BigDecimal.ONE, "TONS", "KG").orElseThrow());
+    }
+
+    @Test
+    void refreshGraph_shouldNotLoadBeforeFirstUse() {
+        unitConversionService.refreshGraph();
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
     @Test
     void isValidQuantity_shouldReturnTrueForPositiveQuantity() {
         assertTrue(unitConversionService.isValidQuantity(new BigDecimal("100")));
@@ -276,8 +309,7 @@ class UnitConversionServiceTest {
 
     @Test
     void formatQuantity_shouldFormatWithCorrectPrecision() {
-        when(jdbcTemplate.queryForList(contains("unit_code = ?"), eq("KG")))
-                .thenReturn(Collections.singletonList(kgUnit));
+        givenUnits(kgUnit);
 
         String result = unitConversionService.formatQuantity(new BigDecimal("100.5678"), "KG");
 
@@ -3,6 +3,7 @@ package com.mes.production.service;
 import com.mes.production.dto.UserDTO;
 import com.mes.production.entity.User;
 import com.mes.production.repository.UserRepository;
+import com.mes.production.security.JwtPrincipalCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -36,6 +37,9 @@ class UserServiceTest {
     @Mock
     private AuditService auditService;
 
+    @Mock
+    private JwtPrincipalCache principalCache;
+
     @InjectMocks
     private UserService userService;
 
@@ -247,6 +251,7 @@ class UserServiceTest {
         assertEquals("INACTIVE", testUser.getStatus());
         verify(userRepository).save(testUser);
         verify(auditService).logStatusChange(eq("USER"), eq(1L), anyString(), eq("INACTIVE"));
+        verify(principalCache).invalidate("test@example.com");
     }
 
     @Test
@@ -264,6 +269,7 @@ class UserServiceTest {
         assertDoesNotThrow(() -> userService.changePassword(1L, request));
         verify(userRepository).save(testUser);
         verify(auditService).logUpdate(eq("USER"), eq(1L), eq("password"), any(), anyString());
+        verify(principalCache).invalidate("test@example.com");
     }
 
     @Test
@@ -293,6 +299,7 @@ class UserServiceTest {
         assertDoesNotThrow(() -> userService.resetPassword(1L, request));
         verify(userRepository).save(testUser);
         verify(auditService).logUpdate(eq("USER"), eq(1L), eq("password"), any(), anyString());
+        verify(principalCache).invalidate("test@example.com");
     }
 
     @Test
@@ -316,5 +323,6 @@ class UserServiceTest {
 
         assertEquals("INACTIVE", testUser.getStatus());
         verify(auditService).logStatusChange(eq("USER"), eq(1L), anyString(), eq("INACTIVE"));
+        verify(principalCache).invalidate("test@example.com");
     }
 }
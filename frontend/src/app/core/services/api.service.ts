@@ -16,6 +16,10 @@ import {
   // Batches
   Batch,
   BatchGenealogy,
+  BatchTraceGraph,
+  GenealogyIndexRequest,
+  GenealogyIndexResult,
+  GenealogyIndexStats,
   BatchSplitRequest,
   BatchSplitResponse,
   BatchMergeRequest,
@@ -50,6 +54,7 @@ import {
   ProductionConfirmationRequest,
   ProductionConfirmationResponse,
   ProductionReversalResponse,
+  ProductionBulkResponse,
   CanReverseResponse,
   // BOM
   BomTreeResponse,
@@ -105,7 +110,12 @@ import {
   InventoryBalance,
   OperationCycleTimes,
   HoldAnalysis,
-  ExecutiveDashboard
+  ExecutiveDashboard,
+  RollupStatus,
+  // Export Jobs
+  ExportJob,
+  ExportJobRequest,
+  ExportQueueStats
 } from '../../shared/models';
 
 /**
@@ -156,6 +166,10 @@ export class ApiService {
     return this.http.post<ProductionConfirmationResponse>(`${environment.apiUrl}/production/confirm`, request);
   }
 
+  confirmProductionBulk(requests: ProductionConfirmationRequest[]): Observable<ProductionBulkResponse> {
+    return this.http.post<ProductionBulkResponse>(`${environment.apiUrl}/production/confirm/bulk`, requests);
+  }
+
   getConfirmationById(id: number): Observable<ProductionConfirmationResponse> {
     return this.http.get<ProductionConfirmationResponse>(`${environment.apiUrl}/production/confirmations/${id}`);
   }
@@ -302,6 +316,47 @@ export class ApiService {
     return this.http.get<BatchGenealogy>(`${environment.apiUrl}/batches/${batchId}/genealogy`);
   }
 
+  traceBatchForward(batchId: number, maxDepth?: number, relationTypes?: string[]): Observable<BatchTraceGraph> {
+    return this.http.get<BatchTraceGraph>(`${environment.apiUrl}/batches/${batchId}/trace/forward`,
+      { params: this.traceParams(maxDepth, relationTypes) });
+  }
+
+  traceBatchBackward(batchId: number, maxDepth?: number, relationTypes?: string[]): Observable<BatchTraceGraph> {
+    return this.http.get<BatchTraceGraph>(`${environment.apiUrl}/batches/${batchId}/trace/backward`,
+      { params: this.traceParams(maxDepth, relationTypes) });
+  }
+
+  findBatchDescendants(request: GenealogyIndexRequest): Observable<GenealogyIndexResult> {
+    return this.http.post<GenealogyIndexResult>(`${environment.apiUrl}/batches/genealogy-index/descendants`, request);
+  }
+
+  findBatchAncestors(request: GenealogyIndexRequest): Observable<GenealogyIndexResult> {
+    return this.http.post<GenealogyIndexResult>(`${environment.apiUrl}/batches/genealogy-index/ancestors`, request);
+  }
+
+  findCommonBatchAncestors(request: GenealogyIndexRequest): Observable<GenealogyIndexResult> {
+    return this.http.post<GenealogyIndexResult>(`${environment.apiUrl}/batches/genealogy-index/common-ancestors`, request);
+  }
+
+  getGenealogyIndexStats(): Observable<GenealogyIndexStats> {
+    return this.http.get<GenealogyIndexStats>(`${environment.apiUrl}/batches/genealogy-index/stats`);
+  }
+
+  rebuildGenealogyIndex(): Observable<GenealogyIndexStats> {
+    return this.http.post<GenealogyIndexStats>(`${environment.apiUrl}/batches/genealogy-index/rebuild`, {});
+  }
+
+  private traceParams(maxDepth?: number, relationTypes?: string[]): HttpParams {
+    let params = new HttpParams();
+    if (maxDepth) {
+      params = params.set('maxDepth', maxDepth.toString());
+    }
+    (relationTypes || []).forEach(type => {
+      params = params.append('relationTypes', type);
+    });
+    return params;
+  }
+
   getAvailableBatches(materialId?: string): Observable<Batch[]> {
     let params = new HttpParams();
     if (materialId) {
@@ -1520,4 +1575,42 @@ export class ApiService {
   getExecutiveDashboard(): Observable<ExecutiveDashboard> {
     return this.http.get<ExecutiveDashboard>(`${environment.apiUrl}/reports/analytics/executive/dashboard`);
   }
+
+  getRollupStatus(): Observable<RollupStatus> {
+    return this.http.get<RollupStatus>(`${environment.apiUrl}/reports/analytics/rollup/status`);
+  }
+
+  rebuildRollup(startDate: string, endDate: string): Observable<RollupStatus> {
+    return this.http.post<RollupStatus>(`${environment.apiUrl}/reports/analytics/rollup/rebuild`, {}, {
+      params: { startDate, endDate }
+    });
+  }
+
+  // ============================================================
+  // Export Jobs
+  // ============================================================
+
+  submitExportJob(request: ExportJobRequest): Observable<ExportJob> {
+    return this.http.post<ExportJob>(`${environment.apiUrl}/export-jobs`, request);
+  }
+
+  getExportJobs(): Observable<ExportJob[]> {
+    return this.http.get<ExportJob[]>(`${environment.apiUrl}/export-jobs`);
+  }
+
+  getExportJob(jobId: string): Observable<ExportJob> {
+    return this.http.get<ExportJob>(`${environment.apiUrl}/export-jobs/${jobId}`);
+  }
+
+  downloadExportJob(jobId: string): Observable<Blob> {
+    return this.http.get(`${environment.apiUrl}/export-jobs/${jobId}/download`, { responseType: 'blob' });
+  }
+
+  cancelExportJob(jobId: string): Observable<ExportJob> {
+    return this.http.delete<ExportJob>(`${environment.apiUrl}/export-jobs/${jobId}`);
+  }
+
+  getExportQueueStats(): Observable<ExportQueueStats> {
+    return this.http.get<ExportQueueStats>(`${environment.apiUrl}/export-jobs/stats`);
+  }
 }
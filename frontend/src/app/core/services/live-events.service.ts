@@ -0,0 +1,126 @@
+import { Injectable, NgZone } from '@angular/core';
+import { Observable } from 'rxjs';
+import { environment } from '../../../environments/environment';
+import { AuthService } from './auth.service';
+import { LiveMessage, LiveTopic } from '../../shared/models';
+
+/**
+ * Live shop-floor events from /api/live/stream (Server-Sent Events).
+ *
+ * Uses fetch rather than EventSource so the JWT travels in the Authorization header.
+ * After a dropped connection it reconnects with the last received id, and the server
+ * replays what was missed or sends a sync asking for a reload.
+ */
+@Injectable({
+  providedIn: 'root'
+})
+export class LiveEventsService {
+  private static readonly RECONNECT_DELAY_MS = 3000;
+
+  constructor(
+    private authService: AuthService,
+    private zone: NgZone
+  ) {}
+
+  stream(topics: LiveTopic[] = [], operationType?: string): Observable<LiveMessage> {
+    return new Observable<LiveMessage>(subscriber => {
+      const controller = new AbortController();
+      let lastEventId: string | null = null;
+      let reconnectTimer: ReturnType<typeof setTimeout> | undefined;
+
+      const connect = () => {
+        const params = new URLSearchParams();
+        topics.forEach(topic => params.append('topics', topic));
+        if (operationType) {
+          params.set('operationType', operationType);
+        }
+        const headers: Record<string, string> = { Accept: 'text/event-stream' };
+        const token = this.authService.getToken();
+        if (token) {
+          headers['Authorization'] = `Bearer ${token}`;
+        }
+        if (lastEventId) {
+          headers['Last-Event-ID'] = lastEventId;
+        }
+
+        fetch(`${environment.apiUrl}/live/stream?${params}`, { headers, signal: controller.signal })
+          .then(async response => {
+            if (response.status === 401 || response.status === 403) {
+              controller.abort();
+              this.zone.run(() => subscriber.error(new Error(`Live stream refused: ${response.status}`)));
+              return;
+            }
+            if (!response.ok || !response.body) {
+              throw new Error(`Live stream failed: ${response.status}`);
+            }
+            const reader = response.body.getReader();
+            const decoder = new TextDecoder();
+            let buffer = '';
+            while (true) {
+              const { value, done } = await reader.read();
+              if (done) {
+                break;
+              }
+              buffer += decoder.decode(value, { stream: true }).replace(/\r\n/g, '\n');
+              let boundary = buffer.indexOf('\n\n');
+              while (boundary >= 0) {
+                const parsed = this.parseBlock(buffer.slice(0, boundary));
+                buffer = buffer.slice(boundary + 2);
+                if (parsed) {
+                  lastEventId = parsed.id ?? lastEventId;
+                  this.zone.run(() => subscriber.next(parsed.message));
+                }
+                boundary = buffer.indexOf('\n\n');
+              }
+            }
+          })
+          .catch(err => {
+            if (!controller.signal.aborted) {
+              console.error('Live stream error:', err);
+            }
+          })
+          .finally(() => {
+            if (!controller.signal.aborted) {
+              reconnectTimer = setTimeout(connect, LiveEventsService.RECONNECT_DELAY_MS);
+            }
+          });
+      };
+
+      // Keep the long-running read loop out of Angular change detection
+      this.zone.runOutsideAngular(connect);
+
+      return () => {
+        controller.abort();
+        clearTimeout(reconnectTimer);
+      };
+    });
+  }
+
+  private parseBlock(block: string): { id?: string; message: LiveMessage } | null {
+    let id: string | undefined;
+    let name = 'message';
+    const data: string[] = [];
+    for (const line of block.split('\n')) {
+      if (!line || line.startsWith(':')) {
+        continue; // Keep-alive comment
+      }
+      const colon = line.indexOf(':');
+      const field = colon >= 0 ? line.slice(0, colon) : line;
+      const value = colon >= 0 ? line.slice(colon + 1).replace(/^ /, '') : '';
+      if (field === 'id') {
+        id = value;
+      } else if (field === 'event') {
+        name = value;
+      } else if (field === 'data') {
+        data.push(value);
+      }
+    }
+    if (data.length === 0) {
+      return null;
+    }
+    const payload = JSON.parse(data.join('\n'));
+    return name === 'SYNC'
+      ? { id, message: { kind: 'sync', sync: payload } }
+      : { id, message: { kind: 'event', event: payload } };
+  }
+}
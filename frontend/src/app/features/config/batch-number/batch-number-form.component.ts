@@ -34,6 +34,7 @@ export class BatchNumberFormComponent implements OnInit {
       includeDate: [false],
       sequenceLength: [3, [Validators.required, Validators.min(1), Validators.max(10)]],
       sequenceReset: ['DAILY'],
+      sequenceBlockSize: [1, [Validators.min(1)]],
       priority: [100],
       status: ['ACTIVE']
     });
@@ -63,6 +64,7 @@ export class BatchNumberFormComponent implements OnInit {
           includeDate: item.includeDate,
           sequenceLength: item.sequenceLength,
           sequenceReset: item.sequenceReset,
+          sequenceBlockSize: item.sequenceBlockSize ?? 1,
           priority: item.priority,
           status: item.status
         });
@@ -1,11 +1,12 @@
 import { ComponentFixture, TestBed } from '@angular/core/testing';
 import { RouterTestingModule } from '@angular/router/testing';
 import { HttpClientTestingModule } from '@angular/common/http/testing';
-import { of } from 'rxjs';
+import { NEVER, of } from 'rxjs';
 
 import { DashboardComponent } from './dashboard.component';
 import { ApiService } from '../../../core/services/api.service';
 import { ChartService } from '../../../core/services/chart.service';
+import { LiveEventsService } from '../../../core/services/live-events.service';
 import { SharedModule } from '../../../shared/shared.module';
 
 describe('DashboardComponent', () => {
@@ -72,7 +73,8 @@ describe('DashboardComponent', () => {
       declarations: [DashboardComponent],
       providers: [
         { provide: ApiService, useValue: spy },
-        { provide: ChartService, useValue: chartSpy }
+        { provide: ChartService, useValue: chartSpy },
+        { provide: LiveEventsService, useValue: { stream: () => NEVER } }
       ]
     }).compileComponents();
 
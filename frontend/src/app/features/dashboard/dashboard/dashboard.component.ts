@@ -1,7 +1,9 @@
 import { Component, OnInit, OnDestroy, ViewChild, ElementRef, AfterViewInit } from '@angular/core';
 import { Router } from '@angular/router';
+import { Subscription, debounceTime, skip } from 'rxjs';
 import { ApiService } from '../../../core/services/api.service';
 import { ChartService, CHART_FONT } from '../../../core/services/chart.service';
+import { LiveEventsService } from '../../../core/services/live-events.service';
 
 interface DashboardSummary {
   totalOrders: number;
@@ -91,14 +93,18 @@ export class DashboardComponent implements OnInit, OnDestroy, AfterViewInit {
   activeBatchCount = 0;
   loading = true;
 
+  private liveSubscription?: Subscription;
+
   constructor(
     private apiService: ApiService,
     private router: Router,
-    private chartService: ChartService
+    private chartService: ChartService,
+    private liveEventsService: LiveEventsService
   ) {}
 
   ngOnInit(): void {
     this.loadDashboardData();
+    this.subscribeToLiveEvents();
   }
 
   ngAfterViewInit(): void {
@@ -107,9 +113,34 @@ export class DashboardComponent implements OnInit, OnDestroy, AfterViewInit {
   }
 
   ngOnDestroy(): void {
+    this.liveSubscription?.unsubscribe();
     this.chartService.disposeAll();
   }
 
+  /**
+   * Refresh the summary when the shop floor changes instead of polling.
+   * The first message is the connection's sync, already covered by the initial load.
+   */
+  private subscribeToLiveEvents(): void {
+    this.liveSubscription = this.liveEventsService
+      .stream(['confirmations', 'operations', 'holds', 'batches'])
+      .pipe(skip(1), debounceTime(1000))
+      .subscribe({
+        next: () => this.refreshSummary(),
+        error: (err) => console.error('Live dashboard updates unavailable:', err)
+      });
+  }
+
+  private refreshSummary(): void {
+    this.apiService.getDashboardSummary().subscribe({
+      next: (data) => {
+        this.summary = data;
+        this.lastUpdated = new Date();
+      },
+      error: (err) => console.error('Error refreshing dashboard summary:', err)
+    });
+  }
+
   loadDashboardData(): void {
     this.loading = true;
     this.lastUpdated = new Date();
@@ -104,6 +104,79 @@ export interface ProductionInfo {
   productionDate: string; // LocalDateTime
 }
 
+/**
+ * Matches: BatchDTO.TraceGraph
+ */
+export interface BatchTraceGraph {
+  rootBatchId: number;
+  direction: 'FORWARD' | 'BACKWARD';
+  maxDepth: number;
+  relationTypes: string[];
+  nodes: BatchTraceNode[];
+  edges: BatchTraceEdge[];
+  truncated: boolean;
+}
+
+/**
+ * Matches: BatchDTO.TraceNode
+ */
+export interface BatchTraceNode {
+  batchId: number;
+  batchNumber: string;
+  materialId: string;
+  materialName: string;
+  quantity: number;
+  unit: string;
+  status: string;
+  depth: number;
+  tracedQuantity?: number;
+}
+
+/**
+ * Matches: BatchDTO.TraceEdge
+ */
+export interface BatchTraceEdge {
+  relationId: number;
+  parentBatchId: number;
+  childBatchId: number;
+  operationId?: number;
+  relationType: string;
+  quantityConsumed: number;
+  depth: number;
+}
+
+/**
+ * Matches: BatchDTO.GenealogyIndexRequest
+ */
+export interface GenealogyIndexRequest {
+  batchIds: number[];
+  maxDepth?: number;
+}
+
+/**
+ * Matches: BatchDTO.GenealogyIndexResult
+ */
+export interface GenealogyIndexResult {
+  query: 'DESCENDANTS' | 'ANCESTORS' | 'COMMON_ANCESTORS';
+  sourceBatchIds: number[];
+  batchIds: number[];
+  count: number;
+  elapsedMicros: number;
+}
+
+/**
+ * Matches: BatchDTO.GenealogyIndexStats
+ */
+export interface GenealogyIndexStats {
+  enabled: boolean;
+  ready: boolean;
+  batchCount: number;
+  relationCount: number;
+  pendingChanges: number;
+  lastRebuildMillis: number;
+  lastRebuiltAt?: string; // LocalDateTime
+}
+
 /**
  * Matches: BatchDTO.SplitRequest
  */
@@ -53,6 +53,7 @@ export interface BatchNumberConfig {
   includeDate: boolean;
   sequenceLength: number;
   sequenceReset: string;
+  sequenceBlockSize?: number;
   priority: number;
   status: string;
   createdOn?: string;
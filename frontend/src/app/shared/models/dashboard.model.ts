@@ -20,6 +20,9 @@ export interface DashboardSummary {
   batchesPendingApproval: number;
   recentActivity: RecentActivity[];
   auditActivity: AuditActivity[];
+  // Shared snapshot: when it was computed and its age when served
+  generatedAt?: string;
+  snapshotAgeMs?: number;
 }
 
 /**
@@ -0,0 +1,57 @@
+/**
+ * Export Job Models - Must match backend ExportJobDTO exactly.
+ * See CONVENTIONS.md for contract rules.
+ */
+
+export type ExportReportType =
+  | 'PDF_ORDERS'
+  | 'PDF_INVENTORY'
+  | 'EXCEL_ORDERS'
+  | 'EXCEL_INVENTORY'
+  | 'DATA_EXPORT';
+
+export type ExportJobStatus = 'QUEUED' | 'RUNNING' | 'COMPLETED' | 'FAILED' | 'CANCELLED';
+
+/**
+ * Matches: ExportJobDTO.Request
+ * dataset, format and filters only apply to DATA_EXPORT.
+ */
+export interface ExportJobRequest {
+  reportType: ExportReportType;
+  dataset?: 'batches' | 'inventory' | 'inventory-movements' | 'confirmations' | 'audit';
+  format?: 'csv' | 'ndjson';
+  fromDate?: string;
+  toDate?: string;
+  status?: string;
+  gzip?: boolean;
+}
+
+/**
+ * Matches: ExportJobDTO.Job
+ */
+export interface ExportJob {
+  jobId: string;
+  reportType: ExportReportType;
+  dataset?: string;
+  status: ExportJobStatus;
+  requestedBy: string;
+  deduplicated: boolean;
+  bytesWritten: number;
+  fileName: string;
+  errorMessage?: string;
+  createdAt: string;
+  startedAt?: string;
+  completedAt?: string;
+  expiresAt?: string;
+}
+
+/**
+ * Matches: ExportJobDTO.QueueStats
+ */
+export interface ExportQueueStats {
+  queued: number;
+  running: number;
+  retained: number;
+  workers: number;
+  queueCapacity: number;
+}
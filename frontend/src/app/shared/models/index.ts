@@ -32,3 +32,9 @@ export * from './user.model';
 
 // Report Analytics
 export * from './report-analytics.model';
+
+// Live Events
+export * from './live-event.model';
+
+// Export Jobs
+export * from './export-job.model';
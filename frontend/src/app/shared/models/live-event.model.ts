@@ -0,0 +1,45 @@
+/**
+ * Live Event Models - Must match backend LiveEventDTO exactly.
+ * See CONVENTIONS.md for contract rules.
+ */
+
+export type LiveTopic = 'confirmations' | 'operations' | 'holds' | 'batches';
+
+export type LiveEventType =
+  | 'CONFIRMATION_CREATED'
+  | 'OPERATION_STATUS_CHANGED'
+  | 'HOLD_APPLIED'
+  | 'HOLD_RELEASED'
+  | 'BATCH_APPROVED'
+  | 'BATCH_REJECTED';
+
+/**
+ * Matches: LiveEventDTO.Event
+ */
+export interface LiveEvent {
+  sequence: number;
+  topic: LiveTopic;
+  type: LiveEventType;
+  entityType: string;
+  entityId: number;
+  previousStatus?: string;
+  status?: string;
+  operationType?: string;
+  operationId?: number;
+  quantity?: number;
+  changedBy?: string;
+  timestamp: string;
+}
+
+/**
+ * Matches: LiveEventDTO.Sync
+ * Sent first on every connection; resyncRequired means reload current state.
+ */
+export interface LiveSync {
+  sequence: number;
+  resyncRequired: boolean;
+}
+
+export type LiveMessage =
+  | { kind: 'event'; event: LiveEvent }
+  | { kind: 'sync'; sync: LiveSync };
@@ -20,6 +20,8 @@ export interface PagedResponse<T> {
   sortBy?: string;
   sortDirection?: string;
   filterValue?: string;
+  nextCursor?: string;  // Keyset paging: cursor for the next page, absent on the last page
+  totalMode?: 'EXACT' | 'ESTIMATE' | 'NONE';  // NONE: totalElements/totalPages are -1
 }
 
 /**
@@ -37,6 +39,8 @@ export interface PageRequest {
   category?: string;  // GAP-021: Equipment category filter
   dateFrom?: string;
   dateTo?: string;
+  cursor?: string;  // Keyset paging: '' for the first page, then the previous nextCursor
+  total?: 'EXACT' | 'ESTIMATE' | 'NONE';
 }
 
 /**
@@ -82,6 +86,8 @@ export function toQueryParams(request: PageRequest): Record<string, string | num
   if (request.category) params['category'] = request.category;  // GAP-021
   if (request.dateFrom) params['dateFrom'] = request.dateFrom;
   if (request.dateTo) params['dateTo'] = request.dateTo;
+  if (request.cursor !== undefined) params['cursor'] = request.cursor;
+  if (request.total) params['total'] = request.total;
 
   return params;
 }
@@ -190,6 +190,28 @@ export interface ProductionReversalResponse {
   nextOperationNewStatus?: string;
 }
 
+/**
+ * Matches: ProductionConfirmationDTO.BulkItemResult
+ */
+export interface ProductionBulkItemResult {
+  index: number;
+  operationId?: number;
+  success: boolean;
+  confirmation?: ProductionConfirmationResponse;
+  error?: string;
+}
+
+/**
+ * Matches: ProductionConfirmationDTO.BulkResponse
+ * Response from POST /api/production/confirm/bulk
+ */
+export interface ProductionBulkResponse {
+  total: number;
+  succeeded: number;
+  failed: number;
+  results: ProductionBulkItemResult[];
+}
+
 /**
  * R-13: Response from canReverseConfirmation endpoint
  */
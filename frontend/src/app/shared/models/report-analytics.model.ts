@@ -109,3 +109,13 @@ export interface ExecutiveDashboard {
   holdAnalysis: HoldAnalysis;
   topCycleTimes: CycleTimeEntry[];
 }
+
+export interface RollupStatus {
+  enabled: boolean;
+  ready: boolean;
+  rebuilding: boolean;
+  rowCount: number;
+  lastRebuiltAt?: string;
+  lastRebuildFrom?: string;
+  lastRebuildTo?: string;
+}